@@ -0,0 +1,164 @@
+package benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * BenchmarkData writes input files of a requested size for the benchmarks. Violations repeat the
+ * rows of the sample parking.csv (with fresh ticket numbers) so their value distribution matches
+ * the real data; properties are random rows spread over the ZIP codes of the sample population.txt.
+ * Files are written once per JVM into a temporary directory and reused by every trial.
+ *
+ * The sample files are looked up in the directory given by -Dsample.dir, then in the working
+ * directory and its parent, so the benchmarks can be run from the project root or from benchmarks/.
+ */
+public final class BenchmarkData {
+
+    private static final long SEED = 42;
+    private static final Map<String, Path> files = new HashMap<>();
+    private static Path directory;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Violations in the given format ("csv", "json" or "ndjson").
+     */
+    public static synchronized Path violations(String format, int rows) throws IOException {
+        String key = "violations-" + rows + "." + format;
+        Path file = files.get(key);
+        if (file == null) {
+            file = directory().resolve(key);
+            writeViolations(file, format, rows);
+            file.toFile().deleteOnExit();
+            files.put(key, file);
+        }
+        return file;
+    }
+
+    /**
+     * A property CSV with the three columns HousingReader needs.
+     */
+    public static synchronized Path properties(int rows) throws IOException {
+        String key = "properties-" + rows + ".csv";
+        Path file = files.get(key);
+        if (file == null) {
+            file = directory().resolve(key);
+            List<Integer> zipCodes = zipCodes();
+            Random random = new Random(SEED);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write("market_value,total_livable_area,zip_code");
+                writer.newLine();
+                for (int i = 0; i < rows; i++) {
+                    writer.write(Integer.toString(50000 + random.nextInt(950000)));
+                    writer.write(".0,");
+                    writer.write(Integer.toString(500 + random.nextInt(4500)));
+                    writer.write(".0,");
+                    writer.write(Integer.toString(zipCodes.get(random.nextInt(zipCodes.size()))));
+                    writer.newLine();
+                }
+            }
+            file.toFile().deleteOnExit();
+            files.put(key, file);
+        }
+        return file;
+    }
+
+    /**
+     * A population file; the first rows are the sample population.txt, the rest made-up ZIP codes.
+     */
+    public static synchronized Path populations(int rows) throws IOException {
+        String key = "population-" + rows + ".txt";
+        Path file = files.get(key);
+        if (file == null) {
+            file = directory().resolve(key);
+            List<String> sample = Files.readAllLines(sample("population.txt"));
+            Random random = new Random(SEED);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < rows; i++) {
+                    writer.write(i < sample.size() ? sample.get(i) : (10000 + i % 90000) + " " + random.nextInt(100000));
+                    writer.newLine();
+                }
+            }
+            file.toFile().deleteOnExit();
+            files.put(key, file);
+        }
+        return file;
+    }
+
+    /**
+     * ZIP codes of the sample population.txt, the ones the menu queries are asked about.
+     */
+    public static List<Integer> zipCodes() throws IOException {
+        List<Integer> zipCodes = new ArrayList<>();
+        for (String line : Files.readAllLines(sample("population.txt"))) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty()) {
+                zipCodes.add(Integer.parseInt(trimmed.split("\\s+")[0]));
+            }
+        }
+        return zipCodes;
+    }
+
+    public static Path sample(String name) {
+        String configured = System.getProperty("sample.dir");
+        if (configured != null) {
+            return Paths.get(configured, name);
+        }
+        Path local = Paths.get(name);
+        return Files.exists(local) ? local : Paths.get("..", name);
+    }
+
+    private static void writeViolations(Path file, String format, int rows) throws IOException {
+        List<String> sample = Files.readAllLines(sample("parking.csv"));
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            if (format.equals("json")) {
+                writer.write('[');
+            }
+            for (int i = 0; i < rows; i++) {
+                // date,fine,violation,plate_id,state,ticket_number,zip_code
+                String[] fields = sample.get(i % sample.size()).split(",", -1);
+                long ticket = 1_000_000L + i;
+                if (format.equals("csv")) {
+                    fields[5] = Long.toString(ticket);
+                    writer.write(String.join(",", fields));
+                    writer.newLine();
+                    continue;
+                }
+                if (format.equals("json") && i > 0) {
+                    writer.write(',');
+                }
+                writer.write("{\"ticket_number\":" + ticket
+                        + ",\"plate_id\":\"" + fields[3]
+                        + "\",\"date\":\"" + fields[0]
+                        + "\",\"zip_code\":\"" + (fields.length > 6 ? fields[6] : "")
+                        + "\",\"violation\":\"" + fields[2]
+                        + "\",\"fine\":" + fields[1]
+                        + ",\"state\":\"" + fields[4] + "\"}");
+                if (format.equals("ndjson")) {
+                    writer.newLine();
+                }
+            }
+            if (format.equals("json")) {
+                writer.write(']');
+            }
+        }
+    }
+
+    private static Path directory() throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory("cood-benchmark");
+            directory.toFile().deleteOnExit();
+        }
+        return directory;
+    }
+}
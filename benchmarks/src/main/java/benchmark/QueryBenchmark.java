@@ -0,0 +1,148 @@
+package benchmark;
+
+import common.ParkingViolation;
+import data.CachingHousingReader;
+import data.CachingPopulationReader;
+import data.HousingReader;
+import data.ParkingViolationCSVReader;
+import data.PopulationFileReader;
+import data.PopulationReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import processor.HousingProcessor;
+import processor.ParkingViolationProcessor;
+import processor.PopulationProcessor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call latency of the seven menu computations, with the data already loaded.
+ * Each call asks about the next ZIP code of the sample population.txt in turn.
+ *
+ * cache=warm measures repeated questions, answered from HousingProcessor's memoized results.
+ * cache=cold clears those results before every call, so each call does the full computation;
+ * the clear itself is included in the time but is negligible next to it. Options 1, 2 and 7 have
+ * no result cache, so both settings measure the same work for them.
+ *
+ * "rows" is the number of violations and of properties loaded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+
+    @Param({"25559", "250000"})
+    public int rows;
+
+    @Param({"warm", "cold"})
+    public String cache;
+
+    private ParkingViolationProcessor violationProcessor;
+    private PopulationProcessor<Integer, Integer> populationProcessor;
+    private HousingProcessor housingProcessor;
+    private int[] zipCodes;
+    private int next;
+    private boolean cold;
+
+    @Setup(Level.Trial)
+    public void load() throws Exception {
+        List<ParkingViolation> violations =
+                new ParkingViolationCSVReader(BenchmarkData.violations("csv", rows).toString()).readData();
+        String populationFile = BenchmarkData.sample("population.txt").toString();
+        PopulationReader populationReader = new CachingPopulationReader(new PopulationFileReader(populationFile));
+        Map<Integer, Integer> populations = populationReader.readData();
+
+        violationProcessor = new ParkingViolationProcessor(violations, populations);
+        populationProcessor = new PopulationProcessor<>(populations);
+        HousingReader housingReader = new CachingHousingReader(BenchmarkData.properties(rows).toString());
+        // Loaded here so no call pays for reading the file, even with cold caches
+        housingReader.readData();
+        // HousingProcessor is a singleton; start from a fresh one for this trial's data
+        HousingProcessor.resetInstance();
+        housingProcessor = HousingProcessor.getInstance(housingReader, populationReader);
+
+        zipCodes = BenchmarkData.zipCodes().stream().mapToInt(Integer::intValue).toArray();
+        cold = cache.equals("cold");
+        if (!cold) {
+            // Fill the caches so every measured call is a hit
+            for (int zipCode : zipCodes) {
+                housingProcessor.getAverageMarketValue(zipCode);
+                housingProcessor.getAverageLivableArea(zipCode);
+                housingProcessor.getMarketValuePerCapita(zipCode);
+                housingProcessor.getPropertyValueSummary(zipCode);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void reset() {
+        HousingProcessor.resetInstance();
+    }
+
+    private int nextZipCode() {
+        if (cold) {
+            housingProcessor.clearCache();
+        }
+        int zipCode = zipCodes[next];
+        next = next + 1 == zipCodes.length ? 0 : next + 1;
+        return zipCode;
+    }
+
+    // Menu option 1
+    @Benchmark
+    public int totalPopulation() {
+        return populationProcessor.totalPopulation();
+    }
+
+    // Menu option 2
+    @Benchmark
+    public Map<Integer, Double> finesPerCapita() {
+        return violationProcessor.calculateFinesPerCapita();
+    }
+
+    // Menu option 3
+    @Benchmark
+    public int averageMarketValue() {
+        return housingProcessor.getAverageMarketValue(nextZipCode());
+    }
+
+    // Menu option 4
+    @Benchmark
+    public int averageLivableArea() {
+        return housingProcessor.getAverageLivableArea(nextZipCode());
+    }
+
+    // Menu option 5
+    @Benchmark
+    public int marketValuePerCapita() {
+        return housingProcessor.getMarketValuePerCapita(nextZipCode());
+    }
+
+    // Menu option 6
+    @Benchmark
+    public HousingProcessor.PropertyValueSummary propertyValueSummary() {
+        return housingProcessor.getPropertyValueSummary(nextZipCode());
+    }
+
+    // Menu option 7
+    @Benchmark
+    public String mostCommonViolation() {
+        return violationProcessor.getMostCommonViolationType(nextZipCode());
+    }
+}
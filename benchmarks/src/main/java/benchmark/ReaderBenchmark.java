@@ -0,0 +1,121 @@
+package benchmark;
+
+import data.HousingReader;
+import data.ParkingViolationByteCSVReader;
+import data.ParkingViolationCSVReader;
+import data.ParkingViolationJSONReader;
+import data.ParkingViolationNDJSONReader;
+import data.PopulationFileReader;
+import data.ViolationIngestPipeline;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest throughput of every reader. Each call reads a whole file, so the score is files/s;
+ * the "rows" and "megabytes" counters next to it are rows/s and MB/s.
+ *
+ * Run e.g.: java -jar target/benchmarks.jar ReaderBenchmark -p reader=csv,byte-csv -p rows=25559,1000000
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReaderBenchmark {
+
+    @Param({"25559", "250000"})
+    public int rows;
+
+    @Param({"csv", "byte-csv", "pipeline", "json", "ndjson", "properties", "population"})
+    public String reader;
+
+    private String file;
+    private long fileBytes;
+
+    /**
+     * Rows and bytes read, reported by JMH per second of benchmark time.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Throughput {
+        public long rows;
+        public double megabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+            megabytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void writeInput() throws Exception {
+        Path path;
+        switch (reader) {
+            case "json":
+            case "ndjson":
+                path = BenchmarkData.violations(reader, rows);
+                break;
+            case "properties":
+                path = BenchmarkData.properties(rows);
+                break;
+            case "population":
+                path = BenchmarkData.populations(rows);
+                break;
+            default:
+                path = BenchmarkData.violations("csv", rows);
+        }
+        file = path.toString();
+        fileBytes = Files.size(path);
+    }
+
+    @Benchmark
+    public int read(Throughput throughput) throws Exception {
+        int read;
+        switch (reader) {
+            case "csv":
+                read = new ParkingViolationCSVReader(file).readData().size();
+                break;
+            case "byte-csv":
+                read = new ParkingViolationByteCSVReader(file).readData().size();
+                break;
+            case "pipeline":
+                read = new ViolationIngestPipeline(file).readData().size();
+                break;
+            case "json":
+                read = new ParkingViolationJSONReader(file).readData().size();
+                break;
+            case "ndjson":
+                read = new ParkingViolationNDJSONReader(file).readData().size();
+                break;
+            case "properties":
+                read = new HousingReader(file).readData().size();
+                break;
+            case "population":
+                read = new PopulationFileReader(file).readData().size();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown reader: " + reader);
+        }
+        // Rows in the file; the population reader returns fewer entries when ZIP codes repeat
+        throughput.rows += rows;
+        throughput.megabytes += fileBytes / 1_000_000.0;
+        return read;
+    }
+}
@@ -1,28 +1,113 @@
 import data.*;
-import common.House;
 import common.ParkingViolation;
+import metrics.MetricsRegistry;
 import org.json.simple.parser.ParseException;
+import processor.DataSnapshot;
 import processor.HousingProcessor;
 import processor.ParkingViolationProcessor;
 import processor.PopulationProcessor;
+import processor.QueryExecutor;
+import processor.SnapshotReloader;
+import server.MicroBatchingQueryExecutor;
+import server.QueryServer;
+import ui.BatchQueryRunner;
 import ui.UI;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 public class Main {
+    // Where load progress and warnings go: stdout for the menu, stderr in batch and server modes so stdout holds only answers
+    private static PrintStream status = System.out;
+    // How often --serve checks its data files for a new version
+    private static final long RELOAD_CHECK_MILLIS = 10_000;
+    // Where skipped rows are written with --rejects, one file per dataset; null to only count them
+    private static Path rejectsDirectory;
+
     public static void main(String[] args) {
+        // Optional "--batch <file>" (or "--batch -" for stdin): answer the queries in the file instead of showing the menu
+        String batchFile = null;
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        int batchFlag = arguments.indexOf("--batch");
+        if (batchFlag >= 0) {
+            if (batchFlag + 1 >= arguments.size()) {
+                System.out.println("Error: --batch needs a query file, or - to read queries from standard input.");
+                return;
+            }
+            batchFile = arguments.remove(batchFlag + 1);
+            arguments.remove(batchFlag);
+            status = System.err;
+        }
+        // Optional "--serve <port>": answer the queries over HTTP instead of showing the menu
+        int servePort = -1;
+        int serveFlag = arguments.indexOf("--serve");
+        if (serveFlag >= 0) {
+            if (serveFlag + 1 >= arguments.size() || !arguments.get(serveFlag + 1).matches("\\d{1,5}")
+                    || Integer.parseInt(arguments.get(serveFlag + 1)) > 65535) {
+                System.out.println("Error: --serve needs a port number between 0 and 65535.");
+                return;
+            }
+            servePort = Integer.parseInt(arguments.remove(serveFlag + 1));
+            arguments.remove(serveFlag);
+            status = System.err;
+        }
+        // Optional "--rejects <directory>": write every skipped row to <directory>/<dataset>.rejects.tsv
+        int rejectsFlag = arguments.indexOf("--rejects");
+        if (rejectsFlag >= 0) {
+            if (rejectsFlag + 1 >= arguments.size()) {
+                System.out.println("Error: --rejects needs a directory for the rejected rows.");
+                return;
+            }
+            rejectsDirectory = Paths.get(arguments.remove(rejectsFlag + 1));
+            arguments.remove(rejectsFlag);
+            try {
+                Files.createDirectories(rejectsDirectory);
+            } catch (IOException e) {
+                System.out.println("Error: Cannot create rejects directory: " + rejectsDirectory);
+                return;
+            }
+        }
+        if (batchFile != null && servePort >= 0) {
+            System.out.println("Error: --batch and --serve cannot be used together.");
+            return;
+        }
+        args = arguments.toArray(new String[0]);
+
         // Validate arguments
-        if(args.length != 4) {
+        if(args.length != 4 && args.length != 5) {
             System.out.println("Invalid number of arguments.");
             return;
         }
 
+        // Optional 5th argument: how the data files are loaded (default: all at once, in parallel)
+        String loadMode = args.length == 5 ? args[4] : "--eager";
+        if (!loadMode.equals("--eager") && !loadMode.equals("--lazy") && !loadMode.equals("--lazy-warmup")) {
+            System.out.println("Error: Load mode should be listed as \"--eager\", \"--lazy\" or \"--lazy-warmup\".");
+            return;
+        }
+
         String format = args[0];
-        if(!format.equals("csv") && !format.equals("json")) {
-            System.out.println("Error: Format should be listed as either \"json\" or \"csv\".");
+        if(ViolationFileFormat.forName(format) == null && !format.equals("auto")) {
+            System.out.println("Error: Format should be listed as \"json\", \"csv\", \"byte-csv\", \"ndjson\" or \"auto\".");
             return;
         }
 
@@ -30,10 +115,17 @@ public class Main {
         String propertiesFile = args[2];
         String populationFile = args[3];
 
+        // "auto": any number of comma-separated violation files, each in any supported format
+        List<String> violationFiles = format.equals("auto")
+                ? Arrays.asList(violationsFile.split(","))
+                : Collections.singletonList(violationsFile);
+
         // Validate files exist
-        if (!canReadFile(violationsFile)) {
-            System.out.println("Error: Cannot open parking violations file: " + violationsFile);
-            return;
+        for (String file : violationFiles) {
+            if (!canReadFile(file)) {
+                System.out.println("Error: Cannot open parking violations file: " + file);
+                return;
+            }
         }
         if (!canReadFile(propertiesFile)) {
             System.out.println("Error: Cannot open properties file: " + propertiesFile);
@@ -43,44 +135,232 @@ public class Main {
             System.out.println("Error: Cannot open population file: " + populationFile);
             return;
         }
+        if (batchFile != null && !batchFile.equals("-") && !canReadFile(batchFile)) {
+            System.out.println("Error: Cannot open query file: " + batchFile);
+            return;
+        }
 
-        // Read all data and create processors
-        try {
-            // Read parking violations based on format
+        // Readers and processors record timings and counts; publish them for jconsole and other JMX tools
+        MetricsRegistry.getDefault().registerMBeans();
+
+        // Eager: read all three data files in parallel. Lazy: read each file when a menu option first
+        // needs it, optionally preloading in the background. Either way the menu is shown right away.
+        // Malformed rows are skipped and counted instead of stopping the load. Each read gets a report
+        // of its own, so a reload under --serve counts only the rows of the files it read
+        Callable<List<ParkingViolation>> violationSource = () -> {
+            IngestReport violationReport = newReport("violations");
             List<ParkingViolation> violations;
-            if (format.equals("csv")) {
-                ParkingViolationCSVReader csvReader = new ParkingViolationCSVReader(violationsFile);
-                violations = csvReader.readData();
-            } else {
-                ParkingViolationJSONReader jsonReader = new ParkingViolationJSONReader(violationsFile);
-                violations = jsonReader.readData();
+            try {
+                if (format.equals("auto")) {
+                    violations = new MultiSourceViolationReader(violationFiles,
+                            Runtime.getRuntime().availableProcessors(), violationReport).readData();
+                } else {
+                    violations = ViolationFileFormat.forName(format).reader(violationsFile, violationReport).readData();
+                }
+            } finally {
+                finishReport(violationReport);
             }
+            return dropDuplicateTickets(violations);
+        };
+        if (servePort >= 0) {
+            List<String> files = new ArrayList<>(violationFiles);
+            files.add(propertiesFile);
+            files.add(populationFile);
+            serve(servePort, violationSource, propertiesFile, populationFile, files);
+            return;
+        }
+        IngestReport housingReport = newReport("properties");
+        IngestReport populationReport = newReport("population");
+        HousingReader housingReader = new CachingHousingReader(propertiesFile, housingReport);
+        PopulationReader popReader = new CachingPopulationReader(new PopulationFileReader(populationFile, populationReport));
+
+        DatasetLoader loader = new DatasetLoader(violationSource, housingReader, popReader);
+        for (DatasetLoader.Dataset dataset : DatasetLoader.Dataset.values()) {
+            loader.future(dataset).whenComplete((data, error) -> reportLoad(loader, dataset, error));
+        }
+        loader.houses().whenComplete((houses, error) -> finishReport(housingReport));
+        loader.populations().whenComplete((populations, error) -> finishReport(populationReport));
+        if (loadMode.equals("--eager")) {
+            loader.start();
+        } else if (loadMode.equals("--lazy-warmup")) {
+            loader.startWarmUp(DatasetLoader.DEFAULT_PRIORITY);
+        }
+
+        // Create processors once the data they need is available
+        CompletableFuture<PopulationProcessor> populationProcessor =
+                loader.populations().thenApply(PopulationProcessor::new);
+        CompletableFuture<ParkingViolationProcessor> violationProcessor =
+                loader.violations().thenCombine(loader.populations(), ParkingViolationProcessor::new);
+        CompletableFuture<HousingProcessor> housingProcessor =
+                loader.houses().thenCombine(loader.populations(),
+                        (houses, populations) -> {
+                            HousingProcessor processor = HousingProcessor.create(housingReader, popReader);
+                            processor.registerGauges();
+                            return processor;
+                        });
+
+        Supplier<ParkingViolationProcessor> violations =
+                whenReady(loader, violationProcessor, DatasetLoader.Dataset.VIOLATIONS, DatasetLoader.Dataset.POPULATION);
+        Supplier<PopulationProcessor> populations =
+                whenReady(loader, populationProcessor, DatasetLoader.Dataset.POPULATION);
+        Supplier<HousingProcessor> houses =
+                whenReady(loader, housingProcessor, DatasetLoader.Dataset.PROPERTIES, DatasetLoader.Dataset.POPULATION);
+        if (batchFile != null) {
+            runBatch(batchFile, new QueryExecutor(violations, populations, houses));
+            return;
+        }
 
-            // Read properties
-            HousingReader housingReader = new HousingReader(propertiesFile);
-            List<House> houses = housingReader.readData();
+        // Start UI with processors
+        UI.start(violations, populations, houses);
+    }
 
-            // Read population
-            PopulationFileReader popReader = new PopulationFileReader(populationFile);
-            Map<Integer, Integer> populations = popReader.readData();
+    /**
+     * Answers the queries in a file (or on stdin, for "-") in parallel, answers in order on stdout.
+     */
+    private static void runBatch(String batchFile, QueryExecutor executor) {
+        BatchQueryRunner runner = new BatchQueryRunner(executor, Runtime.getRuntime().availableProcessors());
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        try (BufferedReader in = batchFile.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in))
+                : InputStreams.openReader(batchFile)) {
+            long start = System.nanoTime();
+            long answered = runner.run(in, out);
+            status.println("[Answered " + answered + " queries in " + (System.nanoTime() - start) / 1_000_000 + " ms]");
+        } catch (IOException e) {
+            status.println("Error reading query file: " + e.getMessage());
+        }
+    }
 
-            // Create processors
-            PopulationProcessor populationProcessor = new PopulationProcessor(populations);
-            ParkingViolationProcessor violationProcessor = new ParkingViolationProcessor(violations, populations);
-            HousingProcessor housingProcessor = HousingProcessor.getInstance(housingReader, popReader);
+    /**
+     * Answers queries over HTTP until the process is stopped. The data is loaded in the background,
+     * with requests answered 503 until it is ready, and loaded again when one of its files changes;
+     * queries keep running on the old data until the new data is ready.
+     * @param violationSource read once per data version, each time with a new reader and IngestReport
+     */
+    private static void serve(int port, Callable<List<ParkingViolation>> violationSource,
+                              String propertiesFile, String populationFile, List<String> files) {
+        AtomicLong loadStart = new AtomicLong();
+        SnapshotReloader reloader = new SnapshotReloader(version -> {
+            loadStart.set(System.nanoTime());
+            IngestReport housingReport = newReport("properties");
+            IngestReport populationReport = newReport("population");
+            HousingReader housingReader = new CachingHousingReader(propertiesFile, housingReport);
+            PopulationReader popReader = new CachingPopulationReader(new PopulationFileReader(populationFile, populationReport));
+            DatasetLoader loader = new DatasetLoader(violationSource, housingReader, popReader);
+            loader.start();
+            Map<Integer, Integer> populations;
+            try {
+                populations = loader.populations().join();
+                loader.houses().join();
+            } finally {
+                finishReport(populationReport);
+                finishReport(housingReport);
+            }
+            return new DataSnapshot(version, populations,
+                    new ParkingViolationProcessor(loader.violations().join(), populations),
+                    HousingProcessor.create(housingReader, popReader));
+        }, files);
+        reloader.setListener((snapshot, error) -> {
+            if (error == null) {
+                status.println("[Loaded " + snapshot + " in " + (System.nanoTime() - loadStart.get()) / 1_000_000 + " ms]");
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                status.println("[Reload failed, still serving data version " + reloader.getVersion() + ": " + cause.getMessage() + "]");
+            }
+        });
+        reloader.reload();
+        reloader.watch(RELOAD_CHECK_MILLIS);
+        try {
+            QueryServer server = new QueryServer(new MicroBatchingQueryExecutor(reloader::current), port);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+            status.println("[Serving queries on http://localhost:" + server.getPort() + "/query/{option}"
+                    + (server.isUsingVirtualThreads() ? " with virtual threads" : "") + "]");
+        } catch (IOException e) {
+            status.println("Error starting query server: " + e.getMessage());
+            reloader.close();
+        }
+    }
 
-            // Start UI with processors
-            UI.start(violationProcessor, populationProcessor, housingProcessor);
+    /**
+     * Report for one read of a dataset; with --rejects, its skipped rows go to a file of their own.
+     */
+    private static IngestReport newReport(String dataset) {
+        if (rejectsDirectory == null) {
+            return new IngestReport(dataset);
+        }
+        return new IngestReport(dataset, rejectsDirectory.resolve(dataset + ".rejects.tsv"));
+    }
 
-        } catch (ParseException e) {
-            System.out.println("Error parsing JSON file: " + e.getMessage());
+    /**
+     * Prints what a read skipped, if anything, and closes its rejects file.
+     */
+    private static void finishReport(IngestReport report) {
+        if (report.getRejected() > 0) {
+            status.println("[Skipped malformed " + report
+                    + (report.getRejectsFile() != null ? ", written to " + report.getRejectsFile() : "") + "]");
+        }
+        try {
+            report.close();
         } catch (IOException e) {
-            System.out.println("Error reading data files: " + e.getMessage());
-        } catch (Exception e) {
-            System.out.println("Error reading data files: " + e.getMessage());
+            status.println("Error writing rejected rows: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prints how long a dataset took to load, or why it failed.
+     */
+    private static void reportLoad(DatasetLoader loader, DatasetLoader.Dataset dataset, Throwable error) {
+        String name = dataset.getDisplayName();
+        if (error == null) {
+            status.println("[Loaded " + name + " data: " + loader.getRecordCount(dataset) + " records in "
+                    + loader.getLoadTimeMillis(dataset) + " ms]");
+            return;
+        }
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ParseException) {
+            status.println("Error parsing JSON file: " + cause.getMessage());
+        } else {
+            status.println("Error reading " + name + " file: " + cause.getMessage());
         }
     }
 
+    /**
+     * Keeps the first violation for each ticket number, reporting how many repeats were dropped.
+     */
+    private static List<ParkingViolation> dropDuplicateTickets(List<ParkingViolation> violations) {
+        TicketDeduplicator deduplicator = new TicketDeduplicator(violations.size());
+        deduplicator.addAll(violations);
+        List<ParkingViolation> unique = deduplicator.finish();
+        if (deduplicator.getDuplicateCount() > 0) {
+            status.println("[Dropped " + deduplicator.getDuplicateCount()
+                    + " violations with an already seen ticket number]");
+        }
+        return unique;
+    }
+
+    /**
+     * Supplier that blocks until a processor is ready, telling the user if they have to wait.
+     * Datasets the processor needs that nobody has started loading yet are loaded on the spot.
+     */
+    private static <T> Supplier<T> whenReady(DatasetLoader loader, CompletableFuture<T> processor,
+                                             DatasetLoader.Dataset dataset, DatasetLoader.Dataset... alsoNeeded) {
+        return () -> {
+            if (!processor.isDone()) {
+                status.println("Please wait, " + dataset.getDisplayName() + " data is loading...");
+                loader.load(dataset);
+                for (DatasetLoader.Dataset other : alsoNeeded) {
+                    loader.load(other);
+                }
+            }
+            try {
+                return processor.join();
+            } catch (CompletionException e) {
+                throw new IllegalStateException("The " + dataset.getDisplayName() + " data could not be loaded.");
+            }
+        };
+    }
+
     private static boolean canReadFile(String filename) {
         File f = new File(filename);
         return f.exists() && f.isFile() && f.canRead();
@@ -0,0 +1,202 @@
+package common;
+
+/**
+ * Fast parser and formatter for the fixed-layout UTC timestamps used in the violation feeds,
+ * e.g. "2013-04-03T15:15:00Z". Converts straight to epoch seconds by reading the digits at
+ * fixed positions, without creating any java.time objects.
+ */
+public final class IsoTimestamps {
+
+    /**
+     * Returned by the parse methods when the input is not a valid timestamp.
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private IsoTimestamps() {
+    }
+
+    /**
+     * Parses "yyyy-MM-ddTHH:mm:ss" with an optional trailing 'Z' to seconds since 1970-01-01T00:00:00Z.
+     * @return the epoch seconds, or INVALID if the text does not have that exact layout or is not a real date
+     */
+    public static long parseEpochSeconds(CharSequence text) {
+        if (text == null) {
+            return INVALID;
+        }
+        int length = text.length();
+        if (length != 19 && !(length == 20 && text.charAt(19) == 'Z')) {
+            return INVALID;
+        }
+        if (text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return INVALID;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        return toEpochSeconds(year, month, day, hour, minute, second);
+    }
+
+    /**
+     * Same as parseEpochSeconds(CharSequence) for ASCII bytes, bytes[start .. start + length),
+     * so byte-level readers do not have to create a String first.
+     */
+    public static long parseEpochSeconds(byte[] bytes, int start, int length) {
+        if (length != 19 && !(length == 20 && bytes[start + 19] == 'Z')) {
+            return INVALID;
+        }
+        if (bytes[start + 4] != '-' || bytes[start + 7] != '-' || bytes[start + 10] != 'T'
+                || bytes[start + 13] != ':' || bytes[start + 16] != ':') {
+            return INVALID;
+        }
+        int year = digits(bytes, start, 4);
+        int month = digits(bytes, start + 5, 2);
+        int day = digits(bytes, start + 8, 2);
+        int hour = digits(bytes, start + 11, 2);
+        int minute = digits(bytes, start + 14, 2);
+        int second = digits(bytes, start + 17, 2);
+        return toEpochSeconds(year, month, day, hour, minute, second);
+    }
+
+    /**
+     * Formats epoch seconds as "yyyy-MM-ddTHH:mm:ssZ", the inverse of parseEpochSeconds.
+     */
+    public static String format(long epochSeconds) {
+        long date = civilFromDays(Math.floorDiv(epochSeconds, SECONDS_PER_DAY));
+        int secondOfDay = Math.floorMod(epochSeconds, SECONDS_PER_DAY);
+
+        char[] out = new char[20];
+        writeDigits(out, 0, (int) (date / 10_000), 4);
+        out[4] = '-';
+        writeDigits(out, 5, (int) (date / 100 % 100), 2);
+        out[7] = '-';
+        writeDigits(out, 8, (int) (date % 100), 2);
+        out[10] = 'T';
+        writeDigits(out, 11, secondOfDay / 3600, 2);
+        out[13] = ':';
+        writeDigits(out, 14, secondOfDay / 60 % 60, 2);
+        out[16] = ':';
+        writeDigits(out, 17, secondOfDay % 60, 2);
+        out[19] = 'Z';
+        return new String(out);
+    }
+
+    /**
+     * Days since 1970-01-01 for epoch seconds (UTC).
+     */
+    public static long epochDay(long epochSeconds) {
+        return Math.floorDiv(epochSeconds, SECONDS_PER_DAY);
+    }
+
+    /**
+     * Month number for epoch seconds (UTC), counted as year * 12 + (month - 1).
+     */
+    public static int epochMonth(long epochSeconds) {
+        long date = civilFromDays(epochDay(epochSeconds));
+        return (int) (date / 10_000 * 12 + date / 100 % 100 - 1);
+    }
+
+    /**
+     * Hour of day (0-23, UTC) for epoch seconds.
+     */
+    public static int hourOfDay(long epochSeconds) {
+        return Math.floorMod(epochSeconds, SECONDS_PER_DAY) / 3600;
+    }
+
+    /**
+     * Day of week for epoch seconds (UTC): 0 = Monday ... 6 = Sunday, i.e. DayOfWeek.getValue() - 1.
+     */
+    public static int dayOfWeek(long epochSeconds) {
+        // 1970-01-01 was a Thursday
+        return Math.floorMod(epochDay(epochSeconds) + 3, 7);
+    }
+
+    /**
+     * Civil-from-days (proleptic Gregorian calendar, eras of 400 years).
+     * @return the date packed as year * 10000 + month * 100 + day
+     */
+    private static long civilFromDays(long days) {
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10_000 + month * 100 + day;
+    }
+
+    private static long toEpochSeconds(int year, int month, int day, int hour, int minute, int second) {
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return INVALID;
+        }
+        return daysFromCivil(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second;
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date.
+     */
+    static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // Returns -1 if any character is not an ASCII digit
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int digits(byte[] bytes, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void writeDigits(char[] out, int start, int value, int count) {
+        for (int i = start + count - 1; i >= start; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -2,9 +2,20 @@ package common;
 
 public class ParkingViolation {
 
-    private String ticket_number;
+    /**
+     * getTicketNumber() value for tickets whose number is missing or not a plain number.
+     */
+    public static final long NO_TICKET_NUMBER = Long.MIN_VALUE;
+
+    // Numeric ticket numbers (the normal case) are kept as a long
+    private long ticketNumber;
+    // Only kept for ticket numbers that are not plain numbers, so getTicket_number() still returns them
+    private String unparsedTicketNumber;
     private String plate_id;
-    private String date;
+    // Epoch seconds; IsoTimestamps.INVALID if the date was missing or not in the usual layout
+    private long timestamp;
+    // Only kept for dates that could not be parsed, so getDate() still returns what the file said
+    private String unparsedDate;
     private Integer zip_code;
     private String violation;
     private int fine;
@@ -14,18 +25,84 @@ public class ParkingViolation {
                             String plate_id, String date, Integer zip_code,
                             String violation, int fine, String state){
 
-        this.ticket_number = ticket_number;
+        setTicketNumber(ticket_number);
+        this.plate_id = plate_id;
+        this.timestamp = IsoTimestamps.parseEpochSeconds(date);
+        this.unparsedDate = timestamp == IsoTimestamps.INVALID ? date : null;
+        this.zip_code = zip_code;
+        this.violation = violation;
+        this.fine = fine;
+        this.state = state;
+    }
+
+    public ParkingViolation(String ticket_number,
+                            String plate_id, long timestamp, Integer zip_code,
+                            String violation, int fine, String state){
+
+        setTicketNumber(ticket_number);
+        this.plate_id = plate_id;
+        this.timestamp = timestamp;
+        this.zip_code = zip_code;
+        this.violation = violation;
+        this.fine = fine;
+        this.state = state;
+    }
+
+    public ParkingViolation(long ticketNumber,
+                            String plate_id, long timestamp, Integer zip_code,
+                            String violation, int fine, String state){
+
+        this.ticketNumber = ticketNumber;
         this.plate_id = plate_id;
-        this.date = date;
+        this.timestamp = timestamp;
         this.zip_code = zip_code;
         this.violation = violation;
         this.fine = fine;
         this.state = state;
     }
 
-    public String getTicket_number(){ return ticket_number; }
+    private void setTicketNumber(String ticket_number) {
+        this.ticketNumber = parseTicketNumber(ticket_number);
+        this.unparsedTicketNumber = ticketNumber == NO_TICKET_NUMBER ? ticket_number : null;
+    }
+
+    /**
+     * Parses a ticket number made only of ASCII digits (at most 18, no leading zero so it prints
+     * back unchanged), or returns NO_TICKET_NUMBER.
+     */
+    public static long parseTicketNumber(CharSequence text) {
+        if (text == null || text.length() == 0 || text.length() > 18
+                || (text.charAt(0) == '0' && text.length() > 1)) {
+            return NO_TICKET_NUMBER;
+        }
+        long value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NO_TICKET_NUMBER;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    public String getTicket_number(){
+        if (ticketNumber == NO_TICKET_NUMBER) {
+            return unparsedTicketNumber;
+        }
+        return Long.toString(ticketNumber);
+    }
+    public long getTicketNumber(){ return ticketNumber; }
     public String getPlate_id(){ return plate_id; }
-    public String getDate(){ return date; }
+    // Formatted on demand from the stored timestamp, e.g. "2013-04-03T15:15:00Z"
+    public String getDate(){
+        if (timestamp == IsoTimestamps.INVALID) {
+            return unparsedDate;
+        }
+        return IsoTimestamps.format(timestamp);
+    }
+    public long getTimestamp(){ return timestamp; }
+    public boolean hasTimestamp(){ return timestamp != IsoTimestamps.INVALID; }
     public Integer getZip_code(){ return zip_code; }
     public String getViolation(){ return violation; }
     public int getFine() { return fine;}
@@ -34,9 +111,9 @@ public class ParkingViolation {
     @Override
     public String toString() {
         return "ParkingViolation{" +
-                "ticket_number=" + ticket_number +
+                "ticket_number=" + getTicket_number() +
                 ", plate_id=" + plate_id +
-                ", date='" + date + '\'' +
+                ", date='" + getDate() + '\'' +
                 ", zip_code=" + zip_code +
                 ", violation='" + violation + '\'' +
                 ", fine=" + fine +
@@ -0,0 +1,83 @@
+package data;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * ByteDictionary maps byte sequences to values, decoding a sequence into a String (and then a
+ * value) only the first time it is seen. Repeated field values such as violation types, states
+ * and ZIP codes therefore cost one hash lookup instead of a new String per row, and all rows
+ * share the same instances.
+ */
+final class ByteDictionary<V> {
+
+    private final Charset charset;
+    private final Function<String, V> decoder;
+
+    // Open addressing with linear probing; slot i is empty while keys[i] is null
+    private byte[][] keys = new byte[64][];
+    private Object[] values = new Object[64];
+    private int[] hashes = new int[64];
+    private int size;
+
+    ByteDictionary(Charset charset, Function<String, V> decoder) {
+        this.charset = charset;
+        this.decoder = decoder;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(byte[] bytes, int start, int length) {
+        int hash = hash(bytes, start, length);
+        int mask = keys.length - 1;
+        int slot = hash & mask;
+        for (; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && Arrays.equals(keys[slot], 0, keys[slot].length, bytes, start, start + length)) {
+                return (V) values[slot];
+            }
+        }
+        V value = decoder.apply(new String(bytes, start, length, charset));
+        keys[slot] = Arrays.copyOfRange(bytes, start, start + length);
+        values[slot] = value;
+        hashes[slot] = hash;
+        // Keep the load factor at or below 1/2 so probe sequences stay short
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // FNV-1a
+    private static int hash(byte[] bytes, int start, int length) {
+        int hash = 0x811C9DC5;
+        for (int i = start; i < start + length; i++) {
+            hash = (hash ^ (bytes[i] & 0xFF)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private void rehash(int capacity) {
+        byte[][] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        keys = new byte[capacity][];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package data;
+
+import common.House;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CachingHousingReader reads the properties file once and returns the same
+ * (read-only) list on every later call to readData().
+ * Lets the startup loader parse the file in the background while HousingProcessor
+ * keeps calling readData() on cache misses without re-reading the file.
+ */
+public class CachingHousingReader extends HousingReader {
+
+    private volatile List<House> houses;
+
+    public CachingHousingReader(String filename) {
+        super(filename);
+    }
+
+    /**
+     * @param report where accepted and rejected rows of the one read are counted
+     */
+    public CachingHousingReader(String filename, IngestReport report) {
+        super(filename, report);
+    }
+
+    @Override
+    public List<House> readData() throws IOException {
+        List<House> cached = houses;
+        if (cached == null) {
+            synchronized (this) {
+                cached = houses;
+                if (cached == null) {
+                    cached = Collections.unmodifiableList(super.readData());
+                    houses = cached;
+                }
+            }
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,37 @@
+package data;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * CachingPopulationReader wraps another PopulationReader and only reads from it once.
+ * Later calls to readData() return the same (read-only) map.
+ */
+public class CachingPopulationReader implements PopulationReader {
+
+    private final PopulationReader delegate;
+    private volatile Map<Integer, Integer> populations;
+
+    public CachingPopulationReader(PopulationReader delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("PopulationReader must not be null.");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Map<Integer, Integer> readData() throws IOException {
+        Map<Integer, Integer> cached = populations;
+        if (cached == null) {
+            synchronized (this) {
+                cached = populations;
+                if (cached == null) {
+                    cached = Collections.unmodifiableMap(delegate.readData());
+                    populations = cached;
+                }
+            }
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,161 @@
+package data;
+
+import common.House;
+import common.ParkingViolation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * DatasetLoader manages the violations, properties and population datasets.
+ * In eager mode, start() reads all three files in parallel at startup, so the small
+ * population file can be used (menu option #1) while the larger files are still loading.
+ * In lazy mode nothing is read until load() is called for a dataset, optionally with a
+ * background warm-up thread that preloads the datasets in priority order.
+ */
+public class DatasetLoader {
+
+    public enum Dataset {
+        VIOLATIONS("violations"),
+        PROPERTIES("properties"),
+        POPULATION("population");
+
+        private final String displayName;
+
+        Dataset(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    // Smallest first, so population is never queued behind the large files
+    public static final Dataset[] DEFAULT_PRIORITY = {Dataset.POPULATION, Dataset.VIOLATIONS, Dataset.PROPERTIES};
+
+    private final LazyDataset<List<ParkingViolation>> violations;
+    private final LazyDataset<List<House>> houses;
+    private final LazyDataset<Map<Integer, Integer>> populations;
+
+    private volatile boolean started;
+
+    /**
+     * @param violationSource reads the violations file, e.g. {@code csvReader::readData}
+     */
+    public DatasetLoader(Callable<List<ParkingViolation>> violationSource,
+                         HousingReader housingReader,
+                         PopulationReader populationReader) {
+        if (violationSource == null) {
+            throw new IllegalArgumentException("Violation source must not be null.");
+        }
+        if (housingReader == null) {
+            throw new IllegalArgumentException("HousingReader must not be null.");
+        }
+        if (populationReader == null) {
+            throw new IllegalArgumentException("PopulationReader must not be null.");
+        }
+        this.violations = new LazyDataset<>(violationSource);
+        this.houses = new LazyDataset<>(housingReader::readData);
+        this.populations = new LazyDataset<>(populationReader::readData);
+    }
+
+    /**
+     * Eager mode: starts loading all three datasets, one thread each. Returns immediately.
+     */
+    public synchronized void start() {
+        claimStart();
+
+        // Daemon threads so choosing "Exit" does not wait for a load that is still running
+        ExecutorService executor = Executors.newFixedThreadPool(Dataset.values().length, runnable -> {
+            Thread thread = new Thread(runnable, "dataset-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Dataset dataset : DEFAULT_PRIORITY) {
+            executor.execute(() -> load(dataset));
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Lazy mode with warm-up: one background thread loads the datasets one after another
+     * in the given order. A dataset that is needed before the warm-up reaches it is loaded
+     * by the thread that needs it, and the warm-up skips it. Returns immediately.
+     */
+    public synchronized void startWarmUp(Dataset... priorityOrder) {
+        if (priorityOrder == null) {
+            throw new IllegalArgumentException("Priority order must not be null.");
+        }
+        claimStart();
+
+        Thread warmUp = new Thread(() -> {
+            for (Dataset dataset : priorityOrder) {
+                load(dataset);
+            }
+        }, "dataset-warmup");
+        warmUp.setDaemon(true);
+        warmUp.setPriority(Thread.MIN_PRIORITY);
+        warmUp.start();
+    }
+
+    private void claimStart() {
+        if (started) {
+            throw new IllegalStateException("DatasetLoader has already been started.");
+        }
+        started = true;
+    }
+
+    /**
+     * Loads a dataset on the calling thread unless it is already loading or loaded.
+     * Use future(dataset) to wait for the result.
+     */
+    public void load(Dataset dataset) {
+        dataset(dataset).load();
+    }
+
+    public CompletableFuture<List<ParkingViolation>> violations() {
+        return violations.future();
+    }
+
+    public CompletableFuture<List<House>> houses() {
+        return houses.future();
+    }
+
+    public CompletableFuture<Map<Integer, Integer>> populations() {
+        return populations.future();
+    }
+
+    public CompletableFuture<?> future(Dataset dataset) {
+        return dataset(dataset).future();
+    }
+
+    /**
+     * Wall-clock load time of a dataset in milliseconds, or -1 if it has not finished loading.
+     */
+    public long getLoadTimeMillis(Dataset dataset) {
+        return dataset(dataset).getLoadTimeMillis();
+    }
+
+    /**
+     * Number of records loaded for a dataset, or -1 if it has not loaded successfully.
+     */
+    public int getRecordCount(Dataset dataset) {
+        return dataset(dataset).getRecordCount();
+    }
+
+    private LazyDataset<?> dataset(Dataset dataset) {
+        switch (dataset) {
+            case VIOLATIONS:
+                return violations;
+            case PROPERTIES:
+                return houses;
+            default:
+                return populations;
+        }
+    }
+}
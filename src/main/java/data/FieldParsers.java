@@ -0,0 +1,143 @@
+package data;
+
+/**
+ * Number parsers for the readers that report bad input with a return value instead of throwing
+ * NumberFormatException, so a column that is malformed on every row does not cost an exception
+ * (with its stack trace) per row.
+ */
+public final class FieldParsers {
+
+    /**
+     * Returned when the text is not a valid number.
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private FieldParsers() {
+    }
+
+    /**
+     * Same rules as Integer.parseInt(text.trim()): an optional sign and decimal digits that fit an int.
+     * @return the value, or INVALID
+     */
+    public static long parseInt(CharSequence text) {
+        if (text == null) {
+            return INVALID;
+        }
+        return parseInt(text, 0, text.length());
+    }
+
+    /**
+     * parseInt() of text[start, end), without creating a substring.
+     */
+    public static long parseInt(CharSequence text, int start, int end) {
+        if (text == null || start < 0 || end > text.length() || start > end) {
+            return INVALID;
+        }
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        boolean negative = start < end && text.charAt(start) == '-';
+        if (negative || (start < end && text.charAt(start) == '+')) {
+            start++;
+        }
+        if (start == end || end - start > 10) {
+            return INVALID;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? INVALID : value;
+    }
+
+    /**
+     * Parses an amount such as "264,800.0" or "$1,000" (commas and dollar signs are ignored)
+     * and rounds it to a whole number, halves up like Math.round.
+     * @return the rounded value, or INVALID
+     */
+    public static long parseRoundedDecimal(CharSequence text) {
+        if (text == null) {
+            return INVALID;
+        }
+        int i = 0;
+        int end = text.length();
+        while (i < end && text.charAt(i) <= ' ') {
+            i++;
+        }
+        while (end > i && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        boolean signed = false;
+        boolean negative = false;
+        long value = 0;
+        int digits = 0;
+        int firstFraction = -1;
+        boolean moreFraction = false;
+        boolean inFraction = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '$') {
+                continue;
+            }
+            if ((c == '-' || c == '+') && digits == 0 && !inFraction && !signed) {
+                signed = true;
+                negative = c == '-';
+                continue;
+            }
+            if (c == '.' && !inFraction) {
+                inFraction = true;
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            if (!inFraction) {
+                if (++digits > 18) {
+                    return INVALID;
+                }
+                value = value * 10 + digit;
+            } else if (firstFraction < 0) {
+                firstFraction = digit;
+            } else if (digit != 0) {
+                moreFraction = true;
+            }
+        }
+        if (digits == 0 && firstFraction < 0) {
+            return INVALID;
+        }
+        if (!negative) {
+            return firstFraction >= 5 ? value + 1 : value;
+        }
+        // Math.round rounds -2.5 to -2 but -2.51 to -3
+        return firstFraction > 5 || (firstFraction == 5 && moreFraction) ? -value - 1 : -value;
+    }
+
+    /**
+     * The first five digits of a ZIP code field such as "19104-2345", ignoring anything else.
+     * @return the ZIP code, or -1 if there are fewer than five digits
+     */
+    public static int firstFiveDigits(CharSequence text) {
+        if (text == null) {
+            return -1;
+        }
+        int value = 0;
+        int digits = 0;
+        for (int i = 0; i < text.length() && digits < 5; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit >= 0 && digit <= 9) {
+                value = value * 10 + digit;
+                digits++;
+            }
+        }
+        return digits == 5 ? value : -1;
+    }
+}
@@ -3,7 +3,6 @@ package data;
 import common.House;
 import common.PropertyColumn;
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -11,45 +10,72 @@ import java.util.List;
 import java.util.Map;
 
 public class HousingReader implements CSVReader<House> {
+    private static final ReadMetrics METRICS = new ReadMetrics("properties");
+
     private final String filename;
+    private final IngestReport report;
+    private volatile IngestReport lastReport;
 
     public HousingReader(String filename) {
+        this(filename, null);
+    }
+
+    /**
+     * @param report where accepted and rejected rows are counted; null for a new report per read
+     */
+    public HousingReader(String filename, IngestReport report) {
         this.filename = filename;
+        this.report = report;
+        this.lastReport = report != null ? report : new IngestReport(filename);
     }
 
     @Override
     public List<House> readData() throws IOException {
-        List<House> houses = new ArrayList<>();
+        try (ReadMetrics.Timing timing = METRICS.begin(filename)) {
+            List<House> houses = new ArrayList<>();
+            IngestReport rows = report != null ? report : new IngestReport(filename);
+            lastReport = rows;
 
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String headerLine = br.readLine();
+            try (BufferedReader br = InputStreams.openReader(filename)) {
+                String headerLine = br.readLine();
 
-            if (headerLine == null) {
-                throw new IOException("CSV file is empty");
-            }
+                if (headerLine == null) {
+                    throw new IOException("CSV file is empty");
+                }
 
-            Map<PropertyColumn, Integer> columnIndices = parseHeader(headerLine);
+                Map<PropertyColumn, Integer> columnIndices = parseHeader(headerLine);
 
-            validateRequiredColumns(columnIndices);
+                validateRequiredColumns(columnIndices);
 
-            int marketValueIndex = columnIndices.get(PropertyColumn.MARKET_VALUE);
-            int totalLivableAreaIndex = columnIndices.get(PropertyColumn.TOTAL_LIVABLE_AREA);
-            int zipCodeIndex = columnIndices.get(PropertyColumn.ZIP_CODE);
+                int marketValueIndex = columnIndices.get(PropertyColumn.MARKET_VALUE);
+                int totalLivableAreaIndex = columnIndices.get(PropertyColumn.TOTAL_LIVABLE_AREA);
+                int zipCodeIndex = columnIndices.get(PropertyColumn.ZIP_CODE);
 
-            String line;
-            while ((line = br.readLine()) != null) {
-                House house = parseLine(line, marketValueIndex, totalLivableAreaIndex, zipCodeIndex);
-                if (house != null) {
-                    houses.add(house);
+                String line;
+                // The header is line 1
+                long lineNumber = 1;
+                while ((line = br.readLine()) != null) {
+                    House house = parseLine(line, ++lineNumber, rows, marketValueIndex, totalLivableAreaIndex, zipCodeIndex);
+                    if (house != null) {
+                        houses.add(house);
+                    }
                 }
             }
+            timing.end(houses.size());
+            return houses;
         }
-        return houses;
+    }
+
+    /**
+     * Accepted and rejected rows of the last read.
+     */
+    public IngestReport getIngestReport() {
+        return lastReport;
     }
 
     private Map<PropertyColumn, Integer> parseHeader(String headerLine) {
         Map<PropertyColumn, Integer> columnIndices = new HashMap<>();
-        String[] headers = headerLine.split(",");
+        String[] headers = splitFields(headerLine);
 
         for (int i = 0; i < headers.length; i++) {
             String header = headers[i].trim().toLowerCase();
@@ -73,65 +99,74 @@ public class HousingReader implements CSVReader<House> {
         }
     }
 
-    private House parseLine(String line, int marketValueIndex, int totalLivableAreaIndex, int zipCodeIndex) {
+    private House parseLine(String line, long lineNumber, IngestReport rows,
+                            int marketValueIndex, int totalLivableAreaIndex, int zipCodeIndex) {
         if (line == null || line.trim().isEmpty()) {
             return null;
         }
 
-        String[] fields = line.split(",", -1);
+        String[] fields = splitFields(line);
         int maxIndex = Math.max(Math.max(marketValueIndex, totalLivableAreaIndex), zipCodeIndex);
         if (fields.length <= maxIndex) {
+            rows.reject(RejectReason.TOO_FEW_FIELDS, lineNumber, line);
             return null;
         }
 
-        Integer zip_code = extractZipCode(fields[zipCodeIndex].trim());
+        Integer zip_code = extractZipCode(fields[zipCodeIndex]);
         if (zip_code == null) {
+            rows.reject(RejectReason.BAD_ZIP_CODE, lineNumber, line);
             return null;
         }
 
-        Integer market_value = parsePositiveInteger(fields[marketValueIndex].trim());
-        Integer total_livable_area = parsePositiveInteger(fields[totalLivableAreaIndex].trim());
+        // A missing or bad value only leaves that value out; the house still counts for the other one
+        Integer market_value = parsePositiveInteger(fields[marketValueIndex]);
+        Integer total_livable_area = parsePositiveInteger(fields[totalLivableAreaIndex]);
 
+        rows.accept();
         return new House(zip_code, market_value, total_livable_area);
     }
 
-    private Integer extractZipCode(String zipCodeField) {
-        if (zipCodeField == null || zipCodeField.isEmpty()) {
-            return null;
+    // Fields are split at commas, except inside double quotes ("SMITH, JOHN"); "" inside quotes is a quote
+    private static String[] splitFields(String line) {
+        if (line.indexOf('"') < 0) {
+            return line.split(",", -1);
         }
-
-        String digitsOnly = zipCodeField.replaceAll("[^0-9]", "");
-
-        if (digitsOnly.length() >= 5) {
-            try {
-                String fiveDigits = digitsOnly.substring(0, 5);
-                return Integer.parseInt(fiveDigits);
-            } catch (NumberFormatException e) {
-                return null;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
             }
         }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
 
-        return null;
+    // First five digits of the field, e.g. "19104-2345" -> 19104
+    private Integer extractZipCode(String zipCodeField) {
+        int zip = FieldParsers.firstFiveDigits(zipCodeField);
+        return zip < 0 ? null : zip;
     }
 
+    // Commas and dollar signs are ignored (e.g. "264,800.0" -> 264800); rounds to a whole number
     private Integer parsePositiveInteger(String value) {
-        if (value == null) {
-            return null;
-        }
-        String trimmed = value.trim();
-        if (trimmed.isEmpty()) {
-            return null;
-        }
-        // Remove commas and dollar signs, but keep digits and decimal point (e.g. "264,800.0" -> "264800.0")
-        String cleaned = trimmed.replaceAll("[,$]", "");
-
-        try {
-            double parsedDouble = Double.parseDouble(cleaned);
-            int parsed = (int) Math.round(parsedDouble);
-
-            return (parsed > 0) ? parsed : null;
-        } catch (NumberFormatException e) {
+        long parsed = FieldParsers.parseRoundedDecimal(value);
+        if (parsed == FieldParsers.INVALID) {
             return null;
         }
+        int rounded = (int) parsed;
+        return (rounded > 0) ? rounded : null;
     }
 }
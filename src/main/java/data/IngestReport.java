@@ -0,0 +1,202 @@
+package data;
+
+import metrics.Counter;
+import metrics.MetricsRegistry;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * IngestReport counts the rows a reader accepted and the rows it skipped, by RejectReason,
+ * so a dirty file loads completely instead of failing on its first bad row.
+ * If a rejects file is given, every skipped row is also written there as
+ * "line number, tab, reason, tab, original row". Safe to share between reader threads.
+ */
+public class IngestReport implements Closeable {
+
+    // Process-wide rejected rows by reason (ingest.rejected.<reason>), over every report
+    private static final Counter[] REJECTED_TOTAL = new Counter[RejectReason.values().length];
+
+    static {
+        for (RejectReason reason : RejectReason.values()) {
+            REJECTED_TOTAL[reason.ordinal()] = MetricsRegistry.getDefault()
+                    .counter("ingest.rejected." + reason.name().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private final String source;
+    private final Path rejectsFile;
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder[] rejected = new LongAdder[RejectReason.values().length];
+
+    // Only for a part of a file parsed out of order: rejected rows kept until merged into the file's report
+    private final List<Rejected> buffered;
+
+    private BufferedWriter writer;
+    private IOException writeFailure;
+
+    private static final class Rejected {
+        private final RejectReason reason;
+        private final long lineNumber;
+        private final String line;
+
+        private Rejected(RejectReason reason, long lineNumber, String line) {
+            this.reason = reason;
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+
+    public IngestReport(String source) {
+        this(source, null);
+    }
+
+    public IngestReport(String source, Path rejectsFile) {
+        this(source, rejectsFile, null);
+    }
+
+    private IngestReport(String source, Path rejectsFile, List<Rejected> buffered) {
+        this.source = source;
+        this.rejectsFile = rejectsFile;
+        this.buffered = buffered;
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Report for one block of a file, numbered from line 1, to be merged with mergeFrom().
+     */
+    static IngestReport forBlock(String source) {
+        return new IngestReport(source, null, new ArrayList<>());
+    }
+
+    public void accept() {
+        accepted.increment();
+    }
+
+    public void reject(RejectReason reason, long lineNumber, String line) {
+        rejected[reason.ordinal()].increment();
+        REJECTED_TOTAL[reason.ordinal()].increment();
+        if (buffered != null) {
+            buffered.add(new Rejected(reason, lineNumber, line));
+        } else if (rejectsFile != null) {
+            write(reason, lineNumber, line);
+        }
+    }
+
+    /**
+     * Adds a block's counts and rejected rows, renumbering its lines to follow lineOffset.
+     */
+    void mergeFrom(IngestReport block, long lineOffset) {
+        accepted.add(block.getAccepted());
+        for (RejectReason reason : RejectReason.values()) {
+            rejected[reason.ordinal()].add(block.getRejected(reason));
+        }
+        if (rejectsFile != null && block.buffered != null) {
+            for (Rejected row : block.buffered) {
+                write(row.reason, lineOffset + row.lineNumber, row.line);
+            }
+        }
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Path getRejectsFile() {
+        return rejectsFile;
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRejected() {
+        long total = 0;
+        for (LongAdder count : rejected) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    public long getRejected(RejectReason reason) {
+        return rejected[reason.ordinal()].sum();
+    }
+
+    /**
+     * Rejected row counts for the reasons that occurred.
+     */
+    public Map<RejectReason, Long> getRejectedByReason() {
+        Map<RejectReason, Long> counts = new EnumMap<>(RejectReason.class);
+        for (RejectReason reason : RejectReason.values()) {
+            long count = getRejected(reason);
+            if (count > 0) {
+                counts.put(reason, count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Flushes and closes the rejects file, if one was written. Rethrows a failure to write it.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(source).append(": ").append(getAccepted()).append(" rows accepted, ")
+                .append(getRejected()).append(" rejected");
+        Map<RejectReason, Long> counts = getRejectedByReason();
+        if (!counts.isEmpty()) {
+            text.append(" (");
+            String separator = "";
+            for (Map.Entry<RejectReason, Long> entry : counts.entrySet()) {
+                text.append(separator).append(entry.getValue()).append(' ').append(entry.getKey().getDescription());
+                separator = ", ";
+            }
+            text.append(')');
+        }
+        return text.toString();
+    }
+
+    // A failure to write is kept for close(), so parsing is not interrupted by it
+    private synchronized void write(RejectReason reason, long lineNumber, String line) {
+        if (writeFailure != null) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(rejectsFile, StandardCharsets.UTF_8);
+            }
+            writer.write(Long.toString(lineNumber));
+            writer.write('\t');
+            writer.write(reason.name());
+            writer.write('\t');
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            writeFailure = e;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package data;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one stage of ViolationIngestPipeline: how much it processed, how long its
+ * threads were busy versus blocked on a queue, and how full its input queue was.
+ * A stage that is busy while the others wait is the bottleneck; a stage whose input queue is
+ * always full cannot keep up with the stage before it.
+ * Updated concurrently by the stage's threads.
+ */
+public class IngestStageMetrics {
+
+    private final String name;
+    private final int threads;
+    private final LongAdder items = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder depthSamples = new LongAdder();
+    private final LongAdder depthTotal = new LongAdder();
+    private final AtomicLong maxDepth = new AtomicLong();
+    private volatile long wallNanos;
+
+    IngestStageMetrics(String name, int threads) {
+        this.name = name;
+        this.threads = threads;
+    }
+
+    void recordWork(long itemCount, long byteCount, long nanos) {
+        items.add(itemCount);
+        bytes.add(byteCount);
+        busyNanos.add(nanos);
+    }
+
+    void recordWait(long nanos) {
+        waitNanos.add(nanos);
+    }
+
+    // Sampled each time the stage takes from its input queue
+    void recordQueueDepth(int depth) {
+        depthSamples.increment();
+        depthTotal.add(depth);
+        maxDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    void setWallNanos(long nanos) {
+        wallNanos = nanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getItems() {
+        return items.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getBusyNanos() {
+        return busyNanos.sum();
+    }
+
+    public long getWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    public int getMaxQueueDepth() {
+        return (int) maxDepth.get();
+    }
+
+    public double getAverageQueueDepth() {
+        long samples = depthSamples.sum();
+        return samples == 0 ? 0 : (double) depthTotal.sum() / samples;
+    }
+
+    /**
+     * Items per second for the whole stage while its threads are busy: items over busy time
+     * summed across threads, times the thread count, so waiting is left out.
+     */
+    public double getItemsPerSecond() {
+        long busy = getBusyNanos();
+        return busy == 0 ? 0 : getItems() * 1e9 * threads / busy;
+    }
+
+    /**
+     * Share of the stage's thread time spent working rather than waiting, 0 to 1.
+     */
+    public double getUtilization() {
+        long wall = wallNanos;
+        return wall == 0 ? 0 : Math.min(1.0, (double) getBusyNanos() / ((double) wall * threads));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-9s threads=%d items=%d (%.1f MB) %.0f items/s busy=%.0f%% wait=%d ms queue avg=%.1f max=%d",
+                name, threads, getItems(), getBytes() / (1024.0 * 1024.0), getItemsPerSecond(),
+                getUtilization() * 100, getWaitNanos() / 1_000_000, getAverageQueueDepth(), getMaxQueueDepth());
+    }
+}
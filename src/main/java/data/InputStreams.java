@@ -0,0 +1,207 @@
+package data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * InputStreams opens the data files for the readers. A gzip-compressed file (recognised by its
+ * magic bytes, whatever its name) is decompressed while it is being read: a background thread
+ * inflates it into 64 KB chunks and hands them over through a small bounded queue, so inflating
+ * the next chunks overlaps with parsing the current one and nothing is written to disk.
+ */
+public final class InputStreams {
+
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    // Chunks the decompressing thread may run ahead of the reader (1 MB)
+    static final int QUEUED_CHUNKS = 16;
+
+    private static final int GZIP_MAGIC_1 = 0x1F;
+    private static final int GZIP_MAGIC_2 = 0x8B;
+
+    private InputStreams() {
+    }
+
+    /**
+     * Opens a file for reading, decompressing it on the fly if it is gzip-compressed.
+     */
+    public static InputStream open(String fileName) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(new FileInputStream(fileName), BUFFER_SIZE);
+        try {
+            if (!isGzip(in)) {
+                return in;
+            }
+            return inBackground(new GZIPInputStream(in, BUFFER_SIZE), fileName);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a text file for reading line by line (platform charset, like FileReader),
+     * decompressing it on the fly if it is gzip-compressed.
+     */
+    public static BufferedReader openReader(String fileName) throws IOException {
+        return new BufferedReader(new InputStreamReader(open(fileName), Charset.defaultCharset()), BUFFER_SIZE);
+    }
+
+    /**
+     * Reads source on a daemon thread, up to QUEUED_CHUNKS chunks ahead of the returned stream.
+     * Whatever the source fails with is rethrown by the returned stream.
+     */
+    static InputStream inBackground(InputStream source, String name) {
+        return new DecompressingInputStream(source, name);
+    }
+
+    /**
+     * Whether a file starts with the gzip magic bytes.
+     */
+    public static boolean isGzip(String fileName) throws IOException {
+        try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(fileName), 2)) {
+            return isGzip(in);
+        }
+    }
+
+    // Peeks at the first two bytes without consuming them
+    private static boolean isGzip(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        return first == GZIP_MAGIC_1 && second == GZIP_MAGIC_2;
+    }
+
+    /**
+     * Reads from a queue of chunks filled by a daemon thread that drains the source stream.
+     */
+    private static final class DecompressingInputStream extends InputStream {
+
+        // Marks the end of the stream (or a failure, see failure) in the queue
+        private static final byte[] END = new byte[0];
+
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+        private final Thread producer;
+        private volatile Throwable failure;
+        private volatile boolean closed;
+
+        private byte[] chunk = new byte[0];
+        private int position;
+        private boolean finished;
+
+        private DecompressingInputStream(InputStream source, String fileName) {
+            this.producer = new Thread(() -> pump(source), "gunzip-" + fileName);
+            producer.setDaemon(true);
+            producer.start();
+        }
+
+        private void pump(InputStream source) {
+            try (InputStream in = source) {
+                while (!closed) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int filled = in.readNBytes(buffer, 0, BUFFER_SIZE);
+                    if (filled > 0) {
+                        chunks.put(filled == BUFFER_SIZE ? buffer : Arrays.copyOf(buffer, filled));
+                    }
+                    if (filled < BUFFER_SIZE) {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Closed by the reader; nobody is waiting for the rest
+                return;
+            } catch (Throwable e) {
+                // Errors too, e.g. an OutOfMemoryError allocating a chunk: the reader must wake up and see it
+                failure = e;
+            } finally {
+                if (!closed) {
+                    try {
+                        chunks.put(END);
+                    } catch (InterruptedException e) {
+                        // Closed by the reader
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return chunk[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int copied = Math.min(length, chunk.length - position);
+            System.arraycopy(chunk, position, buffer, offset, copied);
+            position += copied;
+            return copied;
+        }
+
+        @Override
+        public int available() {
+            return chunk.length - position;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            producer.interrupt();
+            chunks.clear();
+        }
+
+        // Makes sure the current chunk has unread bytes; false at the end of the stream
+        private boolean fill() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            while (position == chunk.length) {
+                if (finished) {
+                    return false;
+                }
+                try {
+                    chunk = chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while decompressing.");
+                }
+                position = 0;
+                if (chunk == END) {
+                    finished = true;
+                    Throwable error = failure;
+                    if (error instanceof IOException) {
+                        throw (IOException) error;
+                    }
+                    if (error instanceof RuntimeException) {
+                        throw (RuntimeException) error;
+                    }
+                    if (error instanceof Error) {
+                        throw (Error) error;
+                    }
+                    if (error != null) {
+                        throw new IOException(error);
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
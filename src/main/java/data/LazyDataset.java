@@ -0,0 +1,92 @@
+package data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * LazyDataset wraps one data source that is read at most once.
+ * Whichever thread calls load() first does the reading (a startup thread, a warm-up
+ * thread or the menu thread that needs the data); everyone else waits on future().
+ */
+public class LazyDataset<T> {
+
+    private final Callable<T> source;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    private volatile long loadTimeMillis = -1;
+    private volatile int recordCount = -1;
+
+    public LazyDataset(Callable<T> source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Data source must not be null.");
+        }
+        this.source = source;
+    }
+
+    /**
+     * Reads the data on the calling thread, unless another thread already started reading it.
+     * @return true if this call did the reading
+     */
+    public boolean load() {
+        if (!claimed.compareAndSet(false, true)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            T data = source.call();
+            loadTimeMillis = (System.nanoTime() - start) / 1_000_000;
+            recordCount = sizeOf(data);
+            future.complete(data);
+        } catch (Throwable e) {
+            loadTimeMillis = (System.nanoTime() - start) / 1_000_000;
+            future.completeExceptionally(e instanceof CompletionException ? e : new CompletionException(e));
+        }
+        return true;
+    }
+
+    /**
+     * Loads the data if nobody has yet, then waits for it.
+     * @throws CompletionException if the data could not be read
+     */
+    public T get() {
+        load();
+        return future.join();
+    }
+
+    public CompletableFuture<T> future() {
+        return future;
+    }
+
+    public boolean isStarted() {
+        return claimed.get();
+    }
+
+    /**
+     * Wall-clock load time in milliseconds, or -1 if loading has not finished.
+     */
+    public long getLoadTimeMillis() {
+        return loadTimeMillis;
+    }
+
+    /**
+     * Number of records loaded, or -1 if the data has not loaded successfully.
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    private static int sizeOf(Object data) {
+        if (data instanceof List) {
+            return ((List<?>) data).size();
+        }
+        if (data instanceof Map) {
+            return ((Map<?, ?>) data).size();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,130 @@
+package data;
+
+import common.ParkingViolation;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * MultiSourceViolationReader reads any number of violation files, e.g. one per month, each in
+ * whichever format it is in (see ViolationFileFormat.detect()). The files are parsed at the same
+ * time, one thread per file up to the number of cores, and merged into one list in the order
+ * the files were given. Duplicate tickets across overlapping files are left to TicketDeduplicator.
+ */
+public class MultiSourceViolationReader implements JSONReader<ParkingViolation> {
+
+    private static final ReadMetrics METRICS = new ReadMetrics("multi-source");
+
+    private final List<String> fileNames;
+    private final int threads;
+    private final IngestReport report;
+
+    public MultiSourceViolationReader(List<String> fileNames) {
+        this(fileNames, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MultiSourceViolationReader(List<String> fileNames, int threads) {
+        this(fileNames, threads, new IngestReport("violations"));
+    }
+
+    /**
+     * @param report where accepted and rejected rows of all the files are counted
+     */
+    public MultiSourceViolationReader(List<String> fileNames, int threads, IngestReport report) {
+        if (fileNames == null || fileNames.isEmpty()) {
+            throw new IllegalArgumentException("At least one violations file is needed.");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive.");
+        }
+        if (report == null) {
+            throw new IllegalArgumentException("IngestReport must not be null.");
+        }
+        this.report = report;
+        this.fileNames = new ArrayList<>(fileNames);
+        this.threads = Math.min(threads, fileNames.size());
+    }
+
+    @Override
+    public List<ParkingViolation> readData() throws IOException, ParseException {
+        try (ReadMetrics.Timing timing = METRICS.begin(String.join(",", fileNames))) {
+            if (fileNames.size() == 1) {
+                List<ParkingViolation> violations = read(fileNames.get(0));
+                timing.end(violations.size());
+                return violations;
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "violation-reader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<List<ParkingViolation>>> parts = new ArrayList<>(fileNames.size());
+                for (String fileName : fileNames) {
+                    parts.add(executor.submit(() -> read(fileName)));
+                }
+
+                List<List<ParkingViolation>> results = new ArrayList<>(parts.size());
+                int total = 0;
+                for (Future<List<ParkingViolation>> part : parts) {
+                    List<ParkingViolation> result = await(part);
+                    results.add(result);
+                    total += result.size();
+                }
+                List<ParkingViolation> merged = new ArrayList<>(total);
+                for (List<ParkingViolation> result : results) {
+                    merged.addAll(result);
+                }
+                timing.end(merged.size());
+                return merged;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    public List<String> getFileNames() {
+        return new ArrayList<>(fileNames);
+    }
+
+    /**
+     * Accepted and rejected rows, added up over all the files read so far.
+     */
+    public IngestReport getIngestReport() {
+        return report;
+    }
+
+    private List<ParkingViolation> read(String fileName) throws IOException, ParseException {
+        return ViolationFileFormat.detect(fileName).reader(fileName, report).readData();
+    }
+
+    // Waits for one file and rethrows its failure as the reader's own exception types
+    private static List<ParkingViolation> await(Future<List<ParkingViolation>> part)
+            throws IOException, ParseException {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading violations.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof ParseException) {
+                throw (ParseException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
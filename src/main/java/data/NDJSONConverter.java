@@ -0,0 +1,164 @@
+package data;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * NDJSONConverter rewrites a violations file in the JSON array format as newline-delimited
+ * JSON, one ticket object per line, so it can be read with ParkingViolationNDJSONReader.
+ * The array is streamed: only the ticket being converted is held in memory, so files larger
+ * than the heap convert too. The output is written as UTF-8.
+ *
+ * Usage: java data.NDJSONConverter parking.json parking.ndjson
+ */
+public class NDJSONConverter {
+
+    private NDJSONConverter() {
+    }
+
+    /**
+     * Converts inputFile (a JSON array of objects) to outputFile. Returns the number of objects written.
+     */
+    public static int convert(String inputFile, String outputFile) throws IOException, ParseException {
+        try (Reader reader = InputStreams.openReader(inputFile);
+             BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+            JSONParser parser = new JSONParser();
+            TicketWriter tickets = new TicketWriter(parser, writer);
+            parser.parse(reader, tickets);
+            if (!tickets.sawArray) {
+                throw new ParseException(0, ParseException.ERROR_UNEXPECTED_TOKEN, "expected a JSON array");
+            }
+            return tickets.written;
+        }
+    }
+
+    /**
+     * Builds each element of the top-level array from the parser's events and writes it out
+     * as soon as it is complete.
+     */
+    private static final class TicketWriter implements ContentHandler {
+        private final JSONParser parser;
+        private final BufferedWriter writer;
+        // Containers of the element being built, innermost first, and the keys they are filed under
+        private final Deque<Object> containers = new ArrayDeque<>();
+        private final Deque<String> keys = new ArrayDeque<>();
+        private boolean sawArray;
+        private boolean inArray;
+        private int written;
+
+        private TicketWriter(JSONParser parser, BufferedWriter writer) {
+            this.parser = parser;
+            this.writer = writer;
+        }
+
+        @Override
+        public void startJSON() {
+        }
+
+        @Override
+        public void endJSON() {
+        }
+
+        @Override
+        public boolean startObject() throws ParseException {
+            checkInArray();
+            containers.push(new JSONObject());
+            return true;
+        }
+
+        @Override
+        public boolean endObject() throws ParseException, IOException {
+            return completed(containers.pop());
+        }
+
+        @Override
+        public boolean startObjectEntry(String key) {
+            keys.push(key);
+            return true;
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+            keys.pop();
+            return true;
+        }
+
+        @Override
+        public boolean startArray() throws ParseException {
+            if (!sawArray) {
+                sawArray = true;
+                inArray = true;
+                return true;
+            }
+            checkInArray();
+            containers.push(new JSONArray());
+            return true;
+        }
+
+        @Override
+        public boolean endArray() throws ParseException, IOException {
+            if (containers.isEmpty()) {
+                inArray = false;
+                return true;
+            }
+            return completed(containers.pop());
+        }
+
+        @Override
+        public boolean primitive(Object value) throws ParseException, IOException {
+            checkInArray();
+            return completed(value);
+        }
+
+        // Values outside the top-level array mean the file is not an array of tickets
+        private void checkInArray() throws ParseException {
+            if (!inArray) {
+                throw new ParseException(parser.getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, "expected a JSON array");
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean completed(Object value) throws ParseException, IOException {
+            Object parent = containers.peek();
+            if (parent instanceof JSONObject) {
+                ((JSONObject) parent).put(keys.peek(), value);
+            } else if (parent instanceof JSONArray) {
+                ((JSONArray) parent).add(value);
+            } else if (value instanceof JSONObject) {
+                writer.write(((JSONObject) value).toJSONString());
+                writer.newLine();
+                written++;
+            } else {
+                throw new ParseException(parser.getPosition(), ParseException.ERROR_UNEXPECTED_TOKEN, value);
+            }
+            return true;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: java data.NDJSONConverter <input.json> <output.ndjson>");
+            return;
+        }
+        try {
+            int written = convert(args[0], args[1]);
+            System.out.println("Wrote " + written + " records to " + args[1]);
+        } catch (IOException e) {
+            System.out.println("Error converting file: " + e.getMessage());
+        } catch (ParseException e) {
+            System.out.println("Error parsing JSON file: " + e);
+        }
+    }
+}
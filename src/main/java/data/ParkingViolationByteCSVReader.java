@@ -0,0 +1,264 @@
+package data;
+
+import common.IsoTimestamps;
+import common.ParkingViolation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ParkingViolationByteCSVReader reads the same CSV layout as ParkingViolationCSVReader, but
+ * works on the raw bytes instead of decoding the whole file to chars first. The file is read
+ * through a FileChannel into a 1 MB direct buffer; dates, fines and ticket numbers are parsed
+ * straight from the bytes, and text fields go through ByteDictionary so a String is only
+ * created the first time a value is seen. Meant for the ASCII feeds; other bytes in text
+ * fields are decoded with the platform charset, like FileReader does.
+ */
+public class ParkingViolationByteCSVReader implements CSVReader<ParkingViolation> {
+
+    public static final int BUFFER_SIZE = 1 << 20;
+
+    private static final int FIELDS = 7;
+
+    private static final ReadMetrics METRICS = new ReadMetrics("byte-csv");
+
+    private final String fileName;
+    private final IngestReport report;
+    private volatile IngestReport lastReport;
+    private IngestReport rows;
+    private final Charset charset = Charset.defaultCharset();
+    private final ByteDictionary<String> strings = new ByteDictionary<>(charset, text -> text);
+    private final ByteDictionary<Integer> zipCodes = new ByteDictionary<>(charset, ParkingViolationByteCSVReader::parseZip);
+
+    // Positions of the first commas of the current line, and the start and end of each field
+    private final int[] commaPositions = new int[FIELDS];
+    private final int[] fieldStarts = new int[FIELDS];
+    private final int[] fieldEnds = new int[FIELDS];
+
+    public ParkingViolationByteCSVReader(String fileName) {
+        this(fileName, null);
+    }
+
+    /**
+     * @param report where accepted and rejected rows are counted; null for a new report per read
+     */
+    public ParkingViolationByteCSVReader(String fileName, IngestReport report) {
+        this.fileName = fileName;
+        this.report = report;
+        this.lastReport = report != null ? report : new IngestReport(fileName);
+    }
+
+    @Override
+    public List<ParkingViolation> readData() throws IOException {
+        try (ReadMetrics.Timing timing = METRICS.begin(fileName)) {
+            List<ParkingViolation> violations = new ArrayList<>();
+            rows = report != null ? report : new IngestReport(fileName);
+            lastReport = rows;
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            // Lines are parsed in place in a heap copy of each read; a partial last line moves to the front
+            byte[] data = new byte[BUFFER_SIZE];
+            int carry = 0;
+            int lineNumber = 0;
+
+            try (ReadableByteChannel channel = openChannel()) {
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    int read = buffer.remaining();
+                    if (carry + read > data.length) {
+                        data = Arrays.copyOf(data, Math.max(data.length * 2, carry + read));
+                    }
+                    buffer.get(data, carry, read);
+                    buffer.clear();
+
+                    // One pass finds both the line breaks and the commas of each line; the carried
+                    // partial line is scanned again from its start
+                    int end = carry + read;
+                    int lineStart = 0;
+                    int commas = 0;
+                    for (int i = 0; i < end; i++) {
+                        byte b = data[i];
+                        if (b == ',') {
+                            if (commas < FIELDS) {
+                                commaPositions[commas++] = i;
+                            }
+                        } else if (b == '\n') {
+                            addLine(violations, data, lineStart, i, commas, ++lineNumber);
+                            lineStart = i + 1;
+                            commas = 0;
+                        }
+                    }
+                    carry = end - lineStart;
+                    System.arraycopy(data, lineStart, data, 0, carry);
+                }
+                if (carry > 0) {
+                    int commas = 0;
+                    for (int i = 0; i < carry && commas < FIELDS; i++) {
+                        if (data[i] == ',') {
+                            commaPositions[commas++] = i;
+                        }
+                    }
+                    addLine(violations, data, 0, carry, commas, ++lineNumber);
+                }
+            }
+            timing.end(violations.size());
+            return violations;
+        }
+    }
+
+    /**
+     * Accepted and rejected rows of the last read.
+     */
+    public IngestReport getIngestReport() {
+        return lastReport;
+    }
+
+    // Compressed files cannot be mapped to a FileChannel, so they are read through InputStreams
+    private ReadableByteChannel openChannel() throws IOException {
+        if (InputStreams.isGzip(fileName)) {
+            return Channels.newChannel(InputStreams.open(fileName));
+        }
+        return FileChannel.open(Paths.get(fileName));
+    }
+
+    private void addLine(List<ParkingViolation> violations, byte[] line, int start, int end, int commas,
+                         int lineNumber) {
+        if (end > start && line[end - 1] == '\r') {
+            end--;
+        }
+        // Skip completely empty lines
+        if (isBlank(line, start, end)) {
+            return;
+        }
+
+        int fields = splitFields(line, start, end, commas);
+        if (fields < 6) {
+            rows.reject(RejectReason.TOO_FEW_FIELDS, lineNumber, new String(line, start, end - start, charset));
+            return;
+        }
+
+        long fine = parseFine(line, fieldStarts[1], fieldEnds[1]);
+        if (fine == FieldParsers.INVALID) {
+            rows.reject(RejectReason.BAD_FINE, lineNumber, new String(line, start, end - start, charset));
+            return;
+        }
+        String violation = field(line, 2);
+        String plate_id = field(line, 3);
+        String state = field(line, 4);
+        Integer zip_code = fields >= 7 ? zipCodes.get(line, fieldStarts[6], fieldEnds[6] - fieldStarts[6]) : null;
+
+        long timestamp = IsoTimestamps.parseEpochSeconds(line, fieldStarts[0], fieldEnds[0] - fieldStarts[0]);
+        long ticketNumber = parseTicketNumber(line, fieldStarts[5], fieldEnds[5]);
+        rows.accept();
+        if (timestamp == IsoTimestamps.INVALID) {
+            // Rare: keep the original text of an unparseable date
+            violations.add(new ParkingViolation(text(line, 5), plate_id, text(line, 0), zip_code, violation, (int) fine, state));
+        } else if (ticketNumber == ParkingViolation.NO_TICKET_NUMBER) {
+            violations.add(new ParkingViolation(text(line, 5), plate_id, timestamp, zip_code, violation, (int) fine, state));
+        } else {
+            violations.add(new ParkingViolation(ticketNumber, plate_id, timestamp, zip_code, violation, (int) fine, state));
+        }
+    }
+
+    // Turns the first comma positions into the first 7 fields. Like String.split(","), trailing
+    // empty fields do not count.
+    private int splitFields(byte[] line, int start, int end, int commas) {
+        int fields = Math.min(commas + 1, FIELDS);
+        for (int field = 0; field < fields; field++) {
+            fieldStarts[field] = field == 0 ? start : commaPositions[field - 1] + 1;
+            fieldEnds[field] = field < commas ? commaPositions[field] : end;
+        }
+        boolean moreFields = commas >= FIELDS && hasContent(line, fieldEnds[FIELDS - 1], end);
+        while (!moreFields && fields > 0 && fieldStarts[fields - 1] == fieldEnds[fields - 1]) {
+            fields--;
+        }
+        return fields;
+    }
+
+    // Whether anything other than commas follows position start, i.e. split() would keep the fields before it
+    private static boolean hasContent(byte[] line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (line[i] != ',') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String field(byte[] line, int field) {
+        return strings.get(line, fieldStarts[field], fieldEnds[field] - fieldStarts[field]);
+    }
+
+    private String text(byte[] line, int field) {
+        return new String(line, fieldStarts[field], fieldEnds[field] - fieldStarts[field], charset);
+    }
+
+    // Same rules as FieldParsers.parseInt(), without creating a String
+    private static long parseFine(byte[] line, int start, int end) {
+        int from = start;
+        int to = end;
+        while (from < to && (line[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        while (to > from && (line[to - 1] & 0xFF) <= ' ') {
+            to--;
+        }
+        boolean negative = from < to && line[from] == '-';
+        if (negative || (from < to && line[from] == '+')) {
+            from++;
+        }
+        if (from == to || to - from > 10) {
+            return FieldParsers.INVALID;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return FieldParsers.INVALID;
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? FieldParsers.INVALID : value;
+    }
+
+    // Same rules as ParkingViolation.parseTicketNumber()
+    private static long parseTicketNumber(byte[] line, int start, int end) {
+        int length = end - start;
+        if (length == 0 || length > 18 || (line[start] == '0' && length > 1)) {
+            return ParkingViolation.NO_TICKET_NUMBER;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return ParkingViolation.NO_TICKET_NUMBER;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Only called for dictionary-new ZIP codes
+    private static Integer parseZip(String text) {
+        // bad ZIP in the CSV -> treat as missing
+        long zip = FieldParsers.parseInt(text);
+        return zip == FieldParsers.INVALID ? null : (int) zip;
+    }
+
+    private static boolean isBlank(byte[] line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if ((line[i] & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -3,59 +3,98 @@ package data;
 import common.ParkingViolation;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class ParkingViolationCSVReader implements CSVReader<ParkingViolation> {
 
+    private static final ReadMetrics METRICS = new ReadMetrics("csv");
+
     private final String fileName;
+    private final IngestReport report;
+    private volatile IngestReport lastReport;
 
     public ParkingViolationCSVReader(String fileName) {
+        this(fileName, null);
+    }
+
+    /**
+     * @param report where accepted and rejected rows are counted; null for a new report per read
+     */
+    public ParkingViolationCSVReader(String fileName, IngestReport report) {
         this.fileName = fileName;
+        this.report = report;
+        this.lastReport = report != null ? report : new IngestReport(fileName);
     }
 
     @Override
     public List<ParkingViolation> readData() throws IOException {
-        List<ParkingViolation> violations = new ArrayList<>();
+        try (ReadMetrics.Timing timing = METRICS.begin(fileName)) {
+            List<ParkingViolation> violations = new ArrayList<>();
+            IngestReport rows = report != null ? report : new IngestReport(fileName);
+            lastReport = rows;
 
-        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
-            String line;
+            try (BufferedReader br = InputStreams.openReader(fileName)) {
+                String line;
+                long lineNumber = 0;
 
-            while ((line = br.readLine()) != null) {
-                // Skip completely empty lines
-                if (line.trim().isEmpty()) {
-                    continue;
-                }
-                String[] fields = line.split(",");
-
-                String date = fields[0];
-                int fine = Integer.parseInt(fields[1].trim());
-                String violation = fields[2];
-                String plate_id = fields[3];
-                String state = fields[4];
-                String ticket_number = fields[5];
-
-                Integer zip_code = null;
-                if (fields.length >= 7) {
-                    String zip = fields[6].trim();
-                    if (!zip.isEmpty()) {
-                        try {
-                            zip_code = Integer.parseInt(zip);
-                        } catch (NumberFormatException e) {
-                            // bad ZIP in the CSV -> treat as missing
-                            zip_code = null;
-                        }
+                while ((line = br.readLine()) != null) {
+                    ParkingViolation pv = parseLine(line, ++lineNumber, rows);
+                    if (pv != null) {
+                        violations.add(pv);
                     }
                 }
-
-                ParkingViolation pv = new ParkingViolation( ticket_number, plate_id,
-                                                            date, zip_code, violation,
-                                                            fine,state);
-                violations.add(pv);
             }
+            timing.end(violations.size());
+            return violations;
         }
-        return violations;
     }
-}
\ No newline at end of file
+
+    /**
+     * Accepted and rejected rows of the last read.
+     */
+    public IngestReport getIngestReport() {
+        return lastReport;
+    }
+
+    /**
+     * Builds a violation from one CSV line. Returns null for an empty line, or for a malformed one
+     * after recording it in the report. Shared with ViolationIngestPipeline.
+     */
+    static ParkingViolation parseLine(String line, long lineNumber, IngestReport report) {
+        // Skip completely empty lines
+        if (line.trim().isEmpty()) {
+            return null;
+        }
+        String[] fields = line.split(",");
+        if (fields.length < 6) {
+            report.reject(RejectReason.TOO_FEW_FIELDS, lineNumber, line);
+            return null;
+        }
+
+        long fine = FieldParsers.parseInt(fields[1]);
+        if (fine == FieldParsers.INVALID) {
+            report.reject(RejectReason.BAD_FINE, lineNumber, line);
+            return null;
+        }
+
+        String date = fields[0];
+        String violation = fields[2];
+        String plate_id = fields[3];
+        String state = fields[4];
+        String ticket_number = fields[5];
+
+        Integer zip_code = null;
+        if (fields.length >= 7) {
+            // bad ZIP in the CSV -> treat as missing
+            long zip = FieldParsers.parseInt(fields[6]);
+            zip_code = zip == FieldParsers.INVALID ? null : (int) zip;
+        }
+
+        report.accept();
+        return new ParkingViolation( ticket_number, plate_id,
+                                     date, zip_code, violation,
+                                     (int) fine,state);
+    }
+}
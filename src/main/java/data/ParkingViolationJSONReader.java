@@ -6,60 +6,132 @@ import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 
 public class ParkingViolationJSONReader implements JSONReader<ParkingViolation> {
 
-    private final String fileName;
+    private static final ReadMetrics METRICS = new ReadMetrics("json");
 
-    public ParkingViolationJSONReader(String fileName) { this.fileName = fileName; }
+    private final String fileName;
+    private final IngestReport report;
+    private volatile IngestReport lastReport;
+
+    public ParkingViolationJSONReader(String fileName) { this(fileName, null); }
+
+    /**
+     * @param report where accepted and rejected records are counted; null for a new report per read
+     */
+    public ParkingViolationJSONReader(String fileName, IngestReport report) {
+        this.fileName = fileName;
+        this.report = report;
+        this.lastReport = report != null ? report : new IngestReport(fileName);
+    }
 
     @Override
     public List<ParkingViolation> readData() throws IOException, ParseException {
-        List<ParkingViolation> violations = new ArrayList<>();
-
-        FileReader fileReader = new FileReader(fileName);
-        JSONParser parser = new JSONParser();
-        JSONArray array = (JSONArray) parser.parse(fileReader); // Use JSONParser to parse the file's JSON content and cast it to a JSON Array.
-
-        for (Object obj : array) {
-            JSONObject pv = (JSONObject) obj;
+        try (ReadMetrics.Timing timing = METRICS.begin(fileName)) {
+            List<ParkingViolation> violations = new ArrayList<>();
+            IngestReport rows = report != null ? report : new IngestReport(fileName);
+            lastReport = rows;
+
+            Object parsed;
+            try (Reader fileReader = InputStreams.openReader(fileName)) {
+                JSONParser parser = new JSONParser();
+                parsed = parser.parse(fileReader); // Use JSONParser to parse the file's JSON content; it must be a JSON Array.
+            }
+            if (!(parsed instanceof JSONArray)) {
+                // Valid JSON of the wrong shape; ParseException has no message to say so
+                throw new IOException(fileName + " is not a JSON array of tickets (found "
+                        + (parsed == null ? "null" : parsed.getClass().getSimpleName()) + ")");
+            }
+            JSONArray array = (JSONArray) parsed;
+
+            // Records are numbered by their position in the array
+            long recordNumber = 0;
+            for (Object obj : array) {
+                recordNumber++;
+                if (!(obj instanceof JSONObject)) {
+                    rows.reject(RejectReason.NOT_AN_OBJECT, recordNumber, String.valueOf(obj));
+                    continue;
+                }
+                ParkingViolation violation = fromJSONObject((JSONObject) obj, recordNumber, rows);
+                if (violation != null) {
+                    violations.add(violation);
+                }
+            }
+            timing.end(violations.size());
+            return violations;
+        }
+    }
 
-            Object ticket = pv.get("ticket_number");
-            String ticket_number = ticket == null ? null : ticket.toString();
+    /**
+     * Accepted and rejected records of the last read.
+     */
+    public IngestReport getIngestReport() {
+        return lastReport;
+    }
 
-            Object plate = pv.get("plate_id");
-            String plate_id = plate == null ? null : plate.toString();
+    /**
+     * Builds a violation from one ticket object, or returns null after recording a malformed one
+     * in the report. Shared with ParkingViolationNDJSONReader.
+     */
+    static ParkingViolation fromJSONObject(JSONObject pv, long recordNumber, IngestReport report) {
+        Object ticket = pv.get("ticket_number");
+        Object plate = pv.get("plate_id");
+        Object dateObj = pv.get("date");
+        Object violationObj = pv.get("violation");
+        Object stateObj = pv.get("state");
+        if (!isText(ticket) || !isText(plate) || !isText(dateObj) || !isText(violationObj) || !isText(stateObj)) {
+            report.reject(RejectReason.NOT_TEXT, recordNumber, pv.toJSONString());
+            return null;
+        }
+        String ticket_number = text(ticket);
+        String plate_id = text(plate);
+        String date = text(dateObj);
+
+        Object zipObj = pv.get("zip_code");
+        Integer zip_code = null;
+        if (zipObj != null) {
+            long zip = FieldParsers.parseInt(zipObj.toString());
+            zip_code = zip == FieldParsers.INVALID ? null : (int) zip;
+        }
 
-            String date = (String) pv.get("date");
+        String violation = text(violationObj);
 
-            Object zipObj = pv.get("zip_code");
-            Integer zip_code = null;
-            if (zipObj != null) {
-                try {
-                    zip_code = Integer.parseInt(zipObj.toString());
-                } catch (NumberFormatException e) {
-                }
+        // A number must be a whole one that fits an int (36 and 36.0, not 50.7); a string follows the CSV readers' rule
+        Object fineObj = pv.get("fine");
+        int fine = 0;
+        if (fineObj instanceof Number) {
+            double value = ((Number) fineObj).doubleValue();
+            if (value != Math.rint(value) || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                report.reject(RejectReason.BAD_FINE, recordNumber, pv.toJSONString());
+                return null;
+            }
+            fine = (int) value;
+        } else if (fineObj != null) {
+            long parsed = FieldParsers.parseInt(fineObj.toString());
+            if (parsed == FieldParsers.INVALID) {
+                report.reject(RejectReason.BAD_FINE, recordNumber, pv.toJSONString());
+                return null;
             }
+            fine = (int) parsed;
+        }
 
-            String violation = (String) pv.get("violation");
+        String state = text(stateObj);
 
-            Object fineObj = pv.get("fine");
-            int fine = 0;
-            if (fineObj instanceof Number) {
-                fine = ((Number) fineObj).intValue();
-            } else if (fineObj != null) {
-                fine = Integer.parseInt(fineObj.toString());
-            }
+        report.accept();
+        return new ParkingViolation(ticket_number, plate_id, date, zip_code, violation, fine, state);
+    }
 
-            String state = (String) pv.get("state");
+    // Strings, and numbers or booleans as written; a nested object or array is not a field value
+    private static boolean isText(Object value) {
+        return !(value instanceof JSONObject) && !(value instanceof JSONArray);
+    }
 
-            ParkingViolation parkingViolation = new ParkingViolation(ticket_number, plate_id, date, zip_code, violation, fine, state);
-            violations.add(parkingViolation);
-        }
-        return violations;
+    private static String text(Object value) {
+        return value == null ? null : value.toString();
     }
 }
@@ -0,0 +1,155 @@
+package data;
+
+import common.ParkingViolation;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ParkingViolationNDJSONReader reads newline-delimited JSON: one ticket object per line,
+ * with the same fields as the JSON array format. Because every line stands alone, the file
+ * is read in batches of lines that are parsed on several threads while the next batch is
+ * being read; the batches are put back together in file order.
+ */
+public class ParkingViolationNDJSONReader implements JSONReader<ParkingViolation> {
+
+    public static final int BATCH_LINES = 4096;
+
+    private static final ReadMetrics METRICS = new ReadMetrics("ndjson");
+
+    private final String fileName;
+    private final int threads;
+    private final IngestReport report;
+    private volatile IngestReport lastReport;
+
+    public ParkingViolationNDJSONReader(String fileName) {
+        this(fileName, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParkingViolationNDJSONReader(String fileName, IngestReport report) {
+        this(fileName, Runtime.getRuntime().availableProcessors(), report);
+    }
+
+    public ParkingViolationNDJSONReader(String fileName, int threads) {
+        this(fileName, threads, null);
+    }
+
+    /**
+     * @param report where accepted and rejected lines are counted; null for a new report per read
+     */
+    public ParkingViolationNDJSONReader(String fileName, int threads, IngestReport report) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive.");
+        }
+        this.fileName = fileName;
+        this.threads = threads;
+        this.report = report;
+        this.lastReport = report != null ? report : new IngestReport(fileName);
+    }
+
+    @Override
+    public List<ParkingViolation> readData() throws IOException, ParseException {
+        try (ReadMetrics.Timing timing = METRICS.begin(fileName)) {
+            IngestReport rows = report != null ? report : new IngestReport(fileName);
+            lastReport = rows;
+            ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "ndjson-parser");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try (BufferedReader br = InputStreams.openReader(fileName)) {
+                List<Future<List<ParkingViolation>>> batches = new ArrayList<>();
+                List<String> lines = new ArrayList<>(BATCH_LINES);
+                String line;
+                long lineNumber = 0;
+                while ((line = br.readLine()) != null) {
+                    lines.add(line);
+                    lineNumber++;
+                    if (lines.size() == BATCH_LINES) {
+                        List<String> batch = lines;
+                        long firstLine = lineNumber - batch.size() + 1;
+                        batches.add(executor.submit(() -> parse(batch, firstLine, rows)));
+                        lines = new ArrayList<>(BATCH_LINES);
+                    }
+                }
+                if (!lines.isEmpty()) {
+                    List<String> batch = lines;
+                    long firstLine = lineNumber - batch.size() + 1;
+                    batches.add(executor.submit(() -> parse(batch, firstLine, rows)));
+                }
+
+                List<ParkingViolation> violations = new ArrayList<>(batches.size() * BATCH_LINES);
+                for (Future<List<ParkingViolation>> batch : batches) {
+                    violations.addAll(await(batch));
+                }
+                timing.end(violations.size());
+                return violations;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Accepted and rejected lines of the last read.
+     */
+    public IngestReport getIngestReport() {
+        return lastReport;
+    }
+
+    // Parses one batch; each task has its own parser since JSONParser is not thread-safe.
+    // Lines that are not ticket objects are rejected rather than failing the whole read.
+    private static List<ParkingViolation> parse(List<String> lines, long firstLine, IngestReport report) {
+        JSONParser parser = new JSONParser();
+        List<ParkingViolation> violations = new ArrayList<>(lines.size());
+        long lineNumber = firstLine;
+        for (String line : lines) {
+            long current = lineNumber++;
+            // Skip completely empty lines
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            Object value;
+            try {
+                value = parser.parse(line);
+            } catch (ParseException e) {
+                // Only thrown for a broken line, not for every row of a bad column
+                report.reject(RejectReason.MALFORMED_JSON, current, line);
+                continue;
+            }
+            if (!(value instanceof JSONObject)) {
+                report.reject(RejectReason.NOT_AN_OBJECT, current, line);
+                continue;
+            }
+            ParkingViolation violation = ParkingViolationJSONReader.fromJSONObject((JSONObject) value, current, report);
+            if (violation != null) {
+                violations.add(violation);
+            }
+        }
+        return violations;
+    }
+
+    private static List<ParkingViolation> await(Future<List<ParkingViolation>> batch) throws IOException {
+        try {
+            return batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading violations.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
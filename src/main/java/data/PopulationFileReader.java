@@ -1,7 +1,6 @@
 package data;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.nio.Buffer;
 import java.util.HashMap;
@@ -14,36 +13,91 @@ import java.util.Map;
      */
 public class PopulationFileReader implements PopulationReader{
 
+    private static final ReadMetrics METRICS = new ReadMetrics("population");
+
     private final String fileName;
+    private final IngestReport report;
+    private volatile IngestReport lastReport;
 
     public PopulationFileReader(String fileName){
+        this(fileName, null);
+    }
+
+    /**
+     * @param report where accepted and rejected lines are counted; null for a new report per read
+     */
+    public PopulationFileReader(String fileName, IngestReport report){
         this.fileName = fileName;
+        this.report = report;
+        this.lastReport = report != null ? report : new IngestReport(fileName);
     }
 
     @Override
     public Map<Integer,Integer> readData() throws IOException {
-        Map<Integer,Integer> populations = new HashMap<>();
-
-        try(BufferedReader br = new BufferedReader(new FileReader(fileName))) {
-            String line;
+        try (ReadMetrics.Timing timing = METRICS.begin(fileName)) {
+            Map<Integer,Integer> populations = new HashMap<>();
+            IngestReport rows = report != null ? report : new IngestReport(fileName);
+            lastReport = rows;
 
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
+            try(BufferedReader br = InputStreams.openReader(fileName)) {
+                String line;
+                long lineNumber = 0;
 
-                String[] parts = line.split("\\s+");
-                if (parts.length < 2) continue;
+                while ((line = br.readLine()) != null) {
+                    lineNumber++;
+                    // The first two whitespace-separated tokens, found in place rather than with split("\\s+"),
+                    // which compiles a regular expression for every line
+                    int zipStart = skipWhitespace(line, 0);
+                    if (zipStart == line.length()) continue;
+                    int zipEnd = skipToken(line, zipStart);
+                    int populationStart = skipWhitespace(line, zipEnd);
+                    if (populationStart == line.length()) {
+                        rows.reject(RejectReason.TOO_FEW_FIELDS, lineNumber, line);
+                        continue;
+                    }
+                    int populationEnd = skipToken(line, populationStart);
 
-                try {
-                    int zip = Integer.parseInt(parts[0]);
-                    int population = Integer.parseInt(parts[1]);
-                    populations.put(zip, population);
-                } catch (NumberFormatException e) {
                     // Skip malformed numeric values
+                    long zip = FieldParsers.parseInt(line, zipStart, zipEnd);
+                    if (zip == FieldParsers.INVALID) {
+                        rows.reject(RejectReason.BAD_ZIP_CODE, lineNumber, line);
+                        continue;
+                    }
+                    long population = FieldParsers.parseInt(line, populationStart, populationEnd);
+                    if (population == FieldParsers.INVALID) {
+                        rows.reject(RejectReason.BAD_POPULATION, lineNumber, line);
+                        continue;
+                    }
+                    rows.accept();
+                    populations.put((int) zip, (int) population);
                 }
             }
+
+            timing.end(populations.size());
+            return populations;
+        }
+    }
+
+    private static int skipWhitespace(String line, int from) {
+        int i = from;
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipToken(String line, int from) {
+        int i = from;
+        while (i < line.length() && !Character.isWhitespace(line.charAt(i))) {
+            i++;
         }
+        return i;
+    }
 
-        return populations;
+    /**
+     * Accepted and rejected lines of the last read.
+     */
+    public IngestReport getIngestReport() {
+        return lastReport;
     }
 }
@@ -0,0 +1,81 @@
+package data;
+
+import metrics.Counter;
+import metrics.IngestEvent;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+
+import java.io.File;
+
+/**
+ * The metrics one kind of reader records for every readData() call: how long the call took
+ * (reader.&lt;name&gt;.readData), how many records it returned (reader.&lt;name&gt;.rows) and,
+ * while Flight Recorder is recording, a "load" IngestEvent for the file. A call that throws is
+ * still timed, with no rows, and counted in reader.&lt;name&gt;.failures.
+ * Rejected rows are counted by IngestReport, per reason.
+ */
+final class ReadMetrics {
+
+    private final LatencyHistogram latency;
+    private final Counter rows;
+    private final Counter failures;
+
+    ReadMetrics(String reader) {
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        this.latency = registry.histogram("reader." + reader + ".readData");
+        this.rows = registry.counter("reader." + reader + ".rows");
+        this.failures = registry.counter("reader." + reader + ".failures");
+    }
+
+    /**
+     * Starts timing a read of a file (or of several, for a comma-separated list). Used in a
+     * try-with-resources block: end() records a read that returns, close() one that throws.
+     */
+    Timing begin(String source) {
+        return new Timing(source);
+    }
+
+    final class Timing implements AutoCloseable {
+        private final String source;
+        private final long startNanos = System.nanoTime();
+        private final IngestEvent event;
+        private boolean ended;
+
+        private Timing(String source) {
+            this.source = source;
+            this.event = IngestEvent.begin("load", source);
+        }
+
+        void end(int rowCount) {
+            ended = true;
+            latency.recordSince(startNanos);
+            rows.add(rowCount);
+            if (event != null) {
+                IngestEvent.end(event, rowCount, fileSize(source));
+            }
+        }
+
+        // Records the read as failed unless end() was reached
+        @Override
+        public void close() {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            latency.recordSince(startNanos);
+            failures.increment();
+            if (event != null) {
+                IngestEvent.end(event, 0, fileSize(source));
+            }
+        }
+    }
+
+    // On-disk size, so compressed for a .gz file
+    private static long fileSize(String source) {
+        long bytes = 0;
+        for (String file : source.split(",")) {
+            bytes += new File(file).length();
+        }
+        return bytes;
+    }
+}
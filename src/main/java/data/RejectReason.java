@@ -0,0 +1,25 @@
+package data;
+
+/**
+ * Why a reader skipped a row. See IngestReport.
+ */
+public enum RejectReason {
+    TOO_FEW_FIELDS("too few fields"),
+    BAD_FINE("fine is not a number"),
+    BAD_ZIP_CODE("missing or invalid ZIP code"),
+    BAD_POPULATION("population is not a number"),
+    MALFORMED_JSON("malformed JSON"),
+    NOT_AN_OBJECT("not a ticket object"),
+    NOT_TEXT("text field is an object or array"),
+    LINE_TOO_LONG("line too long");
+
+    private final String description;
+
+    RejectReason(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
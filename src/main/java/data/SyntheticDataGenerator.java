@@ -0,0 +1,481 @@
+package data;
+
+import common.IsoTimestamps;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * SyntheticDataGenerator writes violation, property and population files of any size for scale
+ * and benchmark testing. Rows are generated one at a time and streamed to disk, so memory use
+ * does not depend on the row count; output files ending in ".gz" are gzip-compressed.
+ *
+ * The output is fully determined by the seed. ZIP codes, violation types with their fines,
+ * plate states and hours of the day follow the frequencies of the sample parking.csv; ZIP codes
+ * of properties and the population file follow the populations of the sample population.txt.
+ * Property files use a wide schema modeled on the OPA properties export, with quoted text
+ * (some containing commas) and, at the dirty rate, malformed values the readers have to cope with.
+ *
+ * Usage: java data.SyntheticDataGenerator violations csv|json|ndjson rows output [seed [dirtyRate]]
+ *        java data.SyntheticDataGenerator properties rows output [seed [dirtyRate]]
+ *        java data.SyntheticDataGenerator population rows output [seed]
+ */
+public class SyntheticDataGenerator {
+
+    public static final long DEFAULT_SEED = 42;
+    public static final double DEFAULT_DIRTY_RATE = 0.01;
+
+    // Philadelphia ZIP codes with their populations, as in the sample population.txt
+    private static final int[] ZIP_CODES = {
+            19102, 19103, 19104, 19106, 19107, 19111, 19112, 19113, 19114, 19115, 19116, 19118,
+            19119, 19120, 19121, 19122, 19123, 19124, 19125, 19126, 19127, 19128, 19129, 19130,
+            19131, 19132, 19133, 19134, 19135, 19136, 19137, 19138, 19139, 19140, 19141, 19142,
+            19143, 19144, 19145, 19146, 19147, 19148, 19149, 19150, 19151, 19152, 19153, 19154};
+    private static final int[] POPULATIONS = {
+            4705, 21908, 51808, 11740, 14875, 63090, 13, 120, 30907, 33207, 33112, 9808,
+            27035, 68104, 36572, 21653, 13416, 66691, 22958, 15758, 5913, 35239, 10975, 24870,
+            43172, 36268, 26063, 60675, 33091, 40647, 8638, 32273, 41271, 54133, 31376, 29595,
+            64849, 43329, 47261, 35113, 36228, 49732, 55006, 23378, 29883, 33293, 12259, 34196};
+    // Tickets per ZIP code in the sample; Center City gets far more than its population suggests
+    private static final int[] TICKET_WEIGHTS = {
+            864, 2665, 1979, 1311, 2286, 81, 1, 1, 2, 5, 1, 100,
+            43, 273, 332, 78, 776, 357, 78, 19, 386, 97, 129, 1175,
+            55, 179, 127, 179, 77, 66, 1, 15, 502, 515, 445, 169,
+            171, 403, 401, 1061, 2212, 551, 134, 13, 31, 41, 9, 1};
+    // One in five sample tickets has no ZIP code
+    private static final double MISSING_ZIP_RATE = 0.2;
+
+    private static final String[] VIOLATIONS = {
+            "METER EXPIRED CC", "METER EXPIRED", "OVER TIME LIMIT", "STOP PROHIBITED CC",
+            "EXPIRED INSPECTION", "PARKING PROHBITED CC", "STOPPING PROHIBITED", "PARKING PROHBITED",
+            "OVER TIME LIMIT CC", "PASSENGR LOADNG ZONE", "FIRE HYDRANT", "BUS ONLY ZONE", "SIDEWALK",
+            "LOADING ZONE   CC", "CORNER CLEARANCE", "HP RESERVED SPACE", "BUS ONLY ZONE   CC", "CROSSWALK",
+            "SCHOOL ZONE", "DOUBLE PARKED", "STREET CLEANING", "BLOCKING DRIVEWAY", "SIDEWALK   CC",
+            "HP RAMP BLOCKED", "DOUBLE PARKED  CC", "LOADING ZONE", "IMPROPER ON 2WAY HWY",
+            "VALET ZONE VIOLATION", "CORNER CLEARANCE  CC", "PRIVATE PROPERTY", "TAXI STAND",
+            "EXPIRED TAG", "COMMRCL VEH RES AREA"};
+    private static final int[] FINES = {
+            36, 26, 26, 76, 41, 51, 51, 41, 36, 31, 76, 51, 51, 51, 51, 301, 76, 51, 36, 51, 31, 51, 76,
+            76, 76, 31, 31, 31, 76, 26, 31, 41, 101};
+    private static final int[] VIOLATION_WEIGHTS = {
+            6784, 3321, 3202, 2180, 1850, 1080, 1045, 948, 760, 608, 460, 435, 425, 279, 263, 220, 184,
+            179, 174, 160, 143, 124, 103, 101, 100, 98, 70, 46, 31, 28, 26, 10, 10};
+
+    private static final String[] STATES = {"PA", "NJ", "NY", "DE", "MD", "VA", "MI", "TX", "FL", "IN", "CA", "MA"};
+    private static final int[] STATE_WEIGHTS = {21207, 1999, 565, 293, 181, 169, 133, 130, 123, 78, 74, 66};
+
+    // Tickets per hour of the day in the sample, midnight first
+    private static final int[] HOUR_WEIGHTS = {
+            374, 254, 177, 129, 71, 58, 91, 680, 1106, 1315, 2172, 2868,
+            2640, 2252, 2390, 1861, 1643, 1260, 775, 826, 837, 1019, 527, 234};
+    // 2013-01-01T00:00:00Z; the sample covers that year
+    private static final long YEAR_START = 1356998400L;
+
+    private static final String[] PROPERTY_COLUMNS = {
+            "objectid", "assessment_date", "basements", "beginning_point", "book_and_page", "building_code",
+            "building_code_description", "category_code", "category_code_description", "census_tract",
+            "central_air", "cross_reference", "date_exterior_condition", "depth", "exempt_building",
+            "exempt_land", "exterior_condition", "fireplaces", "frontage", "fuel", "garage_spaces",
+            "garage_type", "general_construction", "geographic_ward", "homestead_exemption", "house_extension",
+            "house_number", "interior_condition", "location", "mailing_address_1", "mailing_address_2",
+            "mailing_care_of", "mailing_city_state", "mailing_street", "mailing_zip", "market_value",
+            "market_value_date", "number_of_bathrooms", "number_of_bedrooms", "number_of_rooms",
+            "number_stories", "off_street_open", "other_building", "owner_1", "owner_2", "parcel_number",
+            "parcel_shape", "quality_grade", "recording_date", "registry_number", "sale_date", "sale_price",
+            "separate_utilities", "sewer", "site_type", "state_code", "street_code", "street_designation",
+            "street_direction", "street_name", "suffix", "taxable_building", "taxable_land", "topography",
+            "total_area", "total_livable_area", "type_heater", "unfinished", "unit", "utility", "view_type",
+            "year_built", "year_built_estimate", "zip_code", "zoning", "lat", "lng"};
+    private static final Map<String, Integer> PROPERTY_COLUMN_INDEX = new HashMap<>();
+    static {
+        for (int i = 0; i < PROPERTY_COLUMNS.length; i++) {
+            PROPERTY_COLUMN_INDEX.put(PROPERTY_COLUMNS[i], i);
+        }
+    }
+    private static final String[] STREETS = {
+            "MARKET", "CHESTNUT", "WALNUT", "SPRUCE", "PINE", "LOCUST", "RACE", "ARCH", "VINE", "SPRING GARDEN",
+            "GIRARD", "BROAD", "FRANKFORD", "GERMANTOWN", "RIDGE", "LANCASTER", "BALTIMORE", "WASHINGTON",
+            "CASTOR", "ROOSEVELT", "COTTMAN", "OXFORD", "ALLEGHENY", "LEHIGH", "SNYDER", "OREGON"};
+    private static final String[] SUFFIXES = {"ST", "AVE", "BLVD", "RD", "PL", "DR"};
+    private static final String[] SURNAMES = {
+            "SMITH", "JOHNSON", "WILLIAMS", "BROWN", "JONES", "GARCIA", "MILLER", "DAVIS", "RODRIGUEZ", "NGUYEN",
+            "WILSON", "ANDERSON", "THOMAS", "TAYLOR", "MOORE", "JACKSON", "MARTIN", "LEE", "PEREZ", "THOMPSON"};
+    private static final String[] GIVEN_NAMES = {
+            "JOHN", "MARY", "JAMES", "PATRICIA", "ROBERT", "JENNIFER", "MICHAEL", "LINDA", "DAVID", "ELIZABETH",
+            "WILLIAM", "BARBARA", "RICHARD", "SUSAN", "JOSEPH", "JESSICA", "THOMAS", "SARAH", "CHARLES", "KAREN"};
+    private static final String[] CATEGORIES = {"SINGLE FAMILY", "MULTI FAMILY", "MIXED USE", "COMMERCIAL", "VACANT LAND"};
+    private static final int[] CATEGORY_WEIGHTS = {70, 12, 6, 8, 4};
+    private static final String[] BUILDING_DESCRIPTIONS = {
+            "ROW 2 STY MASONRY", "ROW 3 STY MASONRY", "TWIN CONVENTIONAL", "DET CONV/SHELL", "APTS 5-50 UNITS MASONRY",
+            "STORE W/ APT 2 STY MAS", "OFFICE BLDG 3 STY"};
+
+    private final long seed;
+    private final double dirtyRate;
+
+    public SyntheticDataGenerator() {
+        this(DEFAULT_SEED);
+    }
+
+    public SyntheticDataGenerator(long seed) {
+        this(seed, DEFAULT_DIRTY_RATE);
+    }
+
+    /**
+     * @param dirtyRate share of violation and property rows written with a malformed value, 0 to 1
+     */
+    public SyntheticDataGenerator(long seed, double dirtyRate) {
+        if (dirtyRate < 0 || dirtyRate > 1) {
+            throw new IllegalArgumentException("Dirty rate must be between 0 and 1.");
+        }
+        this.seed = seed;
+        this.dirtyRate = dirtyRate;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getDirtyRate() {
+        return dirtyRate;
+    }
+
+    /**
+     * Writes rows violations in the given format. Ticket numbers are consecutive and unique.
+     * @return the number of rows written
+     */
+    public long writeViolations(ViolationFileFormat format, long rows, String outputFile) throws IOException {
+        checkRows(rows);
+        if (format == null) {
+            throw new IllegalArgumentException("Format must not be null.");
+        }
+        // Each kind of file has its own stream, so a file does not depend on what was generated before
+        SplittableRandom random = new SplittableRandom(seed ^ 0x56494F4CL);
+        WeightedChoice zipCodes = new WeightedChoice(TICKET_WEIGHTS);
+        WeightedChoice violations = new WeightedChoice(VIOLATION_WEIGHTS);
+        WeightedChoice states = new WeightedChoice(STATE_WEIGHTS);
+        WeightedChoice hours = new WeightedChoice(HOUR_WEIGHTS);
+        // About four tickets per plate; low plate numbers get most of them, like repeat offenders
+        long plates = Math.max(1, rows / 4);
+        StringBuilder row = new StringBuilder(160);
+
+        try (Writer writer = open(outputFile)) {
+            if (format == ViolationFileFormat.JSON) {
+                writer.write('[');
+            }
+            for (long i = 0; i < rows; i++) {
+                long ticket = 1_000_000L + i;
+                double skew = random.nextDouble();
+                long plate = 1_000_000L + (long) (skew * skew * skew * plates);
+                long timestamp = YEAR_START + random.nextInt(365) * 86400L + hours.next(random) * 3600L
+                        + random.nextInt(3600) / 60 * 60;
+                String date = IsoTimestamps.format(timestamp);
+                int violation = violations.next(random);
+                String fine = Integer.toString(FINES[violation]);
+                String state = STATES[states.next(random)];
+                String zipCode = random.nextDouble() < MISSING_ZIP_RATE ? "" : Integer.toString(ZIP_CODES[zipCodes.next(random)]);
+
+                boolean shortRow = false;
+                if (random.nextDouble() < dirtyRate) {
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            fine = "N/A";
+                            break;
+                        case 1:
+                            zipCode = "1910";
+                            break;
+                        default:
+                            shortRow = true;
+                    }
+                }
+
+                row.setLength(0);
+                if (format.isCsv()) {
+                    // date,fine,violation,plate_id,state,ticket_number,zip_code
+                    row.append(date).append(',').append(fine).append(',').append(VIOLATIONS[violation]).append(',')
+                            .append(plate).append(',').append(state);
+                    if (!shortRow) {
+                        row.append(',').append(ticket).append(',').append(zipCode);
+                    }
+                    row.append('\n');
+                } else {
+                    if (format == ViolationFileFormat.JSON && i > 0) {
+                        row.append(',');
+                    }
+                    row.append("{\"ticket_number\":").append(ticket)
+                            .append(",\"plate_id\":\"").append(plate)
+                            .append("\",\"date\":\"").append(date)
+                            .append("\",\"zip_code\":\"").append(zipCode)
+                            .append("\",\"violation\":\"").append(VIOLATIONS[violation]).append('"');
+                    // In JSON a short row becomes a ticket without a fine
+                    if (!shortRow) {
+                        row.append(",\"fine\":").append(fine.equals("N/A") ? "\"N/A\"" : fine);
+                    }
+                    row.append(",\"state\":\"").append(state).append("\"}");
+                    if (format == ViolationFileFormat.NDJSON) {
+                        row.append('\n');
+                    }
+                }
+                writer.append(row);
+            }
+            if (format == ViolationFileFormat.JSON) {
+                writer.write("]\n");
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Writes a header and rows properties in a wide OPA-style CSV. Text fields are quoted when
+     * they contain a comma or a quote; dirty rows have a missing, zero, non-numeric or
+     * currency-formatted market value or livable area, or a ZIP code that is missing or too short.
+     * @return the number of rows written, not counting the header
+     */
+    public long writeProperties(long rows, String outputFile) throws IOException {
+        checkRows(rows);
+        SplittableRandom random = new SplittableRandom(seed ^ 0x50524F50L);
+        WeightedChoice zipCodes = new WeightedChoice(POPULATIONS);
+        WeightedChoice categories = new WeightedChoice(CATEGORY_WEIGHTS);
+        String[] fields = new String[PROPERTY_COLUMNS.length];
+        int marketValueColumn = PROPERTY_COLUMN_INDEX.get("market_value");
+        int livableAreaColumn = PROPERTY_COLUMN_INDEX.get("total_livable_area");
+        int zipCodeColumn = PROPERTY_COLUMN_INDEX.get("zip_code");
+        StringBuilder row = new StringBuilder(1024);
+
+        try (Writer writer = open(outputFile)) {
+            writer.write(String.join(",", PROPERTY_COLUMNS));
+            writer.write('\n');
+            for (long i = 0; i < rows; i++) {
+                int zipIndex = zipCodes.next(random);
+                int category = categories.next(random);
+                String street = STREETS[random.nextInt(STREETS.length)];
+                String suffix = SUFFIXES[random.nextInt(SUFFIXES.length)];
+                int houseNumber = 1 + random.nextInt(9999);
+                int yearBuilt = 1850 + random.nextInt(170);
+                // Log-normal values around $200k; rooms and area grow with the value
+                long marketValue = Math.round(Math.exp(12.2 + 0.7 * random.nextGaussian()) / 100) * 100;
+                int livableArea = category == 4 ? 0 : (int) Math.max(400, marketValue / 150 + random.nextInt(800));
+                String owner = SURNAMES[random.nextInt(SURNAMES.length)] + ", " + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+                String location = houseNumber + " " + street + " " + suffix;
+
+                Arrays.fill(fields, "");
+                set(fields, "objectid", Long.toString(i + 1));
+                set(fields, "assessment_date", "2024-05-" + (10 + random.nextInt(19)) + " 00:00:00");
+                set(fields, "basements", random.nextInt(4) == 0 ? "" : String.valueOf((char) ('A' + random.nextInt(8))));
+                set(fields, "book_and_page", Integer.toString(random.nextInt(60000)));
+                set(fields, "building_code_description", BUILDING_DESCRIPTIONS[random.nextInt(BUILDING_DESCRIPTIONS.length)]);
+                set(fields, "category_code", Integer.toString(category + 1));
+                set(fields, "category_code_description", CATEGORIES[category]);
+                set(fields, "census_tract", Integer.toString(1 + random.nextInt(400)));
+                set(fields, "central_air", random.nextBoolean() ? "Y" : "N");
+                set(fields, "depth", Integer.toString(40 + random.nextInt(120)) + ".0");
+                set(fields, "exterior_condition", Integer.toString(1 + random.nextInt(7)));
+                set(fields, "fireplaces", Integer.toString(random.nextInt(3)));
+                set(fields, "frontage", Integer.toString(14 + random.nextInt(40)) + ".0");
+                set(fields, "garage_spaces", Integer.toString(random.nextInt(3)));
+                set(fields, "geographic_ward", Integer.toString(1 + random.nextInt(66)));
+                set(fields, "house_number", Integer.toString(houseNumber));
+                set(fields, "interior_condition", Integer.toString(1 + random.nextInt(7)));
+                set(fields, "location", location);
+                set(fields, "mailing_city_state", "PHILADELPHIA, PA");
+                set(fields, "mailing_street", location);
+                set(fields, "mailing_zip", Integer.toString(ZIP_CODES[zipIndex]));
+                set(fields, "market_value", Long.toString(marketValue) + ".0");
+                set(fields, "market_value_date", "");
+                set(fields, "number_of_bathrooms", Integer.toString(1 + random.nextInt(3)));
+                set(fields, "number_of_bedrooms", Integer.toString(1 + random.nextInt(5)));
+                set(fields, "number_of_rooms", Integer.toString(3 + random.nextInt(8)));
+                set(fields, "number_stories", Integer.toString(1 + random.nextInt(3)));
+                set(fields, "owner_1", owner);
+                set(fields, "owner_2", random.nextInt(3) == 0 ? "" : "\"" + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)] + "\" TRUST");
+                set(fields, "parcel_number", Long.toString(100_000_000L + random.nextInt(900_000_000)));
+                set(fields, "quality_grade", String.valueOf((char) ('A' + random.nextInt(5))));
+                set(fields, "sale_date", (1990 + random.nextInt(35)) + "-0" + (1 + random.nextInt(9)) + "-15 00:00:00");
+                set(fields, "sale_price", Long.toString(Math.round(marketValue * (0.5 + random.nextDouble()))) + ".0");
+                set(fields, "street_code", Integer.toString(10000 + random.nextInt(80000)));
+                set(fields, "street_name", street);
+                set(fields, "suffix", suffix);
+                set(fields, "taxable_building", Long.toString(marketValue * 4 / 5) + ".0");
+                set(fields, "taxable_land", Long.toString(marketValue / 5) + ".0");
+                set(fields, "total_area", Integer.toString(livableArea + random.nextInt(1500)) + ".0");
+                set(fields, "total_livable_area", Integer.toString(livableArea) + ".0");
+                set(fields, "year_built", Integer.toString(yearBuilt));
+                set(fields, "year_built_estimate", random.nextInt(5) == 0 ? "Y" : "");
+                set(fields, "zip_code", ZIP_CODES[zipIndex] + (random.nextInt(3) == 0 ? "-" + (1000 + random.nextInt(9000)) : ""));
+                set(fields, "zoning", "RSA" + (1 + random.nextInt(5)));
+                set(fields, "lat", degrees(39.9 + random.nextDouble() * 0.2));
+                set(fields, "lng", degrees(-75.25 + random.nextDouble() * 0.25));
+
+                if (random.nextDouble() < dirtyRate) {
+                    switch (random.nextInt(6)) {
+                        case 0:
+                            fields[marketValueColumn] = "";
+                            break;
+                        case 1:
+                            fields[marketValueColumn] = "0";
+                            break;
+                        case 2:
+                            fields[marketValueColumn] = "$" + String.format(Locale.ROOT, "%,d", marketValue);
+                            break;
+                        case 3:
+                            fields[livableAreaColumn] = "N/A";
+                            break;
+                        case 4:
+                            fields[zipCodeColumn] = "";
+                            break;
+                        default:
+                            fields[zipCodeColumn] = "191";
+                    }
+                }
+
+                row.setLength(0);
+                for (int column = 0; column < fields.length; column++) {
+                    if (column > 0) {
+                        row.append(',');
+                    }
+                    appendQuoted(row, fields[column]);
+                }
+                row.append('\n');
+                writer.append(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Writes a population file with one "zip population" line per ZIP code. The first rows are
+     * the Philadelphia ZIP codes; larger files continue with made-up ZIP codes.
+     * @return the number of rows written
+     */
+    public long writePopulation(int rows, String outputFile) throws IOException {
+        checkRows(rows);
+        if (rows > 100_000) {
+            throw new IllegalArgumentException("A population file has at most one row per ZIP code (100000).");
+        }
+        SplittableRandom random = new SplittableRandom(seed ^ 0x504F5055L);
+        try (Writer writer = open(outputFile)) {
+            int next = 0;
+            for (int i = 0; i < rows; i++) {
+                if (i < ZIP_CODES.length) {
+                    writer.write(ZIP_CODES[i] + " " + POPULATIONS[i] + "\n");
+                    continue;
+                }
+                // Skip the ZIP codes already written
+                while (Arrays.binarySearch(ZIP_CODES, next) >= 0) {
+                    next++;
+                }
+                writer.write(String.format(Locale.ROOT, "%05d %d\n", next++, random.nextInt(70000)));
+            }
+        }
+        return rows;
+    }
+
+    public static void main(String[] args) {
+        try {
+            if (args.length >= 4 && args[0].equals("violations")) {
+                SyntheticDataGenerator generator = fromArgs(args, 4);
+                long written = generator.writeViolations(ViolationFileFormat.forName(args[1]), Long.parseLong(args[2]), args[3]);
+                System.out.println("Wrote " + written + " violations to " + args[3]);
+            } else if (args.length >= 3 && args[0].equals("properties")) {
+                SyntheticDataGenerator generator = fromArgs(args, 3);
+                long written = generator.writeProperties(Long.parseLong(args[1]), args[2]);
+                System.out.println("Wrote " + written + " properties to " + args[2]);
+            } else if (args.length >= 3 && args[0].equals("population")) {
+                SyntheticDataGenerator generator = fromArgs(args, 3);
+                long written = generator.writePopulation(Integer.parseInt(args[1]), args[2]);
+                System.out.println("Wrote " + written + " ZIP codes to " + args[2]);
+            } else {
+                System.out.println("Usage: java data.SyntheticDataGenerator violations <csv|json|ndjson> <rows> <output> [seed [dirtyRate]]");
+                System.out.println("       java data.SyntheticDataGenerator properties <rows> <output> [seed [dirtyRate]]");
+                System.out.println("       java data.SyntheticDataGenerator population <rows> <output> [seed]");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Error: rows, seed and dirty rate must be numbers.");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Error writing file: " + e.getMessage());
+        }
+    }
+
+    private static SyntheticDataGenerator fromArgs(String[] args, int first) {
+        long seed = args.length > first ? Long.parseLong(args[first]) : DEFAULT_SEED;
+        double dirtyRate = args.length > first + 1 ? Double.parseDouble(args[first + 1]) : DEFAULT_DIRTY_RATE;
+        return new SyntheticDataGenerator(seed, dirtyRate);
+    }
+
+    private static void checkRows(long rows) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("Row count must not be negative.");
+        }
+    }
+
+    private static Writer open(String outputFile) throws IOException {
+        OutputStream out = Files.newOutputStream(Paths.get(outputFile));
+        if (outputFile.endsWith(".gz")) {
+            out = new GZIPOutputStream(out, InputStreams.BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), InputStreams.BUFFER_SIZE);
+    }
+
+    private static void set(String[] fields, String name, String value) {
+        fields[PROPERTY_COLUMN_INDEX.get(name)] = value;
+    }
+
+    // Fixed seven decimals without String.format, which is slow and locale-dependent
+    private static String degrees(double value) {
+        long scaled = Math.round(Math.abs(value) * 10_000_000);
+        String fraction = Long.toString(10_000_000 + scaled % 10_000_000).substring(1);
+        return (value < 0 ? "-" : "") + scaled / 10_000_000 + "." + fraction;
+    }
+
+    // CSV quoting: only when needed, with embedded quotes doubled
+    private static void appendQuoted(StringBuilder row, String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    /**
+     * Picks an index with probability proportional to its weight, by binary search over the running totals.
+     */
+    private static final class WeightedChoice {
+        private final long[] cumulative;
+
+        private WeightedChoice(int[] weights) {
+            cumulative = new long[weights.length];
+            long total = 0;
+            for (int i = 0; i < weights.length; i++) {
+                total += weights[i];
+                cumulative[i] = total;
+            }
+        }
+
+        private int next(SplittableRandom random) {
+            long target = random.nextLong(cumulative[cumulative.length - 1]);
+            int index = Arrays.binarySearch(cumulative, target + 1);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package data;
+
+import common.ParkingViolation;
+import sketch.BloomFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * TicketDeduplicator drops violations whose ticket number was already seen, keeping the first.
+ * While violations are added, a Bloom filter is the only check: a ticket it has definitely not
+ * seen is kept straight away, and only the few "maybe seen" tickets (real duplicates plus about
+ * 1% false positives) are set aside. finish() then settles those exactly against the sorted
+ * ticket numbers, so no per-ticket hash set is needed on the hot path.
+ * Non-numeric ticket numbers are rare and are checked exactly with a HashSet; violations
+ * without a ticket number are always kept.
+ */
+public class TicketDeduplicator {
+
+    public static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final BloomFilter seen;
+    private final Set<String> seenNonNumeric = new HashSet<>();
+    private final List<ParkingViolation> kept;
+
+    // Positions in kept whose ticket number the Bloom filter had possibly seen before
+    private int[] suspects = new int[16];
+    private int suspectCount;
+
+    private long duplicateCount;
+    private long falsePositiveCount;
+    private boolean finished;
+
+    public TicketDeduplicator(int expectedTickets) {
+        if (expectedTickets < 0) {
+            throw new IllegalArgumentException("Expected tickets must not be negative.");
+        }
+        this.seen = new BloomFilter(expectedTickets, FALSE_POSITIVE_RATE);
+        this.kept = new ArrayList<>(expectedTickets);
+    }
+
+    /**
+     * Keeps the first violation for each ticket number, in list order.
+     */
+    public static List<ParkingViolation> deduplicate(List<ParkingViolation> violations) {
+        TicketDeduplicator deduplicator = new TicketDeduplicator(violations.size());
+        deduplicator.addAll(violations);
+        return deduplicator.finish();
+    }
+
+    public void add(ParkingViolation violation) {
+        if (finished) {
+            throw new IllegalStateException("Deduplicator has already finished.");
+        }
+        if (violation == null) {
+            kept.add(null);
+            return;
+        }
+        long ticket = violation.getTicketNumber();
+        if (ticket == ParkingViolation.NO_TICKET_NUMBER) {
+            String text = violation.getTicket_number();
+            if (text != null && !seenNonNumeric.add(text)) {
+                duplicateCount++;
+                return;
+            }
+            kept.add(violation);
+            return;
+        }
+        if (!seen.add(ticket)) {
+            if (suspectCount == suspects.length) {
+                suspects = Arrays.copyOf(suspects, suspectCount * 2);
+            }
+            suspects[suspectCount++] = kept.size();
+        }
+        kept.add(violation);
+    }
+
+    public void addAll(List<ParkingViolation> violations) {
+        for (ParkingViolation violation : violations) {
+            add(violation);
+        }
+    }
+
+    /**
+     * Settles the "maybe seen" tickets and returns the kept violations in the order they were added.
+     */
+    public List<ParkingViolation> finish() {
+        if (finished) {
+            throw new IllegalStateException("Deduplicator has already finished.");
+        }
+        finished = true;
+        if (suspectCount == 0) {
+            return kept;
+        }
+
+        // Every ticket the filter had definitely not seen is the first of its number
+        long[] firsts = new long[kept.size() - suspectCount];
+        int count = 0;
+        int nextSuspect = 0;
+        for (int position = 0; position < kept.size(); position++) {
+            if (nextSuspect < suspectCount && suspects[nextSuspect] == position) {
+                nextSuspect++;
+                continue;
+            }
+            ParkingViolation violation = kept.get(position);
+            if (violation != null && violation.getTicketNumber() != ParkingViolation.NO_TICKET_NUMBER) {
+                firsts[count++] = violation.getTicketNumber();
+            }
+        }
+        firsts = Arrays.copyOf(firsts, count);
+        Arrays.sort(firsts);
+
+        // A suspect is a duplicate if its number was kept before, otherwise a false positive
+        Set<Long> admittedSuspects = new HashSet<>();
+        boolean[] dropped = new boolean[suspectCount];
+        for (int i = 0; i < suspectCount; i++) {
+            long ticket = kept.get(suspects[i]).getTicketNumber();
+            if (Arrays.binarySearch(firsts, ticket) >= 0 || !admittedSuspects.add(ticket)) {
+                dropped[i] = true;
+                duplicateCount++;
+            } else {
+                falsePositiveCount++;
+            }
+        }
+
+        List<ParkingViolation> result = new ArrayList<>(kept.size());
+        nextSuspect = 0;
+        for (int position = 0; position < kept.size(); position++) {
+            if (nextSuspect < suspectCount && suspects[nextSuspect] == position) {
+                if (dropped[nextSuspect++]) {
+                    continue;
+                }
+            }
+            result.add(kept.get(position));
+        }
+        return result;
+    }
+
+    /**
+     * Violations dropped because their ticket number was already seen (complete after finish()).
+     */
+    public long getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    /**
+     * Tickets the Bloom filter flagged that turned out to be new (complete after finish()).
+     */
+    public long getFalsePositiveCount() {
+        return falsePositiveCount;
+    }
+
+    public BloomFilter getBloomFilter() {
+        return seen;
+    }
+}
@@ -0,0 +1,98 @@
+package data;
+
+import common.ParkingViolation;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The file formats parking violations can be read from, and how to tell them apart
+ * by looking at the start of a file. BYTE_CSV is the CSV layout read with
+ * ParkingViolationByteCSVReader, which parses the raw bytes instead of decoded lines;
+ * it is only chosen by name, detect() reads CSV files with the default reader.
+ */
+public enum ViolationFileFormat {
+    CSV("csv"),
+    BYTE_CSV("byte-csv"),
+    JSON("json"),
+    NDJSON("ndjson");
+
+    private final String name;
+
+    ViolationFileFormat(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Whether files in this format have the CSV layout.
+     */
+    public boolean isCsv() {
+        return this == CSV || this == BYTE_CSV;
+    }
+
+    /**
+     * Reader for a file in this format.
+     */
+    public JSONReader<ParkingViolation> reader(String fileName) {
+        return reader(fileName, new IngestReport(fileName));
+    }
+
+    /**
+     * Reader for a file in this format that counts accepted and rejected rows in report.
+     */
+    public JSONReader<ParkingViolation> reader(String fileName, IngestReport report) {
+        switch (this) {
+            case JSON:
+                return new ParkingViolationJSONReader(fileName, report)::readData;
+            case NDJSON:
+                return new ParkingViolationNDJSONReader(fileName, report)::readData;
+            case BYTE_CSV:
+                return new ParkingViolationByteCSVReader(fileName, report)::readData;
+            default:
+                return new ViolationIngestPipeline(fileName, report)::readData;
+        }
+    }
+
+    /**
+     * Format with this name ("csv", "byte-csv", "json" or "ndjson"), or null if there is none.
+     */
+    public static ViolationFileFormat forName(String name) {
+        for (ViolationFileFormat format : values()) {
+            if (format.name.equals(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Guesses a file's format from its first non-blank character: a JSON file starts with '[',
+     * an NDJSON file with '{', and anything else is read as CSV. Gzip-compressed files are
+     * looked at after decompression.
+     */
+    public static ViolationFileFormat detect(String fileName) throws IOException {
+        try (InputStream in = InputStreams.open(fileName)) {
+            return detect(firstSignificantByte(in));
+        }
+    }
+
+    static ViolationFileFormat detect(int firstByte) {
+        if (firstByte == '[') {
+            return JSON;
+        }
+        return firstByte == '{' ? NDJSON : CSV;
+    }
+
+    // First byte that is not whitespace or part of a UTF-8 byte order mark, or -1 for an empty file
+    static int firstSignificantByte(InputStream in) throws IOException {
+        int b;
+        do {
+            b = in.read();
+        } while (b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == 0xEF || b == 0xBB || b == 0xBF);
+        return b;
+    }
+}
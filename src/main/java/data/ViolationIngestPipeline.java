@@ -0,0 +1,411 @@
+package data;
+
+import common.ParkingViolation;
+import metrics.IngestEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * ViolationIngestPipeline reads a violations CSV file in three stages connected by bounded queues:
+ *
+ *   read      - one thread reads raw bytes in 256 KB blocks, cut at the last line break
+ *   parse     - a pool of threads decodes each block and parses its lines into violations
+ *   aggregate - the calling thread puts the blocks back in file order and hands every
+ *               violation to a sink (by default, the list readData() returns)
+ *
+ * A full queue blocks the stage in front of it, so a slow parser pool holds back the reader
+ * instead of letting blocks pile up in memory. Each run records IngestStageMetrics per stage
+ * (see getReport()) showing which stage is the bottleneck.
+ * Lines are parsed exactly like ParkingViolationCSVReader does, except that a line longer than
+ * MAX_LINE_BYTES (e.g. in a file without line breaks) is rejected as too long instead of being
+ * buffered whole. Whatever a stage thread dies of, it still passes its end marker on, so a failed
+ * run always ends and rethrows the failure.
+ */
+public class ViolationIngestPipeline implements CSVReader<ParkingViolation> {
+
+    public static final int BLOCK_SIZE = 1 << 18;
+    public static final int MAX_LINE_BYTES = 4 * BLOCK_SIZE;
+
+    // Bytes of a too-long line kept for the rejects file
+    private static final int TOO_LONG_PREFIX = 200;
+
+    private static final Block END = new Block(-1, new byte[0], 0);
+
+    private static final ReadMetrics METRICS = new ReadMetrics("pipeline");
+
+    private final String fileName;
+    private final int parserThreads;
+    private final int queueCapacity;
+    private final IngestReport report;
+    private volatile IngestReport lastReport;
+    private volatile List<IngestStageMetrics> metrics = Collections.emptyList();
+
+    private static final class Block {
+        private final int sequence;
+        private final byte[] bytes;
+        private final int length;
+        // The start of one line longer than MAX_LINE_BYTES, to be rejected
+        private final boolean lineTooLong;
+        private List<ParkingViolation> violations;
+        private IngestReport report;
+        private int lineCount;
+
+        private Block(int sequence, byte[] bytes, int length) {
+            this(sequence, bytes, length, false);
+        }
+
+        private Block(int sequence, byte[] bytes, int length, boolean lineTooLong) {
+            this.sequence = sequence;
+            this.bytes = bytes;
+            this.length = length;
+            this.lineTooLong = lineTooLong;
+        }
+    }
+
+    public ViolationIngestPipeline(String fileName) {
+        this(fileName, null);
+    }
+
+    public ViolationIngestPipeline(String fileName, IngestReport report) {
+        this(fileName, Math.max(1, Runtime.getRuntime().availableProcessors() - 1), 8, report);
+    }
+
+    public ViolationIngestPipeline(String fileName, int parserThreads, int queueCapacity) {
+        this(fileName, parserThreads, queueCapacity, null);
+    }
+
+    /**
+     * @param report where accepted and rejected rows are counted; null for a new report per run
+     */
+    public ViolationIngestPipeline(String fileName, int parserThreads, int queueCapacity, IngestReport report) {
+        if (parserThreads <= 0) {
+            throw new IllegalArgumentException("Parser thread count must be positive.");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive.");
+        }
+        this.fileName = fileName;
+        this.parserThreads = parserThreads;
+        this.queueCapacity = queueCapacity;
+        this.report = report;
+        this.lastReport = report != null ? report : new IngestReport(fileName);
+    }
+
+    @Override
+    public List<ParkingViolation> readData() throws IOException {
+        try (ReadMetrics.Timing timing = METRICS.begin(fileName)) {
+            List<ParkingViolation> violations = new ArrayList<>();
+            run(violations::add);
+            timing.end(violations.size());
+            return violations;
+        }
+    }
+
+    /**
+     * Runs the pipeline, giving every violation to the sink in file order (on the calling thread).
+     * The first failure in any stage stops the run and is rethrown here.
+     */
+    public void run(Consumer<ParkingViolation> sink) throws IOException {
+        if (sink == null) {
+            throw new IllegalArgumentException("Sink must not be null.");
+        }
+        IngestStageMetrics read = new IngestStageMetrics("read", 1);
+        IngestStageMetrics parse = new IngestStageMetrics("parse", parserThreads);
+        IngestStageMetrics aggregate = new IngestStageMetrics("aggregate", 1);
+        metrics = Collections.unmodifiableList(Arrays.asList(read, parse, aggregate));
+        IngestReport rows = report != null ? report : new IngestReport(fileName);
+        lastReport = rows;
+
+        BlockingQueue<Block> rawBlocks = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Block> parsedBlocks = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long start = System.nanoTime();
+
+        List<Thread> threads = new ArrayList<>();
+        threads.add(startThread("ingest-read", () -> readBlocks(rawBlocks, failure, read)));
+        for (int i = 0; i < parserThreads; i++) {
+            threads.add(startThread("ingest-parse-" + i, () -> parseBlocks(rawBlocks, parsedBlocks, failure, parse)));
+        }
+
+        boolean stopped = true;
+        try {
+            aggregate(parsedBlocks, sink, rows, failure, aggregate);
+            stopped = failure.get() != null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading violations.");
+        } finally {
+            if (stopped) {
+                // e.g. the reader may still be waiting to hand over a block nobody will parse
+                for (Thread thread : threads) {
+                    thread.interrupt();
+                }
+            }
+        }
+        long wall = System.nanoTime() - start;
+        for (IngestStageMetrics stage : metrics) {
+            stage.setWallNanos(wall);
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        if (error != null) {
+            throw new IOException(error);
+        }
+    }
+
+    /**
+     * Accepted and rejected rows of the last run.
+     */
+    public IngestReport getIngestReport() {
+        return lastReport;
+    }
+
+    /**
+     * Metrics of the read, parse and aggregate stages of the last run.
+     */
+    public List<IngestStageMetrics> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * One line per stage of the last run.
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (IngestStageMetrics stage : metrics) {
+            report.append(stage).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    /**
+     * Opens the file; overridden in tests.
+     */
+    InputStream open() throws IOException {
+        return InputStreams.open(fileName);
+    }
+
+    private static Thread startThread(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // Stage 1: raw reads, each block ending at a line break; the partial last line moves to the next block
+    private void readBlocks(BlockingQueue<Block> out, AtomicReference<Throwable> failure, IngestStageMetrics stage) {
+        try (InputStream in = open()) {
+            byte[] carry = new byte[0];
+            int sequence = 0;
+            while (failure.get() == null) {
+                long started = System.nanoTime();
+                IngestEvent event = IngestEvent.begin("read", fileName);
+                byte[] buffer = new byte[Math.min(MAX_LINE_BYTES, Math.max(BLOCK_SIZE, carry.length * 2))];
+                System.arraycopy(carry, 0, buffer, 0, carry.length);
+                int read = in.readNBytes(buffer, carry.length, buffer.length - carry.length);
+                int filled = carry.length + read;
+                if (read == 0) {
+                    if (filled > 0) {
+                        stage.recordWork(1, filled, System.nanoTime() - started);
+                        IngestEvent.end(event, 0, filled);
+                        put(out, new Block(sequence++, buffer, filled), stage);
+                    }
+                    break;
+                }
+                int end = lastLineBreak(buffer, filled);
+                if (end < 0 && filled == MAX_LINE_BYTES) {
+                    // No row is this long: reject the line and skip the rest of it
+                    stage.recordWork(1, filled, System.nanoTime() - started);
+                    IngestEvent.end(event, 0, filled);
+                    put(out, new Block(sequence++, Arrays.copyOf(buffer, TOO_LONG_PREFIX), TOO_LONG_PREFIX, true), stage);
+                    carry = skipLine(in);
+                    continue;
+                }
+                if (end < 0) {
+                    // No line break yet: keep reading into a bigger block
+                    carry = Arrays.copyOf(buffer, filled);
+                    continue;
+                }
+                carry = Arrays.copyOfRange(buffer, end + 1, filled);
+                stage.recordWork(1, end + 1, System.nanoTime() - started);
+                IngestEvent.end(event, 0, end + 1);
+                put(out, new Block(sequence++, buffer, end + 1), stage);
+            }
+        } catch (Throwable e) {
+            // Including Errors and interrupts: the parsers below must still get their end markers
+            failure.compareAndSet(null, e);
+        } finally {
+            // One end marker per parser thread
+            try {
+                for (int i = 0; i < parserThreads; i++) {
+                    put(out, END, stage);
+                }
+            } catch (InterruptedException e) {
+                // Interrupted by run(), which is no longer waiting
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    // Reads up to and including the next line break; returns what was read after it
+    private static byte[] skipLine(InputStream in) throws IOException {
+        byte[] buffer = new byte[BLOCK_SIZE];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    return Arrays.copyOfRange(buffer, i + 1, read);
+                }
+            }
+        }
+        return new byte[0];
+    }
+
+    // Stage 2: decode and parse blocks; after a failure, blocks are passed on unparsed so nothing blocks
+    private void parseBlocks(BlockingQueue<Block> in, BlockingQueue<Block> out,
+                             AtomicReference<Throwable> failure, IngestStageMetrics stage) {
+        Charset charset = Charset.defaultCharset();
+        try {
+            while (true) {
+                Block block = take(in, stage);
+                if (block == END) {
+                    return;
+                }
+                if (failure.get() == null) {
+                    long started = System.nanoTime();
+                    IngestEvent event = IngestEvent.begin("parse", fileName);
+                    try {
+                        parse(block, charset);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                    int parsed = block.violations == null ? 0 : block.violations.size();
+                    stage.recordWork(parsed, block.length, System.nanoTime() - started);
+                    IngestEvent.end(event, parsed, block.length);
+                }
+                put(out, block, stage);
+            }
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            // However this thread ends, aggregate() counts it as finished
+            try {
+                put(out, END, stage);
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    // Stage 3: restore file order and feed the sink until every parser has finished
+    private void aggregate(BlockingQueue<Block> in, Consumer<ParkingViolation> sink, IngestReport rows,
+                           AtomicReference<Throwable> failure, IngestStageMetrics stage) throws InterruptedException {
+        Map<Integer, Block> pending = new HashMap<>();
+        int next = 0;
+        long linesBefore = 0;
+        int finishedParsers = 0;
+        while (finishedParsers < parserThreads) {
+            Block block = take(in, stage);
+            if (block == END) {
+                finishedParsers++;
+                continue;
+            }
+            pending.put(block.sequence, block);
+            while ((block = pending.remove(next)) != null) {
+                next++;
+                if (failure.get() != null || block.violations == null) {
+                    continue;
+                }
+                // Blocks were numbered from line 1; now that the order is known, number them in the file
+                rows.mergeFrom(block.report, linesBefore);
+                linesBefore += block.lineCount;
+                long started = System.nanoTime();
+                try {
+                    for (ParkingViolation violation : block.violations) {
+                        sink.accept(violation);
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+                stage.recordWork(block.violations.size(), block.length, System.nanoTime() - started);
+            }
+        }
+    }
+
+    private void parse(Block block, Charset charset) {
+        if (block.lineTooLong) {
+            IngestReport rows = IngestReport.forBlock(fileName);
+            rows.reject(RejectReason.LINE_TOO_LONG, 1, new String(block.bytes, 0, block.length, charset) + "...");
+            block.report = rows;
+            block.lineCount = 1;
+            block.violations = Collections.emptyList();
+            return;
+        }
+        String text = new String(block.bytes, 0, block.length, charset);
+        List<ParkingViolation> violations = new ArrayList<>(block.length / 64);
+        IngestReport rows = IngestReport.forBlock(fileName);
+        int lineNumber = 0;
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            int lineEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            ParkingViolation violation = ParkingViolationCSVReader.parseLine(text.substring(start, lineEnd), ++lineNumber, rows);
+            if (violation != null) {
+                violations.add(violation);
+            }
+            start = end + 1;
+        }
+        block.report = rows;
+        block.lineCount = lineNumber;
+        block.violations = violations;
+    }
+
+    private static int lastLineBreak(byte[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Block take(BlockingQueue<Block> queue, IngestStageMetrics stage) throws InterruptedException {
+        stage.recordQueueDepth(queue.size());
+        long started = System.nanoTime();
+        Block block = queue.take();
+        stage.recordWait(System.nanoTime() - started);
+        return block;
+    }
+
+    private static void put(BlockingQueue<Block> queue, Block block, IngestStageMetrics stage)
+            throws InterruptedException {
+        long started = System.nanoTime();
+        queue.put(block);
+        stage.recordWait(System.nanoTime() - started);
+    }
+}
@@ -0,0 +1,84 @@
+package loadtest;
+
+import common.ParkingViolation;
+import data.CachingHousingReader;
+import data.CachingPopulationReader;
+import data.HousingReader;
+import data.PopulationFileReader;
+import data.PopulationReader;
+import data.ViolationFileFormat;
+import processor.HousingProcessor;
+import processor.ParkingViolationProcessor;
+import processor.PopulationProcessor;
+import processor.QueryExecutor;
+import server.MicroBatchingQueryExecutor;
+import server.QueryServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HttpLoadTest measures QueryServer end to end: it loads the data, starts a server on a free
+ * local port (or uses the one given with --url, whose data must be the same files) and runs
+ * QueryLoadTest through HttpQueryExecutor, so every latency includes the HTTP round trip.
+ *
+ * Usage: java loadtest.HttpLoadTest violations properties population
+ *            [clients [seconds [mix]]] [--url http://host:port]
+ */
+public class HttpLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        String url = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--url") && i + 1 < args.length) {
+                url = args[++i];
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.size() < 3) {
+            System.out.println("Usage: java loadtest.HttpLoadTest <violations> <properties> <population>"
+                    + " [clients [seconds [mix]]] [--url http://host:port]");
+            System.out.println("  mix: option=weight pairs, e.g. 3=40,6=40,2=20 (default: all seven equally)");
+            return;
+        }
+        int clients = positional.size() > 3 ? Integer.parseInt(positional.get(3)) : 16;
+        long seconds = positional.size() > 4 ? Long.parseLong(positional.get(4)) : 10;
+        QueryMix mix = positional.size() > 5 ? QueryMix.parse(positional.get(5)) : QueryMix.uniform();
+
+        PopulationReader populationReader = new CachingPopulationReader(new PopulationFileReader(positional.get(2)));
+        Map<Integer, Integer> populations = populationReader.readData();
+        int[] zipCodes = populations.keySet().stream().mapToInt(Integer::intValue).toArray();
+        QueryServer server = null;
+        if (url == null) {
+            String violationsFile = positional.get(0);
+            List<ParkingViolation> violations = ViolationFileFormat.detect(violationsFile).reader(violationsFile).readData();
+            HousingReader housingReader = new CachingHousingReader(positional.get(1));
+            housingReader.readData();
+            ParkingViolationProcessor violationProcessor = new ParkingViolationProcessor(violations, populations);
+            PopulationProcessor<Integer, Integer> populationProcessor = new PopulationProcessor<>(populations);
+            HousingProcessor housingProcessor = HousingProcessor.getInstance(housingReader, populationReader);
+            // As in Main's --serve
+            QueryExecutor executor = new MicroBatchingQueryExecutor(() -> violationProcessor, () -> populationProcessor,
+                    () -> housingProcessor);
+            server = new QueryServer(executor, 0);
+            server.start();
+            url = "http://localhost:" + server.getPort();
+            System.out.println("Started query server at " + url
+                    + (server.isUsingVirtualThreads() ? " (virtual threads)" : " (thread pool)"));
+        }
+
+        try {
+            QueryLoadTest loadTest = new QueryLoadTest(new HttpQueryExecutor(url), zipCodes, mix, clients);
+            System.out.println("Warming up for " + Math.min(seconds, 5) + " s with mix " + mix + "...");
+            loadTest.run(Math.min(seconds, 5) * 1000);
+            System.out.println(loadTest.run(seconds * 1000));
+        } finally {
+            if (server != null) {
+                server.stop(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package loadtest;
+
+import processor.MenuQuery;
+import processor.QueryExecutor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HttpQueryExecutor asks a running QueryServer instead of local processors, so QueryLoadTest can
+ * drive the server over HTTP. execute() returns the JSON answer as text; a response other than
+ * 200 OK, or a failed request, throws IllegalStateException, which the load test counts as an error.
+ *
+ * Requests go through HttpURLConnection, which keeps one connection per thread alive between
+ * requests and costs the client far less CPU than java.net.http.HttpClient, so on a small
+ * machine more of it is left for the server being measured.
+ */
+public class HttpQueryExecutor extends QueryExecutor {
+
+    private final String baseUrl;
+
+    /**
+     * @param baseUrl the server's address, e.g. http://localhost:8080
+     */
+    public HttpQueryExecutor(String baseUrl) {
+        super(() -> null, () -> null, () -> null);
+        if (baseUrl == null || baseUrl.isEmpty()) {
+            throw new IllegalArgumentException("Server URL must not be empty.");
+        }
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @Override
+    public Object execute(MenuQuery query, int zipCode) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query must not be null.");
+        }
+        String path = "/query/" + query.getOption() + (query.needsZipCode() ? "?zip=" + zipCode : "");
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+            int status = connection.getResponseCode();
+            // Reading the body to the end lets the connection be reused
+            String body = read(status == 200 ? connection.getInputStream() : connection.getErrorStream());
+            if (status != 200) {
+                throw new IllegalStateException("HTTP " + status + " for " + path + ": " + body);
+            }
+            return body;
+        } catch (IOException e) {
+            throw new IllegalStateException("Request failed for " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        if (in == null) {
+            return "";
+        }
+        try (in) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            in.transferTo(body);
+            return body.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
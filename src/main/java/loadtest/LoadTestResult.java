@@ -0,0 +1,118 @@
+package loadtest;
+
+import metrics.LatencyHistogram;
+import processor.MenuQuery;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What one load test measured: latency per query and overall, throughput, failures and,
+ * when a HousingProcessor was watched, how its result cache behaved during the run.
+ */
+public class LoadTestResult {
+
+    private final int threads;
+    private final long elapsedNanos;
+    private final Map<MenuQuery, LatencyHistogram> latencies;
+    private final LatencyHistogram overall;
+    private final long errors;
+    private final long cacheHits;
+    private final long cacheMisses;
+    private final long cacheClears;
+
+    LoadTestResult(int threads, long elapsedNanos, Map<MenuQuery, LatencyHistogram> latencies, long errors,
+                   long cacheHits, long cacheMisses, long cacheClears) {
+        this.threads = threads;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = new EnumMap<>(MenuQuery.class);
+        this.latencies.putAll(latencies);
+        this.overall = new LatencyHistogram();
+        for (LatencyHistogram histogram : latencies.values()) {
+            overall.add(histogram);
+        }
+        this.errors = errors;
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+        this.cacheClears = cacheClears;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Latencies of one query; empty if the query was not part of the mix.
+     */
+    public LatencyHistogram getLatency(MenuQuery query) {
+        LatencyHistogram histogram = latencies.get(query);
+        return histogram != null ? histogram : new LatencyHistogram();
+    }
+
+    public LatencyHistogram getOverallLatency() {
+        return overall;
+    }
+
+    public long getQueryCount() {
+        return overall.getCount();
+    }
+
+    /**
+     * Completed queries per second, failed ones included.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0.0 : overall.getCount() * 1e9 / elapsedNanos;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public long getCacheClears() {
+        return cacheClears;
+    }
+
+    public double getCacheHitRatio() {
+        long lookups = cacheHits + cacheMisses;
+        return lookups == 0 ? 0.0 : (double) cacheHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%d queries from %d threads in %.1f s: %.0f queries/s, %d errors%n",
+                getQueryCount(), threads, elapsedNanos / 1e9, getThroughput(), errors));
+        text.append(String.format("%-26s %10s %10s %10s %10s %10s %10s%n",
+                "Query", "count", "queries/s", "p50", "p99", "p999", "max"));
+        for (Map.Entry<MenuQuery, LatencyHistogram> entry : latencies.entrySet()) {
+            appendRow(text, entry.getKey().getOption() + ". " + entry.getKey().getDescription(), entry.getValue());
+        }
+        appendRow(text, "all", overall);
+        if (cacheHits + cacheMisses > 0) {
+            text.append(String.format("Result cache: %d hits, %d misses (%.1f%% hits), %d clears%n",
+                    cacheHits, cacheMisses, 100 * getCacheHitRatio(), cacheClears));
+        }
+        return text.toString();
+    }
+
+    private void appendRow(StringBuilder text, String name, LatencyHistogram histogram) {
+        text.append(String.format("%-26s %10d %10.0f %10s %10s %10s %10s%n", name, histogram.getCount(),
+                elapsedNanos == 0 ? 0.0 : histogram.getCount() * 1e9 / elapsedNanos,
+                LatencyHistogram.format(histogram.getPercentile(50)),
+                LatencyHistogram.format(histogram.getPercentile(99)),
+                LatencyHistogram.format(histogram.getPercentile(99.9)),
+                LatencyHistogram.format(histogram.getMax())));
+    }
+}
@@ -0,0 +1,239 @@
+package loadtest;
+
+import common.ParkingViolation;
+import data.CachingHousingReader;
+import data.CachingPopulationReader;
+import data.HousingReader;
+import data.PopulationFileReader;
+import data.PopulationReader;
+import data.ViolationFileFormat;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import processor.HousingProcessor;
+import processor.MenuQuery;
+import processor.ParkingViolationProcessor;
+import processor.PopulationProcessor;
+import processor.QueryExecutor;
+import server.MicroBatchingQueryExecutor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QueryLoadTest drives a mix of menu queries from many threads at once against shared processors
+ * and records every query's latency. Each thread runs a closed loop (the next query starts when the
+ * previous one returns) for a fixed time, asking about random ZIP codes; latencies are recorded in
+ * per-thread histograms that are merged at the end, so measuring adds no contention of its own.
+ *
+ * When a HousingProcessor is watched, its cache hits and misses during the run are reported, and
+ * its cache can be cleared periodically to see how the queries behave when results must be
+ * recomputed while other threads are reading.
+ *
+ * Usage: java loadtest.QueryLoadTest violations properties population
+ *            [threads [seconds [mix]]] [--virtual] [--clear-cache-ms N] [--batch-window-us N]
+ *
+ * --batch-window-us runs the queries through a MicroBatchingQueryExecutor with that window, to
+ * compare with direct calls, e.g. together with --clear-cache-ms for bursts of cache misses.
+ */
+public class QueryLoadTest {
+
+    private final QueryExecutor executor;
+    private final int[] zipCodes;
+    private final QueryMix mix;
+    private final int threads;
+    private final ThreadFactory threadFactory;
+
+    public QueryLoadTest(QueryExecutor executor, int[] zipCodes, QueryMix mix, int threads) {
+        this(executor, zipCodes, mix, threads, Thread::new);
+    }
+
+    /**
+     * @param threadFactory creates the worker threads, e.g. virtualThreadFactory()
+     */
+    public QueryLoadTest(QueryExecutor executor, int[] zipCodes, QueryMix mix, int threads, ThreadFactory threadFactory) {
+        if (executor == null) {
+            throw new IllegalArgumentException("QueryExecutor must not be null.");
+        }
+        if (zipCodes == null || zipCodes.length == 0) {
+            throw new IllegalArgumentException("At least one ZIP code is needed.");
+        }
+        if (mix == null) {
+            throw new IllegalArgumentException("Query mix must not be null.");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive.");
+        }
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("Thread factory must not be null.");
+        }
+        this.executor = executor;
+        this.zipCodes = zipCodes.clone();
+        this.mix = mix;
+        this.threads = threads;
+        this.threadFactory = threadFactory;
+    }
+
+    public LoadTestResult run(long durationMillis) throws InterruptedException {
+        return run(durationMillis, null, 0);
+    }
+
+    /**
+     * Runs the load for durationMillis.
+     * @param cache HousingProcessor whose cache is reported, or null
+     * @param clearEveryMillis clear that cache this often during the run; 0 never clears it
+     */
+    public LoadTestResult run(long durationMillis, HousingProcessor cache, long clearEveryMillis) throws InterruptedException {
+        if (durationMillis <= 0) {
+            throw new IllegalArgumentException("Duration must be positive.");
+        }
+        if (clearEveryMillis < 0) {
+            throw new IllegalArgumentException("Cache clear interval must not be negative.");
+        }
+        List<Map<MenuQuery, LatencyHistogram>> perThread = new ArrayList<>();
+        LongAdder errors = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long hitsBefore = cache == null ? 0 : cache.getCacheHits();
+        long missesBefore = cache == null ? 0 : cache.getCacheMisses();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Map<MenuQuery, LatencyHistogram> latencies = new EnumMap<>(MenuQuery.class);
+            for (MenuQuery query : mix.getWeights().keySet()) {
+                latencies.put(query, new LatencyHistogram());
+            }
+            perThread.add(latencies);
+            SplittableRandom random = new SplittableRandom(i);
+            workers.add(threadFactory.newThread(() -> work(start, durationMillis, random, latencies, errors)));
+        }
+
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+
+        long clears = 0;
+        if (cache != null && clearEveryMillis > 0) {
+            long deadline = startNanos + durationMillis * 1_000_000;
+            while (System.nanoTime() + clearEveryMillis * 1_000_000 < deadline) {
+                Thread.sleep(clearEveryMillis);
+                cache.clearCache();
+                clears++;
+            }
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        Map<MenuQuery, LatencyHistogram> merged = new EnumMap<>(MenuQuery.class);
+        for (Map<MenuQuery, LatencyHistogram> latencies : perThread) {
+            for (Map.Entry<MenuQuery, LatencyHistogram> entry : latencies.entrySet()) {
+                merged.computeIfAbsent(entry.getKey(), query -> new LatencyHistogram()).add(entry.getValue());
+            }
+        }
+        long hits = cache == null ? 0 : cache.getCacheHits() - hitsBefore;
+        long misses = cache == null ? 0 : cache.getCacheMisses() - missesBefore;
+        return new LoadTestResult(threads, elapsedNanos, merged, errors.sum(), hits, misses, clears);
+    }
+
+    private void work(CountDownLatch start, long durationMillis, SplittableRandom random,
+                      Map<MenuQuery, LatencyHistogram> latencies, LongAdder errors) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long deadline = System.nanoTime() + durationMillis * 1_000_000;
+        long now;
+        do {
+            MenuQuery query = mix.next(random);
+            int zipCode = zipCodes[random.nextInt(zipCodes.length)];
+            long begin = System.nanoTime();
+            try {
+                executor.execute(query, zipCode);
+            } catch (RuntimeException e) {
+                errors.increment();
+            }
+            now = System.nanoTime();
+            latencies.get(query).record(now - begin);
+        } while (now < deadline);
+    }
+
+    /**
+     * A factory for virtual threads when the JVM has them (Java 21+), otherwise null.
+     * Looked up by reflection so the project still builds and runs on Java 17.
+     */
+    public static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        boolean virtual = false;
+        long clearEveryMillis = 0;
+        long batchWindowMicros = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--virtual")) {
+                virtual = true;
+            } else if (args[i].equals("--clear-cache-ms") && i + 1 < args.length) {
+                clearEveryMillis = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--batch-window-us") && i + 1 < args.length) {
+                batchWindowMicros = Long.parseLong(args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.size() < 3) {
+            System.out.println("Usage: java loadtest.QueryLoadTest <violations> <properties> <population>"
+                    + " [threads [seconds [mix]]] [--virtual] [--clear-cache-ms N] [--batch-window-us N]");
+            System.out.println("  mix: option=weight pairs, e.g. 3=40,6=40,2=20 (default: all seven equally)");
+            return;
+        }
+        int threads = positional.size() > 3 ? Integer.parseInt(positional.get(3)) : Runtime.getRuntime().availableProcessors();
+        long seconds = positional.size() > 4 ? Long.parseLong(positional.get(4)) : 10;
+        QueryMix mix = positional.size() > 5 ? QueryMix.parse(positional.get(5)) : QueryMix.uniform();
+        ThreadFactory threadFactory = Thread::new;
+        if (virtual) {
+            threadFactory = virtualThreadFactory();
+            if (threadFactory == null) {
+                System.out.println("Virtual threads need Java 21 or later; this is Java " + Runtime.version().feature() + ".");
+                return;
+            }
+        }
+
+        MetricsRegistry.getDefault().registerMBeans();
+        String violationsFile = positional.get(0);
+        List<ParkingViolation> violations = ViolationFileFormat.detect(violationsFile).reader(violationsFile).readData();
+        PopulationReader populationReader = new CachingPopulationReader(new PopulationFileReader(positional.get(2)));
+        Map<Integer, Integer> populations = populationReader.readData();
+        HousingReader housingReader = new CachingHousingReader(positional.get(1));
+        housingReader.readData();
+        HousingProcessor housingProcessor = HousingProcessor.getInstance(housingReader, populationReader);
+        ParkingViolationProcessor violationProcessor = new ParkingViolationProcessor(violations, populations);
+        PopulationProcessor<Integer, Integer> populationProcessor = new PopulationProcessor<>(populations);
+        QueryExecutor executor = batchWindowMicros > 0
+                ? new MicroBatchingQueryExecutor(() -> violationProcessor, () -> populationProcessor, () -> housingProcessor,
+                        batchWindowMicros, MicroBatchingQueryExecutor.DEFAULT_MAX_BATCH_SIZE)
+                : new QueryExecutor(violationProcessor, populationProcessor, housingProcessor);
+        int[] zipCodes = populations.keySet().stream().mapToInt(Integer::intValue).toArray();
+
+        QueryLoadTest loadTest = new QueryLoadTest(executor, zipCodes, mix, threads, threadFactory);
+        System.out.println("Warming up for " + Math.min(seconds, 5) + " s with mix " + mix + "...");
+        loadTest.run(Math.min(seconds, 5) * 1000);
+        housingProcessor.clearCache();
+        System.out.println(loadTest.run(seconds * 1000, housingProcessor, clearEveryMillis));
+    }
+}
@@ -0,0 +1,96 @@
+package loadtest;
+
+import processor.MenuQuery;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * QueryMix is the share of each menu query in a load test, e.g. "3=40,6=40,2=20" for mostly
+ * cached housing queries with some full scans of the violations. Weights are relative.
+ */
+public class QueryMix {
+
+    private final Map<MenuQuery, Integer> weights;
+    private final MenuQuery[] queries;
+    private final long[] cumulative;
+
+    public QueryMix(Map<MenuQuery, Integer> weights) {
+        if (weights == null || weights.isEmpty()) {
+            throw new IllegalArgumentException("Query mix must not be empty.");
+        }
+        this.weights = new EnumMap<>(weights);
+        this.queries = new MenuQuery[this.weights.size()];
+        this.cumulative = new long[this.weights.size()];
+        long total = 0;
+        int i = 0;
+        for (Map.Entry<MenuQuery, Integer> entry : this.weights.entrySet()) {
+            if (entry.getValue() == null || entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Weight of option " + entry.getKey().getOption() + " must be positive.");
+            }
+            total += entry.getValue();
+            queries[i] = entry.getKey();
+            cumulative[i++] = total;
+        }
+    }
+
+    /**
+     * All seven queries, equally often.
+     */
+    public static QueryMix uniform() {
+        Map<MenuQuery, Integer> weights = new EnumMap<>(MenuQuery.class);
+        for (MenuQuery query : MenuQuery.values()) {
+            weights.put(query, 1);
+        }
+        return new QueryMix(weights);
+    }
+
+    /**
+     * Parses "option=weight" pairs separated by commas, e.g. "3=40,6=40,2=20".
+     */
+    public static QueryMix parse(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("Query mix must not be empty.");
+        }
+        Map<MenuQuery, Integer> weights = new EnumMap<>(MenuQuery.class);
+        for (String part : text.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected option=weight but got: " + part.trim());
+            }
+            try {
+                weights.merge(MenuQuery.forOption(Integer.parseInt(pair[0].trim())), Integer.parseInt(pair[1].trim()), Integer::sum);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected option=weight but got: " + part.trim());
+            }
+        }
+        return new QueryMix(weights);
+    }
+
+    public MenuQuery next(SplittableRandom random) {
+        long target = random.nextLong(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (target < cumulative[i]) {
+                return queries[i];
+            }
+        }
+        return queries[queries.length - 1];
+    }
+
+    public Map<MenuQuery, Integer> getWeights() {
+        return new EnumMap<>(weights);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<MenuQuery, Integer> entry : weights.entrySet()) {
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            text.append(entry.getKey().getOption()).append('=').append(entry.getValue());
+        }
+        return text.toString();
+    }
+}
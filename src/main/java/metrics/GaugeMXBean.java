@@ -0,0 +1,9 @@
+package metrics;
+
+/**
+ * JMX view of a gauge: a value read from its owner each time it is asked for.
+ */
+public interface GaugeMXBean {
+
+    long getValue();
+}
@@ -0,0 +1,21 @@
+package metrics;
+
+/**
+ * JMX view of a LatencyHistogram. All durations are in nanoseconds.
+ */
+public interface HistogramMXBean {
+
+    long getCount();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaxNanos();
+}
@@ -0,0 +1,69 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one phase of loading data: "load" for a reader's whole readData(),
+ * "read" and "parse" for each block of ViolationIngestPipeline, "index" for building the
+ * violation indexes, and "reload" for building and publishing a new DataSnapshot. Lets a recording line GC pauses and CPU spikes up with the work that caused them.
+ *
+ * Use begin(); it returns null, and costs one check, unless a recording has the event enabled.
+ */
+@Name("COODProject.Ingest")
+@Label("Ingest Phase")
+@Category("COODProject")
+@Description("Reading, parsing or indexing a data file")
+@StackTrace(false)
+public class IngestEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(IngestEvent.class);
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Source")
+    String source;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /**
+     * A started event for a phase, or null if no recording wants it.
+     */
+    public static IngestEvent begin(String phase, String source) {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        IngestEvent event = new IngestEvent();
+        event.phase = phase;
+        event.source = source;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits a phase started by begin(); does nothing for null.
+     */
+    public static void end(IngestEvent event, long rows, long bytes) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.rows = rows;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+}
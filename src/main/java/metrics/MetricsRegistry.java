@@ -0,0 +1,288 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * MetricsRegistry holds the application's named counters, latency histograms and gauges.
+ * Looking a metric up by name is meant to happen once, when its owner is created; recording into
+ * it afterwards takes no lock and allocates nothing, so hot paths can be instrumented freely.
+ *
+ * Once registerMBeans() has been called every metric, including ones created later, is also an
+ * MBean named e.g. {@code COODProject:type=Histogram,name=housing.getAverageMarketValue}, so a
+ * running process can be watched with jconsole, VisualVM or any JMX scraper.
+ *
+ * Names are dotted paths: reader.&lt;reader&gt;.*, housing.*, violations.*, ingest.rejected.*.
+ */
+public class MetricsRegistry {
+
+    public static final String DEFAULT_DOMAIN = "COODProject";
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    // Set while the metrics are published over JMX; guarded by this
+    private MBeanServer server;
+    private String domain;
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    /**
+     * The registry the readers and processors record into.
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * The counter with this name, created the first time it is asked for.
+     */
+    public Counter counter(String name) {
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            checkName(name);
+            Counter created = new Counter();
+            counter = counters.putIfAbsent(name, created);
+            if (counter == null) {
+                counter = created;
+                expose("Counter", name, created);
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * The latency histogram with this name, created the first time it is asked for.
+     */
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            checkName(name);
+            LatencyHistogram created = new LatencyHistogram();
+            histogram = histograms.putIfAbsent(name, created);
+            if (histogram == null) {
+                histogram = created;
+                expose("Histogram", name, new HistogramView(created));
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Reports value as the gauge with this name. A later call with the same name replaces the
+     * supplier, e.g. when the object it reads from has been replaced.
+     */
+    public void gauge(String name, LongSupplier value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Gauge value must not be null.");
+        }
+        Gauge gauge = gauges.get(name);
+        if (gauge == null) {
+            checkName(name);
+            Gauge created = new Gauge(value);
+            gauge = gauges.putIfAbsent(name, created);
+            if (gauge == null) {
+                expose("Gauge", name, created);
+                return;
+            }
+        }
+        gauge.value = value;
+    }
+
+    /**
+     * The current value of a counter or gauge, or null if there is no metric with that name.
+     */
+    public Long getValue(String name) {
+        Counter counter = counters.get(name);
+        if (counter != null) {
+            return counter.getCount();
+        }
+        Gauge gauge = gauges.get(name);
+        return gauge != null ? gauge.getValue() : null;
+    }
+
+    /**
+     * The histogram with this name, or null if nothing has created it yet.
+     */
+    public LatencyHistogram getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    /**
+     * Publishes every metric, now and in future, to the platform MBean server under DEFAULT_DOMAIN.
+     */
+    public void registerMBeans() {
+        registerMBeans(ManagementFactory.getPlatformMBeanServer(), DEFAULT_DOMAIN);
+    }
+
+    /**
+     * Publishes every metric, now and in future, to an MBean server under the given domain.
+     */
+    public synchronized void registerMBeans(MBeanServer server, String domain) {
+        if (server == null) {
+            throw new IllegalArgumentException("MBean server must not be null.");
+        }
+        if (domain == null || domain.isEmpty()) {
+            throw new IllegalArgumentException("JMX domain must not be empty.");
+        }
+        if (this.server != null) {
+            if (this.server == server && this.domain.equals(domain)) {
+                return;
+            }
+            throw new IllegalStateException("Metrics are already published under " + this.domain + ".");
+        }
+        this.server = server;
+        this.domain = domain;
+        counters.forEach((name, counter) -> expose("Counter", name, counter));
+        histograms.forEach((name, histogram) -> expose("Histogram", name, new HistogramView(histogram)));
+        gauges.forEach((name, gauge) -> expose("Gauge", name, gauge));
+    }
+
+    /**
+     * Removes this registry's MBeans; metrics keep recording.
+     */
+    public synchronized void unregisterMBeans() {
+        if (server == null) {
+            return;
+        }
+        try {
+            for (ObjectName name : registered) {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister metrics: " + e.getMessage(), e);
+        }
+        registered.clear();
+        server = null;
+        domain = null;
+    }
+
+    /**
+     * The JMX name a metric is published under.
+     */
+    public static ObjectName objectName(String domain, String type, String name) {
+        try {
+            Hashtable<String, String> properties = new Hashtable<>();
+            properties.put("type", type);
+            properties.put("name", quoteIfNeeded(name));
+            return new ObjectName(domain, properties);
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Not a valid JMX name: " + name, e);
+        }
+    }
+
+    /**
+     * Every metric, one per line in name order.
+     */
+    @Override
+    public String toString() {
+        Map<String, String> lines = new TreeMap<>();
+        counters.forEach((name, counter) -> lines.put(name, counter.toString()));
+        gauges.forEach((name, gauge) -> lines.put(name, Long.toString(gauge.getValue())));
+        histograms.forEach((name, histogram) -> lines.put(name, histogram.toString()));
+        StringBuilder text = new StringBuilder();
+        lines.forEach((name, value) -> text.append(name).append(' ').append(value).append('\n'));
+        return text.toString();
+    }
+
+    private synchronized void expose(String type, String name, Object mbean) {
+        if (server == null) {
+            return;
+        }
+        ObjectName objectName = objectName(domain, type, name);
+        try {
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mbean, objectName);
+                registered.add(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metric " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void checkName(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Metric name must not be empty.");
+        }
+    }
+
+    // ObjectName values may not contain , = : " * ? unless quoted
+    private static String quoteIfNeeded(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (",=:\"*?\n".indexOf(value.charAt(i)) >= 0) {
+                return ObjectName.quote(value);
+            }
+        }
+        return value;
+    }
+
+    private static final class Gauge implements GaugeMXBean {
+        private volatile LongSupplier value;
+
+        private Gauge(LongSupplier value) {
+            this.value = value;
+        }
+
+        @Override
+        public long getValue() {
+            return value.getAsLong();
+        }
+    }
+
+    private static final class HistogramView implements HistogramMXBean {
+        private final LatencyHistogram histogram;
+
+        private HistogramView(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        @Override
+        public double getMeanNanos() {
+            return histogram.getMean();
+        }
+
+        @Override
+        public long getP50Nanos() {
+            return histogram.getPercentile(50);
+        }
+
+        @Override
+        public long getP90Nanos() {
+            return histogram.getPercentile(90);
+        }
+
+        @Override
+        public long getP99Nanos() {
+            return histogram.getPercentile(99);
+        }
+
+        @Override
+        public long getP999Nanos() {
+            return histogram.getPercentile(99.9);
+        }
+
+        @Override
+        public long getMaxNanos() {
+            return histogram.getMax();
+        }
+    }
+}
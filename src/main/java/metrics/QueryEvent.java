@@ -0,0 +1,67 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one menu query: which option, which ZIP code (0 when the query is
+ * not about one), and whether the result came from HousingProcessor's cache.
+ *
+ * Use begin(); it returns null, and costs one check, unless a recording has the event enabled,
+ * so a cached query still allocates nothing when nobody is recording.
+ */
+@Name("COODProject.Query")
+@Label("Query")
+@Category("COODProject")
+@Description("One menu computation")
+@StackTrace(false)
+public class QueryEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(QueryEvent.class);
+
+    @Label("Menu Option")
+    int option;
+
+    @Label("Query")
+    String query;
+
+    @Label("ZIP Code")
+    int zipCode;
+
+    @Label("Cache Hit")
+    boolean cacheHit;
+
+    /**
+     * A started event for a query, or null if no recording wants it.
+     */
+    public static QueryEvent begin(int option, String query, int zipCode) {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        QueryEvent event = new QueryEvent();
+        event.option = option;
+        event.query = query;
+        event.zipCode = zipCode;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits a query started by begin(); does nothing for null.
+     */
+    public static void end(QueryEvent event, boolean cacheHit) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.cacheHit = cacheHit;
+            event.commit();
+        }
+    }
+}
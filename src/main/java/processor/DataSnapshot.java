@@ -0,0 +1,82 @@
+package processor;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DataSnapshot is one complete, unchanging version of the data: the processors built from one
+ * read of the violations, properties and population files. Queries that started on a snapshot
+ * finish on it even after SnapshotReloader has published a newer one, since nothing in a
+ * snapshot is replaced; it is garbage once no query holds it.
+ */
+public class DataSnapshot {
+
+    private final long version;
+    private final long loadedAtMillis;
+    private final ParkingViolationProcessor violationProcessor;
+    private final PopulationProcessor<Integer, Integer> populationProcessor;
+    private final HousingProcessor housingProcessor;
+    private final Set<Integer> zipCodes;
+
+    /**
+     * @param populations the population per ZIP code that the processors were built with
+     * @param housingProcessor a processor of its own, from HousingProcessor.create()
+     */
+    public DataSnapshot(long version, Map<Integer, Integer> populations,
+                        ParkingViolationProcessor violationProcessor, HousingProcessor housingProcessor) {
+        if (version <= 0) {
+            throw new IllegalArgumentException("Version must be positive.");
+        }
+        if (populations == null || violationProcessor == null || housingProcessor == null) {
+            throw new IllegalArgumentException("Populations and processors must not be null.");
+        }
+        this.version = version;
+        this.loadedAtMillis = System.currentTimeMillis();
+        this.violationProcessor = violationProcessor;
+        this.populationProcessor = new PopulationProcessor<>(populations);
+        this.housingProcessor = housingProcessor;
+        this.zipCodes = Collections.unmodifiableSet(populations.keySet());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    public ParkingViolationProcessor getViolationProcessor() {
+        return violationProcessor;
+    }
+
+    public PopulationProcessor<Integer, Integer> getPopulationProcessor() {
+        return populationProcessor;
+    }
+
+    public HousingProcessor getHousingProcessor() {
+        return housingProcessor;
+    }
+
+    /**
+     * The ZIP codes with a population.
+     */
+    public Set<Integer> getZipCodes() {
+        return zipCodes;
+    }
+
+    /**
+     * Fills the housing cache for every ZIP code with a population, so the first queries after
+     * the snapshot is published do not all miss.
+     * @return the number of ZIP codes computed
+     */
+    public int warmUp() {
+        return housingProcessor.precompute(zipCodes);
+    }
+
+    @Override
+    public String toString() {
+        return "data version " + version;
+    }
+}
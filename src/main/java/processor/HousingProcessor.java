@@ -3,9 +3,13 @@ package processor;
 import common.House;
 import data.HousingReader;
 import data.PopulationReader;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import metrics.QueryEvent;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -21,13 +25,25 @@ public class HousingProcessor {
     // DESIGN PATTERN: Singleton - ensures only one instance exists
     private static volatile HousingProcessor instance;
     private static final Object lock = new Object();
+
+    // Time spent in each of options 3-6 (housing.<method>), cache hits included
+    private static final LatencyHistogram AVERAGE_MARKET_VALUE_LATENCY = latency("getAverageMarketValue");
+    private static final LatencyHistogram AVERAGE_LIVABLE_AREA_LATENCY = latency("getAverageLivableArea");
+    private static final LatencyHistogram MARKET_VALUE_PER_CAPITA_LATENCY = latency("getMarketValuePerCapita");
+    private static final LatencyHistogram PROPERTY_VALUE_SUMMARY_LATENCY = latency("getPropertyValueSummary");
+    private static final LatencyHistogram PRECOMPUTE_LATENCY = latency("precompute");
+    private static final LatencyHistogram AVERAGE_MARKET_VALUES_PARALLEL_LATENCY = latency("calculateAverageMarketValuesParallel");
     
     private final HousingReader housingReader;
     private final PopulationReader populationReader;
     
     // MEMOIZATION: Cache for expensive calculations
-    private final Map<String, Object> calculationCache = new ConcurrentHashMap<>();
+    // Results per calculation, keyed by ZIP code; a cache hit builds no key string and boxes nothing
+    private final Map<CalculationType, IntKeyCache<Object>> calculationCache = new EnumMap<>(CalculationType.class);
     private final Map<Integer, List<House>> housesByZipCache = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder cacheEvictions = new LongAdder();
     
     // DESIGN PATTERN: Strategy - different calculation strategies
     private final Map<CalculationType, CalculationStrategy<Integer, Integer>> strategies;
@@ -55,6 +71,9 @@ public class HousingProcessor {
         }
         this.housingReader = housingReader;
         this.populationReader = populationReader;
+        for (CalculationType type : CalculationType.values()) {
+            calculationCache.put(type, new IntKeyCache<>());
+        }
         
         // Initialize strategies
         this.strategies = new HashMap<>();
@@ -74,26 +93,70 @@ public class HousingProcessor {
         if (instance == null) {
             synchronized (lock) {
                 if (instance == null) {
-                    instance = new HousingProcessor(housingReader, populationReader);
+                    HousingProcessor created = new HousingProcessor(housingReader, populationReader);
+                    created.registerGauges();
+                    instance = created;
                 }
             }
         }
         return instance;
     }
+
+    /**
+     * A new processor with its own caches, independent of the shared instance, e.g. for each
+     * DataSnapshot, so that reloaded data gets a new processor instead of a resetInstance().
+     */
+    public static HousingProcessor create(HousingReader housingReader, PopulationReader populationReader) {
+        if (housingReader == null) {
+            throw new IllegalStateException("HousingReader must not be null.");
+        }
+        if (populationReader == null) {
+            throw new IllegalStateException("PopulationReader must not be null.");
+        }
+        return new HousingProcessor(housingReader, populationReader);
+    }
+
+    /**
+     * Points the housing.cache.* and housing.housesByZip.size gauges at this processor. The shared
+     * instance does this when it is created; SnapshotReloader does it for each published snapshot.
+     */
+    public void registerGauges() {
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        metrics.gauge("housing.cache.hits", this::getCacheHits);
+        metrics.gauge("housing.cache.misses", this::getCacheMisses);
+        metrics.gauge("housing.cache.evictions", this::getCacheEvictions);
+        metrics.gauge("housing.cache.size", this::getCacheSize);
+        metrics.gauge("housing.housesByZip.size", housesByZipCache::size);
+    }
     
     /**
      * Menu Option #3: Average residential market value for a ZIP Code
      */
     public int getAverageMarketValue(int zipCode) {
+        long start = System.nanoTime();
+        QueryEvent event = QueryEvent.begin(MenuQuery.AVERAGE_MARKET_VALUE.getOption(), "getAverageMarketValue", zipCode);
+        boolean cached = event != null && isCached(CalculationType.AVERAGE_MARKET_VALUE, zipCode);
+        try {
+            return averageMarketValue(zipCode);
+        } finally {
+            AVERAGE_MARKET_VALUE_LATENCY.recordSince(start);
+            QueryEvent.end(event, cached);
+        }
+    }
+
+    private int averageMarketValue(int zipCode) {
         if (housingReader == null) {
             throw new IllegalStateException("HousingReader is not initialized.");
         }
-        String cacheKey = "avg_market_" + zipCode;
+        IntKeyCache<Object> cache = calculationCache.get(CalculationType.AVERAGE_MARKET_VALUE);
         
-        // MEMOIZATION: Check cache first
-        if (calculationCache.containsKey(cacheKey)) {
-            return (Integer) calculationCache.get(cacheKey);
+        // MEMOIZATION: Check cache first (one get, so a concurrent clearCache() cannot turn a hit into null)
+        Object cached = cache.get(zipCode);
+        if (cached != null) {
+            cacheHits.increment();
+            return (Integer) cached;
         }
+        cacheMisses.increment();
         
         List<House> houses = getHousesByZipCode(zipCode);
         
@@ -108,7 +171,7 @@ public class HousingProcessor {
         int result = average.isPresent() ? (int) Math.round(average.getAsDouble()) : 0;
         
         // MEMOIZATION: Cache the result
-        calculationCache.put(cacheKey, result);
+        cache.put(zipCode, result);
         return result;
     }
     
@@ -116,15 +179,30 @@ public class HousingProcessor {
      * Menu Option #4: Average residential total livable area for a ZIP Code
      */
     public int getAverageLivableArea(int zipCode) {
+        long start = System.nanoTime();
+        QueryEvent event = QueryEvent.begin(MenuQuery.AVERAGE_LIVABLE_AREA.getOption(), "getAverageLivableArea", zipCode);
+        boolean cached = event != null && isCached(CalculationType.AVERAGE_LIVABLE_AREA, zipCode);
+        try {
+            return averageLivableArea(zipCode);
+        } finally {
+            AVERAGE_LIVABLE_AREA_LATENCY.recordSince(start);
+            QueryEvent.end(event, cached);
+        }
+    }
+
+    private int averageLivableArea(int zipCode) {
         if (housingReader == null) {
             throw new IllegalStateException("HousingReader is not initialized.");
         }
-        String cacheKey = "avg_livable_" + zipCode;
+        IntKeyCache<Object> cache = calculationCache.get(CalculationType.AVERAGE_LIVABLE_AREA);
         
-        // MEMOIZATION: Check cache first
-        if (calculationCache.containsKey(cacheKey)) {
-            return (Integer) calculationCache.get(cacheKey);
+        // MEMOIZATION: Check cache first (one get, so a concurrent clearCache() cannot turn a hit into null)
+        Object cached = cache.get(zipCode);
+        if (cached != null) {
+            cacheHits.increment();
+            return (Integer) cached;
         }
+        cacheMisses.increment();
         
         List<House> houses = getHousesByZipCode(zipCode);
         
@@ -139,7 +217,7 @@ public class HousingProcessor {
         int result = average.isPresent() ? (int) Math.round(average.getAsDouble()) : 0;
         
         // MEMOIZATION: Cache the result
-        calculationCache.put(cacheKey, result);
+        cache.put(zipCode, result);
         return result;
     }
 
@@ -147,30 +225,45 @@ public class HousingProcessor {
      * Menu Option #5: Residential market value per capita for a ZIP Code
      */
     public int getMarketValuePerCapita(int zipCode) {
+        long start = System.nanoTime();
+        QueryEvent event = QueryEvent.begin(MenuQuery.MARKET_VALUE_PER_CAPITA.getOption(), "getMarketValuePerCapita", zipCode);
+        boolean cached = event != null && isCached(CalculationType.MARKET_VALUE_PER_CAPITA, zipCode);
+        try {
+            return marketValuePerCapita(zipCode);
+        } finally {
+            MARKET_VALUE_PER_CAPITA_LATENCY.recordSince(start);
+            QueryEvent.end(event, cached);
+        }
+    }
+
+    private int marketValuePerCapita(int zipCode) {
         if (housingReader == null) {
             throw new IllegalStateException("HousingReader is not initialized.");
         }
         if (populationReader == null) {
             throw new IllegalStateException("PopulationReader is not initialized.");
         }
-        String cacheKey = "market_per_capita_" + zipCode;
+        IntKeyCache<Object> cache = calculationCache.get(CalculationType.MARKET_VALUE_PER_CAPITA);
 
-        if (calculationCache.containsKey(cacheKey)) {
-            return (Integer) calculationCache.get(cacheKey);
+        Object cached = cache.get(zipCode);
+        if (cached != null) {
+            cacheHits.increment();
+            return (Integer) cached;
         }
+        cacheMisses.increment();
 
         try {
             Map<Integer, Integer> populations = populationReader.readData();
             Integer population = populations.get(zipCode);
 
             if (population == null || population == 0) {
-                calculationCache.put(cacheKey, 0);
+                cache.put(zipCode, 0);
                 return 0;
             }
 
             List<House> houses = getHousesByZipCode(zipCode);
             if (houses.isEmpty()) {
-                calculationCache.put(cacheKey, 0);
+                cache.put(zipCode, 0);
                 return 0;
             }
 
@@ -184,11 +277,11 @@ public class HousingProcessor {
 
             int result = (int) Math.round((double) totalMarketValue / (double) population);
 
-            calculationCache.put(cacheKey, result);
+            cache.put(zipCode, result);
             return result;
 
         } catch (Exception e) {
-            calculationCache.put(cacheKey, 0);
+            cache.put(zipCode, 0);
             return 0;
         }
 
@@ -200,15 +293,30 @@ public class HousingProcessor {
      * Returns: minimum, maximum, and median market value
      */
     public PropertyValueSummary getPropertyValueSummary(int zipCode) {
+        long start = System.nanoTime();
+        QueryEvent event = QueryEvent.begin(MenuQuery.PROPERTY_VALUE_SUMMARY.getOption(), "getPropertyValueSummary", zipCode);
+        boolean cached = event != null && isCached(CalculationType.PROPERTY_VALUE_SUMMARY, zipCode);
+        try {
+            return propertyValueSummary(zipCode);
+        } finally {
+            PROPERTY_VALUE_SUMMARY_LATENCY.recordSince(start);
+            QueryEvent.end(event, cached);
+        }
+    }
+
+    private PropertyValueSummary propertyValueSummary(int zipCode) {
         if (housingReader == null) {
             throw new IllegalStateException("HousingReader is not initialized.");
         }
-        String cacheKey = "property_summary_" + zipCode;
+        IntKeyCache<Object> cache = calculationCache.get(CalculationType.PROPERTY_VALUE_SUMMARY);
         
-        // MEMOIZATION: Check cache first
-        if (calculationCache.containsKey(cacheKey)) {
-            return (PropertyValueSummary) calculationCache.get(cacheKey);
+        // MEMOIZATION: Check cache first (one get, so a concurrent clearCache() cannot turn a hit into null)
+        Object cached = cache.get(zipCode);
+        if (cached != null) {
+            cacheHits.increment();
+            return (PropertyValueSummary) cached;
         }
+        cacheMisses.increment();
         
         List<House> houses = getHousesByZipCode(zipCode);
         
@@ -222,7 +330,7 @@ public class HousingProcessor {
         
         if (validMarketValues.isEmpty()) {
             PropertyValueSummary summary = new PropertyValueSummary(0, 0, 0);
-            calculationCache.put(cacheKey, summary);
+            cache.put(zipCode, summary);
             return summary;
         }
         
@@ -233,7 +341,7 @@ public class HousingProcessor {
         PropertyValueSummary summary = new PropertyValueSummary(min, max, median);
         
         // MEMOIZATION: Cache the result
-        calculationCache.put(cacheKey, summary);
+        cache.put(zipCode, summary);
         return summary;
     }
     
@@ -266,8 +374,9 @@ public class HousingProcessor {
             throw new IllegalStateException("HousingReader is not initialized.");
         }
         // MEMOIZATION: Check cache for houses by ZIP
-        if (housesByZipCache.containsKey(zipCode)) {
-            return housesByZipCache.get(zipCode);
+        List<House> cached = housesByZipCache.get(zipCode);
+        if (cached != null) {
+            return cached;
         }
         
         try {
@@ -289,6 +398,135 @@ public class HousingProcessor {
         }
     }
     
+    /**
+     * Answers options 3-6 for all the given ZIP codes at once, for callers that collect many
+     * questions before asking them. One pass over the data groups the houses of every ZIP code
+     * that is not grouped yet, and one pass over each ZIP code's houses then computes all four
+     * results, which go to the cache; the get methods that follow are cache hits. The results are
+     * the same as those of the get methods. ZIP codes whose four results are cached are skipped.
+     * @return the number of ZIP codes computed by this call
+     */
+    public int precompute(Collection<Integer> zipCodes) {
+        long start = System.nanoTime();
+        try {
+            return precomputeMissing(zipCodes);
+        } finally {
+            PRECOMPUTE_LATENCY.recordSince(start);
+        }
+    }
+
+    private int precomputeMissing(Collection<Integer> zipCodes) {
+        if (zipCodes == null) {
+            throw new IllegalStateException("ZIP codes must not be null.");
+        }
+        Set<Integer> missing = new HashSet<>();
+        for (Integer zipCode : zipCodes) {
+            if (zipCode != null && !isFullyCached(zipCode)) {
+                missing.add(zipCode);
+            }
+        }
+        if (missing.isEmpty()) {
+            return 0;
+        }
+        groupHouses(missing);
+        Map<Integer, Integer> populations;
+        try {
+            populations = populationReader.readData();
+        } catch (Exception e) {
+            // Market value per capita is 0 when the populations cannot be read, as in getMarketValuePerCapita
+            populations = null;
+        }
+        for (int zipCode : missing) {
+            cacheAll(zipCode, getHousesByZipCode(zipCode), populations);
+        }
+        cacheMisses.add(missing.size());
+        return missing.size();
+    }
+
+    private boolean isFullyCached(int zipCode) {
+        for (IntKeyCache<Object> cache : calculationCache.values()) {
+            if (cache.get(zipCode) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // One pass over all houses for the ZIP codes that are not grouped yet
+    private void groupHouses(Set<Integer> zipCodes) {
+        Map<Integer, List<House>> wanted = new HashMap<>();
+        for (Integer zipCode : zipCodes) {
+            if (!housesByZipCache.containsKey(zipCode)) {
+                wanted.put(zipCode, new ArrayList<>());
+            }
+        }
+        if (wanted.isEmpty()) {
+            return;
+        }
+        List<House> allHouses;
+        try {
+            allHouses = housingReader.readData();
+        } catch (Exception e) {
+            // Left to getHousesByZipCode, which answers with no houses
+            return;
+        }
+        if (allHouses == null) {
+            return;
+        }
+        for (House house : allHouses) {
+            List<House> houses = house.getZip_code() == null ? null : wanted.get(house.getZip_code());
+            if (houses != null) {
+                houses.add(house);
+            }
+        }
+        housesByZipCache.putAll(wanted);
+    }
+
+    // The four results for one ZIP code from one pass over its houses, with the get methods' rules
+    private void cacheAll(int zipCode, List<House> houses, Map<Integer, Integer> populations) {
+        int[] marketValues = new int[houses.size()];
+        int marketValueCount = 0;
+        long marketValueSum = 0;
+        long areaSum = 0;
+        int areaCount = 0;
+        for (House house : houses) {
+            Integer marketValue = house.getMarket_value();
+            if (marketValue != null && marketValue > 0) {
+                marketValues[marketValueCount++] = marketValue;
+                marketValueSum += marketValue;
+            }
+            Integer area = house.getTotal_livable_area();
+            if (area != null && area > 0) {
+                areaSum += area;
+                areaCount++;
+            }
+        }
+
+        calculationCache.get(CalculationType.AVERAGE_MARKET_VALUE).put(zipCode,
+                marketValueCount == 0 ? 0 : (int) Math.round((double) marketValueSum / marketValueCount));
+        calculationCache.get(CalculationType.AVERAGE_LIVABLE_AREA).put(zipCode,
+                areaCount == 0 ? 0 : (int) Math.round((double) areaSum / areaCount));
+
+        Integer population = populations == null ? null : populations.get(zipCode);
+        int perCapita = population == null || population == 0 || houses.isEmpty()
+                ? 0 : (int) Math.round((double) marketValueSum / (double) population);
+        calculationCache.get(CalculationType.MARKET_VALUE_PER_CAPITA).put(zipCode, perCapita);
+
+        PropertyValueSummary summary;
+        if (marketValueCount == 0) {
+            summary = new PropertyValueSummary(0, 0, 0);
+        } else {
+            Arrays.sort(marketValues, 0, marketValueCount);
+            int middle = marketValueCount / 2;
+            // Same int arithmetic as calculateMedian
+            int median = marketValueCount % 2 == 0
+                    ? (marketValues[middle - 1] + marketValues[middle]) / 2
+                    : marketValues[middle];
+            summary = new PropertyValueSummary(marketValues[0], marketValues[marketValueCount - 1], median);
+        }
+        calculationCache.get(CalculationType.PROPERTY_VALUE_SUMMARY).put(zipCode, summary);
+    }
+
     /**
      * Calculate median from sorted list
      */
@@ -338,6 +576,15 @@ public class HousingProcessor {
      * JAVA FEATURE: Varargs - Accepts multiple ZIP codes
      */
     public Map<Integer, Integer> calculateAverageMarketValuesParallel(int... zipCodes) {
+        long start = System.nanoTime();
+        try {
+            return averageMarketValuesParallel(zipCodes);
+        } finally {
+            AVERAGE_MARKET_VALUES_PARALLEL_LATENCY.recordSince(start);
+        }
+    }
+
+    private Map<Integer, Integer> averageMarketValuesParallel(int... zipCodes) {
         if (zipCodes == null) {
             throw new IllegalStateException("ZIP codes array must not be null.");
         }
@@ -401,16 +648,67 @@ public class HousingProcessor {
         }
     }
     
+    /**
+     * Number of calls to options 3-6 answered from the result cache.
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Number of calls to options 3-6 that had to compute their result. Under concurrent load this
+     * can exceed the number of distinct questions, when several threads miss on the same key at once.
+     */
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * Number of cached results dropped by clearCache().
+     */
+    public long getCacheEvictions() {
+        return cacheEvictions.sum();
+    }
+
+    /**
+     * Number of cached results.
+     */
+    public int getCacheSize() {
+        int size = 0;
+        for (IntKeyCache<Object> cache : calculationCache.values()) {
+            size += cache.size();
+        }
+        return size;
+    }
+
     /**
      * Clear all caches (useful for testing)
      */
     public void clearCache() {
-        calculationCache.clear();
+        cacheEvictions.add(getCacheSize());
+        for (IntKeyCache<Object> cache : calculationCache.values()) {
+            cache.clear();
+        }
         housesByZipCache.clear();
     }
     
     /**
-     * Reset the singleton instance (useful for testing)
+     * Whether a call for this calculation and ZIP code would be answered from the cache.
+     */
+    public boolean isCached(CalculationType type, int zipCode) {
+        if (type == null) {
+            throw new IllegalStateException("Calculation type must not be null.");
+        }
+        return calculationCache.get(type).get(zipCode) != null;
+    }
+
+    private static LatencyHistogram latency(String query) {
+        return MetricsRegistry.getDefault().histogram("housing." + query);
+    }
+
+    /**
+     * Reset the singleton instance (useful for testing). Code that replaces its data while running
+     * uses create() and SnapshotReloader instead.
      */
     public static void resetInstance() {
         synchronized (lock) {
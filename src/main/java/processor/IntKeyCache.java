@@ -0,0 +1,99 @@
+package processor;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * IntKeyCache memoizes values by an int key (a ZIP code) without boxing the key, so a lookup
+ * allocates nothing. Reads take no lock: open addressing with linear probing over atomic arrays,
+ * where a writer stores the value before the key, so a reader that finds the key also sees the value.
+ * Writes are synchronized; they are rare (one per distinct key) and grow the table by publishing a
+ * new one. Integer.MIN_VALUE marks empty slots and is never cached.
+ */
+class IntKeyCache<V> {
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private static final class Table<V> {
+        private final AtomicIntegerArray keys;
+        private final AtomicReferenceArray<V> values;
+        private volatile int size;
+
+        private Table(int capacity) {
+            keys = new AtomicIntegerArray(capacity);
+            values = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < capacity; i++) {
+                keys.set(i, EMPTY);
+            }
+        }
+    }
+
+    private volatile Table<V> table = new Table<>(64);
+
+    /**
+     * The cached value, or null.
+     */
+    V get(int key) {
+        Table<V> current = table;
+        int mask = current.keys.length() - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int candidate = current.keys.get(slot);
+            if (candidate == key) {
+                return current.values.get(slot);
+            }
+            if (candidate == EMPTY) {
+                return null;
+            }
+        }
+    }
+
+    synchronized void put(int key, V value) {
+        if (key == EMPTY || value == null) {
+            return;
+        }
+        Table<V> current = table;
+        if (insert(current, key, value) && current.size * 2 > current.keys.length()) {
+            // Keep the load factor at or below 1/2 so probe sequences stay short
+            Table<V> grown = new Table<>(current.keys.length() * 2);
+            for (int i = 0; i < current.keys.length(); i++) {
+                int existing = current.keys.get(i);
+                if (existing != EMPTY) {
+                    insert(grown, existing, current.values.get(i));
+                }
+            }
+            table = grown;
+        }
+    }
+
+    synchronized void clear() {
+        table = new Table<>(64);
+    }
+
+    int size() {
+        return table.size;
+    }
+
+    // Returns true if the key was new
+    private static <V> boolean insert(Table<V> table, int key, V value) {
+        int mask = table.keys.length() - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int candidate = table.keys.get(slot);
+            if (candidate == key) {
+                table.values.set(slot, value);
+                return false;
+            }
+            if (candidate == EMPTY) {
+                table.values.set(slot, value);
+                table.keys.set(slot, key);
+                table.size++;
+                return true;
+            }
+        }
+    }
+
+    // ZIP codes are dense; spread them so neighbors do not share probe runs
+    private static int mix(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
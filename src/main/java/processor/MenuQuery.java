@@ -0,0 +1,48 @@
+package processor;
+
+/**
+ * The seven computations of the main menu, by option number.
+ */
+public enum MenuQuery {
+    TOTAL_POPULATION(1, "total population", false),
+    FINES_PER_CAPITA(2, "fines per capita", false),
+    AVERAGE_MARKET_VALUE(3, "average market value", true),
+    AVERAGE_LIVABLE_AREA(4, "average livable area", true),
+    MARKET_VALUE_PER_CAPITA(5, "market value per capita", true),
+    PROPERTY_VALUE_SUMMARY(6, "property value summary", true),
+    MOST_COMMON_VIOLATION(7, "most common violation", true);
+
+    private final int option;
+    private final String description;
+    private final boolean needsZipCode;
+
+    MenuQuery(int option, String description, boolean needsZipCode) {
+        this.option = option;
+        this.description = description;
+        this.needsZipCode = needsZipCode;
+    }
+
+    public int getOption() {
+        return option;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Whether the query is about one ZIP code; the others ignore the ZIP code they are given.
+     */
+    public boolean needsZipCode() {
+        return needsZipCode;
+    }
+
+    public static MenuQuery forOption(int option) {
+        for (MenuQuery query : values()) {
+            if (query.option == option) {
+                return query;
+            }
+        }
+        throw new IllegalArgumentException("Unknown menu option: " + option + ". Expected 1 to 7.");
+    }
+}
@@ -1,16 +1,57 @@
 package processor;
 
 import common.ParkingViolation;
+import metrics.IngestEvent;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import metrics.QueryEvent;
+import sketch.SpaceSavingSketch;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.HashMap;
+import java.util.RandomAccess;
 
 public class ParkingViolationProcessor {
 
+    // Time spent in each query (violations.<method>); overloads share one histogram
+    private static final LatencyHistogram CALCULATE_FINES_PER_CAPITA = latency("calculateFinesPerCapita");
+    private static final LatencyHistogram GET_VIOLATION_TYPES_BY_ZIP = latency("getViolationTypesByZip");
+    private static final LatencyHistogram GET_VIOLATION_TYPES_FOR_ZIP = latency("getViolationTypesForZip");
+    private static final LatencyHistogram GET_MOST_COMMON_VIOLATION_TYPE = latency("getMostCommonViolationType");
+    private static final LatencyHistogram GET_MONTHLY_VIOLATION_COUNTS = latency("getMonthlyViolationCounts");
+    private static final LatencyHistogram GET_MONTHLY_FINE_TOTALS = latency("getMonthlyFineTotals");
+    private static final LatencyHistogram GET_VIOLATION_HEATMAP = latency("getViolationHeatmap");
+    private static final LatencyHistogram GET_VIOLATION_COUNTS_BY_HOUR = latency("getViolationCountsByHour");
+    private static final LatencyHistogram GET_VIOLATION_COUNTS_BY_WEEKDAY = latency("getViolationCountsByWeekday");
+    private static final LatencyHistogram COUNT_VIOLATIONS_BETWEEN = latency("countViolationsBetween");
+    private static final LatencyHistogram GET_FINES_BETWEEN = latency("getFinesBetween");
+    private static final LatencyHistogram COUNT_VIOLATIONS_IN_RANGE = latency("countViolationsInRange");
+    private static final LatencyHistogram GET_FINES_IN_RANGE = latency("getFinesInRange");
+    private static final LatencyHistogram GET_VIOLATIONS_IN_RANGE = latency("getViolationsInRange");
+    private static final LatencyHistogram GET_VIOLATIONS_FOR_PLATE = latency("getViolationsForPlate");
+    private static final LatencyHistogram COUNT_VIOLATIONS_FOR_PLATE = latency("countViolationsForPlate");
+    private static final LatencyHistogram FIND_BY_TICKET_NUMBER = latency("findByTicketNumber");
+    private static final LatencyHistogram GET_TOP_PLATES_BY_COUNT = latency("getTopPlatesByCount");
+    private static final LatencyHistogram GET_TOP_PLATES_BY_FINES = latency("getTopPlatesByFines");
+    private static final LatencyHistogram ESTIMATE_DISTINCT_PLATES = latency("estimateDistinctPlates");
+    private static final LatencyHistogram BUILD_INDEXES = latency("buildIndexes");
+
     private List<ParkingViolation> violations;
     private Map<Integer, Integer> populations;
-
+    private final ViolationTimeIndex timeIndex;
+    private final ViolationTimestampIndex timestampIndex;
+    private final PlateIndex plateIndex;
+    private final TicketIndex ticketIndex;
+    private final RepeatOffenders repeatOffenders;
+    private final DistinctPlateSketches distinctPlates;
 
     public ParkingViolationProcessor(List<ParkingViolation> violations, Map<Integer, Integer> populations) {
         if (violations == null) {
@@ -19,12 +60,34 @@ public class ParkingViolationProcessor {
         if (populations == null) {
             throw new IllegalStateException("Populations map must not be null.");
         }
-        this.violations = violations;
+        // The indexes refer to violations by list position, so get(i) must be cheap
+        this.violations = violations instanceof RandomAccess ? violations : new ArrayList<>(violations);
         this.populations = populations;
+        long start = System.nanoTime();
+        IngestEvent event = IngestEvent.begin("index", "violations");
+        this.timeIndex = new ViolationTimeIndex(this.violations);
+        this.timestampIndex = new ViolationTimestampIndex(this.violations, timeIndex.getZipCodes());
+        this.plateIndex = new PlateIndex(this.violations);
+        this.ticketIndex = new TicketIndex(this.violations);
+        this.repeatOffenders = new RepeatOffenders(this.violations);
+        this.distinctPlates = new DistinctPlateSketches(this.violations);
+        BUILD_INDEXES.recordSince(start);
+        IngestEvent.end(event, this.violations.size(), 0);
     }
 
 
     public Map<Integer, Double> calculateFinesPerCapita() {
+        long start = System.nanoTime();
+        QueryEvent event = QueryEvent.begin(MenuQuery.FINES_PER_CAPITA.getOption(), "calculateFinesPerCapita", 0);
+        try {
+            return finesPerCapita();
+        } finally {
+            CALCULATE_FINES_PER_CAPITA.recordSince(start);
+            QueryEvent.end(event, false);
+        }
+    }
+
+    private Map<Integer, Double> finesPerCapita() {
         if (violations == null) {
             throw new IllegalStateException("Violations list is not initialized.");
         }
@@ -85,6 +148,15 @@ public class ParkingViolationProcessor {
 
     // Gets violation type counts for each ZIP code.
     public Map<Integer, Map<String, Integer>> getViolationTypesByZip() {
+        long start = System.nanoTime();
+        try {
+            return violationTypesByZip();
+        } finally {
+            GET_VIOLATION_TYPES_BY_ZIP.recordSince(start);
+        }
+    }
+
+    private Map<Integer, Map<String, Integer>> violationTypesByZip() {
         if (violations == null) {
             throw new IllegalStateException("Violations list is not initialized.");
         }
@@ -119,6 +191,15 @@ public class ParkingViolationProcessor {
 
     // Gets violation type counts for a specific ZIP code.
     public Map<String, Integer> getViolationTypesForZip(int zipCode) {
+        long start = System.nanoTime();
+        try {
+            return violationTypesForZip(zipCode);
+        } finally {
+            GET_VIOLATION_TYPES_FOR_ZIP.recordSince(start);
+        }
+    }
+
+    private Map<String, Integer> violationTypesForZip(int zipCode) {
         if (violations == null) {
             throw new IllegalStateException("Violations list is not initialized.");
         }
@@ -141,7 +222,18 @@ public class ParkingViolationProcessor {
 
     // Gets the most common violation type for a specific ZIP code.
     public String getMostCommonViolationType(int zipCode) {
-        Map<String, Integer> typeCounts = getViolationTypesForZip(zipCode);
+        long start = System.nanoTime();
+        QueryEvent event = QueryEvent.begin(MenuQuery.MOST_COMMON_VIOLATION.getOption(), "getMostCommonViolationType", zipCode);
+        try {
+            return mostCommonViolationType(zipCode);
+        } finally {
+            GET_MOST_COMMON_VIOLATION_TYPE.recordSince(start);
+            QueryEvent.end(event, false);
+        }
+    }
+
+    private String mostCommonViolationType(int zipCode) {
+        Map<String, Integer> typeCounts = violationTypesForZip(zipCode);
 
         if (typeCounts == null || typeCounts.isEmpty()) {
             return null;
@@ -163,4 +255,307 @@ public class ParkingViolationProcessor {
 
         return mostCommon;
     }
-}
\ No newline at end of file
+
+
+    // Time-bucketed counts and fines per ZIP code, built when the processor is created.
+    public ViolationTimeIndex getTimeIndex() {
+        return timeIndex;
+    }
+
+    // Gets the number of violations per month for a specific ZIP code, months in order.
+    // Every month that has a violation in any ZIP code is listed, with 0 where this ZIP code has none.
+    public Map<YearMonth, Integer> getMonthlyViolationCounts(int zipCode) {
+        long start = System.nanoTime();
+        try {
+            int[] counts = timeIndex.getMonthlyCounts(zipCode);
+            Map<YearMonth, Integer> monthly = new TreeMap<>();
+            int[] months = timeIndex.getMonths();
+            for (int i = 0; i < counts.length; i++) {
+                monthly.put(toYearMonth(months[i]), counts[i]);
+            }
+            return monthly;
+        } finally {
+            GET_MONTHLY_VIOLATION_COUNTS.recordSince(start);
+        }
+    }
+
+    // Gets the total fines per month for a specific ZIP code, months in order.
+    public Map<YearMonth, Long> getMonthlyFineTotals(int zipCode) {
+        long start = System.nanoTime();
+        try {
+            long[] fines = timeIndex.getMonthlyFines(zipCode);
+            Map<YearMonth, Long> monthly = new TreeMap<>();
+            int[] months = timeIndex.getMonths();
+            for (int i = 0; i < fines.length; i++) {
+                monthly.put(toYearMonth(months[i]), fines[i]);
+            }
+            return monthly;
+        } finally {
+            GET_MONTHLY_FINE_TOTALS.recordSince(start);
+        }
+    }
+
+    // Gets violation counts by day of week (row 0 = Monday) and hour of day (column) for a ZIP code.
+    public int[][] getViolationHeatmap(int zipCode) {
+        long start = System.nanoTime();
+        try {
+            return timeIndex.getWeekdayHourCounts(zipCode);
+        } finally {
+            GET_VIOLATION_HEATMAP.recordSince(start);
+        }
+    }
+
+    // Gets violation counts by hour of day (index 0-23) for a ZIP code.
+    public int[] getViolationCountsByHour(int zipCode) {
+        long start = System.nanoTime();
+        try {
+            return timeIndex.getHourlyCounts(zipCode);
+        } finally {
+            GET_VIOLATION_COUNTS_BY_HOUR.recordSince(start);
+        }
+    }
+
+    // Gets violation counts by day of week (index 0 = Monday) for a ZIP code.
+    public int[] getViolationCountsByWeekday(int zipCode) {
+        long start = System.nanoTime();
+        try {
+            return timeIndex.getWeekdayCounts(zipCode);
+        } finally {
+            GET_VIOLATION_COUNTS_BY_WEEKDAY.recordSince(start);
+        }
+    }
+
+    // Counts violations in a ZIP code between two dates (both inclusive).
+    public int countViolationsBetween(int zipCode, LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        try {
+            if (from == null || to == null) {
+                throw new IllegalArgumentException("Dates must not be null.");
+            }
+            return timeIndex.countBetweenDays(zipCode, from.toEpochDay(), to.toEpochDay());
+        } finally {
+            COUNT_VIOLATIONS_BETWEEN.recordSince(start);
+        }
+    }
+
+    // Sums the fines in a ZIP code between two dates (both inclusive).
+    public long getFinesBetween(int zipCode, LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        try {
+            if (from == null || to == null) {
+                throw new IllegalArgumentException("Dates must not be null.");
+            }
+            return timeIndex.finesBetweenDays(zipCode, from.toEpochDay(), to.toEpochDay());
+        } finally {
+            GET_FINES_BETWEEN.recordSince(start);
+        }
+    }
+
+    // Counts violations in a ZIP code issued at or after from and before to.
+    public int countViolationsInRange(int zipCode, Instant from, Instant to) {
+        long start = System.nanoTime();
+        try {
+            checkRange(from, to);
+            return timestampIndex.count(zipCode, from.getEpochSecond(), to.getEpochSecond());
+        } finally {
+            COUNT_VIOLATIONS_IN_RANGE.recordSince(start);
+        }
+    }
+
+    // Sums the fines in a ZIP code issued at or after from and before to.
+    public long getFinesInRange(int zipCode, Instant from, Instant to) {
+        long start = System.nanoTime();
+        try {
+            checkRange(from, to);
+            return timestampIndex.fines(zipCode, from.getEpochSecond(), to.getEpochSecond());
+        } finally {
+            GET_FINES_IN_RANGE.recordSince(start);
+        }
+    }
+
+    // Gets the violations in a ZIP code issued at or after from and before to, oldest first.
+    // The returned list is a read-only view backed by this processor's violations.
+    public List<ParkingViolation> getViolationsInRange(int zipCode, Instant from, Instant to) {
+        long start = System.nanoTime();
+        try {
+            checkRange(from, to);
+            return violationsAt(timestampIndex.positions(zipCode, from.getEpochSecond(), to.getEpochSecond()));
+        } finally {
+            GET_VIOLATIONS_IN_RANGE.recordSince(start);
+        }
+    }
+
+    // Gets every violation issued to a plate, in the order they were read.
+    // The returned list is a read-only view backed by this processor's violations.
+    public List<ParkingViolation> getViolationsForPlate(String plateId) {
+        long start = System.nanoTime();
+        try {
+            return violationsAt(plateIndex.positions(plateId));
+        } finally {
+            GET_VIOLATIONS_FOR_PLATE.recordSince(start);
+        }
+    }
+
+    // Counts the violations issued to a plate.
+    public int countViolationsForPlate(String plateId) {
+        long start = System.nanoTime();
+        try {
+            return plateIndex.count(plateId);
+        } finally {
+            COUNT_VIOLATIONS_FOR_PLATE.recordSince(start);
+        }
+    }
+
+    // Plate lookup index; see PlateIndex.getMemoryUsageBytes() and getPlateStringBytes() for its size.
+    public PlateIndex getPlateIndex() {
+        return plateIndex;
+    }
+
+    // Gets the violation with a ticket number, or null if there is none.
+    public ParkingViolation findByTicketNumber(long ticketNumber) {
+        long start = System.nanoTime();
+        try {
+            int position = ticketIndex.position(ticketNumber);
+            return position == TicketIndex.NOT_FOUND ? null : violations.get(position);
+        } finally {
+            FIND_BY_TICKET_NUMBER.recordSince(start);
+        }
+    }
+
+    // Gets the violation with a ticket number (numeric or not), or null if there is none.
+    public ParkingViolation findByTicketNumber(String ticketNumber) {
+        long start = System.nanoTime();
+        try {
+            int position = ticketIndex.position(ticketNumber);
+            return position == TicketIndex.NOT_FOUND ? null : violations.get(position);
+        } finally {
+            FIND_BY_TICKET_NUMBER.recordSince(start);
+        }
+    }
+
+    // Gets the k plates with the most tickets citywide (approximate, see RepeatOffenders).
+    public List<SpaceSavingSketch.Estimate<String>> getTopPlatesByCount(int k) {
+        long start = System.nanoTime();
+        try {
+            return repeatOffenders.topByCount(k);
+        } finally {
+            GET_TOP_PLATES_BY_COUNT.recordSince(start);
+        }
+    }
+
+    // Gets the k plates with the highest fine totals citywide (approximate, see RepeatOffenders).
+    public List<SpaceSavingSketch.Estimate<String>> getTopPlatesByFines(int k) {
+        long start = System.nanoTime();
+        try {
+            return repeatOffenders.topByFines(k);
+        } finally {
+            GET_TOP_PLATES_BY_FINES.recordSince(start);
+        }
+    }
+
+    // Gets the k plates with the most tickets in a ZIP code (approximate, see RepeatOffenders).
+    public List<SpaceSavingSketch.Estimate<String>> getTopPlatesByCount(int zipCode, int k) {
+        long start = System.nanoTime();
+        try {
+            return repeatOffenders.topByCount(zipCode, k);
+        } finally {
+            GET_TOP_PLATES_BY_COUNT.recordSince(start);
+        }
+    }
+
+    // Gets the k plates with the highest fine totals in a ZIP code (approximate, see RepeatOffenders).
+    public List<SpaceSavingSketch.Estimate<String>> getTopPlatesByFines(int zipCode, int k) {
+        long start = System.nanoTime();
+        try {
+            return repeatOffenders.topByFines(zipCode, k);
+        } finally {
+            GET_TOP_PLATES_BY_FINES.recordSince(start);
+        }
+    }
+
+    public RepeatOffenders getRepeatOffenders() {
+        return repeatOffenders;
+    }
+
+    // Estimates how many distinct plates were ticketed in a ZIP code (HyperLogLog, about 1.6% error).
+    public long estimateDistinctPlates(int zipCode) {
+        long start = System.nanoTime();
+        try {
+            return distinctPlates.estimateForZip(zipCode);
+        } finally {
+            ESTIMATE_DISTINCT_PLATES.recordSince(start);
+        }
+    }
+
+    // Estimates how many distinct plates were ticketed for a violation type (about 1.6% error).
+    public long estimateDistinctPlates(String violationType) {
+        long start = System.nanoTime();
+        try {
+            return distinctPlates.estimateForType(violationType);
+        } finally {
+            ESTIMATE_DISTINCT_PLATES.recordSince(start);
+        }
+    }
+
+    // Estimates how many distinct plates were ticketed in a ZIP code for a violation type (about 3.3% error).
+    public long estimateDistinctPlates(int zipCode, String violationType) {
+        long start = System.nanoTime();
+        try {
+            return distinctPlates.estimateForZipAndType(zipCode, violationType);
+        } finally {
+            ESTIMATE_DISTINCT_PLATES.recordSince(start);
+        }
+    }
+
+    // Estimates how many distinct plates were ticketed across a group of ZIP codes.
+    public long estimateDistinctPlates(Collection<Integer> zipCodes) {
+        long start = System.nanoTime();
+        try {
+            return distinctPlates.estimateForZips(zipCodes);
+        } finally {
+            ESTIMATE_DISTINCT_PLATES.recordSince(start);
+        }
+    }
+
+    // Estimates how many distinct plates were ticketed for a violation type across a group of ZIP codes.
+    public long estimateDistinctPlates(Collection<Integer> zipCodes, String violationType) {
+        long start = System.nanoTime();
+        try {
+            return distinctPlates.estimateForZipsAndType(zipCodes, violationType);
+        } finally {
+            ESTIMATE_DISTINCT_PLATES.recordSince(start);
+        }
+    }
+
+    public DistinctPlateSketches getDistinctPlateSketches() {
+        return distinctPlates;
+    }
+
+    private List<ParkingViolation> violationsAt(int[] positions) {
+        return new AbstractList<ParkingViolation>() {
+            @Override
+            public ParkingViolation get(int index) {
+                return violations.get(positions[index]);
+            }
+
+            @Override
+            public int size() {
+                return positions.length;
+            }
+        };
+    }
+
+    private static void checkRange(Instant from, Instant to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Instants must not be null.");
+        }
+    }
+
+    private static LatencyHistogram latency(String query) {
+        return MetricsRegistry.getDefault().histogram("violations." + query);
+    }
+
+    private static YearMonth toYearMonth(int epochMonth) {
+        return YearMonth.of(epochMonth / 12, epochMonth % 12 + 1);
+    }
+}
@@ -0,0 +1,215 @@
+package processor;
+
+import common.ParkingViolation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * PlateIndex maps each plate_id to the list positions of its violations.
+ * Plates are not copied: each distinct plate gets a number, and the index compares a
+ * lookup against the plate String its first violation already holds. An open-addressing
+ * hash table of plate numbers finds a plate without creating any String keys. The positions
+ * of all plates share one array, each plate owning a slice.
+ */
+public class PlateIndex {
+
+    private static final int EMPTY = -1;
+
+    // The indexed violations; plate p is spelled by violations.get(firstRows[p]).getPlate_id()
+    private final List<ParkingViolation> violations;
+    private int[] firstRows = new int[64];
+    private int[] plateHashes = new int[64];
+    private int plateCount;
+
+    // Open addressing with linear probing; slots hold a plate number or EMPTY
+    private int[] table = newTable(128);
+
+    // Posting lists: the positions of plate p are postings[postingStarts[p] .. postingStarts[p + 1])
+    private final int[] postingStarts;
+    private final int[] postings;
+
+    PlateIndex(List<ParkingViolation> violations) {
+        this.violations = violations;
+
+        // Pass 1: give every distinct plate a number and remember each row's plate
+        int[] rowPlates = new int[violations.size()];
+        int row = 0;
+        for (ParkingViolation violation : violations) {
+            String plate = violation == null ? null : violation.getPlate_id();
+            rowPlates[row] = plate == null ? EMPTY : findOrAdd(plate, row);
+            row++;
+        }
+
+        // Pass 2: counting sort of row positions by plate number
+        int[] starts = new int[plateCount + 1];
+        for (int plate : rowPlates) {
+            if (plate != EMPTY) {
+                starts[plate + 1]++;
+            }
+        }
+        for (int plate = 0; plate < plateCount; plate++) {
+            starts[plate + 1] += starts[plate];
+        }
+        int[] next = Arrays.copyOf(starts, plateCount);
+        int[] positions = new int[starts[plateCount]];
+        for (int position = 0; position < rowPlates.length; position++) {
+            int plate = rowPlates[position];
+            if (plate != EMPTY) {
+                positions[next[plate]++] = position;
+            }
+        }
+        this.postingStarts = starts;
+        this.postings = positions;
+
+        // Trim the growable arrays now that no more plates will be added
+        firstRows = Arrays.copyOf(firstRows, plateCount);
+        plateHashes = Arrays.copyOf(plateHashes, plateCount);
+    }
+
+    /**
+     * List positions of every violation with this plate, in list order. Empty if the plate is unknown.
+     */
+    public int[] positions(String plateId) {
+        if (plateId == null) {
+            return new int[0];
+        }
+        int plate = find(plateId);
+        if (plate == EMPTY) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(postings, postingStarts[plate], postingStarts[plate + 1]);
+    }
+
+    /**
+     * Number of violations with this plate.
+     */
+    public int count(String plateId) {
+        if (plateId == null) {
+            return 0;
+        }
+        int plate = find(plateId);
+        return plate == EMPTY ? 0 : postingStarts[plate + 1] - postingStarts[plate];
+    }
+
+    public int getDistinctPlateCount() {
+        return plateCount;
+    }
+
+    /**
+     * Approximate heap size of the index in bytes (array contents plus array headers).
+     * The plate Strings belong to the violations and are counted by getPlateStringBytes().
+     */
+    public long getMemoryUsageBytes() {
+        return arrayBytes(firstRows.length, 4) + arrayBytes(plateHashes.length, 4)
+                + arrayBytes(table.length, 4) + arrayBytes(postingStarts.length, 4) + arrayBytes(postings.length, 4);
+    }
+
+    /**
+     * Approximate heap size of the plate Strings held by the indexed violations. Readers that
+     * share one String per distinct plate pay for each plate once; others pay for every row.
+     */
+    public long getPlateStringBytes() {
+        Set<String> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        long bytes = 0;
+        for (int position : postings) {
+            String plate = violations.get(position).getPlate_id();
+            if (seen.add(plate)) {
+                // 24-byte String object plus its byte[] value (compact strings: one byte per Latin-1 char)
+                boolean latin1 = plate.chars().allMatch(c -> c <= 0xFF);
+                bytes += 24 + arrayBytes(plate.length(), latin1 ? 1 : 2);
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        long indexBytes = getMemoryUsageBytes();
+        long combinedBytes = indexBytes + getPlateStringBytes();
+        return String.format("PlateIndex{plates=%d, postings=%d, memory=%.1f KB (%.1f bytes/plate),"
+                        + " with plate strings=%.1f KB}",
+                plateCount, postings.length, indexBytes / 1024.0,
+                plateCount == 0 ? 0.0 : (double) indexBytes / plateCount, combinedBytes / 1024.0);
+    }
+
+    private static long arrayBytes(int length, int elementSize) {
+        // 16-byte array header, rounded up to 8-byte alignment
+        return (16L + (long) length * elementSize + 7) & ~7L;
+    }
+
+    // String caches its hash code, so this costs nothing after the first call per String
+    private static int hash(String plate) {
+        int hash = plate.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private int find(String plate) {
+        int hash = hash(plate);
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int candidate = table[slot];
+            if (candidate == EMPTY) {
+                return EMPTY;
+            }
+            if (plateHashes[candidate] == hash && plateEquals(candidate, plate)) {
+                return candidate;
+            }
+        }
+    }
+
+    private int findOrAdd(String plate, int row) {
+        int hash = hash(plate);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        for (; table[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int candidate = table[slot];
+            if (plateHashes[candidate] == hash && plateEquals(candidate, plate)) {
+                return candidate;
+            }
+        }
+        int plateNumber = add(row, hash);
+        table[slot] = plateNumber;
+        // Keep the load factor at or below 1/2 so probe sequences stay short
+        if (plateCount * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return plateNumber;
+    }
+
+    private int add(int row, int hash) {
+        if (plateCount == plateHashes.length) {
+            plateHashes = Arrays.copyOf(plateHashes, plateCount * 2);
+            firstRows = Arrays.copyOf(firstRows, plateCount * 2);
+        }
+        firstRows[plateCount] = row;
+        plateHashes[plateCount] = hash;
+        return plateCount++;
+    }
+
+    private boolean plateEquals(int plateNumber, String plate) {
+        String known = violations.get(firstRows[plateNumber]).getPlate_id();
+        return known == plate || known.equals(plate);
+    }
+
+    private void rehash(int capacity) {
+        table = newTable(capacity);
+        int mask = capacity - 1;
+        for (int plate = 0; plate < plateCount; plate++) {
+            int slot = plateHashes[plate] & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = plate;
+        }
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+}
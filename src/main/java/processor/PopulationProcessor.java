@@ -1,5 +1,7 @@
 package processor;
 
+import metrics.QueryEvent;
+
 import java.util.Map;
 
 public class PopulationProcessor<K, V extends Number> {
@@ -18,6 +20,15 @@ public class PopulationProcessor<K, V extends Number> {
      * Works for any numeric type (Integer, Long, Double, etc.)
      */
     public int totalPopulation() {
+        QueryEvent event = QueryEvent.begin(MenuQuery.TOTAL_POPULATION.getOption(), "totalPopulation", 0);
+        try {
+            return sum();
+        } finally {
+            QueryEvent.end(event, false);
+        }
+    }
+
+    private int sum() {
         if (population == null) {
             throw new IllegalStateException("Population map is not initialized.");
         }
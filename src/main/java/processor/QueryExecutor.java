@@ -0,0 +1,103 @@
+package processor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * QueryExecutor runs any of the seven menu computations against shared processors and returns
+ * the raw result, without the menu's prompting and printing. Safe to call from many threads at
+ * once as long as the processors are.
+ */
+public class QueryExecutor {
+
+    private final Supplier<ParkingViolationProcessor> violationProcessor;
+    private final Supplier<PopulationProcessor> populationProcessor;
+    private final Supplier<HousingProcessor> housingProcessor;
+    private final Supplier<DataSnapshot> snapshots;
+
+    public QueryExecutor(ParkingViolationProcessor violationProcessor,
+                         PopulationProcessor populationProcessor,
+                         HousingProcessor housingProcessor) {
+        this(() -> violationProcessor, () -> populationProcessor, () -> housingProcessor);
+    }
+
+    /**
+     * Processors that may still be loading; a supplier is only asked when a query needs its processor.
+     */
+    public QueryExecutor(Supplier<ParkingViolationProcessor> violationProcessor,
+                         Supplier<PopulationProcessor> populationProcessor,
+                         Supplier<HousingProcessor> housingProcessor) {
+        if (violationProcessor == null || populationProcessor == null || housingProcessor == null) {
+            throw new IllegalArgumentException("Processor suppliers must not be null.");
+        }
+        this.violationProcessor = violationProcessor;
+        this.populationProcessor = populationProcessor;
+        this.housingProcessor = housingProcessor;
+        this.snapshots = null;
+    }
+
+    /**
+     * Processors from the current snapshot, e.g. SnapshotReloader::current. Each query asks for
+     * the snapshot once, so it runs entirely on one version of the data.
+     */
+    public QueryExecutor(Supplier<DataSnapshot> snapshots) {
+        if (snapshots == null) {
+            throw new IllegalArgumentException("Snapshot supplier must not be null.");
+        }
+        this.violationProcessor = () -> snapshots.get().getViolationProcessor();
+        this.populationProcessor = () -> snapshots.get().getPopulationProcessor();
+        this.housingProcessor = () -> snapshots.get().getHousingProcessor();
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * The version of the data the next query will run on: the current snapshot's version, or 0
+     * when the processors do not come from snapshots and so never change.
+     */
+    public long getDataVersion() {
+        return snapshots == null ? 0 : snapshots.get().getVersion();
+    }
+
+    /**
+     * Runs a query. The result is what the processor returns: an Integer for options 1 and 3-5,
+     * a Map of ZIP code to fines per capita for option 2, a PropertyValueSummary for option 6 and
+     * the violation type (or null) for option 7. Queries that are not about one ZIP code ignore zipCode.
+     */
+    public Object execute(MenuQuery query, int zipCode) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query must not be null.");
+        }
+        switch (query) {
+            case TOTAL_POPULATION:
+                return populationProcessor.get().totalPopulation();
+            case FINES_PER_CAPITA:
+                return violationProcessor.get().calculateFinesPerCapita();
+            case AVERAGE_MARKET_VALUE:
+                return housingProcessor.get().getAverageMarketValue(zipCode);
+            case AVERAGE_LIVABLE_AREA:
+                return housingProcessor.get().getAverageLivableArea(zipCode);
+            case MARKET_VALUE_PER_CAPITA:
+                return housingProcessor.get().getMarketValuePerCapita(zipCode);
+            case PROPERTY_VALUE_SUMMARY:
+                return housingProcessor.get().getPropertyValueSummary(zipCode);
+            default:
+                return violationProcessor.get().getMostCommonViolationType(zipCode);
+        }
+    }
+
+    /**
+     * Runs a query for each of several ZIP codes.
+     * @return each ZIP code's result, in the order given
+     */
+    public Map<Integer, Object> executeAll(MenuQuery query, int... zipCodes) {
+        if (zipCodes == null) {
+            throw new IllegalArgumentException("ZIP codes must not be null.");
+        }
+        Map<Integer, Object> results = new LinkedHashMap<>();
+        for (int zipCode : zipCodes) {
+            results.put(zipCode, execute(query, zipCode));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,75 @@
+package processor;
+
+import common.ParkingViolation;
+import sketch.SpaceSavingSketch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RepeatOffenders tracks the plates with the most tickets and with the highest fine totals,
+ * citywide and per ZIP code, using Space-Saving sketches so memory stays bounded no matter
+ * how many distinct plates the data has. Fed once, when ParkingViolationProcessor is created.
+ */
+public class RepeatOffenders {
+
+    public static final int CITYWIDE_CAPACITY = 1024;
+    public static final int PER_ZIP_CAPACITY = 128;
+
+    private final SpaceSavingSketch<String> byCount = new SpaceSavingSketch<>(CITYWIDE_CAPACITY);
+    private final SpaceSavingSketch<String> byFines = new SpaceSavingSketch<>(CITYWIDE_CAPACITY);
+    private final Map<Integer, SpaceSavingSketch<String>> byCountPerZip = new HashMap<>();
+    private final Map<Integer, SpaceSavingSketch<String>> byFinesPerZip = new HashMap<>();
+
+    RepeatOffenders(List<ParkingViolation> violations) {
+        for (ParkingViolation violation : violations) {
+            if (violation == null || violation.getPlate_id() == null) {
+                continue;
+            }
+            String plate = violation.getPlate_id();
+            int fine = Math.max(0, violation.getFine());
+            byCount.add(plate);
+            byFines.add(plate, fine);
+
+            Integer zipCode = violation.getZip_code();
+            if (zipCode != null) {
+                byCountPerZip.computeIfAbsent(zipCode, zip -> new SpaceSavingSketch<>(PER_ZIP_CAPACITY)).add(plate);
+                byFinesPerZip.computeIfAbsent(zipCode, zip -> new SpaceSavingSketch<>(PER_ZIP_CAPACITY)).add(plate, fine);
+            }
+        }
+    }
+
+    public List<SpaceSavingSketch.Estimate<String>> topByCount(int k) {
+        return byCount.top(k);
+    }
+
+    public List<SpaceSavingSketch.Estimate<String>> topByFines(int k) {
+        return byFines.top(k);
+    }
+
+    public List<SpaceSavingSketch.Estimate<String>> topByCount(int zipCode, int k) {
+        SpaceSavingSketch<String> sketch = byCountPerZip.get(zipCode);
+        return sketch == null ? new ArrayList<>() : sketch.top(k);
+    }
+
+    public List<SpaceSavingSketch.Estimate<String>> topByFines(int zipCode, int k) {
+        SpaceSavingSketch<String> sketch = byFinesPerZip.get(zipCode);
+        return sketch == null ? new ArrayList<>() : sketch.top(k);
+    }
+
+    /**
+     * Largest possible overestimation of a citywide ticket count.
+     */
+    public long getMaxCountError() {
+        return byCount.getMaxError();
+    }
+
+    /**
+     * Largest possible overestimation of a citywide fine total.
+     */
+    public long getMaxFinesError() {
+        return byFines.getMaxError();
+    }
+}
@@ -0,0 +1,227 @@
+package processor;
+
+import metrics.Counter;
+import metrics.IngestEvent;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * SnapshotReloader keeps the current DataSnapshot and replaces it when the data files change, so
+ * a new nightly file is picked up without a restart. A new snapshot is loaded on a background
+ * thread while queries keep running on the current one; its housing cache is filled; then it is
+ * published with one volatile write, under the next version number.
+ *
+ * Reading the current snapshot takes no lock: queries that started before a publish finish on the
+ * snapshot they got, and queries that start after it see the new one. A reload that fails (e.g.
+ * a file that does not parse) leaves the current snapshot in place.
+ *
+ * Only one reload runs at a time. With watch(), the files are checked periodically, and a changed
+ * file is reloaded once it looks the same on two checks in a row, so a file that is still being
+ * copied is not read half-written.
+ */
+public class SnapshotReloader {
+
+    private static final LatencyHistogram RELOAD_TIME = MetricsRegistry.getDefault().histogram("data.reload");
+    private static final Counter RELOADS = MetricsRegistry.getDefault().counter("data.reloads");
+    private static final Counter FAILED_RELOADS = MetricsRegistry.getDefault().counter("data.reload.failures");
+
+    /**
+     * Builds a snapshot from the files as they are now.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        DataSnapshot load(long version) throws Exception;
+    }
+
+    private final Loader loader;
+    private final List<File> files;
+    // Reloads and file checks run here, one at a time
+    private final ScheduledExecutorService reloadThread;
+
+    private volatile DataSnapshot current;
+    private volatile BiConsumer<DataSnapshot, Throwable> listener = (snapshot, error) -> { };
+
+    // Only touched on the reload thread
+    private List<String> loadedStamps;
+    private List<String> changedStamps;
+
+    /**
+     * @param files the files the loader reads; watch() reloads when one of them changes
+     */
+    public SnapshotReloader(Loader loader, List<String> files) {
+        if (loader == null) {
+            throw new IllegalArgumentException("Loader must not be null.");
+        }
+        if (files == null) {
+            throw new IllegalArgumentException("Files must not be null.");
+        }
+        this.loader = loader;
+        this.files = new ArrayList<>();
+        for (String file : files) {
+            this.files.add(new File(file));
+        }
+        this.reloadThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        MetricsRegistry.getDefault().gauge("data.version", this::getVersion);
+    }
+
+    /**
+     * The newest published snapshot.
+     * @throws IllegalStateException before the first load has finished
+     */
+    public DataSnapshot current() {
+        DataSnapshot snapshot = current;
+        if (snapshot == null) {
+            throw new IllegalStateException("The data is still loading.");
+        }
+        return snapshot;
+    }
+
+    /**
+     * The version of the current snapshot, or 0 before the first load.
+     */
+    public long getVersion() {
+        DataSnapshot snapshot = current;
+        return snapshot == null ? 0 : snapshot.getVersion();
+    }
+
+    /**
+     * Called on the reload thread after every reload, with the new snapshot or the reason it failed.
+     */
+    public void setListener(BiConsumer<DataSnapshot, Throwable> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null.");
+        }
+        this.listener = listener;
+    }
+
+    /**
+     * Loads the files now, whether or not they changed.
+     * @return the published snapshot, or the load's failure
+     */
+    public CompletableFuture<DataSnapshot> reload() {
+        return CompletableFuture.supplyAsync(() -> {
+            loadedStamps = stamps();
+            changedStamps = null;
+            return load();
+        }, reloadThread);
+    }
+
+    /**
+     * Checks the files once, as watch() does, and reloads them if they changed and have settled.
+     * @return the current snapshot after the check, null if there is none yet
+     */
+    public CompletableFuture<DataSnapshot> reloadIfChanged() {
+        return CompletableFuture.supplyAsync(() -> {
+            checkFiles();
+            return current;
+        }, reloadThread);
+    }
+
+    /**
+     * Checks the files every periodMillis and reloads the ones that changed.
+     */
+    public void watch(long periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Watch period must be positive.");
+        }
+        reloadThread.scheduleWithFixedDelay(this::watchFiles, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops watching; a reload in progress is abandoned.
+     */
+    public void close() {
+        reloadThread.shutdownNow();
+    }
+
+    // A periodic task that throws is never run again, so nothing may escape
+    private void watchFiles() {
+        try {
+            checkFiles();
+        } catch (Throwable e) {
+            // load() reports its own failures; this is e.g. a file whose stamp could not be read
+            FAILED_RELOADS.increment();
+            notifyListener(null, e);
+        }
+    }
+
+    // One check, on the reload thread: a change is loaded once two checks in a row see the same stamps
+    private void checkFiles() {
+        List<String> stamps = stamps();
+        if (stamps.equals(loadedStamps)) {
+            changedStamps = null;
+            return;
+        }
+        if (!stamps.equals(changedStamps)) {
+            changedStamps = stamps;
+            return;
+        }
+        loadedStamps = stamps;
+        changedStamps = null;
+        try {
+            load();
+        } catch (RuntimeException e) {
+            // Reported to the listener; the next change is tried again
+        }
+    }
+
+    private DataSnapshot load() {
+        long start = System.nanoTime();
+        DataSnapshot previous = current;
+        long version = previous == null ? 1 : previous.getVersion() + 1;
+        IngestEvent event = IngestEvent.begin("reload", "version " + version);
+        DataSnapshot snapshot;
+        try {
+            snapshot = loader.load(version);
+            if (snapshot == null || snapshot.getVersion() != version) {
+                throw new IllegalStateException("The loader must return a snapshot with version " + version + ".");
+            }
+            snapshot.warmUp();
+        } catch (Throwable e) {
+            // Errors too, e.g. an OutOfMemoryError from a much larger file: the current snapshot stays usable
+            RuntimeException failure = e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e.getMessage(), e);
+            FAILED_RELOADS.increment();
+            IngestEvent.end(event, 0, 0);
+            notifyListener(null, failure);
+            throw failure;
+        }
+        current = snapshot;
+        snapshot.getHousingProcessor().registerGauges();
+        RELOADS.increment();
+        RELOAD_TIME.recordSince(start);
+        IngestEvent.end(event, snapshot.getZipCodes().size(), 0);
+        notifyListener(snapshot, null);
+        return snapshot;
+    }
+
+    // A listener that throws must not turn a published snapshot into a failed reload
+    private void notifyListener(DataSnapshot snapshot, Throwable error) {
+        try {
+            listener.accept(snapshot, error);
+        } catch (RuntimeException e) {
+            // Ignored; the listener only reports
+        }
+    }
+
+    // Modification time and length of each file; a missing file has none
+    private List<String> stamps() {
+        List<String> stamps = new ArrayList<>();
+        for (File file : files) {
+            stamps.add(file.exists() ? file.lastModified() + ":" + file.length() : "missing");
+        }
+        return stamps;
+    }
+}
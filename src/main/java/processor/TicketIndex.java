@@ -0,0 +1,84 @@
+package processor;
+
+import common.ParkingViolation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TicketIndex finds a violation by its ticket number. Numeric ticket numbers are kept in a
+ * sorted long array next to their list positions and found by binary search; the few
+ * non-numeric ones go in a HashMap. If a ticket number occurs more than once, the first
+ * violation in list order is found.
+ */
+public class TicketIndex {
+
+    public static final int NOT_FOUND = -1;
+
+    // Ascending ticket numbers and the list position of each
+    private final long[] tickets;
+    private final int[] positions;
+
+    private final Map<String, Integer> nonNumeric = new HashMap<>();
+
+    TicketIndex(List<ParkingViolation> violations) {
+        long[] numbers = new long[violations.size()];
+        int[] rows = new int[violations.size()];
+        int count = 0;
+        int position = 0;
+        for (ParkingViolation violation : violations) {
+            if (violation != null) {
+                long ticket = violation.getTicketNumber();
+                if (ticket != ParkingViolation.NO_TICKET_NUMBER) {
+                    numbers[count] = ticket;
+                    rows[count] = position;
+                    count++;
+                } else if (violation.getTicket_number() != null) {
+                    nonNumeric.putIfAbsent(violation.getTicket_number(), position);
+                }
+            }
+            position++;
+        }
+        this.tickets = Arrays.copyOf(numbers, count);
+        this.positions = Arrays.copyOf(rows, count);
+        // Stable, so equal ticket numbers stay in list order; ticket files are usually sorted already
+        ViolationTimestampIndex.sortByKey(tickets, positions);
+    }
+
+    /**
+     * List position of the violation with this ticket number, or NOT_FOUND.
+     */
+    public int position(long ticketNumber) {
+        int low = 0;
+        int high = tickets.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tickets[mid] < ticketNumber) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < tickets.length && tickets[low] == ticketNumber ? positions[low] : NOT_FOUND;
+    }
+
+    /**
+     * List position of the violation with this ticket number (numeric or not), or NOT_FOUND.
+     */
+    public int position(String ticketNumber) {
+        if (ticketNumber == null) {
+            return NOT_FOUND;
+        }
+        long number = ParkingViolation.parseTicketNumber(ticketNumber);
+        if (number != ParkingViolation.NO_TICKET_NUMBER) {
+            return position(number);
+        }
+        return nonNumeric.getOrDefault(ticketNumber, NOT_FOUND);
+    }
+
+    public int size() {
+        return tickets.length + nonNumeric.size();
+    }
+}
@@ -0,0 +1,311 @@
+package processor;
+
+import common.IsoTimestamps;
+import common.ParkingViolation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ViolationTimeIndex holds violation counts and fine totals per ZIP code, bucketed by
+ * month, day of week, hour of day and calendar day. It is built in one pass over the
+ * violations when ParkingViolationProcessor is created, so trend queries are array lookups.
+ * Violations without a ZIP code or a valid date are not indexed. All times are UTC.
+ *
+ * Month and day buckets exist only for the months and days that have violations, so the index
+ * grows with the data rather than with the time it spans: one ticket misdated to year 0013 adds
+ * one day, not two thousand years of empty days for every ZIP code.
+ */
+public class ViolationTimeIndex {
+
+    public static final int HOURS_PER_DAY = 24;
+    public static final int DAYS_PER_WEEK = 7;
+
+    // Sorted ZIP codes; a ZIP's position in this array is its row in every bucket array
+    private final int[] zipCodes;
+
+    // Weekday x hour buckets, indexed [row][dayOfWeek * 24 + hour]
+    private final int[][] weekHourCounts;
+    private final long[][] weekHourFines;
+
+    // Sorted months with at least one violation, as year * 12 + (month - 1);
+    // month buckets are indexed [row][position in months]
+    private final int[] months;
+    private final int[][] monthCounts;
+    private final long[][] monthFines;
+
+    // Sorted epoch days with at least one violation, and per-day prefix sums over them:
+    // element i of [row] covers the first i of those days
+    private final long[] days;
+    private final int[][] dayCountPrefix;
+    private final long[][] dayFinePrefix;
+
+    ViolationTimeIndex(List<ParkingViolation> violations) {
+        // Pass 1: ZIP codes, and the days and months that have violations
+        this.zipCodes = indexedZipCodes(violations);
+        this.days = indexedDays(violations);
+        this.months = monthsOf(days);
+
+        int rows = zipCodes.length;
+        int dayCount = days.length;
+
+        this.weekHourCounts = new int[rows][DAYS_PER_WEEK * HOURS_PER_DAY];
+        this.weekHourFines = new long[rows][DAYS_PER_WEEK * HOURS_PER_DAY];
+        this.monthCounts = new int[rows][months.length];
+        this.monthFines = new long[rows][months.length];
+        this.dayCountPrefix = new int[rows][dayCount + 1];
+        this.dayFinePrefix = new long[rows][dayCount + 1];
+
+        // Pass 2: fill the buckets (day buckets are stored one to the right, then accumulated)
+        for (ParkingViolation violation : violations) {
+            if (!isIndexed(violation)) {
+                continue;
+            }
+            int row = Arrays.binarySearch(zipCodes, violation.getZip_code());
+            long time = violation.getTimestamp();
+            int fine = violation.getFine();
+
+            int weekHour = IsoTimestamps.dayOfWeek(time) * HOURS_PER_DAY + IsoTimestamps.hourOfDay(time);
+            weekHourCounts[row][weekHour]++;
+            weekHourFines[row][weekHour] += fine;
+
+            int month = Arrays.binarySearch(months, IsoTimestamps.epochMonth(time));
+            monthCounts[row][month]++;
+            monthFines[row][month] += fine;
+
+            int day = Arrays.binarySearch(days, IsoTimestamps.epochDay(time)) + 1;
+            dayCountPrefix[row][day]++;
+            dayFinePrefix[row][day] += fine;
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int day = 1; day <= dayCount; day++) {
+                dayCountPrefix[row][day] += dayCountPrefix[row][day - 1];
+                dayFinePrefix[row][day] += dayFinePrefix[row][day - 1];
+            }
+        }
+    }
+
+    /**
+     * Distinct ZIP codes of the violations that have a ZIP code and a valid date, in ascending order.
+     */
+    static int[] indexedZipCodes(List<ParkingViolation> violations) {
+        int[] zips = new int[16];
+        int zipCount = 0;
+        for (ParkingViolation violation : violations) {
+            if (!isIndexed(violation)) {
+                continue;
+            }
+            if (zipCount == zips.length) {
+                // Drop duplicates before growing, so the array stays about as small as the number of ZIPs
+                zipCount = sortDistinct(zips, zipCount);
+                if (zipCount > zips.length / 2) {
+                    zips = Arrays.copyOf(zips, zips.length * 2);
+                }
+            }
+            zips[zipCount++] = violation.getZip_code();
+        }
+        return Arrays.copyOf(zips, sortDistinct(zips, zipCount));
+    }
+
+    /**
+     * Distinct epoch days of the violations that have a ZIP code and a valid date, in ascending order.
+     */
+    static long[] indexedDays(List<ParkingViolation> violations) {
+        long[] days = new long[16];
+        int dayCount = 0;
+        for (ParkingViolation violation : violations) {
+            if (!isIndexed(violation)) {
+                continue;
+            }
+            if (dayCount == days.length) {
+                dayCount = sortDistinct(days, dayCount);
+                if (dayCount > days.length / 2) {
+                    days = Arrays.copyOf(days, days.length * 2);
+                }
+            }
+            days[dayCount++] = IsoTimestamps.epochDay(violation.getTimestamp());
+        }
+        return Arrays.copyOf(days, sortDistinct(days, dayCount));
+    }
+
+    // Distinct months of sorted epoch days, in ascending order
+    private static int[] monthsOf(long[] days) {
+        int[] months = new int[days.length];
+        int monthCount = 0;
+        for (long day : days) {
+            int month = IsoTimestamps.epochMonth(day * 86_400L);
+            if (monthCount == 0 || month != months[monthCount - 1]) {
+                months[monthCount++] = month;
+            }
+        }
+        return Arrays.copyOf(months, monthCount);
+    }
+
+    // Sorts the first count values and moves the distinct ones to the front; returns how many there are
+    private static int sortDistinct(int[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || values[i] != values[distinct - 1]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return distinct;
+    }
+
+    private static int sortDistinct(long[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || values[i] != values[distinct - 1]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return distinct;
+    }
+
+    static boolean isIndexed(ParkingViolation violation) {
+        return violation != null && violation.getZip_code() != null && violation.hasTimestamp();
+    }
+
+    // Row of a ZIP code in the bucket arrays, or -1 if it has no indexed violations
+    private int row(int zipCode) {
+        int row = Arrays.binarySearch(zipCodes, zipCode);
+        return row >= 0 ? row : -1;
+    }
+
+    /**
+     * ZIP codes with at least one indexed violation, in ascending order.
+     */
+    public int[] getZipCodes() {
+        return zipCodes.clone();
+    }
+
+    /**
+     * Months with at least one indexed violation in any ZIP code, in ascending order, as
+     * year * 12 + (month - 1). Element i of the monthly arrays is month i of this array.
+     */
+    public int[] getMonths() {
+        return months.clone();
+    }
+
+    public int getMonthCount() {
+        return months.length;
+    }
+
+    public int[] getMonthlyCounts(int zipCode) {
+        int row = row(zipCode);
+        return row < 0 ? new int[getMonthCount()] : monthCounts[row].clone();
+    }
+
+    public long[] getMonthlyFines(int zipCode) {
+        int row = row(zipCode);
+        return row < 0 ? new long[getMonthCount()] : monthFines[row].clone();
+    }
+
+    /**
+     * Violation counts by day of week (index 0 = Monday) and hour of day.
+     */
+    public int[][] getWeekdayHourCounts(int zipCode) {
+        int[][] heatmap = new int[DAYS_PER_WEEK][HOURS_PER_DAY];
+        int row = row(zipCode);
+        if (row >= 0) {
+            for (int day = 0; day < DAYS_PER_WEEK; day++) {
+                System.arraycopy(weekHourCounts[row], day * HOURS_PER_DAY, heatmap[day], 0, HOURS_PER_DAY);
+            }
+        }
+        return heatmap;
+    }
+
+    /**
+     * Fine totals by day of week (index 0 = Monday) and hour of day.
+     */
+    public long[][] getWeekdayHourFines(int zipCode) {
+        long[][] heatmap = new long[DAYS_PER_WEEK][HOURS_PER_DAY];
+        int row = row(zipCode);
+        if (row >= 0) {
+            for (int day = 0; day < DAYS_PER_WEEK; day++) {
+                System.arraycopy(weekHourFines[row], day * HOURS_PER_DAY, heatmap[day], 0, HOURS_PER_DAY);
+            }
+        }
+        return heatmap;
+    }
+
+    public int[] getHourlyCounts(int zipCode) {
+        int[] hours = new int[HOURS_PER_DAY];
+        int row = row(zipCode);
+        if (row >= 0) {
+            for (int weekHour = 0; weekHour < weekHourCounts[row].length; weekHour++) {
+                hours[weekHour % HOURS_PER_DAY] += weekHourCounts[row][weekHour];
+            }
+        }
+        return hours;
+    }
+
+    public long[] getHourlyFines(int zipCode) {
+        long[] hours = new long[HOURS_PER_DAY];
+        int row = row(zipCode);
+        if (row >= 0) {
+            for (int weekHour = 0; weekHour < weekHourFines[row].length; weekHour++) {
+                hours[weekHour % HOURS_PER_DAY] += weekHourFines[row][weekHour];
+            }
+        }
+        return hours;
+    }
+
+    /**
+     * Violation counts by day of week, index 0 = Monday.
+     */
+    public int[] getWeekdayCounts(int zipCode) {
+        int[] weekdays = new int[DAYS_PER_WEEK];
+        int row = row(zipCode);
+        if (row >= 0) {
+            for (int weekHour = 0; weekHour < weekHourCounts[row].length; weekHour++) {
+                weekdays[weekHour / HOURS_PER_DAY] += weekHourCounts[row][weekHour];
+            }
+        }
+        return weekdays;
+    }
+
+    /**
+     * Fine totals by day of week, index 0 = Monday.
+     */
+    public long[] getWeekdayFines(int zipCode) {
+        long[] weekdays = new long[DAYS_PER_WEEK];
+        int row = row(zipCode);
+        if (row >= 0) {
+            for (int weekHour = 0; weekHour < weekHourFines[row].length; weekHour++) {
+                weekdays[weekHour / HOURS_PER_DAY] += weekHourFines[row][weekHour];
+            }
+        }
+        return weekdays;
+    }
+
+    /**
+     * Number of violations on the UTC days from fromEpochDay through toEpochDay (inclusive).
+     */
+    public int countBetweenDays(int zipCode, long fromEpochDay, long toEpochDay) {
+        int row = row(zipCode);
+        if (row < 0 || fromEpochDay > toEpochDay) {
+            return 0;
+        }
+        return dayCountPrefix[row][daysBefore(toEpochDay + 1)] - dayCountPrefix[row][daysBefore(fromEpochDay)];
+    }
+
+    /**
+     * Sum of fines on the UTC days from fromEpochDay through toEpochDay (inclusive).
+     */
+    public long finesBetweenDays(int zipCode, long fromEpochDay, long toEpochDay) {
+        int row = row(zipCode);
+        if (row < 0 || fromEpochDay > toEpochDay) {
+            return 0;
+        }
+        return dayFinePrefix[row][daysBefore(toEpochDay + 1)] - dayFinePrefix[row][daysBefore(fromEpochDay)];
+    }
+
+    // Number of indexed days before epochDay, its index in the prefix arrays; any day works, in the data or not
+    private int daysBefore(long epochDay) {
+        int index = Arrays.binarySearch(days, epochDay);
+        return index >= 0 ? index : -index - 1;
+    }
+}
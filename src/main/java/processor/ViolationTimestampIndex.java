@@ -0,0 +1,174 @@
+package processor;
+
+import common.ParkingViolation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * ViolationTimestampIndex keeps, for each ZIP code, the positions of its violations in the
+ * processor's list sorted by timestamp, plus running fine totals in the same order.
+ * A time-window query binary-searches the two ends of the window and then only touches
+ * the violations inside it. Violations without a ZIP code or a valid date are not indexed.
+ */
+public class ViolationTimestampIndex {
+
+    // Sorted ZIP codes; a ZIP's position in this array is its row in the arrays below
+    private final int[] zipCodes;
+
+    // Per ZIP: timestamps in ascending order, and the list position of each of those violations
+    private final long[][] timestamps;
+    private final int[][] positions;
+
+    // Per ZIP: finePrefix[row][i] is the sum of the fines of the first i violations in timestamp order
+    private final long[][] finePrefix;
+
+    ViolationTimestampIndex(List<ParkingViolation> violations, int[] zipCodes) {
+        this.zipCodes = zipCodes;
+        int rows = zipCodes.length;
+
+        // Pass 1: how many violations each ZIP has
+        int[] counts = new int[rows];
+        for (ParkingViolation violation : violations) {
+            if (ViolationTimeIndex.isIndexed(violation)) {
+                counts[Arrays.binarySearch(zipCodes, violation.getZip_code())]++;
+            }
+        }
+
+        // Pass 2: fill each ZIP's arrays in list order
+        this.timestamps = new long[rows][];
+        this.positions = new int[rows][];
+        for (int row = 0; row < rows; row++) {
+            timestamps[row] = new long[counts[row]];
+            positions[row] = new int[counts[row]];
+        }
+        int[] filled = new int[rows];
+        int position = 0;
+        for (ParkingViolation violation : violations) {
+            if (ViolationTimeIndex.isIndexed(violation)) {
+                int row = Arrays.binarySearch(zipCodes, violation.getZip_code());
+                timestamps[row][filled[row]] = violation.getTimestamp();
+                positions[row][filled[row]] = position;
+                filled[row]++;
+            }
+            position++;
+        }
+
+        // Sort each ZIP by timestamp, then accumulate its fines in that order
+        this.finePrefix = new long[rows][];
+        for (int row = 0; row < rows; row++) {
+            sortByKey(timestamps[row], positions[row]);
+            long[] prefix = new long[counts[row] + 1];
+            for (int i = 0; i < counts[row]; i++) {
+                prefix[i + 1] = prefix[i] + violations.get(positions[row][i]).getFine();
+            }
+            finePrefix[row] = prefix;
+        }
+    }
+
+    /**
+     * Number of violations in a ZIP code with fromEpochSecond <= timestamp < toEpochSecond.
+     */
+    public int count(int zipCode, long fromEpochSecond, long toEpochSecond) {
+        int row = Arrays.binarySearch(zipCodes, zipCode);
+        if (row < 0 || fromEpochSecond >= toEpochSecond) {
+            return 0;
+        }
+        return lowerBound(timestamps[row], toEpochSecond) - lowerBound(timestamps[row], fromEpochSecond);
+    }
+
+    /**
+     * Sum of fines in a ZIP code with fromEpochSecond <= timestamp < toEpochSecond.
+     */
+    public long fines(int zipCode, long fromEpochSecond, long toEpochSecond) {
+        int row = Arrays.binarySearch(zipCodes, zipCode);
+        if (row < 0 || fromEpochSecond >= toEpochSecond) {
+            return 0;
+        }
+        int start = lowerBound(timestamps[row], fromEpochSecond);
+        int end = lowerBound(timestamps[row], toEpochSecond);
+        return finePrefix[row][end] - finePrefix[row][start];
+    }
+
+    /**
+     * List positions of the violations in a ZIP code with fromEpochSecond <= timestamp < toEpochSecond,
+     * oldest first.
+     */
+    public int[] positions(int zipCode, long fromEpochSecond, long toEpochSecond) {
+        int row = Arrays.binarySearch(zipCodes, zipCode);
+        if (row < 0 || fromEpochSecond >= toEpochSecond) {
+            return new int[0];
+        }
+        int start = lowerBound(timestamps[row], fromEpochSecond);
+        int end = lowerBound(timestamps[row], toEpochSecond);
+        return Arrays.copyOfRange(positions[row], start, end);
+    }
+
+    /**
+     * Calls the action with the list position of each violation in the window, oldest first,
+     * without copying anything.
+     */
+    public void forEachPosition(int zipCode, long fromEpochSecond, long toEpochSecond, IntConsumer action) {
+        int row = Arrays.binarySearch(zipCodes, zipCode);
+        if (row < 0 || fromEpochSecond >= toEpochSecond) {
+            return;
+        }
+        int end = lowerBound(timestamps[row], toEpochSecond);
+        for (int i = lowerBound(timestamps[row], fromEpochSecond); i < end; i++) {
+            action.accept(positions[row][i]);
+        }
+    }
+
+    // First index whose timestamp is >= key (or length if there is none)
+    private static int lowerBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Stable merge sort of the parallel arrays by key; ties keep list order. Also used by TicketIndex.
+    static void sortByKey(long[] keys, int[] values) {
+        if (isSorted(keys)) {
+            return;
+        }
+        long[] keyBuffer = new long[keys.length];
+        int[] valueBuffer = new int[values.length];
+        for (int width = 1; width < keys.length; width *= 2) {
+            for (int start = 0; start < keys.length; start += 2 * width) {
+                int mid = Math.min(start + width, keys.length);
+                int end = Math.min(start + 2 * width, keys.length);
+                int left = start;
+                int right = mid;
+                for (int out = start; out < end; out++) {
+                    if (left < mid && (right >= end || keys[left] <= keys[right])) {
+                        keyBuffer[out] = keys[left];
+                        valueBuffer[out] = values[left++];
+                    } else {
+                        keyBuffer[out] = keys[right];
+                        valueBuffer[out] = values[right++];
+                    }
+                }
+            }
+            System.arraycopy(keyBuffer, 0, keys, 0, keys.length);
+            System.arraycopy(valueBuffer, 0, values, 0, values.length);
+        }
+    }
+
+    private static boolean isSorted(long[] keys) {
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1] > keys[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,293 @@
+package server;
+
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import processor.DataSnapshot;
+import processor.HousingProcessor;
+import processor.MenuQuery;
+import processor.ParkingViolationProcessor;
+import processor.PopulationProcessor;
+import processor.QueryExecutor;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * MicroBatchingQueryExecutor answers bursts of housing queries (options 3-6) together. When an
+ * answer is not cached, HousingProcessor scans every house to find the ones in the ZIP code, so
+ * a burst of requests about different ZIP codes, e.g. right after start-up, costs one scan each,
+ * plus one pass over the ZIP code's houses per query. Here such requests wait up to a short window;
+ * then HousingProcessor.precompute() answers options 3-6 for every ZIP code asked about in the
+ * window with one scan in all and one pass per ZIP code, and each waiting caller gets its own
+ * answer from the cache. Requests for the same query and ZIP code within a window share one answer.
+ *
+ * Answers that are already cached skip the window, and the other options run directly, so a warm
+ * server pays nothing for batching. A window is cut short once maxBatchSize distinct queries are
+ * waiting.
+ */
+public class MicroBatchingQueryExecutor extends QueryExecutor {
+
+    public static final long DEFAULT_WINDOW_MICROS = 2_000;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 512;
+
+    private static final Counter BATCHES = MetricsRegistry.getDefault().counter("server.batch.flushes");
+    private static final Counter BATCHED = MetricsRegistry.getDefault().counter("server.batch.queries");
+    private static final Counter COALESCED = MetricsRegistry.getDefault().counter("server.batch.coalesced");
+
+    private final Supplier<HousingProcessor> housingProcessor;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService flusher;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    private final Object lock = new Object();
+    // Queries waiting for the current window, by option * 100000 + ZIP code; guarded by lock
+    private Map<Integer, CompletableFuture<Object>> pending = new HashMap<>();
+    // Set by close(); later queries run directly; guarded by lock
+    private boolean closed;
+
+    public MicroBatchingQueryExecutor(Supplier<ParkingViolationProcessor> violationProcessor,
+                                      Supplier<PopulationProcessor> populationProcessor,
+                                      Supplier<HousingProcessor> housingProcessor) {
+        this(violationProcessor, populationProcessor, housingProcessor, DEFAULT_WINDOW_MICROS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @param windowMicros how long the first query of a batch waits for others to join it
+     * @param maxBatchSize distinct queries at which a batch runs without waiting for the window to end
+     */
+    public MicroBatchingQueryExecutor(Supplier<ParkingViolationProcessor> violationProcessor,
+                                      Supplier<PopulationProcessor> populationProcessor,
+                                      Supplier<HousingProcessor> housingProcessor,
+                                      long windowMicros, int maxBatchSize) {
+        super(violationProcessor, populationProcessor, housingProcessor);
+        checkBatching(windowMicros, maxBatchSize);
+        this.housingProcessor = housingProcessor;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.flusher = newFlusher();
+    }
+
+    /**
+     * Processors from the current snapshot, e.g. SnapshotReloader::current.
+     */
+    public MicroBatchingQueryExecutor(Supplier<DataSnapshot> snapshots) {
+        this(snapshots, DEFAULT_WINDOW_MICROS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Processors from the current snapshot. A batch that straddles a new snapshot is still
+     * answered correctly: its queries then miss the new snapshot's cache and are computed directly.
+     */
+    public MicroBatchingQueryExecutor(Supplier<DataSnapshot> snapshots, long windowMicros, int maxBatchSize) {
+        super(snapshots);
+        checkBatching(windowMicros, maxBatchSize);
+        this.housingProcessor = () -> snapshots.get().getHousingProcessor();
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.flusher = newFlusher();
+    }
+
+    private static void checkBatching(long windowMicros, int maxBatchSize) {
+        if (windowMicros <= 0) {
+            throw new IllegalArgumentException("Batch window must be positive.");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+    }
+
+    private static ScheduledExecutorService newFlusher() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "query-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Object execute(MenuQuery query, int zipCode) {
+        if (!isBatched(query, zipCode) || isCached(query, zipCode)) {
+            return super.execute(query, zipCode);
+        }
+        return join(submit(query, zipCode));
+    }
+
+    /**
+     * Submits every ZIP code before waiting, so they all join the same window.
+     */
+    @Override
+    public Map<Integer, Object> executeAll(MenuQuery query, int... zipCodes) {
+        if (zipCodes == null) {
+            throw new IllegalArgumentException("ZIP codes must not be null.");
+        }
+        if (!isBatched(query, 0)) {
+            return super.executeAll(query, zipCodes);
+        }
+        Map<Integer, CompletableFuture<Object>> futures = new LinkedHashMap<>();
+        for (int zipCode : zipCodes) {
+            futures.computeIfAbsent(zipCode, zip -> !isBatched(query, zip) || isCached(query, zip)
+                    ? CompletableFuture.completedFuture(super.execute(query, zip))
+                    : submit(query, zip));
+        }
+        Map<Integer, Object> results = new LinkedHashMap<>();
+        for (Map.Entry<Integer, CompletableFuture<Object>> entry : futures.entrySet()) {
+            results.put(entry.getKey(), join(entry.getValue()));
+        }
+        return results;
+    }
+
+    /**
+     * Stops the batching thread; queries still waiting are answered first, and later ones run
+     * directly, without batching.
+     */
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flusher.execute(this::flush);
+        flusher.shutdown();
+    }
+
+    /**
+     * Number of batches run so far.
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Number of requests that shared the answer of an identical request in the same window.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    // Housing queries about a ZIP code that fits the batch key
+    private static boolean isBatched(MenuQuery query, int zipCode) {
+        return query != null && query.needsZipCode() && query != MenuQuery.MOST_COMMON_VIOLATION
+                && zipCode >= 0 && zipCode < 100_000;
+    }
+
+    private boolean isCached(MenuQuery query, int zipCode) {
+        HousingProcessor processor = housingProcessor.get();
+        return processor != null && processor.isCached(calculationType(query), zipCode);
+    }
+
+    private static HousingProcessor.CalculationType calculationType(MenuQuery query) {
+        switch (query) {
+            case AVERAGE_MARKET_VALUE:
+                return HousingProcessor.CalculationType.AVERAGE_MARKET_VALUE;
+            case AVERAGE_LIVABLE_AREA:
+                return HousingProcessor.CalculationType.AVERAGE_LIVABLE_AREA;
+            case MARKET_VALUE_PER_CAPITA:
+                return HousingProcessor.CalculationType.MARKET_VALUE_PER_CAPITA;
+            default:
+                return HousingProcessor.CalculationType.PROPERTY_VALUE_SUMMARY;
+        }
+    }
+
+    private CompletableFuture<Object> submit(MenuQuery query, int zipCode) {
+        int key = query.getOption() * 100_000 + zipCode;
+        CompletableFuture<Object> answer;
+        int waiting;
+        synchronized (lock) {
+            if (closed) {
+                return answered(query, zipCode);
+            }
+            answer = pending.get(key);
+            if (answer != null) {
+                coalesced.increment();
+                COALESCED.increment();
+                return answer;
+            }
+            answer = new CompletableFuture<>();
+            pending.put(key, answer);
+            waiting = pending.size();
+        }
+        try {
+            if (waiting >= maxBatchSize) {
+                flusher.execute(this::flush);
+            } else if (waiting == 1) {
+                // A window that was cut short may leave this timer behind; it then ends the next window early
+                flusher.schedule(this::flush, windowMicros, TimeUnit.MICROSECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            // close() ran in between; unless its last batch took the query, answer it here
+            boolean stillPending;
+            synchronized (lock) {
+                stillPending = pending.remove(key, answer);
+            }
+            if (stillPending) {
+                complete(answer, query, zipCode);
+            }
+        }
+        return answer;
+    }
+
+    private CompletableFuture<Object> answered(MenuQuery query, int zipCode) {
+        CompletableFuture<Object> answer = new CompletableFuture<>();
+        complete(answer, query, zipCode);
+        return answer;
+    }
+
+    private void complete(CompletableFuture<Object> answer, MenuQuery query, int zipCode) {
+        try {
+            answer.complete(super.execute(query, zipCode));
+        } catch (RuntimeException e) {
+            answer.completeExceptionally(e);
+        }
+    }
+
+    private void flush() {
+        Map<Integer, CompletableFuture<Object>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        batches.increment();
+        BATCHES.increment();
+        BATCHED.add(batch.size());
+        try {
+            Set<Integer> zipCodes = new TreeSet<>();
+            for (int key : batch.keySet()) {
+                zipCodes.add(key % 100_000);
+            }
+            housingProcessor.get().precompute(zipCodes);
+        } catch (RuntimeException e) {
+            // e.g. the properties failed to load; each query below reports it
+        }
+        for (Map.Entry<Integer, CompletableFuture<Object>> entry : batch.entrySet()) {
+            complete(entry.getValue(), MenuQuery.forOption(entry.getKey() / 100_000), entry.getKey() % 100_000);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> answer) {
+        try {
+            return answer.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
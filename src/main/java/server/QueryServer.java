@@ -0,0 +1,321 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import org.json.simple.JSONValue;
+import processor.HousingProcessor;
+import processor.MenuQuery;
+import processor.QueryExecutor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * QueryServer answers the menu computations over HTTP with the JDK's built-in server, so other
+ * services can ask for the statistics. Every request is handled on its own virtual thread when
+ * the JVM has them (Java 21+), otherwise on a fixed pool. All requests share one QueryExecutor,
+ * whose processors are read-only once loaded.
+ *
+ * Endpoints (GET only, JSON answers):
+ * <pre>
+ *   /queries                       the seven queries: option, description, whether a ZIP code is needed
+ *   /query/{option}                options 1 and 2, e.g. /query/1 -> {"option":1,"result":1526206}
+ *   /query/{option}?zip=19104      options 3-7, for one ZIP code or up to MAX_ZIP_CODES comma-separated ones:
+ *                                  /query/3?zip=19103,19104 -> {"option":3,"results":{"19103":...,"19104":...}}
+ *   /version                       the data version, which changes when SnapshotReloader publishes new data
+ *   /metrics                       MetricsRegistry, as text
+ * </pre>
+ * Bad requests get 400, unknown paths 404, other methods 405, and a dataset that failed to load
+ * 503, each with {"error": message}.
+ *
+ * The answers to options 1 and 2, which do not depend on a ZIP code, are serialized once per data
+ * version and reused; option 2 would otherwise scan every violation on each request. The ZIP code
+ * queries rely on the processors' own caches, and with a MicroBatchingQueryExecutor, concurrent
+ * housing queries that miss them are answered in batches.
+ */
+public class QueryServer {
+
+    public static final int MAX_ZIP_CODES = 1000;
+
+    static {
+        // Answers are small, so without TCP_NODELAY each one waits for the client's delayed ACK (~40 ms).
+        // The JDK server reads this once, when its first instance is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private static final LatencyHistogram REQUESTS = MetricsRegistry.getDefault().histogram("server.requests");
+    private static final Counter ERRORS = MetricsRegistry.getDefault().counter("server.errors");
+
+    private final QueryExecutor executor;
+    // JSON answers to the queries without a ZIP code, by option, for the data version they were computed on
+    private final Map<Integer, VersionedAnswer> unzippedAnswers = new ConcurrentHashMap<>();
+    private final HttpServer server;
+    private final ExecutorService requestExecutor;
+
+    /**
+     * @param port the port to listen on; 0 picks a free one (see getPort())
+     */
+    public QueryServer(QueryExecutor executor, int port) throws IOException {
+        if (executor == null) {
+            throw new IllegalArgumentException("QueryExecutor must not be null.");
+        }
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Port must be between 0 and 65535.");
+        }
+        this.executor = executor;
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.requestExecutor = newRequestExecutor();
+        server.setExecutor(requestExecutor);
+        server.createContext("/queries", exchange -> handle(exchange, this::queries));
+        server.createContext("/query/", exchange -> handle(exchange, this::query));
+        server.createContext("/metrics", this::metrics);
+        server.createContext("/version", exchange -> handle(exchange, this::version));
+        server.createContext("/", exchange -> handle(exchange, ignored -> {
+            throw new HttpError(404, "Unknown path: " + exchange.getRequestURI().getPath());
+        }));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to delaySeconds for the ones in progress.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        requestExecutor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * One virtual thread per request on Java 21+, looked up by reflection so the project still
+     * builds and runs on Java 17; there, a fixed pool of a few threads per core.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(8, 4 * Runtime.getRuntime().availableProcessors()), runnable -> {
+                Thread thread = new Thread(runnable, "query-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Whether requests run on virtual threads.
+     */
+    public boolean isUsingVirtualThreads() {
+        return !(requestExecutor instanceof ThreadPoolExecutor);
+    }
+
+    private interface Handler {
+        Object answer(HttpExchange exchange);
+    }
+
+    private static final class VersionedAnswer {
+        private final long version;
+        private final String json;
+
+        private VersionedAnswer(long version, String json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        long start = System.nanoTime();
+        int status = 200;
+        Object body;
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                throw new HttpError(405, "Only GET is supported.");
+            }
+            body = handler.answer(exchange);
+        } catch (HttpError e) {
+            status = e.status;
+            body = error(e.getMessage());
+        } catch (IllegalStateException e) {
+            // A dataset that could not be loaded
+            status = 503;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error(e.toString());
+        }
+        if (status != 200) {
+            ERRORS.increment();
+        }
+        try {
+            send(exchange, status, "application/json", body instanceof String ? (String) body : JSONValue.toJSONString(body));
+        } finally {
+            REQUESTS.recordSince(start);
+        }
+    }
+
+    private Object queries(HttpExchange exchange) {
+        if (!exchange.getRequestURI().getPath().equals("/queries")) {
+            throw new HttpError(404, "Unknown path: " + exchange.getRequestURI().getPath());
+        }
+        List<Object> queries = new ArrayList<>();
+        for (MenuQuery query : MenuQuery.values()) {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("option", query.getOption());
+            description.put("description", query.getDescription());
+            description.put("needsZipCode", query.needsZipCode());
+            queries.add(description);
+        }
+        return queries;
+    }
+
+    // Returns the answer already serialized for options 1 and 2, as a Map otherwise
+    private Object query(HttpExchange exchange) {
+        String option = exchange.getRequestURI().getPath().substring("/query/".length());
+        if (!option.matches("[1-7]")) {
+            throw new HttpError(404, "Unknown menu option: " + option + ". Expected 1 to 7.");
+        }
+        MenuQuery query = MenuQuery.forOption(Integer.parseInt(option));
+        String zipParameter = parameters(exchange.getRequestURI().getRawQuery()).get("zip");
+
+        if (!query.needsZipCode()) {
+            if (zipParameter != null) {
+                throw new HttpError(400, "Option " + option + " takes no ZIP code.");
+            }
+            // Recomputed when the data changes; a failed load throws and is not remembered, so a later request tries again
+            long version = executor.getDataVersion();
+            VersionedAnswer cached = unzippedAnswers.get(query.getOption());
+            if (cached == null || cached.version != version) {
+                cached = unzippedAnswers.compute(query.getOption(), (ignored, previous) -> {
+                    if (previous != null && previous.version == version) {
+                        return previous;
+                    }
+                    Map<String, Object> answer = new LinkedHashMap<>();
+                    answer.put("option", query.getOption());
+                    answer.put("result", toJson(executor.execute(query, 0)));
+                    return new VersionedAnswer(version, JSONValue.toJSONString(answer));
+                });
+            }
+            return cached.json;
+        }
+        if (zipParameter == null || zipParameter.isEmpty()) {
+            throw new HttpError(400, "Option " + option + " needs a zip parameter.");
+        }
+        String[] zipCodes = zipParameter.split(",");
+        if (zipCodes.length > MAX_ZIP_CODES) {
+            throw new HttpError(400, "At most " + MAX_ZIP_CODES + " ZIP codes per request.");
+        }
+        for (String zipCode : zipCodes) {
+            if (!zipCode.matches("\\d{5}")) {
+                throw new HttpError(400, "Not a 5-digit ZIP code: " + zipCode);
+            }
+        }
+        Map<String, Object> answer = new LinkedHashMap<>();
+        answer.put("option", query.getOption());
+        int[] zips = new int[zipCodes.length];
+        for (int i = 0; i < zipCodes.length; i++) {
+            zips[i] = Integer.parseInt(zipCodes[i]);
+        }
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Object> result : executor.executeAll(query, zips).entrySet()) {
+            results.put(String.format("%05d", result.getKey()), toJson(result.getValue()));
+        }
+        answer.put("results", results);
+        return answer;
+    }
+
+    private Object version(HttpExchange exchange) {
+        Map<String, Object> answer = new LinkedHashMap<>();
+        answer.put("version", executor.getDataVersion());
+        return answer;
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        send(exchange, 200, "text/plain", MetricsRegistry.getDefault().toString());
+    }
+
+    private static Object toJson(Object result) {
+        if (result instanceof HousingProcessor.PropertyValueSummary) {
+            HousingProcessor.PropertyValueSummary summary = (HousingProcessor.PropertyValueSummary) result;
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("min", summary.getMin());
+            json.put("max", summary.getMax());
+            json.put("median", summary.getMedian());
+            return json;
+        }
+        if (result instanceof Map) {
+            // JSON object keys are strings
+            Map<String, Object> json = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) result).entrySet()) {
+                json.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+            return json;
+        }
+        return result;
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("error", message);
+        return json;
+    }
+
+    private static Map<String, String> parameters(String rawQuery) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        if (rawQuery == null) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            try {
+                parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                // e.g. a malformed escape such as %G1
+                throw new HttpError(400, "Malformed query parameter: " + pair);
+            }
+        }
+        return parameters;
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
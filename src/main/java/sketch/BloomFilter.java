@@ -0,0 +1,91 @@
+package sketch;
+
+/**
+ * BloomFilter answers "has this number possibly been added before?" using a fixed bit array
+ * and several hash functions. A "no" is always right; a "maybe" is wrong with roughly the
+ * false-positive rate the filter was sized for, so callers confirm a "maybe" with an exact check.
+ * The k bit positions come from one 64-bit hash split in two (Kirsch and Mitzenmacher).
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private long insertions;
+
+    /**
+     * Sizes the filter for the expected number of items and the wanted false-positive rate,
+     * e.g. about 9.6 bits per item and 7 hashes for 1%.
+     */
+    public BloomFilter(long expectedItems, double falsePositiveRate) {
+        if (expectedItems < 0) {
+            throw new IllegalArgumentException("Expected items must not be negative.");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1.");
+        }
+        long items = Math.max(1, expectedItems);
+        long optimalBits = (long) Math.ceil(-items * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        // Round up to whole words
+        this.bits = new long[(int) Math.min(Integer.MAX_VALUE - 8, (Math.max(64, optimalBits) + 63) / 64)];
+        this.bitCount = (long) bits.length * 64;
+        this.hashCount = (int) Math.max(1, Math.min(16, Math.round((double) bitCount / items * Math.log(2))));
+    }
+
+    /**
+     * Adds a number. Returns false if it was possibly added before (all its bits were already set),
+     * true if it was definitely new.
+     */
+    public boolean add(long item) {
+        long hash = HyperLogLog.mix(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        boolean added = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                added = true;
+            }
+        }
+        insertions++;
+        return added;
+    }
+
+    /**
+     * False means the number was definitely never added; true means it possibly was.
+     */
+    public boolean mightContain(long item) {
+        long hash = HyperLogLog.mix(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * False-positive rate expected after the items added so far, (1 - e^(-kn/m))^k.
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertions / bitCount), hashCount);
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getSizeBytes() {
+        return bits.length * 8;
+    }
+}
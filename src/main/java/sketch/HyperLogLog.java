@@ -0,0 +1,141 @@
+package sketch;
+
+/**
+ * HyperLogLog estimates how many distinct items were added using 2^precision one-byte
+ * registers, independent of the number of items (Flajolet et al., with the linear-counting
+ * correction for small cardinalities). Two sketches with the same precision can be merged,
+ * giving the estimate for the union of both streams.
+ * The standard error is about 1.04 / sqrt(2^precision), e.g. 1.6% at precision 12 (4 KB).
+ */
+public class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION
+                    + " and " + MAX_PRECISION + ".");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Adds a string, hashed without allocating.
+     */
+    public void add(CharSequence item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item must not be null.");
+        }
+        addHash(hash(item));
+    }
+
+    /**
+     * Adds an item by its 64-bit hash. The hash must be well mixed (all bits equally random).
+     */
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Rank = position of the first 1-bit in the remaining bits; the sentinel bit caps it
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        int rank = Long.numberOfLeadingZeros(remaining) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Estimated number of distinct items added.
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Linear counting is more accurate while many registers are still empty
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Folds another sketch into this one, so this one estimates the union.
+     */
+    public void merge(HyperLogLog other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Sketch must not be null.");
+        }
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with different precision.");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Expected relative standard error of estimate().
+     */
+    public double getStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    public int getSizeBytes() {
+        return registers.length;
+    }
+
+    /**
+     * 64-bit FNV-1a over the characters, finished with the MurmurHash3 mixer so every bit is usable.
+     */
+    public static long hash(CharSequence item) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < item.length(); i++) {
+            hash = (hash ^ item.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    public static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
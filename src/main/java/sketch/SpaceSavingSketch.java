@@ -0,0 +1,215 @@
+package sketch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SpaceSavingSketch finds the heaviest items of a stream (e.g. the plates with the most
+ * tickets or the highest fines) while keeping at most a fixed number of counters.
+ * Uses the weighted Space-Saving algorithm (Metwally, Agrawal, El Abbadi): when a new item
+ * arrives and all counters are taken, it replaces the item with the smallest count and
+ * inherits that count as its possible overestimation.
+ *
+ * Guarantees, with W the total weight added and m the capacity:
+ * every estimate is at least the true weight and at most the true weight + W / m,
+ * and every item whose true weight is above W / m is being tracked.
+ */
+public class SpaceSavingSketch<T> {
+
+    private final int capacity;
+    private final Map<T, Counter<T>> counters;
+    // Min-heap on count, so the counter to evict is always heap[0]
+    private final Counter<T>[] heap;
+    private int size;
+    private long totalWeight;
+
+    private static final class Counter<T> {
+        private final T item;
+        private long count;
+        private final long error;
+        private int heapIndex;
+
+        private Counter(T item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    /**
+     * One tracked item: its estimated weight and by how much that estimate may be too high.
+     */
+    public static class Estimate<T> {
+        private final T item;
+        private final long count;
+        private final long error;
+
+        public Estimate(T item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        // Upper bound on the true weight
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        // Lower bound on the true weight
+        public long getGuaranteedCount() {
+            return count - error;
+        }
+
+        @Override
+        public String toString() {
+            return item + ": " + count + (error > 0 ? " (+/- " + error + ")" : "");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = (Counter<T>[]) new Counter<?>[capacity];
+    }
+
+    public void add(T item) {
+        add(item, 1);
+    }
+
+    public void add(T item, long weight) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item must not be null.");
+        }
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative.");
+        }
+        if (weight == 0) {
+            // Nothing to count, and taking a counter would evict the smallest tracked item
+            return;
+        }
+        totalWeight += weight;
+
+        Counter<T> counter = counters.get(item);
+        if (counter != null) {
+            counter.count += weight;
+            siftDown(counter.heapIndex);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter<>(item, weight, 0);
+            counters.put(item, counter);
+            heap[size] = counter;
+            counter.heapIndex = size;
+            siftUp(size++);
+            return;
+        }
+
+        // Replace the smallest counter; its count is the most the new item can have been missed by
+        Counter<T> evicted = heap[0];
+        counters.remove(evicted.item);
+        counter = new Counter<>(item, evicted.count + weight, evicted.count);
+        counters.put(item, counter);
+        heap[0] = counter;
+        counter.heapIndex = 0;
+        siftDown(0);
+    }
+
+    /**
+     * Up to k tracked items with the highest estimated weight, heaviest first.
+     */
+    public List<Estimate<T>> top(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative.");
+        }
+        Counter<T>[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, (a, b) -> Long.compare(b.count, a.count));
+        List<Estimate<T>> result = new ArrayList<>(Math.min(k, size));
+        for (int i = 0; i < Math.min(k, size); i++) {
+            result.add(new Estimate<>(sorted[i].item, sorted[i].count, sorted[i].error));
+        }
+        return result;
+    }
+
+    /**
+     * Upper bound on an item's weight: its counter if tracked, otherwise the smallest counter
+     * (or 0 while the sketch is not yet full).
+     */
+    public long estimate(T item) {
+        Counter<T> counter = counters.get(item);
+        if (counter != null) {
+            return counter.count;
+        }
+        return size < capacity ? 0 : heap[0].count;
+    }
+
+    /**
+     * Largest possible overestimation of any reported weight, W / m.
+     */
+    public long getMaxError() {
+        return totalWeight / capacity;
+    }
+
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void siftUp(int index) {
+        Counter<T> counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter<T> counter = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter<T> counter, int index) {
+        heap[index] = counter;
+        counter.heapIndex = index;
+    }
+}
@@ -0,0 +1,169 @@
+package ui;
+
+import processor.HousingProcessor;
+import processor.MenuQuery;
+import processor.QueryExecutor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BatchQueryRunner answers a list of menu queries without the interactive menu, for scripts.
+ * Each input line is a menu option, followed by a ZIP code for options 3-7, e.g. "3 19104";
+ * blank lines and lines starting with # are skipped.
+ *
+ * Queries run in parallel on a thread pool, but every answer is written in input order, one
+ * tab-separated line per query, through a single buffered writer:
+ * <pre>
+ *   1           total population
+ *   2           ZIP=fines per capita pairs, space separated, e.g. 19103=0.0123 19104=0.0045
+ *   3, 4, 5     the number (0 when there is no data)
+ *   6           min, max and median market value, space separated
+ *   7           the most common violation type (empty when there is none)
+ * </pre>
+ * e.g. "3\t19104\t260000". A query that cannot be answered gives "ERROR" and a message instead.
+ * At most a few hundred queries are in flight at once, so the input can be any length.
+ *
+ * The data does not change during a batch, so a query asked again is answered once and the
+ * answer reused; this matters for options 2 and 7, which scan every violation.
+ */
+public class BatchQueryRunner {
+
+    // Queries per thread that may be waiting to be written, so a slow query does not stall the others
+    private static final int WINDOW_PER_THREAD = 64;
+
+    private final QueryExecutor executor;
+    private final int threads;
+
+    public BatchQueryRunner(QueryExecutor executor, int threads) {
+        if (executor == null) {
+            throw new IllegalArgumentException("QueryExecutor must not be null.");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive.");
+        }
+        this.executor = executor;
+        this.threads = threads;
+    }
+
+    /**
+     * Answers every query read from in and writes the answers to out, which is flushed but not closed.
+     * @return the number of queries answered, failed ones included
+     */
+    public long run(BufferedReader in, Writer out) throws IOException {
+        if (in == null || out == null) {
+            throw new IllegalArgumentException("Input and output must not be null.");
+        }
+        BufferedWriter writer = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "batch-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<CompletableFuture<String>> pending = new ArrayDeque<>();
+        // Only touched by the calling thread
+        Map<Integer, CompletableFuture<String>> answers = new HashMap<>();
+        long answered = 0;
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String query = line.trim();
+                if (query.isEmpty() || query.startsWith("#")) {
+                    continue;
+                }
+                pending.add(answer(query, answers, pool));
+                if (pending.size() >= threads * WINDOW_PER_THREAD) {
+                    write(writer, pending.poll());
+                    answered++;
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(writer, pending.poll());
+                answered++;
+            }
+            writer.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+        return answered;
+    }
+
+    private static void write(BufferedWriter writer, CompletableFuture<String> answer) throws IOException {
+        writer.write(answer.join());
+        writer.write('\n');
+    }
+
+    // Valid queries are shared by option and ZIP code; lines with errors are answered on the spot
+    private CompletableFuture<String> answer(String line, Map<Integer, CompletableFuture<String>> answers,
+                                             ExecutorService pool) {
+        String[] fields = line.split("\\s+");
+        boolean valid = fields[0].matches("[1-7]") && (fields.length == 1 || fields.length == 2 && fields[1].matches("\\d{5}"));
+        if (!valid) {
+            return CompletableFuture.completedFuture(answer(line));
+        }
+        int key = Integer.parseInt(fields[0]) * 100_000 + (fields.length == 2 ? Integer.parseInt(fields[1]) : 0);
+        return answers.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> answer(line), pool));
+    }
+
+    /**
+     * The output line for one query line.
+     */
+    String answer(String line) {
+        String[] fields = line.split("\\s+");
+        if (!fields[0].matches("[1-7]")) {
+            return fields[0] + "\t\tERROR\tunknown menu option";
+        }
+        MenuQuery query = MenuQuery.forOption(Integer.parseInt(fields[0]));
+        if (!query.needsZipCode()) {
+            if (fields.length > 1) {
+                return fields[0] + "\t" + fields[1] + "\tERROR\toption " + fields[0] + " takes no ZIP code";
+            }
+            return fields[0] + "\t\t" + run(query, 0);
+        }
+        if (fields.length != 2 || !fields[1].matches("\\d{5}")) {
+            return fields[0] + "\t" + (fields.length > 1 ? fields[1] : "") + "\tERROR\texpected a 5-digit ZIP code";
+        }
+        return fields[0] + "\t" + fields[1] + "\t" + run(query, Integer.parseInt(fields[1]));
+    }
+
+    private String run(MenuQuery query, int zipCode) {
+        try {
+            return format(executor.execute(query, zipCode));
+        } catch (RuntimeException e) {
+            // e.g. IllegalStateException from a dataset that failed to load
+            return "ERROR\t" + e.getMessage();
+        }
+    }
+
+    private static String format(Object result) {
+        if (result == null) {
+            return "";
+        }
+        if (result instanceof HousingProcessor.PropertyValueSummary) {
+            HousingProcessor.PropertyValueSummary summary = (HousingProcessor.PropertyValueSummary) result;
+            return summary.getMin() + " " + summary.getMax() + " " + summary.getMedian();
+        }
+        if (result instanceof Map) {
+            StringBuilder text = new StringBuilder();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) result).entrySet()) {
+                if (text.length() > 0) {
+                    text.append(' ');
+                }
+                text.append(entry.getKey()).append('=')
+                        .append(String.format(Locale.ROOT, "%.4f", ((Number) entry.getValue()).doubleValue()));
+            }
+            return text.toString();
+        }
+        return result.toString();
+    }
+}
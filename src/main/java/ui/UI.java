@@ -9,6 +9,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Supplier;
 
 /**
  * UI class for PhillyDataAnalyzer application.
@@ -19,9 +20,9 @@ public class UI {
     // DESIGN PATTERN: Strategy - Interface for menu option handlers
     @FunctionalInterface
     private interface MenuStrategy {
-        void execute(ParkingViolationProcessor violationProcessor,
-                     PopulationProcessor populationProcessor,
-                     HousingProcessor housingProcessor,
+        void execute(Supplier<ParkingViolationProcessor> violationProcessor,
+                     Supplier<PopulationProcessor> populationProcessor,
+                     Supplier<HousingProcessor> housingProcessor,
                      Scanner scanner);
     }
 
@@ -47,12 +48,23 @@ public class UI {
     public static void start(ParkingViolationProcessor violationProcessor,
                              PopulationProcessor populationProcessor,
                              HousingProcessor housingProcessor) {
+        start(() -> violationProcessor, () -> populationProcessor, () -> housingProcessor);
+    }
+
+    /**
+     * Entry point for processors that may still be loading in the background.
+     * A supplier is only asked for its processor when a menu option needs it,
+     * so e.g. option 1 works as soon as the population data is ready.
+     */
+    public static void start(Supplier<ParkingViolationProcessor> violationProcessor,
+                             Supplier<PopulationProcessor> populationProcessor,
+                             Supplier<HousingProcessor> housingProcessor) {
         runMenuLoop(violationProcessor, populationProcessor, housingProcessor);
     }
 
-    private static void runMenuLoop(ParkingViolationProcessor violationProcessor,
-                                    PopulationProcessor populationProcessor,
-                                    HousingProcessor housingProcessor) {
+    private static void runMenuLoop(Supplier<ParkingViolationProcessor> violationProcessor,
+                                    Supplier<PopulationProcessor> populationProcessor,
+                                    Supplier<HousingProcessor> housingProcessor) {
 
         Scanner scanner = new Scanner(System.in);
 
@@ -69,7 +81,12 @@ public class UI {
             // DESIGN PATTERN: Strategy - Execute strategy based on menu selection
             MenuStrategy strategy = menuStrategies.get(input);
             if (strategy != null) {
-                strategy.execute(violationProcessor, populationProcessor, housingProcessor, scanner);
+                try {
+                    strategy.execute(violationProcessor, populationProcessor, housingProcessor, scanner);
+                } catch (IllegalStateException e) {
+                    // Thrown by a supplier whose dataset failed to load
+                    System.out.println("Error: " + e.getMessage());
+                }
             } else {
                 System.out.println("Invalid selection. Please try again.");
             }
@@ -82,12 +99,12 @@ public class UI {
     // Strategy implementations for each menu option
 
     // Menu option 1: Display total populations for all ZIP codes.
-    private static void handleTotalPopulation(ParkingViolationProcessor violationProcessor,
-                                              PopulationProcessor populationProcessor,
-                                              HousingProcessor housingProcessor,
+    private static void handleTotalPopulation(Supplier<ParkingViolationProcessor> violationProcessor,
+                                              Supplier<PopulationProcessor> populationProcessor,
+                                              Supplier<HousingProcessor> housingProcessor,
                                               Scanner scanner) {
         try {
-            int totalPop = populationProcessor.totalPopulation();
+            int totalPop = populationProcessor.get().totalPopulation();
             System.out.println("Total population: " + totalPop);
         } catch (Exception e) {
             System.out.println("An error occurred while computing total population: " + e.getMessage());
@@ -95,11 +112,11 @@ public class UI {
     }
 
     // Menu option 2: Display fines per capita for each ZIP Code.
-    private static void handleFinesPerCapita(ParkingViolationProcessor violationProcessor,
-                                             PopulationProcessor populationProcessor,
-                                             HousingProcessor housingProcessor,
+    private static void handleFinesPerCapita(Supplier<ParkingViolationProcessor> violationProcessor,
+                                             Supplier<PopulationProcessor> populationProcessor,
+                                             Supplier<HousingProcessor> housingProcessor,
                                              Scanner scanner) {
-        Map<Integer, Double> finesPerCapita = violationProcessor.calculateFinesPerCapita();
+        Map<Integer, Double> finesPerCapita = violationProcessor.get().calculateFinesPerCapita();
 
         // Display results
         System.out.printf("%-12s %-15s%n", "Zip Code:", "Fines per Capita:");
@@ -113,9 +130,9 @@ public class UI {
     }
 
     // Menu option 3: Display Average residential market value for a ZIP Code.
-    private static void handleAverageResidentialMarket(ParkingViolationProcessor violationProcessor,
-                                                       PopulationProcessor populationProcessor,
-                                                       HousingProcessor housingProcessor,
+    private static void handleAverageResidentialMarket(Supplier<ParkingViolationProcessor> violationProcessor,
+                                                       Supplier<PopulationProcessor> populationProcessor,
+                                                       Supplier<HousingProcessor> housingProcessor,
                                                        Scanner scanner) {
         System.out.print("Enter ZIP code: ");
         String input = scanner.nextLine().trim();
@@ -128,7 +145,7 @@ public class UI {
         int zipCode = Integer.parseInt(input);
 
         try {
-            int avg = housingProcessor.getAverageMarketValue(zipCode);
+            int avg = housingProcessor.get().getAverageMarketValue(zipCode);
 
             if (avg <= 0) {
                 System.out.println("No valid residential market value data found for ZIP code " + zipCode + ".");
@@ -143,9 +160,9 @@ public class UI {
     }
 
     // Menu option 4: Average residential total livable area for a ZIP Code.
-    private static void handleLivableArea(ParkingViolationProcessor violationProcessor,
-                                          PopulationProcessor populationProcessor,
-                                          HousingProcessor housingProcessor,
+    private static void handleLivableArea(Supplier<ParkingViolationProcessor> violationProcessor,
+                                          Supplier<PopulationProcessor> populationProcessor,
+                                          Supplier<HousingProcessor> housingProcessor,
                                           Scanner scanner) {
 
         System.out.print("Enter ZIP code: ");
@@ -159,7 +176,7 @@ public class UI {
         int zipCode = Integer.parseInt(input);
 
         try {
-            int avg = housingProcessor.getAverageLivableArea(zipCode);
+            int avg = housingProcessor.get().getAverageLivableArea(zipCode);
 
             if (avg <= 0) {
                 System.out.println("No valid livable area data found for ZIP code " + zipCode + ".");
@@ -175,9 +192,9 @@ public class UI {
     }
 
     // Menu option 5: Display residential market value per capita for a ZIP Code.
-    private static void handlePerCapitalResidentialValue(ParkingViolationProcessor violationProcessor,
-                                                         PopulationProcessor populationProcessor,
-                                                         HousingProcessor housingProcessor,
+    private static void handlePerCapitalResidentialValue(Supplier<ParkingViolationProcessor> violationProcessor,
+                                                         Supplier<PopulationProcessor> populationProcessor,
+                                                         Supplier<HousingProcessor> housingProcessor,
                                                          Scanner scanner) {
         System.out.print("Enter ZIP code: ");
         String input = scanner.nextLine().trim();
@@ -189,7 +206,7 @@ public class UI {
         int zipCode = Integer.parseInt(input);
 
         try {
-            int result = housingProcessor.getMarketValuePerCapita(zipCode);
+            int result = housingProcessor.get().getMarketValuePerCapita(zipCode);
 
             if (result <= 0) {
                 System.out.println("No valid market value or population data available for ZIP code " + zipCode + ".");
@@ -205,9 +222,9 @@ public class UI {
     }
 
     // Menu option 6: Display property value summary for a ZIP Code.
-    private static void handlePropertyValueSummary(ParkingViolationProcessor violationProcessor,
-                                                   PopulationProcessor populationProcessor,
-                                                   HousingProcessor housingProcessor,
+    private static void handlePropertyValueSummary(Supplier<ParkingViolationProcessor> violationProcessor,
+                                                   Supplier<PopulationProcessor> populationProcessor,
+                                                   Supplier<HousingProcessor> housingProcessor,
                                                    Scanner scanner) {
         System.out.print("Enter ZIP code: ");
         String input = scanner.nextLine().trim();
@@ -220,7 +237,7 @@ public class UI {
         int zipCode = Integer.parseInt(input);
 
         try {
-            HousingProcessor.PropertyValueSummary summary = housingProcessor.getPropertyValueSummary(zipCode);
+            HousingProcessor.PropertyValueSummary summary = housingProcessor.get().getPropertyValueSummary(zipCode);
 
             if (summary.getMin() == 0 && summary.getMax() == 0 && summary.getMedian() == 0) {
                 System.out.println("No valid residential market value data found for ZIP code " + zipCode + ".");
@@ -239,16 +256,16 @@ public class UI {
     }
 
     // Menu option 7: Display most common violation type for a ZIP code
-    private static void handleMostCommonViolation(ParkingViolationProcessor violationProcessor,
-                                                  PopulationProcessor populationProcessor,
-                                                  HousingProcessor housingProcessor,
+    private static void handleMostCommonViolation(Supplier<ParkingViolationProcessor> violationProcessor,
+                                                  Supplier<PopulationProcessor> populationProcessor,
+                                                  Supplier<HousingProcessor> housingProcessor,
                                                   Scanner scanner) {
         System.out.print("Enter ZIP code: ");
 
         try {
             int zipCode = Integer.parseInt(scanner.nextLine().trim());
 
-            Map<String, Integer> types = violationProcessor.getViolationTypesForZip(zipCode);
+            Map<String, Integer> types = violationProcessor.get().getViolationTypesForZip(zipCode);
 
             if (types.isEmpty()) {
                 System.out.println("No violations found for ZIP code " + zipCode);
@@ -0,0 +1,65 @@
+package allocation;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntConsumer;
+
+/**
+ * AllocationMeter measures how many heap bytes the current thread allocates, using the
+ * HotSpot-specific com.sun.management.ThreadMXBean. Measurements are exact to the byte but
+ * include everything the thread allocates, so the code under test is warmed up first: the JIT
+ * then removes allocations that escape analysis can prove unnecessary, as it would in production.
+ */
+public final class AllocationMeter {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private AllocationMeter() {
+    }
+
+    /**
+     * False on JVMs without per-thread allocation counting; tests should then be skipped.
+     */
+    public static boolean isSupported() {
+        return THREADS != null && THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled();
+    }
+
+    public static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Average bytes allocated per call of action, called with 0, 1, 2, ... after warmupCalls unmeasured calls.
+     */
+    public static double bytesPerCall(int warmupCalls, int calls, IntConsumer action) {
+        for (int i = 0; i < warmupCalls; i++) {
+            action.accept(i);
+        }
+        long before = allocatedBytes();
+        for (int i = 0; i < calls; i++) {
+            action.accept(i);
+        }
+        return (double) (allocatedBytes() - before) / calls;
+    }
+
+    /**
+     * Bytes allocated by one run of action, after warmupRuns unmeasured runs.
+     */
+    public static long bytesPerRun(int warmupRuns, ThrowingRunnable action) throws Exception {
+        for (int i = 0; i < warmupRuns; i++) {
+            action.run();
+        }
+        long before = allocatedBytes();
+        action.run();
+        return allocatedBytes() - before;
+    }
+
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+}
@@ -0,0 +1,111 @@
+package allocation;
+
+import common.IsoTimestamps;
+import data.FieldParsers;
+import data.HousingReader;
+import data.ParkingViolationByteCSVReader;
+import data.ParkingViolationCSVReader;
+import data.PopulationFileReader;
+import data.SyntheticDataGenerator;
+import data.ViolationFileFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation budgets for the per-row parse loops, in bytes per row read. The budgets include
+ * what is kept (the parsed objects and the list holding them) and are set about 25% above what
+ * the readers allocate today, so a change that adds an object per row fails here.
+ *
+ * ViolationIngestPipeline is not covered: its parsing runs on pool threads, which this meter
+ * does not see. It shares its per-row code with ParkingViolationCSVReader.
+ */
+public class ParseAllocationTest {
+
+    private static final int VIOLATION_ROWS = 100_000;
+    private static final int PROPERTY_ROWS = 20_000;
+    private static final int POPULATION_ROWS = 50_000;
+    private static final int WARMUP_RUNS = 3;
+
+    @TempDir
+    Path tempDir;
+
+    private long sink;
+
+    @BeforeEach
+    public void setUp() {
+        assumeTrue(AllocationMeter.isSupported(), "per-thread allocation counting is not available");
+    }
+
+    private String violations() throws Exception {
+        String file = tempDir.resolve("violations.csv").toString();
+        new SyntheticDataGenerator(1, 0).writeViolations(ViolationFileFormat.CSV, VIOLATION_ROWS, file);
+        return file;
+    }
+
+    /**
+     * Test case 1: The byte-level reader keeps each row to about the ParkingViolation itself
+     */
+    @Test
+    public void testByteCSVReader() throws Exception {
+        String file = violations();
+        long bytes = AllocationMeter.bytesPerRun(WARMUP_RUNS, () -> sink += new ParkingViolationByteCSVReader(file).readData().size());
+        double perRow = (double) bytes / VIOLATION_ROWS;
+        assertTrue(perRow <= 170, perRow + " bytes per row");
+    }
+
+    /**
+     * Test case 2: The line-based reader (a String per line and per field)
+     */
+    @Test
+    public void testCSVReader() throws Exception {
+        String file = violations();
+        long bytes = AllocationMeter.bytesPerRun(WARMUP_RUNS, () -> sink += new ParkingViolationCSVReader(file).readData().size());
+        double perRow = (double) bytes / VIOLATION_ROWS;
+        assertTrue(perRow <= 850, perRow + " bytes per row");
+    }
+
+    /**
+     * Test case 3: Wide property rows, where all 77 columns are split
+     */
+    @Test
+    public void testHousingReader() throws Exception {
+        String file = tempDir.resolve("properties.csv").toString();
+        new SyntheticDataGenerator(1, 0).writeProperties(PROPERTY_ROWS, file);
+        long bytes = AllocationMeter.bytesPerRun(WARMUP_RUNS, () -> sink += new HousingReader(file).readData().size());
+        double perRow = (double) bytes / PROPERTY_ROWS;
+        assertTrue(perRow <= 5700, perRow + " bytes per row");
+    }
+
+    /**
+     * Test case 4: Population lines, tokenized without a regular expression
+     */
+    @Test
+    public void testPopulationReader() throws Exception {
+        String file = tempDir.resolve("population.txt").toString();
+        new SyntheticDataGenerator(1).writePopulation(POPULATION_ROWS, file);
+        long bytes = AllocationMeter.bytesPerRun(WARMUP_RUNS, () -> sink += new PopulationFileReader(file).readData().size());
+        double perRow = (double) bytes / POPULATION_ROWS;
+        assertTrue(perRow <= 180, perRow + " bytes per row");
+    }
+
+    /**
+     * Test case 5: The field parsers allocate nothing
+     */
+    @Test
+    public void testFieldParsers() {
+        String[] values = {"19104", " 42 ", "-17", "abc"};
+        double bytes = AllocationMeter.bytesPerCall(100_000, 100_000, i -> {
+            sink += FieldParsers.parseInt(values[i & 3]);
+            sink += FieldParsers.parseRoundedDecimal("264,800.0");
+            sink += FieldParsers.firstFiveDigits("19104-2345");
+            sink += IsoTimestamps.parseEpochSeconds("2013-04-03T15:15:00Z");
+        });
+        assertTrue(bytes <= 1.0, bytes + " bytes per call");
+    }
+}
@@ -0,0 +1,108 @@
+package allocation;
+
+import data.CachingHousingReader;
+import data.CachingPopulationReader;
+import data.HousingReader;
+import data.PopulationFileReader;
+import data.PopulationReader;
+import data.SyntheticDataGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import processor.HousingProcessor;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation budgets for the cached menu queries (options 3-6): once a result is cached,
+ * asking for it again must not allocate.
+ */
+public class QueryAllocationTest {
+
+    private static final int WARMUP_CALLS = 100_000;
+    private static final int CALLS = 100_000;
+    // Allows for a stray allocation by the measuring itself, not one per call
+    private static final double CACHED_BUDGET = 1.0;
+
+    @TempDir
+    Path tempDir;
+
+    private HousingProcessor processor;
+    private int[] zipCodes;
+    private long sink;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        assumeTrue(AllocationMeter.isSupported(), "per-thread allocation counting is not available");
+        String properties = tempDir.resolve("properties.csv").toString();
+        new SyntheticDataGenerator(1, 0).writeProperties(5000, properties);
+        HousingReader housingReader = new CachingHousingReader(properties);
+        PopulationReader populationReader = new CachingPopulationReader(new PopulationFileReader("population.txt"));
+        zipCodes = populationReader.readData().keySet().stream().mapToInt(Integer::intValue).toArray();
+
+        HousingProcessor.resetInstance();
+        processor = HousingProcessor.getInstance(housingReader, populationReader);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        HousingProcessor.resetInstance();
+    }
+
+    private int zipCode(int call) {
+        return zipCodes[call % zipCodes.length];
+    }
+
+    /**
+     * Test case 1: Option 3, average market value
+     */
+    @Test
+    public void testAverageMarketValue() {
+        double bytes = AllocationMeter.bytesPerCall(WARMUP_CALLS, CALLS, i -> sink += processor.getAverageMarketValue(zipCode(i)));
+        assertTrue(bytes <= CACHED_BUDGET, bytes + " bytes per call");
+    }
+
+    /**
+     * Test case 2: Option 4, average livable area
+     */
+    @Test
+    public void testAverageLivableArea() {
+        double bytes = AllocationMeter.bytesPerCall(WARMUP_CALLS, CALLS, i -> sink += processor.getAverageLivableArea(zipCode(i)));
+        assertTrue(bytes <= CACHED_BUDGET, bytes + " bytes per call");
+    }
+
+    /**
+     * Test case 3: Option 5, market value per capita
+     */
+    @Test
+    public void testMarketValuePerCapita() {
+        double bytes = AllocationMeter.bytesPerCall(WARMUP_CALLS, CALLS, i -> sink += processor.getMarketValuePerCapita(zipCode(i)));
+        assertTrue(bytes <= CACHED_BUDGET, bytes + " bytes per call");
+    }
+
+    /**
+     * Test case 4: Option 6, property value summary
+     */
+    @Test
+    public void testPropertyValueSummary() {
+        double bytes = AllocationMeter.bytesPerCall(WARMUP_CALLS, CALLS,
+                i -> sink += processor.getPropertyValueSummary(zipCode(i)).getMedian());
+        assertTrue(bytes <= CACHED_BUDGET, bytes + " bytes per call");
+    }
+
+    /**
+     * Test case 5: Cache misses do allocate, so the meter is really measuring
+     */
+    @Test
+    public void testMissesAllocate() {
+        double bytes = AllocationMeter.bytesPerCall(0, 200, i -> {
+            processor.clearCache();
+            sink += processor.getAverageMarketValue(zipCode(i));
+        });
+        assertTrue(bytes > 100, bytes + " bytes per call");
+    }
+}
@@ -0,0 +1,46 @@
+package common;
+
+import java.time.Instant;
+import java.util.Random;
+
+/**
+ * Rough timing of IsoTimestamps.parseEpochSeconds against Instant.parse.
+ * Not a JUnit test; run with: java -cp target/classes:target/test-classes common.IsoTimestampsBenchmark
+ */
+public class IsoTimestampsBenchmark {
+
+    private static final int SAMPLES = 1 << 16;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        long start2012 = Instant.parse("2012-01-01T00:00:00Z").getEpochSecond();
+        String[] dates = new String[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            dates[i] = Instant.ofEpochSecond(start2012 + random.nextInt(3 * 365 * 86_400)).toString();
+        }
+
+        long checksum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long fastStart = System.nanoTime();
+            for (String date : dates) {
+                checksum += IsoTimestamps.parseEpochSeconds(date);
+            }
+            long fastNanos = System.nanoTime() - fastStart;
+
+            long instantStart = System.nanoTime();
+            for (String date : dates) {
+                checksum -= Instant.parse(date).getEpochSecond();
+            }
+            long instantNanos = System.nanoTime() - instantStart;
+
+            // The first rounds include JIT warm-up; only the last ones are meaningful
+            System.out.printf("round %2d: IsoTimestamps %6.1f ns/op, Instant.parse %6.1f ns/op%n",
+                    round + 1, (double) fastNanos / SAMPLES, (double) instantNanos / SAMPLES);
+        }
+
+        if (checksum != 0) {
+            throw new IllegalStateException("Parsers disagree, checksum " + checksum);
+        }
+    }
+}
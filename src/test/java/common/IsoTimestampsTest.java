@@ -0,0 +1,103 @@
+package common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the IsoTimestamps parser/formatter and the timestamp stored by ParkingViolation.
+ */
+public class IsoTimestampsTest {
+
+    /**
+     * Test case 1: Parses the feed layout to the same epoch seconds as Instant.parse
+     */
+    @Test
+    public void testMatchesInstantParse() {
+        assertEquals(Instant.parse("2013-04-03T15:15:00Z").getEpochSecond(),
+                IsoTimestamps.parseEpochSeconds("2013-04-03T15:15:00Z"));
+        assertEquals(0, IsoTimestamps.parseEpochSeconds("1970-01-01T00:00:00Z"));
+        assertEquals(Instant.parse("2000-02-29T23:59:59Z").getEpochSecond(),
+                IsoTimestamps.parseEpochSeconds("2000-02-29T23:59:59Z"));
+        assertEquals(Instant.parse("1969-12-31T23:59:59Z").getEpochSecond(),
+                IsoTimestamps.parseEpochSeconds("1969-12-31T23:59:59Z"));
+    }
+
+    /**
+     * Test case 2: Round trip against java.time for random instants between 1900 and 2100
+     */
+    @Test
+    public void testRandomRoundTrip() {
+        Random random = new Random(42);
+        long min = Instant.parse("1900-01-01T00:00:00Z").getEpochSecond();
+        long max = Instant.parse("2100-01-01T00:00:00Z").getEpochSecond();
+        for (int i = 0; i < 100_000; i++) {
+            long seconds = min + (long) (random.nextDouble() * (max - min));
+            String text = Instant.ofEpochSecond(seconds).toString();
+
+            assertEquals(seconds, IsoTimestamps.parseEpochSeconds(text), text);
+            assertEquals(text, IsoTimestamps.format(seconds));
+        }
+    }
+
+    /**
+     * Test case 3: The trailing 'Z' is optional
+     */
+    @Test
+    public void testWithoutZone() {
+        assertEquals(IsoTimestamps.parseEpochSeconds("2013-04-03T15:15:00Z"),
+                IsoTimestamps.parseEpochSeconds("2013-04-03T15:15:00"));
+    }
+
+    /**
+     * Test case 4: Malformed and impossible dates are rejected without throwing
+     */
+    @Test
+    public void testInvalidInput() {
+        String[] invalid = {
+                null, "", "2013-04-03", "2013-04-03 15:15:00Z", "2013-04-03T15:15:00+01:00",
+                "2013-13-03T15:15:00Z", "2013-02-29T15:15:00Z", "2013-04-31T15:15:00Z",
+                "2013-04-03T24:00:00Z", "2013-04-03T15:60:00Z", "2013-04-03T15:15:60Z",
+                "2O13-04-03T15:15:00Z", "2013-04-03T15:15:00X", "not a date at all!!!"
+        };
+        for (String text : invalid) {
+            assertEquals(IsoTimestamps.INVALID, IsoTimestamps.parseEpochSeconds(text), String.valueOf(text));
+        }
+    }
+
+    /**
+     * Test case 5: ParkingViolation stores the timestamp and formats getDate() on demand
+     */
+    @Test
+    public void testParkingViolationDate() {
+        ParkingViolation violation = new ParkingViolation("T001", "ABC123", "2013-04-03T15:15:00Z",
+                19104, "METER EXPIRED", 36, "PA");
+
+        assertTrue(violation.hasTimestamp());
+        assertEquals(Instant.parse("2013-04-03T15:15:00Z").getEpochSecond(), violation.getTimestamp());
+        assertEquals("2013-04-03T15:15:00Z", violation.getDate());
+
+        ParkingViolation fromSeconds = new ParkingViolation("T001", "ABC123", violation.getTimestamp(),
+                19104, "METER EXPIRED", 36, "PA");
+        assertEquals("2013-04-03T15:15:00Z", fromSeconds.getDate());
+    }
+
+    /**
+     * Test case 6: Missing or unparseable dates are kept as they were read
+     */
+    @Test
+    public void testParkingViolationUnparsedDate() {
+        ParkingViolation missing = new ParkingViolation("T001", "ABC123", (String) null,
+                19104, "METER EXPIRED", 36, "PA");
+        ParkingViolation dirty = new ParkingViolation("T002", "ABC123", "04/03/2013",
+                19104, "METER EXPIRED", 36, "PA");
+
+        assertFalse(missing.hasTimestamp());
+        assertNull(missing.getDate());
+        assertFalse(dirty.hasTimestamp());
+        assertEquals("04/03/2013", dirty.getDate());
+    }
+}
@@ -0,0 +1,41 @@
+package data;
+
+import common.ParkingViolation;
+
+import java.util.List;
+
+/**
+ * Rough timing of ParkingViolationByteCSVReader against ParkingViolationCSVReader
+ * (BufferedReader over FileReader) on the sample file.
+ * Not a JUnit test; run with: java -cp target/classes:target/test-classes data.CSVReaderBenchmark [file]
+ */
+public class CSVReaderBenchmark {
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        String file = args.length > 0 ? args[0] : "parking.csv";
+
+        long checksum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long charStart = System.nanoTime();
+            List<ParkingViolation> chars = new ParkingViolationCSVReader(file).readData();
+            long charNanos = System.nanoTime() - charStart;
+
+            long byteStart = System.nanoTime();
+            List<ParkingViolation> bytes = new ParkingViolationByteCSVReader(file).readData();
+            long byteNanos = System.nanoTime() - byteStart;
+
+            checksum += chars.size() - bytes.size();
+
+            // The first rounds include JIT warm-up; only the last ones are meaningful
+            System.out.printf("round %2d: BufferedReader %7.1f ms (%4.0f ns/row), bytes %7.1f ms (%4.0f ns/row)%n",
+                    round + 1, charNanos / 1e6, (double) charNanos / chars.size(),
+                    byteNanos / 1e6, (double) byteNanos / bytes.size());
+        }
+
+        if (checksum != 0) {
+            throw new IllegalStateException("Readers disagree on the row count.");
+        }
+    }
+}
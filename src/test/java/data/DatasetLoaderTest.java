@@ -0,0 +1,257 @@
+package data;
+
+import common.House;
+import common.ParkingViolation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DatasetLoader and the caching readers it is used with.
+ */
+public class DatasetLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path writeFile(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content);
+        return file;
+    }
+
+    /**
+     * Test case 1: All three datasets are loaded and timed
+     */
+    @Test
+    public void testLoadsAllDatasets() throws Exception {
+        Path violations = writeFile("parking.csv",
+                "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905938,19104\n"
+                        + "2013-04-03T07:35:00Z,51,DOUBLE PARKED,1322731,PA,2905939,19104\n");
+        Path properties = writeFile("properties.csv",
+                "market_value,total_livable_area,zip_code\n100000,1000,19104\n200000,2000,19104\n300000,3000,19103\n");
+        Path population = writeFile("population.txt", "19103 21908\n19104 51808\n");
+
+        DatasetLoader loader = new DatasetLoader(
+                new ParkingViolationCSVReader(violations.toString())::readData,
+                new CachingHousingReader(properties.toString()),
+                new CachingPopulationReader(new PopulationFileReader(population.toString())));
+        loader.start();
+
+        assertEquals(2, loader.violations().get(5, TimeUnit.SECONDS).size());
+        assertEquals(3, loader.houses().get(5, TimeUnit.SECONDS).size());
+        assertEquals(51808, loader.populations().get(5, TimeUnit.SECONDS).get(19104));
+
+        for (DatasetLoader.Dataset dataset : DatasetLoader.Dataset.values()) {
+            assertTrue(loader.getLoadTimeMillis(dataset) >= 0);
+        }
+        assertEquals(2, loader.getRecordCount(DatasetLoader.Dataset.VIOLATIONS));
+        assertEquals(3, loader.getRecordCount(DatasetLoader.Dataset.PROPERTIES));
+        assertEquals(2, loader.getRecordCount(DatasetLoader.Dataset.POPULATION));
+    }
+
+    /**
+     * Test case 2: Population is available while the violations are still loading
+     */
+    @Test
+    public void testPopulationReadyBeforeSlowViolations() throws Exception {
+        Path properties = writeFile("properties.csv", "market_value,total_livable_area,zip_code\n");
+        Path population = writeFile("population.txt", "19104 51808\n");
+        CountDownLatch releaseViolations = new CountDownLatch(1);
+
+        DatasetLoader loader = new DatasetLoader(
+                () -> {
+                    releaseViolations.await();
+                    return new ArrayList<ParkingViolation>();
+                },
+                new CachingHousingReader(properties.toString()),
+                new PopulationFileReader(population.toString()));
+        loader.start();
+
+        Map<Integer, Integer> populations = loader.populations().get(5, TimeUnit.SECONDS);
+        assertEquals(1, populations.size());
+        assertFalse(loader.violations().isDone());
+        assertEquals(-1, loader.getLoadTimeMillis(DatasetLoader.Dataset.VIOLATIONS));
+
+        releaseViolations.countDown();
+        assertTrue(loader.violations().get(5, TimeUnit.SECONDS).isEmpty());
+    }
+
+    /**
+     * Test case 3: A failing dataset completes exceptionally without affecting the others
+     */
+    @Test
+    public void testFailedDatasetCompletesExceptionally() throws Exception {
+        Path population = writeFile("population.txt", "19104 51808\n");
+
+        DatasetLoader loader = new DatasetLoader(
+                () -> {
+                    throw new IOException("File not found");
+                },
+                new CachingHousingReader(tempDir.resolve("missing.csv").toString()),
+                new PopulationFileReader(population.toString()));
+        loader.start();
+
+        CompletionException e = assertThrows(CompletionException.class, () -> loader.violations().join());
+        assertTrue(e.getCause() instanceof IOException);
+        assertThrows(CompletionException.class, () -> loader.houses().join());
+        assertEquals(51808, loader.populations().join().get(19104));
+    }
+
+    /**
+     * Test case 4: start() may only be called once
+     */
+    @Test
+    public void testStartTwiceThrows() throws Exception {
+        Path population = writeFile("population.txt", "19104 51808\n");
+        DatasetLoader loader = new DatasetLoader(ArrayList::new,
+                new CachingHousingReader(population.toString()),
+                new PopulationFileReader(population.toString()));
+        loader.start();
+
+        assertThrows(IllegalStateException.class, loader::start);
+    }
+
+    /**
+     * Test case 5: CachingHousingReader parses the file only once
+     */
+    @Test
+    public void testCachingHousingReaderReturnsSameList() throws Exception {
+        Path properties = writeFile("properties.csv",
+                "market_value,total_livable_area,zip_code\n100000,1000,19104\n");
+        CachingHousingReader reader = new CachingHousingReader(properties.toString());
+
+        List<House> first = reader.readData();
+        Files.delete(properties);
+        List<House> second = reader.readData();
+
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> second.add(new House(19104, 1, 1)));
+    }
+
+    /**
+     * Test case 6: CachingPopulationReader reads from its delegate only once
+     */
+    @Test
+    public void testCachingPopulationReaderReadsOnce() throws Exception {
+        int[] reads = {0};
+        CachingPopulationReader reader = new CachingPopulationReader(() -> {
+            reads[0]++;
+            return Map.of(19104, 51808);
+        });
+
+        reader.readData();
+        reader.readData();
+
+        assertEquals(1, reads[0]);
+        assertThrows(IllegalArgumentException.class, () -> new CachingPopulationReader(null));
+    }
+
+    /**
+     * Test case 7: Lazy mode reads nothing until a dataset is requested
+     */
+    @Test
+    public void testLazyModeLoadsOnDemand() throws Exception {
+        Path population = writeFile("population.txt", "19104 51808\n");
+        int[] violationReads = {0};
+        DatasetLoader loader = new DatasetLoader(
+                () -> {
+                    violationReads[0]++;
+                    return new ArrayList<ParkingViolation>();
+                },
+                new CachingHousingReader(population.toString()),
+                new PopulationFileReader(population.toString()));
+
+        assertFalse(loader.populations().isDone());
+        assertEquals(-1, loader.getRecordCount(DatasetLoader.Dataset.POPULATION));
+
+        loader.load(DatasetLoader.Dataset.POPULATION);
+        assertEquals(51808, loader.populations().join().get(19104));
+        assertEquals(1, loader.getRecordCount(DatasetLoader.Dataset.POPULATION));
+        assertFalse(loader.violations().isDone());
+        assertFalse(loader.houses().isDone());
+
+        loader.load(DatasetLoader.Dataset.VIOLATIONS);
+        loader.load(DatasetLoader.Dataset.VIOLATIONS);
+        assertTrue(loader.violations().join().isEmpty());
+        assertEquals(1, violationReads[0]);
+    }
+
+    /**
+     * Test case 8: Warm-up loads the datasets one at a time in priority order
+     */
+    @Test
+    public void testWarmUpLoadsInPriorityOrder() throws Exception {
+        Path properties = writeFile("properties.csv", "market_value,total_livable_area,zip_code\n");
+        Path population = writeFile("population.txt", "19104 51808\n");
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        DatasetLoader loader = new DatasetLoader(
+                () -> {
+                    order.add("violations");
+                    return new ArrayList<ParkingViolation>();
+                },
+                new CachingHousingReader(properties.toString()) {
+                    @Override
+                    public List<House> readData() throws IOException {
+                        order.add("properties");
+                        return super.readData();
+                    }
+                },
+                () -> {
+                    order.add("population");
+                    return Map.of(19104, 51808);
+                });
+        loader.startWarmUp(DatasetLoader.Dataset.PROPERTIES, DatasetLoader.Dataset.POPULATION,
+                DatasetLoader.Dataset.VIOLATIONS);
+
+        loader.violations().get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("properties", "population", "violations"), order);
+        assertThrows(IllegalStateException.class, loader::start);
+    }
+
+    /**
+     * Test case 9: A dataset needed before the warm-up reaches it is loaded by the caller
+     */
+    @Test
+    public void testOnDemandLoadOvertakesWarmUp() throws Exception {
+        Path population = writeFile("population.txt", "19104 51808\n");
+        CountDownLatch releaseProperties = new CountDownLatch(1);
+
+        DatasetLoader loader = new DatasetLoader(
+                ArrayList::new,
+                new CachingHousingReader(population.toString()) {
+                    @Override
+                    public List<House> readData() throws IOException {
+                        try {
+                            releaseProperties.await();
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                        return new ArrayList<>();
+                    }
+                },
+                new PopulationFileReader(population.toString()));
+        loader.startWarmUp(DatasetLoader.Dataset.PROPERTIES, DatasetLoader.Dataset.POPULATION);
+
+        // The warm-up thread is stuck on properties, so the caller reads population itself
+        loader.load(DatasetLoader.Dataset.POPULATION);
+        assertTrue(loader.populations().isDone());
+        assertFalse(loader.houses().isDone());
+
+        releaseProperties.countDown();
+        assertTrue(loader.houses().get(5, TimeUnit.SECONDS).isEmpty());
+    }
+}
@@ -0,0 +1,142 @@
+package data;
+
+import common.House;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for IngestReport, FieldParsers and the rejection of malformed rows by the readers.
+ */
+public class IngestReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String writeFile(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, content.getBytes());
+        return file.toString();
+    }
+
+    /**
+     * Test case 1: parseInt() follows Integer.parseInt(trim()) without throwing
+     */
+    @Test
+    public void testParseInt() {
+        for (String valid : new String[]{"0", "42", " 42 ", "-17", "+8", "2147483647", "-2147483648"}) {
+            assertEquals(Integer.parseInt(valid.trim()), FieldParsers.parseInt(valid), valid);
+        }
+        for (String invalid : new String[]{"", " ", "-", "4 2", "4.2", "abc", "2147483648", "99999999999", null}) {
+            assertEquals(FieldParsers.INVALID, FieldParsers.parseInt(invalid), invalid);
+        }
+    }
+
+    /**
+     * Test case 2: parseRoundedDecimal() rounds like Math.round and ignores commas and dollar signs
+     */
+    @Test
+    public void testParseRoundedDecimal() {
+        for (String valid : new String[]{"264800.0", "0.5", "1.49", "-2.5", "-2.51", "-0.4", "7", ".5", "12."}) {
+            assertEquals(Math.round(Double.parseDouble(valid)), FieldParsers.parseRoundedDecimal(valid), valid);
+        }
+        assertEquals(264800, FieldParsers.parseRoundedDecimal("264,800.0"));
+        assertEquals(1000, FieldParsers.parseRoundedDecimal("$1,000"));
+        for (String invalid : new String[]{"", ".", "--1", "1.2.3", "12a", "N/A", null}) {
+            assertEquals(FieldParsers.INVALID, FieldParsers.parseRoundedDecimal(invalid), invalid);
+        }
+    }
+
+    /**
+     * Test case 3: firstFiveDigits() takes ZIP+4 codes and rejects short ones
+     */
+    @Test
+    public void testFirstFiveDigits() {
+        assertEquals(19104, FieldParsers.firstFiveDigits("19104"));
+        assertEquals(19104, FieldParsers.firstFiveDigits("19104-2345"));
+        assertEquals(-1, FieldParsers.firstFiveDigits("1910"));
+        assertEquals(-1, FieldParsers.firstFiveDigits(""));
+        assertEquals(-1, FieldParsers.firstFiveDigits(null));
+    }
+
+    /**
+     * Test case 4: Counts by reason, the summary text, and the rejects file with line numbers
+     */
+    @Test
+    public void testCountsAndRejectsFile() throws Exception {
+        Path rejects = tempDir.resolve("rejects.tsv");
+        IngestReport report = new IngestReport("test.csv", rejects);
+        report.accept();
+        report.accept();
+        report.reject(RejectReason.BAD_FINE, 3, "a,b");
+        report.reject(RejectReason.TOO_FEW_FIELDS, 7, "x");
+        report.close();
+
+        assertEquals(2, report.getAccepted());
+        assertEquals(2, report.getRejected());
+        assertEquals(0, report.getRejected(RejectReason.BAD_ZIP_CODE));
+        assertEquals(Map.of(RejectReason.TOO_FEW_FIELDS, 1L, RejectReason.BAD_FINE, 1L), report.getRejectedByReason());
+        assertTrue(report.toString().startsWith("test.csv: 2 rows accepted, 2 rejected ("), report.toString());
+        assertEquals(List.of("3\tBAD_FINE\ta,b", "7\tTOO_FEW_FIELDS\tx"), Files.readAllLines(rejects));
+
+        // No rejects, no file
+        Path unused = tempDir.resolve("unused.tsv");
+        new IngestReport("clean.csv", unused).close();
+        assertFalse(Files.exists(unused));
+    }
+
+    /**
+     * Test case 5: The property reader skips rows with missing fields or ZIP codes, numbering lines from the header
+     */
+    @Test
+    public void testHousingRejects() throws Exception {
+        String file = writeFile("props.csv", "market_value,total_livable_area,zip_code\n"
+                + "100000,1000,19104\n"
+                + "200000\n"
+                + "300000,1500,N/A\n"
+                + "$1,2000,19103-1234\n");
+        Path rejects = tempDir.resolve("props-rejects.tsv");
+
+        List<House> houses;
+        try (IngestReport report = new IngestReport("props.csv", rejects)) {
+            houses = new HousingReader(file, report).readData();
+            assertEquals(2, report.getAccepted());
+            assertEquals(1, report.getRejected(RejectReason.TOO_FEW_FIELDS));
+            assertEquals(1, report.getRejected(RejectReason.BAD_ZIP_CODE));
+        }
+
+        assertEquals(2, houses.size());
+        List<String> lines = Files.readAllLines(rejects);
+        assertTrue(lines.get(0).startsWith("3\t"), lines.get(0));
+        assertTrue(lines.get(1).startsWith("4\t"), lines.get(1));
+    }
+
+    /**
+     * Test case 6: The population reader skips bad lines; the sample file has none
+     */
+    @Test
+    public void testPopulationRejects() throws Exception {
+        String file = writeFile("population.txt", "19102 4705\n19103\nabc 100\n19104 lots\n\n19106 9000\n");
+        PopulationFileReader reader = new PopulationFileReader(file);
+
+        Map<Integer, Integer> populations = reader.readData();
+
+        assertEquals(Map.of(19102, 4705, 19106, 9000), populations);
+        IngestReport report = reader.getIngestReport();
+        assertEquals(2, report.getAccepted());
+        assertEquals(1, report.getRejected(RejectReason.TOO_FEW_FIELDS));
+        assertEquals(1, report.getRejected(RejectReason.BAD_ZIP_CODE));
+        assertEquals(1, report.getRejected(RejectReason.BAD_POPULATION));
+
+        PopulationFileReader sample = new PopulationFileReader("population.txt");
+        assertEquals(48, sample.readData().size());
+        assertEquals(0, sample.getIngestReport().getRejected());
+    }
+}
@@ -0,0 +1,142 @@
+package data;
+
+import common.House;
+import common.ParkingViolation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for InputStreams and reading gzip-compressed files with every reader.
+ */
+public class InputStreamsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String gzip(String source, String name) throws IOException {
+        Path file = tempDir.resolve(name);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            Files.copy(Paths.get(source), out);
+        }
+        return file.toString();
+    }
+
+    private String gzip(byte[] content, String name) throws IOException {
+        Path file = tempDir.resolve(name);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(content);
+        }
+        return file.toString();
+    }
+
+    /**
+     * Test case 1: A compressed file reads back byte for byte, across many queued chunks
+     */
+    @Test
+    public void testDecompressesLargeFile() throws Exception {
+        byte[] content = new byte[InputStreams.BUFFER_SIZE * (InputStreams.QUEUED_CHUNKS * 2) + 123];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31 + i / 7);
+        }
+        String file = gzip(content, "data.bin.gz");
+
+        assertTrue(InputStreams.isGzip(file));
+        try (InputStream in = InputStreams.open(file)) {
+            assertArrayEquals(content, in.readAllBytes());
+            assertEquals(-1, in.read());
+        }
+    }
+
+    /**
+     * Test case 2: Plain files are read as they are, whatever their name
+     */
+    @Test
+    public void testPlainFile() throws Exception {
+        Path file = tempDir.resolve("plain.gz");
+        Files.writeString(file, "not compressed");
+
+        assertFalse(InputStreams.isGzip(file.toString()));
+        try (InputStream in = InputStreams.open(file.toString())) {
+            assertEquals("not compressed", new String(in.readAllBytes()));
+        }
+    }
+
+    /**
+     * Test case 3: All the readers read compressed files the same as uncompressed ones
+     */
+    @Test
+    public void testReadersAcceptGzip() throws Exception {
+        List<ParkingViolation> csv = new ParkingViolationCSVReader(gzip("parking.csv", "parking.csv.gz")).readData();
+        assertEquals(new ParkingViolationCSVReader("parking.csv").readData().size(), csv.size());
+
+        String json = gzip("parking.json", "parking.json.gz");
+        assertEquals(ViolationFileFormat.JSON, ViolationFileFormat.detect(json));
+        List<ParkingViolation> fromJson = new ParkingViolationJSONReader(json).readData();
+        assertEquals(csv.size(), fromJson.size());
+        assertEquals(csv.get(0).toString(), fromJson.get(0).toString());
+
+        Map<Integer, Integer> populations = new PopulationFileReader(gzip("population.txt", "population.txt.gz")).readData();
+        assertEquals(new PopulationFileReader("population.txt").readData(), populations);
+
+        String properties = gzip("market_value,total_livable_area,zip_code\n100000,1000,19104\n".getBytes(),
+                "properties.csv.gz");
+        List<House> houses = new HousingReader(properties).readData();
+        assertEquals(1, houses.size());
+    }
+
+    /**
+     * Test case 4: A truncated file fails with an IOException, and closing early does not hang
+     */
+    @Test
+    public void testTruncatedAndClosedEarly() throws Exception {
+        String file = gzip("parking.csv", "parking.csv.gz");
+        byte[] compressed = Files.readAllBytes(Paths.get(file));
+        Path truncated = tempDir.resolve("truncated.csv.gz");
+        Files.write(truncated, Arrays.copyOf(compressed, compressed.length / 2));
+
+        assertThrows(IOException.class, () -> new ParkingViolationCSVReader(truncated.toString()).readData());
+
+        InputStream in = InputStreams.open(file);
+        assertTrue(in.read() >= 0);
+        in.close();
+        assertThrows(IOException.class, in::read);
+    }
+
+    /**
+     * Test case 5: A source that fails with a RuntimeException or an Error wakes the reader with that failure
+     */
+    @Test
+    public void testSourceFailuresReachReader() {
+        InputStream failing = InputStreams.inBackground(new InputStream() {
+            @Override
+            public int read() {
+                throw new IllegalStateException("broken source");
+            }
+        }, "failing");
+        InputStream dying = InputStreams.inBackground(new InputStream() {
+            @Override
+            public int read() {
+                throw new OutOfMemoryError("Java heap space");
+            }
+        }, "dying");
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            assertThrows(IllegalStateException.class, failing::read);
+            assertThrows(OutOfMemoryError.class, () -> dying.read(new byte[10]));
+        });
+    }
+}
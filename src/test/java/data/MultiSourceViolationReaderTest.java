@@ -0,0 +1,96 @@
+package data;
+
+import common.ParkingViolation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MultiSourceViolationReader and ViolationFileFormat.detect().
+ */
+public class MultiSourceViolationReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String writeFile(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content);
+        return file.toString();
+    }
+
+    /**
+     * Test case 1: The format is recognised from the content, not the file name
+     */
+    @Test
+    public void testDetectFormat() throws Exception {
+        assertEquals(ViolationFileFormat.JSON, ViolationFileFormat.detect(writeFile("a.txt", "\n  [{\"fine\":1}]")));
+        assertEquals(ViolationFileFormat.JSON, ViolationFileFormat.detect(writeFile("b.csv", "﻿[]")));
+        assertEquals(ViolationFileFormat.CSV,
+                ViolationFileFormat.detect(writeFile("c.json", "2013-04-03T15:15:00Z,36,X,1,PA,1,19104\n")));
+        assertEquals(ViolationFileFormat.CSV, ViolationFileFormat.detect(writeFile("d.csv", "")));
+    }
+
+    /**
+     * Test case 2: Mixed CSV and JSON files are merged in the order they were given
+     */
+    @Test
+    public void testMergesMixedFormats() throws Exception {
+        String january = writeFile("2013-01.csv",
+                "2013-01-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,1001,19104\n"
+                        + "2013-01-04T07:35:00Z,51,DOUBLE PARKED,1322731,PA,1002,19104\n");
+        String february = writeFile("2013-02.json",
+                "[{\"ticket_number\":2001,\"plate_id\":\"ABC123\",\"date\":\"2013-02-01T10:00:00Z\","
+                        + "\"zip_code\":\"19103\",\"violation\":\"METER EXPIRED\",\"fine\":41,\"state\":\"NJ\"}]");
+        String march = writeFile("2013-03.csv", "2013-03-01T00:00:00Z,26,BUS ONLY ZONE,DEF456,PA,3001,19107\n");
+
+        List<ParkingViolation> violations =
+                new MultiSourceViolationReader(Arrays.asList(january, february, march), 3).readData();
+
+        assertEquals(4, violations.size());
+        assertEquals("1001", violations.get(0).getTicket_number());
+        assertEquals("1002", violations.get(1).getTicket_number());
+        assertEquals("2001", violations.get(2).getTicket_number());
+        assertEquals(19103, violations.get(2).getZip_code());
+        assertEquals("3001", violations.get(3).getTicket_number());
+    }
+
+    /**
+     * Test case 3: The sample CSV and JSON files read together give both files' violations
+     */
+    @Test
+    public void testSampleFilesTogether() throws Exception {
+        List<ParkingViolation> csv = new ParkingViolationCSVReader("parking.csv").readData();
+        List<ParkingViolation> json = new ParkingViolationJSONReader("parking.json").readData();
+
+        List<ParkingViolation> merged =
+                new MultiSourceViolationReader(Arrays.asList("parking.csv", "parking.json")).readData();
+
+        assertEquals(csv.size() + json.size(), merged.size());
+        assertEquals(csv.get(0).getTicket_number(), merged.get(0).getTicket_number());
+        assertEquals(json.get(0).getTicket_number(), merged.get(csv.size()).getTicket_number());
+        // The two samples hold the same tickets, so deduplicating leaves one copy
+        assertEquals(csv.size(), TicketDeduplicator.deduplicate(merged).size());
+    }
+
+    /**
+     * Test case 4: A failing file fails the whole read with its own error
+     */
+    @Test
+    public void testMissingFile() throws Exception {
+        String good = writeFile("good.csv", "2013-01-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,1001,19104\n");
+        MultiSourceViolationReader reader =
+                new MultiSourceViolationReader(Arrays.asList(good, tempDir.resolve("missing.csv").toString()));
+
+        assertThrows(IOException.class, reader::readData);
+        assertThrows(IllegalArgumentException.class, () -> new MultiSourceViolationReader(Collections.emptyList()));
+    }
+}
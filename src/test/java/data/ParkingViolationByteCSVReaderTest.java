@@ -0,0 +1,131 @@
+package data;
+
+import common.ParkingViolation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ParkingViolationByteCSVReader.
+ */
+public class ParkingViolationByteCSVReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String writeFile(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content);
+        return file.toString();
+    }
+
+    private static void assertSameAsCSVReader(String file) throws IOException {
+        List<ParkingViolation> expected = new ParkingViolationCSVReader(file).readData();
+        List<ParkingViolation> actual = new ParkingViolationByteCSVReader(file).readData();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+    }
+
+    /**
+     * Test case 1: Same violations, in the same order, as ParkingViolationCSVReader on the sample file
+     */
+    @Test
+    public void testMatchesCSVReader() throws Exception {
+        assertSameAsCSVReader("parking.csv");
+    }
+
+    /**
+     * Test case 2: Odd rows are read exactly like the String-based reader reads them
+     */
+    @Test
+    public void testEdgeCases() throws Exception {
+        String file = writeFile("odd.csv",
+                "2013-04-03T15:15:00Z, 36 ,METER EXPIRED CC,1322731,PA,2905938,19104\r\n"
+                        + "   \n"
+                        + "2013-04-03T07:35:00Z,51,DOUBLE PARKED,,PA,T002,\n"
+                        + "bad date,-5,DOUBLE PARKED,ÉCOLE1,QC,007,1910x\n"
+                        + "2013-04-03T07:35:00Z,51,DOUBLE PARKED,ABC,PA,2905940,,extra\n"
+                        + "2013-04-03T07:35:00Z,51,DOUBLE PARKED,ABC,PA,2905941,19104,,,\n"
+                        + "2013-04-03T07:35:00Z,51,DOUBLE PARKED,ABC,PA,2905942");
+        assertSameAsCSVReader(file);
+
+        List<ParkingViolation> violations = new ParkingViolationByteCSVReader(file).readData();
+        assertEquals(36, violations.get(0).getFine());
+        assertEquals("T002", violations.get(1).getTicket_number());
+        assertNull(violations.get(1).getZip_code());
+        assertEquals("bad date", violations.get(2).getDate());
+        assertEquals("007", violations.get(2).getTicket_number());
+        assertNull(violations.get(2).getZip_code());
+    }
+
+    /**
+     * Test case 3: Repeated text values share one String instance
+     */
+    @Test
+    public void testDictionarySharesStrings() throws Exception {
+        List<ParkingViolation> violations = new ParkingViolationByteCSVReader("parking.csv").readData();
+
+        assertEquals(violations.get(0).getPlate_id(), violations.get(1).getPlate_id());
+        assertSame(violations.get(0).getPlate_id(), violations.get(1).getPlate_id());
+        assertSame(violations.get(0).getState(), violations.get(1).getState());
+        assertSame(violations.get(0).getZip_code(), violations.get(1).getZip_code());
+    }
+
+    /**
+     * Test case 4: Malformed rows are rejected like ParkingViolationCSVReader does, and gzip input works
+     */
+    @Test
+    public void testMalformedRowsAndGzip() throws Exception {
+        String file = writeFile("bad.csv", "2013-04-03T15:15:00Z,abc,METER EXPIRED CC,1322731,PA,2905938,19104\n"
+                + "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA\n"
+                + "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905939,19104\n");
+        ParkingViolationByteCSVReader reader = new ParkingViolationByteCSVReader(file);
+        IngestReport expected = new IngestReport("bad.csv");
+        new ParkingViolationCSVReader(file, expected).readData();
+
+        assertEquals(1, reader.readData().size());
+        assertEquals(expected.getRejectedByReason(), reader.getIngestReport().getRejectedByReason());
+        assertEquals(1, reader.getIngestReport().getRejected(RejectReason.BAD_FINE));
+        assertEquals(1, reader.getIngestReport().getRejected(RejectReason.TOO_FEW_FIELDS));
+
+        Path compressed = tempDir.resolve("parking.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            Files.copy(Paths.get("parking.csv"), out);
+        }
+        assertEquals(new ParkingViolationCSVReader("parking.csv").readData().size(),
+                new ParkingViolationByteCSVReader(compressed.toString()).readData().size());
+    }
+
+    /**
+     * Test case 5: The byte-csv format reads through this reader into the caller's report, like csv does
+     */
+    @Test
+    public void testByteCsvFormat() throws Exception {
+        String file = writeFile("format.csv", "2013-04-03T15:15:00Z,abc,METER EXPIRED CC,1322731,PA,2905938,19104\n"
+                + "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905939,19104\n");
+        ViolationFileFormat format = ViolationFileFormat.forName("byte-csv");
+        IngestReport csvReport = new IngestReport("csv");
+        IngestReport byteReport = new IngestReport("byte-csv");
+
+        List<ParkingViolation> expected = ViolationFileFormat.CSV.reader(file, csvReport).readData();
+        List<ParkingViolation> actual = format.reader(file, byteReport).readData();
+
+        assertEquals(ViolationFileFormat.BYTE_CSV, format);
+        assertTrue(format.isCsv());
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(csvReport.getAccepted(), byteReport.getAccepted());
+        assertEquals(csvReport.getRejectedByReason(), byteReport.getRejectedByReason());
+        assertEquals(ViolationFileFormat.CSV, ViolationFileFormat.detect(file));
+    }
+}
@@ -0,0 +1,145 @@
+package data;
+
+import common.ParkingViolation;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ParkingViolationNDJSONReader and NDJSONConverter.
+ */
+public class ParkingViolationNDJSONReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String writeFile(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content);
+        return file.toString();
+    }
+
+    /**
+     * Test case 1: One object per line, blank lines skipped, fields read like the JSON array format
+     */
+    @Test
+    public void testReadsLines() throws Exception {
+        String file = writeFile("parking.ndjson",
+                "{\"ticket_number\":2905938,\"plate_id\":\"1322731\",\"date\":\"2013-04-03T15:15:00Z\","
+                        + "\"zip_code\":\"19104\",\"violation\":\"METER EXPIRED CC\",\"fine\":36,\"state\":\"PA\"}\n"
+                        + "\n"
+                        + "{\"ticket_number\":\"T002\",\"plate_id\":\"ABC123\",\"date\":\"2013-04-03T07:35:00Z\","
+                        + "\"zip_code\":\"bad\",\"violation\":\"DOUBLE PARKED\",\"fine\":\"51\",\"state\":\"NJ\"}\n");
+
+        List<ParkingViolation> violations = new ParkingViolationNDJSONReader(file, 2).readData();
+
+        assertEquals(2, violations.size());
+        assertEquals("2905938", violations.get(0).getTicket_number());
+        assertEquals(19104, violations.get(0).getZip_code());
+        assertEquals(36, violations.get(0).getFine());
+        assertEquals("T002", violations.get(1).getTicket_number());
+        assertNull(violations.get(1).getZip_code());
+        assertEquals(51, violations.get(1).getFine());
+        assertEquals(ViolationFileFormat.NDJSON, ViolationFileFormat.detect(file));
+    }
+
+    /**
+     * Test case 2: Lines that are not ticket objects are skipped and counted
+     */
+    @Test
+    public void testBadLine() throws Exception {
+        String file = writeFile("bad.ndjson", "{\"fine\":36}\n[1, 2]\n{\"fine\":\n{\"fine\":\"abc\"}\n{\"fine\":51}\n");
+        ParkingViolationNDJSONReader reader = new ParkingViolationNDJSONReader(file, 2);
+
+        List<ParkingViolation> violations = reader.readData();
+
+        assertEquals(2, violations.size());
+        assertEquals(51, violations.get(1).getFine());
+        IngestReport report = reader.getIngestReport();
+        assertEquals(2, report.getAccepted());
+        assertEquals(1, report.getRejected(RejectReason.NOT_AN_OBJECT));
+        assertEquals(1, report.getRejected(RejectReason.MALFORMED_JSON));
+        assertEquals(1, report.getRejected(RejectReason.BAD_FINE));
+    }
+
+    /**
+     * Test case 3: Non-string text fields are read as written or rejected; whole-number fines are read;
+     * a JSON file that is not an array fails to read
+     */
+    @Test
+    public void testFieldTypes() throws Exception {
+        String file = writeFile("types.ndjson",
+                "{\"ticket_number\":1,\"date\":20130403,\"violation\":true,\"state\":\"PA\",\"fine\":36}\n"
+                        + "{\"ticket_number\":2,\"date\":{\"day\":3},\"fine\":36}\n"
+                        + "{\"ticket_number\":3,\"state\":[\"PA\"],\"fine\":36}\n"
+                        + "{\"ticket_number\":4,\"fine\":50.7}\n"
+                        + "{\"ticket_number\":6,\"fine\":36.0}\n"
+                        + "{\"ticket_number\":7,\"fine\":\"36.0\"}\n"
+                        + "{\"ticket_number\":5,\"fine\":3000000000}\n");
+        ParkingViolationNDJSONReader reader = new ParkingViolationNDJSONReader(file, 2);
+
+        List<ParkingViolation> violations = reader.readData();
+
+        assertEquals(2, violations.size());
+        assertEquals("20130403", violations.get(0).getDate());
+        assertEquals("true", violations.get(0).getViolation());
+        assertEquals(36, violations.get(0).getFine());
+        assertEquals("6", violations.get(1).getTicket_number());
+        assertEquals(36, violations.get(1).getFine());
+        assertEquals(2, reader.getIngestReport().getRejected(RejectReason.NOT_TEXT));
+        assertEquals(3, reader.getIngestReport().getRejected(RejectReason.BAD_FINE));
+
+        String object = writeFile("object.json", "{\"ticket_number\":1}");
+        IOException error = assertThrows(IOException.class, () -> new ParkingViolationJSONReader(object).readData());
+        assertTrue(error.getMessage().contains("not a JSON array"), error.getMessage());
+    }
+
+    /**
+     * Test case 4: The converted sample parking.json reads back the same, in order, across many batches
+     */
+    @Test
+    public void testConvertedSampleMatchesJSONReader() throws Exception {
+        String ndjson = tempDir.resolve("parking.ndjson").toString();
+        int written = NDJSONConverter.convert("parking.json", ndjson);
+
+        List<ParkingViolation> expected = new ParkingViolationJSONReader("parking.json").readData();
+        List<ParkingViolation> actual = new ParkingViolationNDJSONReader(ndjson, 4).readData();
+
+        assertEquals(expected.size(), written);
+        assertTrue(written > ParkingViolationNDJSONReader.BATCH_LINES * 2);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+    }
+
+    /**
+     * Test case 5: The converter streams nested values through and refuses anything but an array of objects
+     */
+    @Test
+    public void testConverterStreamsObjects() throws Exception {
+        String input = writeFile("nested.json", "[{\"plate_id\":\"X\",\"extra\":{\"tags\":[1,[2,\"b\"],null]}},\n{\"fine\":36}]");
+        String output = tempDir.resolve("nested.ndjson").toString();
+
+        assertEquals(2, NDJSONConverter.convert(input, output));
+        List<String> lines = Files.readAllLines(Path.of(output), StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        JSONParser parser = new JSONParser();
+        assertEquals(parser.parse("{\"plate_id\":\"X\",\"extra\":{\"tags\":[1,[2,\"b\"],null]}}"), parser.parse(lines.get(0)));
+        assertEquals(parser.parse("{\"fine\":36}"), parser.parse(lines.get(1)));
+
+        assertThrows(ParseException.class,
+                () -> NDJSONConverter.convert(writeFile("mixed.json", "[{\"fine\":36}, 5]"), output));
+        assertThrows(ParseException.class,
+                () -> NDJSONConverter.convert(writeFile("object.json", "{\"fine\":36}"), output));
+    }
+}
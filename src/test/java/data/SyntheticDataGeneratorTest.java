@@ -0,0 +1,151 @@
+package data;
+
+import common.House;
+import common.ParkingViolation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SyntheticDataGenerator: determinism, and files the readers can load.
+ */
+public class SyntheticDataGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String file(String name) {
+        return tempDir.resolve(name).toString();
+    }
+
+    /**
+     * Test case 1: The same seed writes the same bytes; another seed does not
+     */
+    @Test
+    public void testSeedIsDeterministic() throws Exception {
+        new SyntheticDataGenerator(7).writeViolations(ViolationFileFormat.CSV, 2000, file("a.csv"));
+        new SyntheticDataGenerator(7).writeViolations(ViolationFileFormat.CSV, 2000, file("b.csv"));
+        new SyntheticDataGenerator(8).writeViolations(ViolationFileFormat.CSV, 2000, file("c.csv"));
+        new SyntheticDataGenerator(7).writeProperties(500, file("a-props.csv"));
+        new SyntheticDataGenerator(7).writeProperties(500, file("b-props.csv"));
+
+        assertArrayEquals(Files.readAllBytes(Path.of(file("a.csv"))), Files.readAllBytes(Path.of(file("b.csv"))));
+        assertFalse(Files.readString(Path.of(file("a.csv"))).equals(Files.readString(Path.of(file("c.csv")))));
+        assertEquals(Files.readString(Path.of(file("a-props.csv"))), Files.readString(Path.of(file("b-props.csv"))));
+    }
+
+    /**
+     * Test case 2: CSV, JSON and NDJSON hold the same clean tickets, and gzip output reads back
+     */
+    @Test
+    public void testViolationFormatsMatch() throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(1, 0);
+        generator.writeViolations(ViolationFileFormat.CSV, 3000, file("v.csv"));
+        generator.writeViolations(ViolationFileFormat.JSON, 3000, file("v.json"));
+        generator.writeViolations(ViolationFileFormat.NDJSON, 3000, file("v.ndjson.gz"));
+
+        List<ParkingViolation> csv = new ParkingViolationCSVReader(file("v.csv")).readData();
+        List<ParkingViolation> json = new ParkingViolationJSONReader(file("v.json")).readData();
+        List<ParkingViolation> ndjson = new ParkingViolationNDJSONReader(file("v.ndjson.gz")).readData();
+
+        assertEquals(3000, csv.size());
+        assertEquals(3000, json.size());
+        assertEquals(3000, ndjson.size());
+        for (int i = 0; i < csv.size(); i++) {
+            assertEquals(csv.get(i).getTicketNumber(), json.get(i).getTicketNumber());
+            assertEquals(csv.get(i).getTimestamp(), ndjson.get(i).getTimestamp());
+            assertEquals(csv.get(i).getZip_code(), json.get(i).getZip_code());
+            assertEquals(csv.get(i).getFine(), ndjson.get(i).getFine());
+            assertEquals(csv.get(i).getPlate_id(), json.get(i).getPlate_id());
+        }
+        assertEquals(ViolationFileFormat.JSON, ViolationFileFormat.detect(file("v.json")));
+        assertEquals(ViolationFileFormat.NDJSON, ViolationFileFormat.detect(file("v.ndjson.gz")));
+    }
+
+    /**
+     * Test case 3: Violation types, states and missing ZIP codes follow the sample's frequencies
+     */
+    @Test
+    public void testViolationDistributions() throws Exception {
+        new SyntheticDataGenerator(3, 0).writeViolations(ViolationFileFormat.CSV, 50000, file("v.csv"));
+        List<ParkingViolation> violations = new ParkingViolationCSVReader(file("v.csv")).readData();
+
+        Map<String, Integer> types = new HashMap<>();
+        int pennsylvania = 0;
+        int missingZip = 0;
+        for (ParkingViolation violation : violations) {
+            types.merge(violation.getViolation(), 1, Integer::sum);
+            pennsylvania += "PA".equals(violation.getState()) ? 1 : 0;
+            missingZip += violation.getZip_code() == null ? 1 : 0;
+        }
+        String mostCommon = types.entrySet().stream().max(Map.Entry.comparingByValue()).get().getKey();
+        assertEquals("METER EXPIRED CC", mostCommon);
+        assertEquals(0.83, pennsylvania / 50000.0, 0.02);
+        assertEquals(0.2, missingZip / 50000.0, 0.02);
+    }
+
+    /**
+     * Test case 4: Dirty violation rows are rejected by the reader, clean ones kept
+     */
+    @Test
+    public void testDirtyViolations() throws Exception {
+        new SyntheticDataGenerator(5, 0.3).writeViolations(ViolationFileFormat.CSV, 5000, file("v.csv"));
+        IngestReport report = new IngestReport("v.csv");
+
+        List<ParkingViolation> violations = new ParkingViolationCSVReader(file("v.csv"), report).readData();
+
+        assertEquals(5000, report.getAccepted() + report.getRejected());
+        assertTrue(report.getRejected(RejectReason.BAD_FINE) > 300, report.toString());
+        assertTrue(report.getRejected(RejectReason.TOO_FEW_FIELDS) > 300, report.toString());
+        assertEquals(report.getAccepted(), violations.size());
+    }
+
+    /**
+     * Test case 5: The wide, quoted property file loads, and only dirty rows lose their ZIP code
+     */
+    @Test
+    public void testPropertiesLoad() throws Exception {
+        new SyntheticDataGenerator(9, 0).writeProperties(4000, file("clean.csv"));
+        new SyntheticDataGenerator(9, 0.5).writeProperties(4000, file("dirty.csv"));
+
+        HousingReader clean = new HousingReader(file("clean.csv"));
+        List<House> houses = clean.readData();
+        assertEquals(4000, houses.size());
+        assertEquals(0, clean.getIngestReport().getRejected());
+        assertTrue(Files.readString(Path.of(file("clean.csv"))).contains(", "), "expected quoted commas");
+        for (House house : houses) {
+            assertTrue(house.getZip_code() >= 19102 && house.getZip_code() <= 19154, house.toString());
+            assertTrue(house.getMarket_value() > 0);
+        }
+
+        HousingReader dirty = new HousingReader(file("dirty.csv"));
+        List<House> dirtyHouses = dirty.readData();
+        long rejected = dirty.getIngestReport().getRejected(RejectReason.BAD_ZIP_CODE);
+        assertTrue(rejected > 400 && rejected < 1000, dirty.getIngestReport().toString());
+        assertEquals(4000 - rejected, dirtyHouses.size());
+        assertTrue(dirtyHouses.stream().anyMatch(house -> house.getMarket_value() == null));
+    }
+
+    /**
+     * Test case 6: Population files start with the Philadelphia ZIP codes and never repeat one
+     */
+    @Test
+    public void testPopulation() throws Exception {
+        new SyntheticDataGenerator().writePopulation(48, file("small.txt"));
+        new SyntheticDataGenerator().writePopulation(5000, file("large.txt"));
+
+        assertEquals(new PopulationFileReader("population.txt").readData(),
+                new PopulationFileReader(file("small.txt")).readData());
+        assertEquals(5000, new PopulationFileReader(file("large.txt")).readData().size());
+        assertThrows(IllegalArgumentException.class,
+                () -> new SyntheticDataGenerator().writePopulation(100_001, file("too-many.txt")));
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticDataGenerator(1, 1.5));
+    }
+}
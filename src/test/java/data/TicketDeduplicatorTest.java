@@ -0,0 +1,89 @@
+package data;
+
+import common.ParkingViolation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TicketDeduplicator.
+ */
+public class TicketDeduplicatorTest {
+
+    private static ParkingViolation ticket(String ticketNumber, String plate) {
+        return new ParkingViolation(ticketNumber, plate, "2013-04-03T15:15:00Z", 19104, "METER EXPIRED CC", 36, "PA");
+    }
+
+    /**
+     * Test case 1: The first violation of each ticket number is kept, in order
+     */
+    @Test
+    public void testKeepsFirstOccurrence() {
+        List<ParkingViolation> violations = new ArrayList<>();
+        violations.add(ticket("2905938", "FIRST"));
+        violations.add(ticket("2905939", "OTHER"));
+        violations.add(ticket("2905938", "REPEAT"));
+        violations.add(ticket("T001", "FIRST"));
+        violations.add(ticket("T001", "REPEAT"));
+        violations.add(ticket(null, "NONE"));
+        violations.add(ticket(null, "NONE"));
+        violations.add(null);
+
+        TicketDeduplicator deduplicator = new TicketDeduplicator(violations.size());
+        deduplicator.addAll(violations);
+        List<ParkingViolation> result = deduplicator.finish();
+
+        assertEquals(6, result.size());
+        assertEquals("FIRST", result.get(0).getPlate_id());
+        assertEquals("OTHER", result.get(1).getPlate_id());
+        assertEquals("FIRST", result.get(2).getPlate_id());
+        assertEquals("T001", result.get(2).getTicket_number());
+        assertNull(result.get(5));
+        assertEquals(2, deduplicator.getDuplicateCount());
+        assertThrows(IllegalStateException.class, () -> deduplicator.add(ticket("1", "LATE")));
+    }
+
+    /**
+     * Test case 2: An undersized filter gives many false positives, but the result is still exact
+     */
+    @Test
+    public void testFalsePositivesAreReadmitted() {
+        List<ParkingViolation> violations = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            violations.add(ticket(Integer.toString(1_000_000 + i), "P" + i));
+        }
+        for (int i = 0; i < 5_000; i += 10) {
+            violations.add(ticket(Integer.toString(1_000_000 + i), "REPEAT"));
+        }
+
+        TicketDeduplicator deduplicator = new TicketDeduplicator(100);
+        deduplicator.addAll(violations);
+        List<ParkingViolation> result = deduplicator.finish();
+
+        assertEquals(5_000, result.size());
+        assertEquals(500, deduplicator.getDuplicateCount());
+        assertTrue(deduplicator.getFalsePositiveCount() > 0);
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals("P" + i, result.get(i).getPlate_id());
+        }
+    }
+
+    /**
+     * Test case 3: Reading the sample parking.csv twice keeps one copy of each ticket
+     */
+    @Test
+    public void testSampleDataReadTwice() throws Exception {
+        List<ParkingViolation> once = new ParkingViolationCSVReader("parking.csv").readData();
+        List<ParkingViolation> twice = new ArrayList<>(once);
+        twice.addAll(new ParkingViolationCSVReader("parking.csv").readData());
+
+        List<ParkingViolation> unique = TicketDeduplicator.deduplicate(once);
+        assertEquals(once.size(), unique.size());
+        List<ParkingViolation> result = TicketDeduplicator.deduplicate(twice);
+        assertEquals(once.size(), result.size());
+        assertSame(once.get(once.size() - 1), result.get(result.size() - 1));
+    }
+}
@@ -0,0 +1,172 @@
+package data;
+
+import common.ParkingViolation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ViolationIngestPipeline.
+ */
+public class ViolationIngestPipelineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String writeFile(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content);
+        return file.toString();
+    }
+
+    /**
+     * Test case 1: Same violations, in the same order, as ParkingViolationCSVReader on the sample file
+     */
+    @Test
+    public void testMatchesCSVReader() throws Exception {
+        List<ParkingViolation> expected = new ParkingViolationCSVReader("parking.csv").readData();
+        // A one-block queue forces the stages to wait on each other
+        ViolationIngestPipeline pipeline = new ViolationIngestPipeline("parking.csv", 3, 1);
+        List<ParkingViolation> actual = pipeline.readData();
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+
+        List<IngestStageMetrics> metrics = pipeline.getMetrics();
+        assertEquals(3, metrics.size());
+        assertEquals(Files.size(Path.of("parking.csv")), metrics.get(0).getBytes());
+        assertTrue(metrics.get(0).getItems() > 1);
+        assertEquals(expected.size(), metrics.get(1).getItems());
+        assertEquals(expected.size(), metrics.get(2).getItems());
+        assertTrue(metrics.get(1).getMaxQueueDepth() <= 1);
+        assertEquals(3, pipeline.getReport().split(System.lineSeparator()).length);
+    }
+
+    /**
+     * Test case 2: Blank lines, CRLF line ends and a missing final line break
+     */
+    @Test
+    public void testLineEndings() throws Exception {
+        String file = writeFile("parking.csv",
+                "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905938,19104\r\n"
+                        + "\r\n"
+                        + "2013-04-03T07:35:00Z,51,DOUBLE PARKED,1322731,PA,2905939,19103");
+
+        List<ParkingViolation> violations = new ViolationIngestPipeline(file, 2, 2).readData();
+
+        assertEquals(2, violations.size());
+        assertEquals(19104, violations.get(0).getZip_code());
+        assertEquals(19103, violations.get(1).getZip_code());
+    }
+
+    /**
+     * Test case 3: The sink sees violations in file order, and a failing sink stops the run
+     */
+    @Test
+    public void testSink() throws Exception {
+        List<String> tickets = new ArrayList<>();
+        new ViolationIngestPipeline("parking.csv", 4, 2).run(violation -> tickets.add(violation.getTicket_number()));
+        assertEquals("2905938", tickets.get(0));
+        assertEquals(new ParkingViolationCSVReader("parking.csv").readData().size(), tickets.size());
+
+        ViolationIngestPipeline pipeline = new ViolationIngestPipeline("parking.csv", 2, 1);
+        assertThrows(IllegalStateException.class, () -> pipeline.run(violation -> {
+            throw new IllegalStateException("full");
+        }));
+    }
+
+    /**
+     * Test case 4: Malformed rows are rejected with their line numbers; missing files fail the run
+     */
+    @Test
+    public void testFailures() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            if (i == 3 || i == 15000) {
+                csv.append("2013-04-03T15:15:00Z,abc,METER EXPIRED CC,1322731,PA,2905938,19104\n");
+            } else {
+                csv.append("2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,").append(i).append(",19104\n");
+            }
+        }
+        String file = writeFile("bad.csv", csv.toString());
+        Path rejects = tempDir.resolve("rejects.tsv");
+
+        List<ParkingViolation> violations;
+        try (IngestReport report = new IngestReport("bad.csv", rejects)) {
+            // Small blocks come from many parser tasks; line numbers must still be file-wide
+            violations = new ViolationIngestPipeline(file, 4, 2, report).readData();
+            assertEquals(19998, report.getAccepted());
+            assertEquals(2, report.getRejected(RejectReason.BAD_FINE));
+        }
+        assertEquals(19998, violations.size());
+        List<String> lines = Files.readAllLines(rejects);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("4\tBAD_FINE\t"), lines.get(0));
+        assertTrue(lines.get(1).startsWith("15001\tBAD_FINE\t"), lines.get(1));
+
+        assertThrows(IOException.class,
+                () -> new ViolationIngestPipeline(tempDir.resolve("missing.csv").toString()).readData());
+    }
+
+    /**
+     * Test case 5: A line longer than MAX_LINE_BYTES is rejected and skipped; the rows around it are read
+     */
+    @Test
+    public void testLineTooLong() throws Exception {
+        String row = "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905938,19104\n";
+        StringBuilder csv = new StringBuilder(row);
+        for (int i = 0; i < ViolationIngestPipeline.MAX_LINE_BYTES + 1000; i++) {
+            csv.append('x');
+        }
+        csv.append('\n').append(row).append(row);
+        String file = writeFile("long.csv", csv.toString());
+        Path rejects = tempDir.resolve("rejects.tsv");
+
+        List<ParkingViolation> violations;
+        try (IngestReport report = new IngestReport("long.csv", rejects)) {
+            violations = new ViolationIngestPipeline(file, 2, 2, report).readData();
+            assertEquals(1, report.getRejected(RejectReason.LINE_TOO_LONG));
+        }
+        assertEquals(3, violations.size());
+        assertTrue(Files.readAllLines(rejects).get(0).startsWith("2\tLINE_TOO_LONG\txxx"));
+
+        // No line break at all
+        String unbroken = writeFile("unbroken.csv", "x".repeat(ViolationIngestPipeline.MAX_LINE_BYTES * 3));
+        ViolationIngestPipeline pipeline = new ViolationIngestPipeline(unbroken, 2, 2);
+        assertTrue(pipeline.readData().isEmpty());
+        assertEquals(1, pipeline.getIngestReport().getRejected(RejectReason.LINE_TOO_LONG));
+    }
+
+    /**
+     * Test case 6: An Error in the read stage ends the run with that Error instead of hanging it
+     */
+    @Test
+    public void testErrorInStage() throws Exception {
+        String file = writeFile("ok.csv", "2013-04-03T15:15:00Z,36,METER EXPIRED CC,1322731,PA,2905938,19104\n");
+        ViolationIngestPipeline pipeline = new ViolationIngestPipeline(file, 3, 1) {
+            @Override
+            InputStream open() {
+                return new InputStream() {
+                    @Override
+                    public int read() {
+                        throw new OutOfMemoryError("Java heap space");
+                    }
+                };
+            }
+        };
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(OutOfMemoryError.class, pipeline::readData));
+    }
+}
@@ -0,0 +1,137 @@
+package loadtest;
+
+import common.House;
+import common.ParkingViolation;
+import data.HousingReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import processor.HousingProcessor;
+import processor.MenuQuery;
+import processor.ParkingViolationProcessor;
+import processor.PopulationProcessor;
+import processor.QueryExecutor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for QueryMix, QueryExecutor and short QueryLoadTest runs.
+ */
+public class QueryLoadTestTest {
+
+    private static final int[] ZIP_CODES = {19103, 19104};
+
+    private HousingProcessor housingProcessor;
+    private QueryExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        List<House> houses = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            houses.add(new House(ZIP_CODES[i % 2], 1000 * i, 10 * i));
+        }
+        Map<Integer, Integer> populations = new HashMap<>();
+        populations.put(19103, 100);
+        populations.put(19104, 200);
+        List<ParkingViolation> violations = new ArrayList<>();
+        violations.add(new ParkingViolation("T001", "ABC123", "2013-05-20T09:00:00Z", 19104, "METER EXPIRED", 36, "PA"));
+        violations.add(new ParkingViolation("T002", "DEF456", "2013-05-20T09:00:00Z", 19103, "DOUBLE PARKED", 51, "PA"));
+
+        HousingProcessor.resetInstance();
+        housingProcessor = HousingProcessor.getInstance(new HousingReader("unused.csv") {
+            @Override
+            public List<House> readData() {
+                return houses;
+            }
+        }, () -> populations);
+        executor = new QueryExecutor(new ParkingViolationProcessor(violations, populations),
+                new PopulationProcessor<>(populations), housingProcessor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        HousingProcessor.resetInstance();
+    }
+
+    /**
+     * Test case 1: Mixes parse, print back and pick queries in proportion to their weights
+     */
+    @Test
+    public void testQueryMix() {
+        QueryMix mix = QueryMix.parse("3=3, 7=1");
+        assertEquals("3=3,7=1", mix.toString());
+
+        SplittableRandom random = new SplittableRandom(1);
+        int averages = 0;
+        for (int i = 0; i < 40_000; i++) {
+            MenuQuery query = mix.next(random);
+            assertTrue(query == MenuQuery.AVERAGE_MARKET_VALUE || query == MenuQuery.MOST_COMMON_VIOLATION);
+            averages += query == MenuQuery.AVERAGE_MARKET_VALUE ? 1 : 0;
+        }
+        assertEquals(0.75, averages / 40_000.0, 0.02);
+        assertEquals(7, QueryMix.uniform().getWeights().size());
+        assertThrows(IllegalArgumentException.class, () -> QueryMix.parse("8=1"));
+        assertThrows(IllegalArgumentException.class, () -> QueryMix.parse("3=0"));
+        assertThrows(IllegalArgumentException.class, () -> QueryMix.parse("3"));
+        assertThrows(IllegalArgumentException.class, () -> QueryMix.parse(""));
+    }
+
+    /**
+     * Test case 2: The executor answers every menu option like the processors do
+     */
+    @Test
+    public void testExecutor() {
+        assertEquals(300, executor.execute(MenuQuery.TOTAL_POPULATION, 0));
+        assertEquals(0.18, (Double) ((Map<?, ?>) executor.execute(MenuQuery.FINES_PER_CAPITA, 0)).get(19104), 1e-9);
+        assertEquals(housingProcessor.getAverageMarketValue(19104), executor.execute(MenuQuery.AVERAGE_MARKET_VALUE, 19104));
+        assertEquals(housingProcessor.getAverageLivableArea(19103), executor.execute(MenuQuery.AVERAGE_LIVABLE_AREA, 19103));
+        assertEquals(housingProcessor.getMarketValuePerCapita(19104), executor.execute(MenuQuery.MARKET_VALUE_PER_CAPITA, 19104));
+        assertSame(housingProcessor.getPropertyValueSummary(19104), executor.execute(MenuQuery.PROPERTY_VALUE_SUMMARY, 19104));
+        assertEquals("DOUBLE PARKED", executor.execute(MenuQuery.MOST_COMMON_VIOLATION, 19103));
+        assertEquals(MenuQuery.PROPERTY_VALUE_SUMMARY, MenuQuery.forOption(6));
+    }
+
+    /**
+     * Test case 3: A short run from several threads records every query and counts cache hits
+     */
+    @Test
+    public void testRun() throws Exception {
+        QueryLoadTest loadTest = new QueryLoadTest(executor, ZIP_CODES, QueryMix.uniform(), 4);
+
+        LoadTestResult result = loadTest.run(300, housingProcessor, 0);
+
+        assertTrue(result.getQueryCount() > 100, result.toString());
+        assertEquals(0, result.getErrors());
+        long perQuery = 0;
+        for (MenuQuery query : MenuQuery.values()) {
+            perQuery += result.getLatency(query).getCount();
+        }
+        assertEquals(result.getQueryCount(), perQuery);
+        assertTrue(result.getThroughput() > 0);
+        // Only 2 ZIP codes x 4 cached queries; everything after the first misses is a hit
+        assertTrue(result.getCacheHitRatio() > 0.9, result.toString());
+        assertTrue(result.toString().contains("p999"));
+    }
+
+    /**
+     * Test case 4: Clearing the cache while threads read it causes misses but no errors
+     */
+    @Test
+    public void testRunWithCacheClears() throws Exception {
+        QueryLoadTest loadTest = new QueryLoadTest(executor, ZIP_CODES, QueryMix.parse("3=1,4=1,5=1,6=1"), 4);
+
+        LoadTestResult result = loadTest.run(400, housingProcessor, 5);
+
+        assertEquals(0, result.getErrors());
+        assertTrue(result.getCacheClears() > 10, result.toString());
+        assertTrue(result.getCacheMisses() > 8, result.toString());
+        assertThrows(IllegalArgumentException.class, () -> new QueryLoadTest(executor, new int[0], QueryMix.uniform(), 1));
+        assertThrows(IllegalArgumentException.class, () -> loadTest.run(0));
+    }
+}
@@ -0,0 +1,130 @@
+package metrics;
+
+import common.ParkingViolation;
+import data.CachingHousingReader;
+import data.CachingPopulationReader;
+import data.ParkingViolationCSVReader;
+import data.PopulationFileReader;
+import data.PopulationReader;
+import data.SyntheticDataGenerator;
+import data.ViolationFileFormat;
+import data.ViolationIngestPipeline;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import processor.HousingProcessor;
+import processor.ParkingViolationProcessor;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Flight Recorder events emitted while loading data and answering queries.
+ */
+public class FlightRecorderEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    public void tearDown() {
+        HousingProcessor.resetInstance();
+    }
+
+    private List<RecordedEvent> record(String eventName, RecordedWork work) throws Exception {
+        Path file = tempDir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName).withThreshold(Duration.ZERO);
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        // A recording also holds JFR's own bookkeeping events
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(eventName))
+                .collect(Collectors.toList());
+    }
+
+    private interface RecordedWork {
+        void run() throws Exception;
+    }
+
+    /**
+     * Test case 1: Without a recording no event is started
+     */
+    @Test
+    public void testOffWithoutRecording() {
+        assertNull(QueryEvent.begin(3, "getAverageMarketValue", 19104));
+        assertNull(IngestEvent.begin("load", "population.txt"));
+        QueryEvent.end(null, true);
+        IngestEvent.end(null, 1, 1);
+    }
+
+    /**
+     * Test case 2: Each menu query is recorded with its option, ZIP code and cache outcome
+     */
+    @Test
+    public void testQueryEvents() throws Exception {
+        String properties = tempDir.resolve("properties.csv").toString();
+        new SyntheticDataGenerator(4, 0).writeProperties(1000, properties);
+        PopulationReader populationReader = new CachingPopulationReader(new PopulationFileReader("population.txt"));
+        HousingProcessor.resetInstance();
+        HousingProcessor processor = HousingProcessor.getInstance(new CachingHousingReader(properties), populationReader);
+
+        List<RecordedEvent> events = record("COODProject.Query", () -> {
+            processor.getAverageMarketValue(19104);
+            processor.getAverageMarketValue(19104);
+            processor.getPropertyValueSummary(19103);
+        });
+
+        assertEquals(3, events.size());
+        RecordedEvent miss = events.get(0);
+        assertEquals(3, miss.getInt("option"));
+        assertEquals("getAverageMarketValue", miss.getString("query"));
+        assertEquals(19104, miss.getInt("zipCode"));
+        assertFalse(miss.getBoolean("cacheHit"));
+        assertTrue(events.get(1).getBoolean("cacheHit"));
+        assertEquals(6, events.get(2).getInt("option"));
+        assertTrue(miss.getDuration().toNanos() > 0);
+    }
+
+    /**
+     * Test case 3: Loading records each reader's load, the pipeline's blocks and the index build
+     */
+    @Test
+    public void testIngestEvents() throws Exception {
+        String violations = tempDir.resolve("violations.csv").toString();
+        new SyntheticDataGenerator(6, 0).writeViolations(ViolationFileFormat.CSV, 20000, violations);
+
+        List<RecordedEvent> events = record("COODProject.Ingest", () -> {
+            List<ParkingViolation> read = new ParkingViolationCSVReader(violations).readData();
+            new ViolationIngestPipeline(violations).readData();
+            new ParkingViolationProcessor(read, new PopulationFileReader("population.txt").readData());
+        });
+
+        Map<String, List<RecordedEvent>> byPhase = events.stream()
+                .collect(Collectors.groupingBy(event -> event.getString("phase")));
+        List<RecordedEvent> loads = byPhase.get("load");
+        long fileSize = new File(violations).length();
+        assertEquals(3, loads.size());
+        assertEquals(violations, loads.get(0).getString("source"));
+        assertEquals(20000, loads.get(0).getLong("rows"));
+        assertEquals(fileSize, loads.get(0).getLong("bytes"));
+        assertEquals(20000, loads.get(1).getLong("rows"));
+        assertEquals(48, loads.get(2).getLong("rows"));
+        assertEquals(fileSize,
+                byPhase.get("read").stream().mapToLong(event -> event.getLong("bytes")).sum());
+        assertEquals(20000, byPhase.get("parse").stream().mapToLong(event -> event.getLong("rows")).sum());
+        assertEquals(20000, byPhase.get("index").get(0).getLong("rows"));
+    }
+}
@@ -0,0 +1,108 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for LatencyHistogram.
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Test case 1: Buckets are contiguous and each value falls in a bucket within 1/64 of it
+     */
+    @Test
+    public void testBucketBoundaries() {
+        for (long value : new long[]{0, 1, 127, 128, 129, 130, 255, 256, 1_000, 999_999, 1L << 40, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(value);
+            long highest = LatencyHistogram.highestInBucket(bucket);
+            assertTrue(highest >= value, value + " -> " + highest);
+            assertTrue(highest - value <= value / 64, value + " -> " + highest);
+            if (bucket > 0) {
+                assertEquals(bucket - 1, LatencyHistogram.bucket(LatencyHistogram.highestInBucket(bucket - 1)));
+                assertEquals(bucket, LatencyHistogram.bucket(LatencyHistogram.highestInBucket(bucket - 1) + 1));
+            }
+        }
+    }
+
+    /**
+     * Test case 2: Percentiles match the exact values of a random sample within the precision
+     */
+    @Test
+    public void testPercentilesMatchSortedSample() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(1);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-uniform from 1 us to about 1 s
+            values[i] = (long) Math.exp(Math.log(1_000) + random.nextDouble() * Math.log(1_000_000));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long reported = histogram.getPercentile(percentile);
+            assertTrue(reported >= exact && reported <= exact + exact / 64, percentile + ": " + exact + " vs " + reported);
+        }
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(Arrays.stream(values).average().getAsDouble(), histogram.getMean(), 1e-6);
+    }
+
+    /**
+     * Test case 3: Empty histograms, negative values, reset and bad percentiles
+     */
+    @Test
+    public void testEdgeCases() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0.0, histogram.getMean());
+
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+        assertEquals(1, histogram.getCount());
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+        assertThrows(IllegalArgumentException.class, () -> histogram.add(null));
+        assertEquals("850ns", LatencyHistogram.format(850));
+        assertTrue(LatencyHistogram.format(4_560_000).endsWith("ms"));
+    }
+
+    /**
+     * Test case 4: Concurrent recording loses nothing, and add() merges histograms
+     */
+    @Test
+    public void testConcurrentRecordAndMerge() throws Exception {
+        LatencyHistogram shared = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= 50_000; i++) {
+                    shared.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(200_000, shared.getCount());
+        assertEquals(50_000, shared.getMax());
+
+        LatencyHistogram other = new LatencyHistogram();
+        other.record(1_000_000);
+        shared.add(other);
+        assertEquals(200_001, shared.getCount());
+        assertEquals(1_000_000, shared.getPercentile(100));
+    }
+}
@@ -0,0 +1,175 @@
+package metrics;
+
+import common.ParkingViolation;
+import data.CachingHousingReader;
+import data.CachingPopulationReader;
+import data.ParkingViolationCSVReader;
+import data.PopulationFileReader;
+import data.PopulationReader;
+import data.SyntheticDataGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import processor.HousingProcessor;
+import processor.ParkingViolationProcessor;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MetricsRegistry, its JMX view, and the metrics the readers and processors record.
+ */
+public class MetricsRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    public void tearDown() {
+        HousingProcessor.resetInstance();
+    }
+
+    /**
+     * Test case 1: Metrics are created once per name; bad names and negative counts are refused
+     */
+    @Test
+    public void testCreateOncePerName() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("a.count");
+        counter.increment();
+        counter.add(4);
+
+        assertSame(counter, registry.counter("a.count"));
+        assertSame(registry.histogram("a.latency"), registry.histogram("a.latency"));
+        assertEquals(5L, registry.getValue("a.count"));
+        assertNull(registry.getValue("missing"));
+        assertThrows(IllegalArgumentException.class, () -> counter.add(-1));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter(""));
+        assertThrows(IllegalArgumentException.class, () -> registry.gauge("g", null));
+    }
+
+    /**
+     * Test case 2: Counters, histograms and gauges are MBeans, including ones created after publishing
+     */
+    @Test
+    public void testMBeans() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        registry.counter("rows").add(7);
+        registry.registerMBeans(server, "test");
+        LatencyHistogram latency = registry.histogram("query");
+        latency.record(1_000);
+        latency.record(3_000);
+        AtomicLong first = new AtomicLong(11);
+        registry.gauge("size", first::get);
+        registry.gauge("size", () -> 12);
+
+        assertEquals(7L, server.getAttribute(MetricsRegistry.objectName("test", "Counter", "rows"), "Count"));
+        ObjectName query = MetricsRegistry.objectName("test", "Histogram", "query");
+        assertEquals(2L, server.getAttribute(query, "Count"));
+        assertEquals(3_000L, server.getAttribute(query, "MaxNanos"));
+        assertEquals(2_000.0, (Double) server.getAttribute(query, "MeanNanos"), 1e-9);
+        assertEquals(12L, server.getAttribute(MetricsRegistry.objectName("test", "Gauge", "size"), "Value"));
+        assertThrows(IllegalStateException.class, () -> registry.registerMBeans(server, "other"));
+
+        registry.unregisterMBeans();
+        assertFalse(server.isRegistered(query));
+        assertEquals(2, registry.histogram("query").getCount());
+    }
+
+    /**
+     * Test case 3: Every readData() call records its time and rows, failed ones too; rejected rows are counted by reason
+     */
+    @Test
+    public void testReaderMetrics() throws Exception {
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        Path violations = tempDir.resolve("violations.csv");
+        Files.writeString(violations, "2013-04-03T15:15:00Z,36,METER EXPIRED,1322731,PA,2905938,19104\n"
+                + "2013-04-03T15:15:00Z,lots,METER EXPIRED,1322731,PA,2905939,19104\n"
+                + "2013-04-03T15:15:00Z,36\n");
+        long populationRows = registry.counter("reader.population.rows").getCount();
+        long populationReads = registry.histogram("reader.population.readData").getCount();
+        long csvRows = registry.counter("reader.csv.rows").getCount();
+        long badFines = registry.counter("ingest.rejected.bad_fine").getCount();
+        long tooFewFields = registry.counter("ingest.rejected.too_few_fields").getCount();
+        long csvReads = registry.histogram("reader.csv.readData").getCount();
+        long csvFailures = registry.counter("reader.csv.failures").getCount();
+
+        new PopulationFileReader("population.txt").readData();
+        new ParkingViolationCSVReader(violations.toString()).readData();
+        String missing = tempDir.resolve("missing.csv").toString();
+        assertThrows(IOException.class, () -> new ParkingViolationCSVReader(missing).readData());
+
+        assertEquals(populationRows + 48, registry.counter("reader.population.rows").getCount());
+        assertEquals(populationReads + 1, registry.histogram("reader.population.readData").getCount());
+        assertEquals(csvRows + 1, registry.counter("reader.csv.rows").getCount());
+        assertEquals(badFines + 1, registry.counter("ingest.rejected.bad_fine").getCount());
+        assertEquals(tooFewFields + 1, registry.counter("ingest.rejected.too_few_fields").getCount());
+        assertEquals(csvReads + 2, registry.histogram("reader.csv.readData").getCount());
+        assertEquals(csvFailures + 1, registry.counter("reader.csv.failures").getCount());
+    }
+
+    /**
+     * Test case 4: Housing queries and batches record their latency; the cache gauges follow the current instance
+     */
+    @Test
+    public void testHousingMetrics() throws Exception {
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        String properties = tempDir.resolve("properties.csv").toString();
+        new SyntheticDataGenerator(2, 0).writeProperties(1000, properties);
+        PopulationReader populationReader = new CachingPopulationReader(new PopulationFileReader("population.txt"));
+        HousingProcessor.resetInstance();
+        HousingProcessor processor = HousingProcessor.getInstance(new CachingHousingReader(properties), populationReader);
+        long calls = registry.histogram("housing.getAverageMarketValue").getCount();
+
+        processor.getAverageMarketValue(19104);
+        processor.getAverageMarketValue(19104);
+        processor.getAverageLivableArea(19103);
+
+        assertEquals(calls + 2, registry.histogram("housing.getAverageMarketValue").getCount());
+        assertEquals(1L, registry.getValue("housing.cache.hits"));
+        assertEquals(2L, registry.getValue("housing.cache.misses"));
+        assertEquals(2L, registry.getValue("housing.cache.size"));
+        processor.clearCache();
+        assertEquals(2L, registry.getValue("housing.cache.evictions"));
+        assertEquals(0L, registry.getValue("housing.cache.size"));
+
+        HousingProcessor.resetInstance();
+        processor = HousingProcessor.getInstance(new CachingHousingReader(properties), populationReader);
+        assertEquals(0L, registry.getValue("housing.cache.hits"));
+
+        long precomputes = registry.histogram("housing.precompute").getCount();
+        long batches = registry.histogram("housing.calculateAverageMarketValuesParallel").getCount();
+        processor.precompute(List.of(19104));
+        processor.calculateAverageMarketValuesParallel(19103, 19104);
+        assertEquals(precomputes + 1, registry.histogram("housing.precompute").getCount());
+        assertEquals(batches + 1, registry.histogram("housing.calculateAverageMarketValuesParallel").getCount());
+    }
+
+    /**
+     * Test case 5: A query records only its own latency, not that of the queries it is built on
+     */
+    @Test
+    public void testViolationQueryMetrics() {
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        List<ParkingViolation> violations = List.of(
+                new ParkingViolation("T001", "ABC123", "2024-01-01T10:00:00Z", 19104, "METER EXPIRED", 50, "PA"));
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(violations, new HashMap<>());
+        long mostCommon = registry.histogram("violations.getMostCommonViolationType").getCount();
+        long typesForZip = registry.histogram("violations.getViolationTypesForZip").getCount();
+
+        assertEquals("METER EXPIRED", processor.getMostCommonViolationType(19104));
+
+        assertEquals(mostCommon + 1, registry.histogram("violations.getMostCommonViolationType").getCount());
+        assertEquals(typesForZip, registry.histogram("violations.getViolationTypesForZip").getCount());
+    }
+}
@@ -0,0 +1,132 @@
+package processor.housing;
+
+import common.House;
+import data.HousingReader;
+import data.PopulationReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import processor.HousingProcessor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for precompute(Collection) method.
+ */
+public class PrecomputeTest {
+
+    private static final List<Integer> ZIP_CODES = Arrays.asList(19103, 19104, 19106, 19107, 19139);
+
+    @AfterEach
+    public void tearDown() {
+        HousingProcessor.resetInstance();
+    }
+
+    /**
+     * Test case 1: Precomputed results equal the get methods' results, missing and zero values included
+     */
+    @Test
+    public void testSameResultsAsGetMethods() {
+        Random random = new Random(7);
+        List<House> houses = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Integer zipCode = random.nextInt(20) == 0 ? null : ZIP_CODES.get(random.nextInt(4));
+            Integer marketValue = random.nextInt(10) == 0 ? null : random.nextInt(10) == 0 ? 0 : random.nextInt(900_000);
+            Integer area = random.nextInt(10) == 0 ? null : random.nextInt(10) == 0 ? -1 : random.nextInt(4000);
+            houses.add(new House(zipCode, marketValue, area));
+        }
+        Map<Integer, Integer> populations = new HashMap<>();
+        populations.put(19103, 25000);
+        populations.put(19104, 0);
+        populations.put(19139, 40000);
+        HousingProcessor processor = HousingProcessor.getInstance(new MockHousingReader(houses), () -> populations);
+
+        Map<Integer, List<Object>> expected = new HashMap<>();
+        for (int zipCode : ZIP_CODES) {
+            expected.put(zipCode, results(processor, zipCode));
+        }
+        processor.clearCache();
+
+        assertEquals(5, processor.precompute(ZIP_CODES));
+        long hits = processor.getCacheHits();
+        for (int zipCode : ZIP_CODES) {
+            assertEquals(expected.get(zipCode), results(processor, zipCode), "ZIP " + zipCode);
+        }
+        assertEquals(hits + 4 * ZIP_CODES.size(), processor.getCacheHits());
+    }
+
+    private static List<Object> results(HousingProcessor processor, int zipCode) {
+        HousingProcessor.PropertyValueSummary summary = processor.getPropertyValueSummary(zipCode);
+        return Arrays.asList(processor.getAverageMarketValue(zipCode), processor.getAverageLivableArea(zipCode),
+                processor.getMarketValuePerCapita(zipCode), summary.getMin(), summary.getMax(), summary.getMedian());
+    }
+
+    /**
+     * Test case 2: All ZIP codes are grouped in one read of the data; cached ZIP codes are skipped
+     */
+    @Test
+    public void testOneReadForAllZipCodes() {
+        List<House> houses = new ArrayList<>();
+        houses.add(new House(19103, 100000, 1000));
+        houses.add(new House(19104, 300000, 3000));
+        AtomicInteger reads = new AtomicInteger();
+        HousingProcessor processor = HousingProcessor.getInstance(new MockHousingReader(houses) {
+            @Override
+            public List<House> readData() {
+                reads.incrementAndGet();
+                return super.readData();
+            }
+        }, HashMap::new);
+
+        assertEquals(3, processor.precompute(Arrays.asList(19103, 19104, 19105)));
+        assertEquals(1, reads.get());
+        assertEquals(0, processor.precompute(Arrays.asList(19103, 19104)));
+        assertEquals(1, reads.get());
+        assertEquals(0, processor.getAverageMarketValue(19105));
+        assertTrue(processor.isCached(HousingProcessor.CalculationType.PROPERTY_VALUE_SUMMARY, 19104));
+        assertThrows(IllegalStateException.class, () -> processor.precompute(null));
+    }
+
+    /**
+     * Test case 3: Unreadable data gives the same zero results as the get methods
+     */
+    @Test
+    public void testUnreadableData() {
+        PopulationReader failingPopulations = () -> {
+            throw new IOException("population file missing");
+        };
+        HousingProcessor processor = HousingProcessor.getInstance(new HousingReader("dummy.csv") {
+            @Override
+            public List<House> readData() throws IOException {
+                throw new IOException("properties file missing");
+            }
+        }, failingPopulations);
+
+        assertEquals(1, processor.precompute(Arrays.asList(19104)));
+        assertEquals(0, processor.getAverageMarketValue(19104));
+        assertEquals(0, processor.getMarketValuePerCapita(19104));
+        assertEquals(0, processor.getPropertyValueSummary(19104).getMedian());
+    }
+
+    private static class MockHousingReader extends HousingReader {
+        private final List<House> houses;
+
+        public MockHousingReader(List<House> houses) {
+            super("dummy.csv");
+            this.houses = houses;
+        }
+
+        @Override
+        public List<House> readData() {
+            return houses;
+        }
+    }
+}
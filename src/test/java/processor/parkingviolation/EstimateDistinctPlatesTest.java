@@ -0,0 +1,102 @@
+package processor.parkingviolation;
+
+import common.ParkingViolation;
+import data.ParkingViolationCSVReader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import processor.ParkingViolationProcessor;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the distinct-plate estimates, compared against exact sets built from the sample parking.csv.
+ */
+public class EstimateDistinctPlatesTest {
+
+    private static List<ParkingViolation> violations;
+    private static ParkingViolationProcessor processor;
+
+    @BeforeAll
+    public static void loadSampleData() throws Exception {
+        violations = new ParkingViolationCSVReader("parking.csv").readData();
+        processor = new ParkingViolationProcessor(violations, new HashMap<>());
+    }
+
+    // Allows 4 standard errors, or 2 plates for very small sets
+    private static void assertClose(int exact, long estimate, double standardError) {
+        double tolerance = Math.max(2, 4 * standardError * exact);
+        assertTrue(Math.abs(estimate - exact) <= tolerance, "exact " + exact + ", estimated " + estimate);
+    }
+
+    /**
+     * Test case 1: Per ZIP code
+     */
+    @Test
+    public void testPerZip() {
+        Map<Integer, Set<String>> exact = new HashMap<>();
+        for (ParkingViolation violation : violations) {
+            if (violation.getZip_code() != null) {
+                exact.computeIfAbsent(violation.getZip_code(), zip -> new HashSet<>()).add(violation.getPlate_id());
+            }
+        }
+        for (Map.Entry<Integer, Set<String>> entry : exact.entrySet()) {
+            assertClose(entry.getValue().size(), processor.estimateDistinctPlates(entry.getKey()), 0.0163);
+        }
+        assertEquals(0, processor.estimateDistinctPlates(99999));
+    }
+
+    /**
+     * Test case 2: Per violation type and per (ZIP, type) cell
+     */
+    @Test
+    public void testPerTypeAndCell() {
+        Map<String, Set<String>> byType = new HashMap<>();
+        Map<String, Set<String>> byCell = new HashMap<>();
+        for (ParkingViolation violation : violations) {
+            byType.computeIfAbsent(violation.getViolation(), t -> new HashSet<>()).add(violation.getPlate_id());
+            if (violation.getZip_code() != null) {
+                byCell.computeIfAbsent(violation.getZip_code() + "|" + violation.getViolation(), c -> new HashSet<>())
+                        .add(violation.getPlate_id());
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : byType.entrySet()) {
+            assertClose(entry.getValue().size(), processor.estimateDistinctPlates(entry.getKey()), 0.0163);
+        }
+        for (Map.Entry<String, Set<String>> entry : byCell.entrySet()) {
+            String[] key = entry.getKey().split("\\|", 2);
+            assertClose(entry.getValue().size(),
+                    processor.estimateDistinctPlates(Integer.parseInt(key[0]), key[1]), 0.0325);
+        }
+    }
+
+    /**
+     * Test case 3: Merged ZIP groupings count each plate once
+     */
+    @Test
+    public void testZipGroups() {
+        List<Integer> group = List.of(19103, 19104, 19107, 19102);
+        String type = "METER EXPIRED CC";
+        Set<String> exactAll = new HashSet<>();
+        Set<String> exactType = new HashSet<>();
+        for (ParkingViolation violation : violations) {
+            if (violation.getZip_code() != null && group.contains(violation.getZip_code())) {
+                exactAll.add(violation.getPlate_id());
+                if (type.equals(violation.getViolation())) {
+                    exactType.add(violation.getPlate_id());
+                }
+            }
+        }
+
+        assertClose(exactAll.size(), processor.estimateDistinctPlates(group), 0.0163);
+        assertClose(exactType.size(), processor.estimateDistinctPlates(group, type), 0.0325);
+        assertEquals(0, processor.estimateDistinctPlates(List.of(), type));
+        assertThrows(IllegalArgumentException.class,
+                () -> processor.estimateDistinctPlates((List<Integer>) null));
+    }
+}
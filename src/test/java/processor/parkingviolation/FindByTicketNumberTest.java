@@ -0,0 +1,69 @@
+package processor.parkingviolation;
+
+import common.ParkingViolation;
+import data.ParkingViolationCSVReader;
+import org.junit.jupiter.api.Test;
+import processor.ParkingViolationProcessor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the ticket-number lookup findByTicketNumber().
+ */
+public class FindByTicketNumberTest {
+
+    /**
+     * Test case 1: Numeric and non-numeric ticket numbers are found; unknown ones are not
+     */
+    @Test
+    public void testFindByTicketNumber() {
+        List<ParkingViolation> violations = new ArrayList<>();
+        violations.add(new ParkingViolation("2905940", "ABC123", "2024-01-01T10:00:00Z", 19104, "METER EXPIRED", 50, "PA"));
+        violations.add(new ParkingViolation("2905938", "DEF456", "2024-01-02T11:00:00Z", 19104, "DOUBLE PARKED", 60, "PA"));
+        violations.add(new ParkingViolation("T001", "GHI789", "2024-01-03T12:00:00Z", 19103, "METER EXPIRED", 40, "NJ"));
+        violations.add(new ParkingViolation("007", "JKL012", "2024-01-03T12:00:00Z", 19103, "METER EXPIRED", 40, "NJ"));
+        violations.add(null);
+
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(violations, new HashMap<>());
+
+        assertEquals("DEF456", processor.findByTicketNumber(2905938L).getPlate_id());
+        assertEquals("ABC123", processor.findByTicketNumber("2905940").getPlate_id());
+        assertEquals("GHI789", processor.findByTicketNumber("T001").getPlate_id());
+        assertEquals("JKL012", processor.findByTicketNumber("007").getPlate_id());
+        assertNull(processor.findByTicketNumber(7L));
+        assertNull(processor.findByTicketNumber(2905939L));
+        assertNull(processor.findByTicketNumber("T002"));
+        assertNull(processor.findByTicketNumber((String) null));
+    }
+
+    /**
+     * Test case 2: Ticket numbers are stored as numbers but still read back exactly as written
+     */
+    @Test
+    public void testTicketNumberStorage() {
+        assertEquals(2905938L, new ParkingViolation("2905938", null, null, null, null, 0, null).getTicketNumber());
+        assertEquals("2905938", new ParkingViolation("2905938", null, null, null, null, 0, null).getTicket_number());
+        assertEquals("007", new ParkingViolation("007", null, null, null, null, 0, null).getTicket_number());
+        assertEquals(ParkingViolation.NO_TICKET_NUMBER,
+                new ParkingViolation("007", null, null, null, null, 0, null).getTicketNumber());
+        assertNull(new ParkingViolation((String) null, null, null, null, null, 0, null).getTicket_number());
+        assertEquals("0", new ParkingViolation("0", null, null, null, null, 0, null).getTicket_number());
+    }
+
+    /**
+     * Test case 3: Every ticket in the sample parking.csv is found
+     */
+    @Test
+    public void testMatchesSampleData() throws Exception {
+        List<ParkingViolation> violations = new ParkingViolationCSVReader("parking.csv").readData();
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(violations, new HashMap<>());
+
+        for (ParkingViolation violation : violations) {
+            assertSame(violation, processor.findByTicketNumber(violation.getTicket_number()));
+        }
+    }
+}
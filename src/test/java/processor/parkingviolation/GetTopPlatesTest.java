@@ -0,0 +1,110 @@
+package processor.parkingviolation;
+
+import common.ParkingViolation;
+import data.ParkingViolationCSVReader;
+import org.junit.jupiter.api.Test;
+import processor.ParkingViolationProcessor;
+import processor.RepeatOffenders;
+import sketch.SpaceSavingSketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the repeat-offender queries, compared against exact counts on the sample parking.csv.
+ */
+public class GetTopPlatesTest {
+
+    private static final int K = 10;
+
+    private static void assertMatchesExact(List<SpaceSavingSketch.Estimate<String>> top,
+                                           Map<String, Long> exact, long maxError) {
+        assertFalse(top.isEmpty());
+        for (SpaceSavingSketch.Estimate<String> estimate : top) {
+            long truth = exact.getOrDefault(estimate.getItem(), 0L);
+            assertTrue(estimate.getCount() >= truth, estimate.toString());
+            assertTrue(estimate.getCount() - truth <= maxError, estimate.toString());
+        }
+
+        // Every plate in the exact top K that is heavier than the error bound must be reported
+        List<String> reported = top.stream().map(SpaceSavingSketch.Estimate::getItem).collect(Collectors.toList());
+        List<Map.Entry<String, Long>> exactTop = exact.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(top.size())
+                .collect(Collectors.toList());
+        long cutoff = exactTop.get(exactTop.size() - 1).getValue();
+        for (Map.Entry<String, Long> entry : exactTop) {
+            if (entry.getValue() > cutoff + maxError) {
+                assertTrue(reported.contains(entry.getKey()), "missing " + entry);
+            }
+        }
+    }
+
+    /**
+     * Test case 1: Citywide top plates by ticket count and by fine total
+     */
+    @Test
+    public void testCitywideTopPlates() throws Exception {
+        List<ParkingViolation> violations = new ParkingViolationCSVReader("parking.csv").readData();
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(violations, new HashMap<>());
+
+        Map<String, Long> exactCounts = new HashMap<>();
+        Map<String, Long> exactFines = new HashMap<>();
+        for (ParkingViolation violation : violations) {
+            exactCounts.merge(violation.getPlate_id(), 1L, Long::sum);
+            exactFines.merge(violation.getPlate_id(), (long) violation.getFine(), Long::sum);
+        }
+
+        assertMatchesExact(processor.getTopPlatesByCount(K), exactCounts,
+                processor.getRepeatOffenders().getMaxCountError());
+        assertMatchesExact(processor.getTopPlatesByFines(K), exactFines,
+                processor.getRepeatOffenders().getMaxFinesError());
+    }
+
+    /**
+     * Test case 2: Per-ZIP top plates
+     */
+    @Test
+    public void testPerZipTopPlates() throws Exception {
+        List<ParkingViolation> violations = new ParkingViolationCSVReader("parking.csv").readData();
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(violations, new HashMap<>());
+
+        for (int zipCode : new int[]{19104, 19103, 19107}) {
+            Map<String, Long> exactCounts = new HashMap<>();
+            long zipTotal = 0;
+            for (ParkingViolation violation : violations) {
+                if (violation.getZip_code() != null && violation.getZip_code() == zipCode) {
+                    exactCounts.merge(violation.getPlate_id(), 1L, Long::sum);
+                    zipTotal++;
+                }
+            }
+            long maxError = zipTotal / RepeatOffenders.PER_ZIP_CAPACITY;
+            assertMatchesExact(processor.getTopPlatesByCount(zipCode, K), exactCounts, maxError);
+        }
+    }
+
+    /**
+     * Test case 3: Small input is exact, unknown ZIP gives an empty list
+     */
+    @Test
+    public void testSmallInputIsExact() {
+        List<ParkingViolation> violations = new ArrayList<>();
+        violations.add(new ParkingViolation("T001", "ABC123", "2024-01-01T10:00:00Z", 19104, "METER EXPIRED", 50, "PA"));
+        violations.add(new ParkingViolation("T002", "ABC123", "2024-01-02T11:00:00Z", 19104, "DOUBLE PARKED", 60, "PA"));
+        violations.add(new ParkingViolation("T003", "DEF456", "2024-01-03T12:00:00Z", 19104, "BUS ONLY ZONE", 200, "PA"));
+
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(violations, new HashMap<>());
+
+        assertEquals("ABC123", processor.getTopPlatesByCount(1).get(0).getItem());
+        assertEquals(2, processor.getTopPlatesByCount(1).get(0).getCount());
+        assertEquals("DEF456", processor.getTopPlatesByFines(19104, 1).get(0).getItem());
+        assertEquals(200, processor.getTopPlatesByFines(19104, 1).get(0).getCount());
+        assertTrue(processor.getTopPlatesByCount(19999, 5).isEmpty());
+    }
+}
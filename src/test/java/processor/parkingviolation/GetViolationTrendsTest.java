@@ -0,0 +1,173 @@
+package processor.parkingviolation;
+
+import common.ParkingViolation;
+import data.ParkingViolationCSVReader;
+import org.junit.jupiter.api.Test;
+import processor.ParkingViolationProcessor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the time-bucketed trend queries (monthly, weekday, hourly and date ranges).
+ */
+public class GetViolationTrendsTest {
+
+    private static ParkingViolationProcessor createProcessor(List<ParkingViolation> violations) {
+        return new ParkingViolationProcessor(violations, new HashMap<>());
+    }
+
+    private static List<ParkingViolation> sampleViolations() {
+        List<ParkingViolation> violations = new ArrayList<>();
+        // 2024-01-01 is a Monday
+        violations.add(new ParkingViolation("T001", "ABC123", "2024-01-01T10:00:00Z", 19104, "METER EXPIRED", 50, "PA"));
+        violations.add(new ParkingViolation("T002", "DEF456", "2024-01-01T10:30:00Z", 19104, "DOUBLE PARKED", 60, "NJ"));
+        violations.add(new ParkingViolation("T003", "GHI789", "2024-01-06T23:59:59Z", 19104, "METER EXPIRED", 40, "PA"));
+        violations.add(new ParkingViolation("T004", "JKL012", "2024-03-15T08:00:00Z", 19104, "METER EXPIRED", 30, "PA"));
+        violations.add(new ParkingViolation("T005", "MNO345", "2024-02-10T12:00:00Z", 19103, "BUS ONLY ZONE", 100, "PA"));
+        violations.add(new ParkingViolation("T006", "PQR678", "not a date", 19104, "METER EXPIRED", 999, "PA"));
+        violations.add(new ParkingViolation("T007", "STU901", "2024-01-02T10:00:00Z", null, "METER EXPIRED", 999, "PA"));
+        violations.add(null);
+        return violations;
+    }
+
+    /**
+     * Test case 1: Monthly counts and fines, including empty months in between
+     */
+    @Test
+    public void testMonthlyTrends() {
+        ParkingViolationProcessor processor = createProcessor(sampleViolations());
+
+        Map<YearMonth, Integer> counts = processor.getMonthlyViolationCounts(19104);
+        assertEquals(List.of(YearMonth.of(2024, 1), YearMonth.of(2024, 2), YearMonth.of(2024, 3)),
+                new ArrayList<>(counts.keySet()));
+        assertEquals(List.of(3, 0, 1), new ArrayList<>(counts.values()));
+
+        Map<YearMonth, Long> fines = processor.getMonthlyFineTotals(19104);
+        assertEquals(List.of(150L, 0L, 30L), new ArrayList<>(fines.values()));
+    }
+
+    /**
+     * Test case 2: Weekday x hour heatmap and its hourly / weekday totals
+     */
+    @Test
+    public void testHeatmap() {
+        ParkingViolationProcessor processor = createProcessor(sampleViolations());
+
+        int[][] heatmap = processor.getViolationHeatmap(19104);
+        assertEquals(2, heatmap[0][10]);  // Monday 10:00-10:59
+        assertEquals(1, heatmap[5][23]);  // Saturday 23:00-23:59
+        assertEquals(1, heatmap[4][8]);   // Friday 08:00-08:59
+
+        int[] byHour = processor.getViolationCountsByHour(19104);
+        assertEquals(2, byHour[10]);
+        assertEquals(1, byHour[23]);
+        assertEquals(4, Arrays.stream(byHour).sum());
+
+        int[] byWeekday = processor.getViolationCountsByWeekday(19104);
+        assertArrayEquals(new int[]{2, 0, 0, 0, 1, 1, 0}, byWeekday);
+
+        assertArrayEquals(new long[]{110, 0, 0, 0, 30, 40, 0},
+                processor.getTimeIndex().getWeekdayFines(19104));
+    }
+
+    /**
+     * Test case 3: Date range counts and fines, inclusive on both ends
+     */
+    @Test
+    public void testDateRanges() {
+        ParkingViolationProcessor processor = createProcessor(sampleViolations());
+
+        assertEquals(2, processor.countViolationsBetween(19104, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1)));
+        assertEquals(3, processor.countViolationsBetween(19104, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 6)));
+        assertEquals(150, processor.getFinesBetween(19104, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 6)));
+        assertEquals(2, processor.countViolationsBetween(19104, LocalDate.of(2024, 1, 2), LocalDate.of(2024, 12, 31)));
+
+        // Ranges reaching outside the data, or backwards
+        assertEquals(4, processor.countViolationsBetween(19104, LocalDate.of(2000, 1, 1), LocalDate.of(2030, 1, 1)));
+        assertEquals(0, processor.countViolationsBetween(19104, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1)));
+        assertEquals(0, processor.countViolationsBetween(19104, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> processor.countViolationsBetween(19104, null, LocalDate.now()));
+    }
+
+    /**
+     * Test case 4: Unknown ZIP codes and empty input give empty results
+     */
+    @Test
+    public void testUnknownZipAndEmptyInput() {
+        ParkingViolationProcessor processor = createProcessor(sampleViolations());
+        assertTrue(processor.getMonthlyViolationCounts(19999).values().stream().allMatch(c -> c == 0));
+        assertEquals(0, processor.getViolationCountsByHour(19999)[10]);
+        assertEquals(0, processor.getFinesBetween(19999, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+
+        ParkingViolationProcessor empty = createProcessor(new ArrayList<>());
+        assertTrue(empty.getMonthlyViolationCounts(19104).isEmpty());
+        assertEquals(0, empty.countViolationsBetween(19104, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+    }
+
+    /**
+     * Test case 5: Index matches a brute-force scan over the sample parking.csv
+     */
+    @Test
+    public void testMatchesScanOfSampleData() throws Exception {
+        List<ParkingViolation> violations = new ParkingViolationCSVReader("parking.csv").readData();
+        ParkingViolationProcessor processor = createProcessor(violations);
+
+        int zipCode = 19104;
+        Map<YearMonth, Integer> expectedMonthly = new HashMap<>();
+        int[] expectedHourly = new int[24];
+        int expectedMarchToMay = 0;
+        for (ParkingViolation violation : violations) {
+            if (violation.getZip_code() == null || violation.getZip_code() != zipCode) {
+                continue;
+            }
+            ZonedDateTime time = Instant.parse(violation.getDate()).atZone(ZoneOffset.UTC);
+            expectedMonthly.merge(YearMonth.from(time), 1, Integer::sum);
+            expectedHourly[time.getHour()]++;
+            LocalDate date = time.toLocalDate();
+            if (!date.isBefore(LocalDate.of(2013, 3, 1)) && !date.isAfter(LocalDate.of(2013, 5, 31))) {
+                expectedMarchToMay++;
+            }
+        }
+
+        Map<YearMonth, Integer> monthly = processor.getMonthlyViolationCounts(zipCode);
+        for (Map.Entry<YearMonth, Integer> entry : monthly.entrySet()) {
+            assertEquals(expectedMonthly.getOrDefault(entry.getKey(), 0), entry.getValue(), entry.getKey().toString());
+        }
+        assertArrayEquals(expectedHourly, processor.getViolationCountsByHour(zipCode));
+        assertEquals(expectedMarchToMay,
+                processor.countViolationsBetween(zipCode, LocalDate.of(2013, 3, 1), LocalDate.of(2013, 5, 31)));
+    }
+
+    /**
+     * Test case 6: One ticket misdated centuries away adds one month and one day, not the whole span
+     */
+    @Test
+    public void testOutlierDate() {
+        List<ParkingViolation> violations = sampleViolations();
+        violations.add(new ParkingViolation("T008", "VWX234", "0013-04-03T15:15:00Z", 19104, "METER EXPIRED", 20, "PA"));
+        ParkingViolationProcessor processor = createProcessor(violations);
+
+        Map<YearMonth, Integer> counts = processor.getMonthlyViolationCounts(19104);
+        assertEquals(List.of(YearMonth.of(13, 4), YearMonth.of(2024, 1), YearMonth.of(2024, 2), YearMonth.of(2024, 3)),
+                new ArrayList<>(counts.keySet()));
+        assertEquals(List.of(1, 3, 0, 1), new ArrayList<>(counts.values()));
+        assertEquals(4, processor.getTimeIndex().getMonthCount());
+
+        assertEquals(1, processor.countViolationsBetween(19104, LocalDate.of(1, 1, 1), LocalDate.of(2000, 1, 1)));
+        assertEquals(20, processor.getFinesBetween(19104, LocalDate.of(13, 4, 3), LocalDate.of(13, 4, 3)));
+        assertEquals(5, processor.countViolationsBetween(19104, LocalDate.of(1, 1, 1), LocalDate.of(2030, 1, 1)));
+        assertEquals(3, processor.countViolationsBetween(19104, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 6)));
+        assertEquals(0, processor.countViolationsBetween(19104, LocalDate.of(14, 1, 1), LocalDate.of(2023, 12, 31)));
+    }
+}
@@ -0,0 +1,105 @@
+package processor.parkingviolation;
+
+import common.ParkingViolation;
+import data.ParkingViolationCSVReader;
+import org.junit.jupiter.api.Test;
+import processor.ParkingViolationProcessor;
+import processor.PlateIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the plate lookups: getViolationsForPlate() and countViolationsForPlate().
+ */
+public class GetViolationsForPlateTest {
+
+    /**
+     * Test case 1: All violations for a plate, in the order they were read
+     */
+    @Test
+    public void testViolationsForPlate() {
+        List<ParkingViolation> violations = new ArrayList<>();
+        violations.add(new ParkingViolation("T001", "ABC123", "2024-01-01T10:00:00Z", 19104, "METER EXPIRED", 50, "PA"));
+        violations.add(new ParkingViolation("T002", "DEF456", "2024-01-02T11:00:00Z", 19104, "DOUBLE PARKED", 60, "PA"));
+        violations.add(new ParkingViolation("T003", "ABC123", "2024-01-03T12:00:00Z", 19103, "METER EXPIRED", 40, "NJ"));
+        violations.add(new ParkingViolation("T004", null, "2024-01-03T12:00:00Z", 19103, "METER EXPIRED", 40, "NJ"));
+        violations.add(null);
+
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(violations, new HashMap<>());
+
+        List<ParkingViolation> result = processor.getViolationsForPlate("ABC123");
+        assertEquals(2, result.size());
+        assertEquals("T001", result.get(0).getTicket_number());
+        assertEquals("T003", result.get(1).getTicket_number());
+        assertEquals(1, processor.countViolationsForPlate("DEF456"));
+        assertEquals(2, processor.getPlateIndex().getDistinctPlateCount());
+    }
+
+    /**
+     * Test case 2: Unknown, null and near-miss plates find nothing
+     */
+    @Test
+    public void testUnknownPlate() {
+        List<ParkingViolation> violations = new ArrayList<>();
+        violations.add(new ParkingViolation("T001", "ABC123", "2024-01-01T10:00:00Z", 19104, "METER EXPIRED", 50, "PA"));
+
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(violations, new HashMap<>());
+
+        assertTrue(processor.getViolationsForPlate("ABC12").isEmpty());
+        assertTrue(processor.getViolationsForPlate("ABC1234").isEmpty());
+        assertTrue(processor.getViolationsForPlate("abc123").isEmpty());
+        assertTrue(processor.getViolationsForPlate(null).isEmpty());
+        assertEquals(0, processor.countViolationsForPlate("XYZ999"));
+    }
+
+    /**
+     * Test case 3: Non-ASCII and long plates still match exactly
+     */
+    @Test
+    public void testNonAsciiAndLongPlates() {
+        String longPlate = "VERY-LONG-VANITY-PLATE-1234567890";
+        List<ParkingViolation> violations = new ArrayList<>();
+        violations.add(new ParkingViolation("T001", "ÉCOLE1", "2024-01-01T10:00:00Z", 19104, "METER EXPIRED", 50, "QC"));
+        violations.add(new ParkingViolation("T002", longPlate, "2024-01-01T10:00:00Z", 19104, "METER EXPIRED", 50, "PA"));
+
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(violations, new HashMap<>());
+
+        assertEquals(1, processor.countViolationsForPlate("ÉCOLE1"));
+        assertEquals(0, processor.countViolationsForPlate("ECOLE1"));
+        assertEquals(1, processor.countViolationsForPlate(longPlate));
+    }
+
+    /**
+     * Test case 4: Matches a full scan of the sample parking.csv for every plate, and reports its size
+     */
+    @Test
+    public void testMatchesScanOfSampleData() throws Exception {
+        List<ParkingViolation> violations = new ParkingViolationCSVReader("parking.csv").readData();
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(violations, new HashMap<>());
+
+        Map<String, Integer> expected = new HashMap<>();
+        for (ParkingViolation violation : violations) {
+            expected.merge(violation.getPlate_id(), 1, Integer::sum);
+        }
+
+        PlateIndex index = processor.getPlateIndex();
+        assertEquals(expected.size(), index.getDistinctPlateCount());
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), processor.countViolationsForPlate(entry.getKey()), entry.getKey());
+        }
+        for (ParkingViolation violation : processor.getViolationsForPlate("1322731")) {
+            assertEquals("1322731", violation.getPlate_id());
+        }
+
+        // Table + postings should stay well under 64 bytes per ticket
+        assertTrue(index.getMemoryUsageBytes() > 0);
+        assertTrue(index.getMemoryUsageBytes() < 64L * violations.size(), index.toString());
+        // The plates themselves are the violations' own Strings, not a copy
+        assertTrue(index.getPlateStringBytes() > 0);
+    }
+}
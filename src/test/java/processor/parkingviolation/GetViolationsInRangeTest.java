@@ -0,0 +1,124 @@
+package processor.parkingviolation;
+
+import common.ParkingViolation;
+import data.ParkingViolationCSVReader;
+import org.junit.jupiter.api.Test;
+import processor.ParkingViolationProcessor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the sorted-timestamp range queries:
+ * countViolationsInRange(), getFinesInRange() and getViolationsInRange().
+ */
+public class GetViolationsInRangeTest {
+
+    private static List<ParkingViolation> sampleViolations() {
+        List<ParkingViolation> violations = new ArrayList<>();
+        // Deliberately not in time order
+        violations.add(new ParkingViolation("T001", "ABC123", "2013-05-20T09:00:00Z", 19104, "METER EXPIRED", 36, "PA"));
+        violations.add(new ParkingViolation("T002", "DEF456", "2013-02-28T23:59:59Z", 19104, "DOUBLE PARKED", 51, "PA"));
+        violations.add(new ParkingViolation("T003", "GHI789", "2013-03-01T00:00:00Z", 19104, "METER EXPIRED", 41, "PA"));
+        violations.add(new ParkingViolation("T004", "JKL012", "2013-04-10T12:00:00Z", 19103, "METER EXPIRED", 100, "PA"));
+        violations.add(new ParkingViolation("T005", "MNO345", "2013-04-10T12:00:00Z", 19104, "BUS ONLY ZONE", 75, "NJ"));
+        violations.add(new ParkingViolation("T006", "PQR678", "2013-06-01T00:00:00Z", 19104, "METER EXPIRED", 26, "PA"));
+        violations.add(new ParkingViolation("T007", "STU901", "bad date", 19104, "METER EXPIRED", 999, "PA"));
+        return violations;
+    }
+
+    private static final Instant MARCH = Instant.parse("2013-03-01T00:00:00Z");
+    private static final Instant JUNE = Instant.parse("2013-06-01T00:00:00Z");
+
+    /**
+     * Test case 1: Counts and fines use an inclusive start and exclusive end
+     */
+    @Test
+    public void testCountAndFinesMarchToMay() {
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(sampleViolations(), new HashMap<>());
+
+        assertEquals(3, processor.countViolationsInRange(19104, MARCH, JUNE));
+        assertEquals(41 + 75 + 36, processor.getFinesInRange(19104, MARCH, JUNE));
+        assertEquals(1, processor.countViolationsInRange(19103, MARCH, JUNE));
+    }
+
+    /**
+     * Test case 2: Matching violations come back oldest first
+     */
+    @Test
+    public void testViolationsInRangeSorted() {
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(sampleViolations(), new HashMap<>());
+
+        List<ParkingViolation> result = processor.getViolationsInRange(19104, MARCH, JUNE);
+        assertEquals(3, result.size());
+        assertEquals("T003", result.get(0).getTicket_number());
+        assertEquals("T005", result.get(1).getTicket_number());
+        assertEquals("T001", result.get(2).getTicket_number());
+        assertThrows(UnsupportedOperationException.class, () -> result.remove(0));
+    }
+
+    /**
+     * Test case 3: Empty, backwards and unknown-ZIP windows
+     */
+    @Test
+    public void testEmptyWindows() {
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(sampleViolations(), new HashMap<>());
+
+        assertEquals(0, processor.countViolationsInRange(19104, MARCH, MARCH));
+        assertEquals(0, processor.countViolationsInRange(19104, JUNE, MARCH));
+        assertEquals(0, processor.getFinesInRange(19999, MARCH, JUNE));
+        assertTrue(processor.getViolationsInRange(19999, MARCH, JUNE).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> processor.countViolationsInRange(19104, null, JUNE));
+    }
+
+    /**
+     * Test case 4: Works for lists without fast random access
+     */
+    @Test
+    public void testLinkedListInput() {
+        ParkingViolationProcessor processor =
+                new ParkingViolationProcessor(new LinkedList<>(sampleViolations()), new HashMap<>());
+
+        assertEquals("T003", processor.getViolationsInRange(19104, MARCH, JUNE).get(0).getTicket_number());
+    }
+
+    /**
+     * Test case 5: Matches a full scan of the sample parking.csv for several windows
+     */
+    @Test
+    public void testMatchesScanOfSampleData() throws Exception {
+        List<ParkingViolation> violations = new ParkingViolationCSVReader("parking.csv").readData();
+        ParkingViolationProcessor processor = new ParkingViolationProcessor(violations, new HashMap<>());
+
+        String[][] windows = {
+                {"2013-03-01T00:00:00Z", "2013-06-01T00:00:00Z"},
+                {"2013-01-01T00:00:00Z", "2014-01-01T00:00:00Z"},
+                {"2013-07-04T08:00:00Z", "2013-07-04T18:30:00Z"},
+        };
+        for (int zipCode : new int[]{19104, 19103, 19107}) {
+            for (String[] window : windows) {
+                long from = Instant.parse(window[0]).getEpochSecond();
+                long to = Instant.parse(window[1]).getEpochSecond();
+                int expectedCount = 0;
+                long expectedFines = 0;
+                for (ParkingViolation violation : violations) {
+                    if (violation.getZip_code() != null && violation.getZip_code() == zipCode
+                            && violation.getTimestamp() >= from && violation.getTimestamp() < to) {
+                        expectedCount++;
+                        expectedFines += violation.getFine();
+                    }
+                }
+                Instant start = Instant.parse(window[0]);
+                Instant end = Instant.parse(window[1]);
+                assertEquals(expectedCount, processor.countViolationsInRange(zipCode, start, end));
+                assertEquals(expectedFines, processor.getFinesInRange(zipCode, start, end));
+                assertEquals(expectedCount, processor.getViolationsInRange(zipCode, start, end).size());
+            }
+        }
+    }
+}
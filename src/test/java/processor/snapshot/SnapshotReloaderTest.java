@@ -0,0 +1,214 @@
+package processor.snapshot;
+
+import data.CachingHousingReader;
+import data.CachingPopulationReader;
+import data.ParkingViolationCSVReader;
+import data.PopulationFileReader;
+import data.PopulationReader;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import processor.DataSnapshot;
+import processor.HousingProcessor;
+import processor.MenuQuery;
+import processor.ParkingViolationProcessor;
+import processor.QueryExecutor;
+import processor.SnapshotReloader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SnapshotReloader: versions, old snapshots staying usable, file checks and failed reloads.
+ */
+public class SnapshotReloaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path violations;
+    private Path properties;
+    private Path population;
+    private SnapshotReloader reloader;
+    // Thrown by the next load instead of loading
+    private final AtomicReference<Error> loadError = new AtomicReference<>();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        violations = tempDir.resolve("violations.csv");
+        properties = tempDir.resolve("properties.csv");
+        population = tempDir.resolve("population.txt");
+        Files.writeString(violations, "2013-04-03T15:15:00Z,36,METER EXPIRED,1322731,PA,2905938,19104\n");
+        writeProperties(100000);
+        Files.writeString(population, "19103 100\n19104 200\n");
+        reloader = new SnapshotReloader(version -> {
+            Error error = loadError.getAndSet(null);
+            if (error != null) {
+                throw error;
+            }
+            return load(version);
+        },
+                Arrays.asList(violations.toString(), properties.toString(), population.toString()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reloader.close();
+    }
+
+    private DataSnapshot load(long version) throws Exception {
+        PopulationReader populationReader = new CachingPopulationReader(new PopulationFileReader(population.toString()));
+        Map<Integer, Integer> populations = populationReader.readData();
+        return new DataSnapshot(version, populations,
+                new ParkingViolationProcessor(new ParkingViolationCSVReader(violations.toString()).readData(), populations),
+                HousingProcessor.create(new CachingHousingReader(properties.toString()), populationReader));
+    }
+
+    // Two houses in 19104; the market value of the first one varies
+    private void writeProperties(int marketValue) throws IOException {
+        Files.writeString(properties, "market_value,total_livable_area,zip_code\n"
+                + marketValue + ",1000,19104\n300000,2000,19104\n");
+    }
+
+    /**
+     * Test case 1: Each reload publishes the next version; a query holding the old snapshot still sees the old data
+     */
+    @Test
+    public void testReloadSwapsSnapshot() throws Exception {
+        assertThrows(IllegalStateException.class, () -> reloader.current());
+        assertEquals(0, reloader.getVersion());
+
+        DataSnapshot first = reloader.reload().join();
+        assertEquals(1, first.getVersion());
+        assertSame(first, reloader.current());
+        // Filled before it was published
+        assertTrue(first.getHousingProcessor().isCached(HousingProcessor.CalculationType.AVERAGE_MARKET_VALUE, 19104));
+        assertEquals(200000, first.getHousingProcessor().getAverageMarketValue(19104));
+
+        writeProperties(500000);
+        DataSnapshot second = reloader.reload().join();
+
+        assertEquals(2, reloader.getVersion());
+        assertEquals(400000, reloader.current().getHousingProcessor().getAverageMarketValue(19104));
+        assertEquals(200000, first.getHousingProcessor().getAverageMarketValue(19104));
+        assertNotSame(first.getHousingProcessor(), second.getHousingProcessor());
+        assertEquals(300, second.getPopulationProcessor().totalPopulation());
+    }
+
+    /**
+     * Test case 2: A changed file is loaded once two checks see the same file; a failed load keeps the old data
+     */
+    @Test
+    public void testCheckFilesAndFailedReload() throws Exception {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        reloader.setListener((snapshot, error) -> failure.set(error));
+        reloader.reload().join();
+
+        reloader.reloadIfChanged().join();
+        assertEquals(1, reloader.getVersion());
+
+        writeProperties(700000);
+        assertTrue(properties.toFile().setLastModified(properties.toFile().lastModified() + 2000));
+        reloader.reloadIfChanged().join();
+        assertEquals(1, reloader.getVersion());
+        reloader.reloadIfChanged().join();
+        assertEquals(2, reloader.getVersion());
+        assertEquals(500000, reloader.current().getHousingProcessor().getAverageMarketValue(19104));
+
+        Files.delete(population);
+        CompletionException error = assertThrows(CompletionException.class, () -> reloader.reload().join());
+        assertNotNull(error.getCause());
+        assertSame(error.getCause(), failure.get());
+        assertEquals(2, reloader.getVersion());
+        assertEquals(500000, reloader.current().getHousingProcessor().getAverageMarketValue(19104));
+    }
+
+    /**
+     * Test case 3: Queries running during reloads never fail and never see the version go back
+     */
+    @Test
+    public void testQueriesDuringReloads() throws Exception {
+        reloader.reload().join();
+        QueryExecutor executor = new QueryExecutor(reloader::current);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong queries = new AtomicLong();
+        AtomicReference<String> problem = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            long lastVersion = 0;
+            while (running.get()) {
+                long version = executor.getDataVersion();
+                if (version < lastVersion) {
+                    problem.set("version went from " + lastVersion + " to " + version);
+                }
+                lastVersion = version;
+                try {
+                    int average = (Integer) executor.execute(MenuQuery.AVERAGE_MARKET_VALUE, 19104);
+                    if (average % 50000 != 0) {
+                        problem.set("unexpected average " + average);
+                    }
+                } catch (RuntimeException e) {
+                    problem.set(e.toString());
+                }
+                queries.incrementAndGet();
+            }
+        });
+        reader.start();
+
+        for (int i = 1; i <= 10; i++) {
+            writeProperties(100000 * i);
+            reloader.reload().join();
+        }
+        running.set(false);
+        reader.join();
+
+        assertNull(problem.get());
+        assertEquals(11, executor.getDataVersion());
+        assertEquals(650000, executor.execute(MenuQuery.AVERAGE_MARKET_VALUE, 19104));
+        assertTrue(queries.get() > 0);
+    }
+
+    /**
+     * Test case 4: An Error thrown by a watched reload is reported and counted, and watching goes on
+     */
+    @Test
+    public void testWatchSurvivesError() throws Exception {
+        Counter failures = MetricsRegistry.getDefault().counter("data.reload.failures");
+        BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+        reloader.setListener((snapshot, error) -> events.add(error != null ? error : snapshot));
+        reloader.reload().join();
+        assertInstanceOf(DataSnapshot.class, events.take());
+        long failuresBefore = failures.getCount();
+
+        loadError.set(new OutOfMemoryError("Java heap space"));
+        reloader.watch(20);
+        writeProperties(800000);
+        assertTrue(properties.toFile().setLastModified(properties.toFile().lastModified() + 2000));
+        Object failed = events.poll(10, TimeUnit.SECONDS);
+        assertInstanceOf(IllegalStateException.class, failed);
+        assertInstanceOf(OutOfMemoryError.class, ((Throwable) failed).getCause());
+        assertEquals(failuresBefore + 1, failures.getCount());
+        assertEquals(1, reloader.getVersion());
+
+        writeProperties(900000);
+        assertTrue(properties.toFile().setLastModified(properties.toFile().lastModified() + 4000));
+        Object reloaded = events.poll(10, TimeUnit.SECONDS);
+        assertInstanceOf(DataSnapshot.class, reloaded);
+        assertEquals(2, reloader.getVersion());
+        assertEquals(600000, reloader.current().getHousingProcessor().getAverageMarketValue(19104));
+    }
+}
@@ -0,0 +1,202 @@
+package server;
+
+import common.House;
+import data.HousingReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import processor.HousingProcessor;
+import processor.MenuQuery;
+import processor.QueryExecutor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MicroBatchingQueryExecutor: batched answers, coalescing, and the paths that skip batching.
+ */
+public class MicroBatchingQueryExecutorTest {
+
+    private static final MenuQuery[] HOUSING_QUERIES = {MenuQuery.AVERAGE_MARKET_VALUE, MenuQuery.AVERAGE_LIVABLE_AREA,
+            MenuQuery.MARKET_VALUE_PER_CAPITA, MenuQuery.PROPERTY_VALUE_SUMMARY};
+
+    private final AtomicInteger reads = new AtomicInteger();
+    private HousingProcessor housingProcessor;
+    private int[] zipCodes;
+    private ExecutorService clients;
+
+    @BeforeEach
+    public void setUp() {
+        List<House> houses = new ArrayList<>();
+        Map<Integer, Integer> populations = new HashMap<>();
+        zipCodes = new int[20];
+        for (int z = 0; z < zipCodes.length; z++) {
+            zipCodes[z] = 19100 + z;
+            populations.put(zipCodes[z], 1000 + z);
+        }
+        for (int i = 0; i < 4000; i++) {
+            houses.add(new House(zipCodes[i % zipCodes.length], 1000 * (i % 97 + 1), 10 * (i % 31)));
+        }
+        HousingProcessor.resetInstance();
+        housingProcessor = HousingProcessor.getInstance(new HousingReader("unused.csv") {
+            @Override
+            public List<House> readData() {
+                reads.incrementAndGet();
+                return houses;
+            }
+        }, () -> populations);
+        clients = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        clients.shutdownNow();
+        HousingProcessor.resetInstance();
+    }
+
+    // Runs every call on its own client thread, all released at once
+    private List<Object> concurrently(List<Callable> calls) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (Callable call : calls) {
+            futures.add(clients.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        start.countDown();
+        List<Object> results = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private interface Callable {
+        Object call();
+    }
+
+    /**
+     * Test case 1: A burst of misses is answered in few batches, with one read of the data and the direct answers
+     */
+    @Test
+    public void testBurstIsBatched() throws Exception {
+        QueryExecutor direct = new QueryExecutor(() -> null, () -> null, () -> housingProcessor);
+        Map<String, Object> expected = new HashMap<>();
+        for (MenuQuery query : HOUSING_QUERIES) {
+            for (int zipCode : zipCodes) {
+                expected.put(query + " " + zipCode, direct.execute(query, zipCode));
+            }
+        }
+        housingProcessor.clearCache();
+        reads.set(0);
+        MicroBatchingQueryExecutor batching = new MicroBatchingQueryExecutor(() -> null, () -> null,
+                () -> housingProcessor, 50_000, MicroBatchingQueryExecutor.DEFAULT_MAX_BATCH_SIZE);
+
+        List<Callable> calls = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for (MenuQuery query : HOUSING_QUERIES) {
+            for (int zipCode : zipCodes) {
+                calls.add(() -> batching.execute(query, zipCode));
+                keys.add(query + " " + zipCode);
+            }
+        }
+        List<Object> results = concurrently(calls);
+
+        for (int i = 0; i < keys.size(); i++) {
+            assertSame(expected.get(keys.get(i)).getClass(), results.get(i).getClass());
+            if (results.get(i) instanceof HousingProcessor.PropertyValueSummary) {
+                assertEquals(expected.get(keys.get(i)).toString(), results.get(i).toString(), keys.get(i));
+            } else {
+                assertEquals(expected.get(keys.get(i)), results.get(i), keys.get(i));
+            }
+        }
+        assertEquals(1, reads.get());
+        assertEquals(1, batching.getBatchCount());
+        batching.close();
+    }
+
+    /**
+     * Test case 2: Identical requests in one window share one answer; executeAll batches its ZIP codes together
+     */
+    @Test
+    public void testCoalescing() throws Exception {
+        MicroBatchingQueryExecutor batching = new MicroBatchingQueryExecutor(() -> null, () -> null,
+                () -> housingProcessor, 200_000, MicroBatchingQueryExecutor.DEFAULT_MAX_BATCH_SIZE);
+        List<Callable> calls = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            calls.add(() -> batching.execute(MenuQuery.PROPERTY_VALUE_SUMMARY, 19104));
+        }
+
+        List<Object> results = concurrently(calls);
+
+        for (Object result : results) {
+            assertSame(results.get(0), result);
+        }
+        assertEquals(15, batching.getCoalescedCount());
+        assertEquals(1, batching.getBatchCount());
+
+        housingProcessor.clearCache();
+        Map<Integer, Object> all = batching.executeAll(MenuQuery.AVERAGE_LIVABLE_AREA, 19101, 19102, 19101, 19103);
+        assertEquals(List.of(19101, 19102, 19103), new ArrayList<>(all.keySet()));
+        assertEquals(2, batching.getBatchCount());
+        batching.close();
+    }
+
+    /**
+     * Test case 3: Cached answers and other options skip the window; failures reach the caller
+     */
+    @Test
+    public void testUnbatchedPathsAndErrors() {
+        MicroBatchingQueryExecutor batching = new MicroBatchingQueryExecutor(() -> {
+            throw new IllegalStateException("The violations data could not be loaded.");
+        }, () -> null, () -> housingProcessor, 5_000_000, MicroBatchingQueryExecutor.DEFAULT_MAX_BATCH_SIZE);
+        housingProcessor.getAverageMarketValue(19104);
+
+        // A 5 s window that was waited for would fail the time limit
+        long start = System.nanoTime();
+        assertEquals(housingProcessor.getAverageMarketValue(19104), batching.execute(MenuQuery.AVERAGE_MARKET_VALUE, 19104));
+        assertThrows(IllegalStateException.class, () -> batching.execute(MenuQuery.MOST_COMMON_VIOLATION, 19104));
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        assertEquals(0, batching.getBatchCount());
+
+        MicroBatchingQueryExecutor failing = new MicroBatchingQueryExecutor(() -> null, () -> null, () -> {
+            throw new IllegalStateException("The properties data could not be loaded.");
+        });
+        assertThrows(IllegalStateException.class, () -> failing.execute(MenuQuery.AVERAGE_MARKET_VALUE, 19104));
+        assertThrows(IllegalArgumentException.class, () -> failing.executeAll(MenuQuery.AVERAGE_MARKET_VALUE, (int[]) null));
+        assertThrows(IllegalArgumentException.class, () -> new MicroBatchingQueryExecutor(() -> null, () -> null,
+                () -> housingProcessor, 0, 1));
+        batching.close();
+        failing.close();
+    }
+
+    /**
+     * Test case 4: Queries after close() are answered directly instead of waiting for a batch that never runs
+     */
+    @Test
+    public void testExecuteAfterClose() throws Exception {
+        MicroBatchingQueryExecutor batching = new MicroBatchingQueryExecutor(() -> null, () -> null,
+                () -> housingProcessor, 50_000, MicroBatchingQueryExecutor.DEFAULT_MAX_BATCH_SIZE);
+        batching.close();
+        batching.close();
+
+        Future<Object> answer = clients.submit(() -> batching.execute(MenuQuery.AVERAGE_LIVABLE_AREA, 19104));
+        assertEquals(housingProcessor.getAverageLivableArea(19104), answer.get(5, TimeUnit.SECONDS));
+        housingProcessor.clearCache();
+        Map<Integer, Object> all = batching.executeAll(MenuQuery.AVERAGE_MARKET_VALUE, 19101, 19102);
+        assertEquals(housingProcessor.getAverageMarketValue(19101), all.get(19101));
+        assertEquals(housingProcessor.getAverageMarketValue(19102), all.get(19102));
+        assertEquals(0, batching.getBatchCount());
+    }
+}
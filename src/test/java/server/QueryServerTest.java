@@ -0,0 +1,193 @@
+package server;
+
+import common.House;
+import common.ParkingViolation;
+import data.HousingReader;
+import loadtest.HttpQueryExecutor;
+import loadtest.LoadTestResult;
+import loadtest.QueryLoadTest;
+import loadtest.QueryMix;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import processor.DataSnapshot;
+import processor.HousingProcessor;
+import processor.ParkingViolationProcessor;
+import processor.PopulationProcessor;
+import processor.QueryExecutor;
+
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for QueryServer's JSON endpoints, its error answers, and a short load run over HTTP.
+ */
+public class QueryServerTest {
+
+    private static final int[] ZIP_CODES = {19103, 19104};
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HousingProcessor housingProcessor;
+    private QueryServer server;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        List<House> houses = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            houses.add(new House(ZIP_CODES[i % 2], 1000 * i, 10 * i));
+        }
+        Map<Integer, Integer> populations = new HashMap<>();
+        populations.put(19103, 100);
+        populations.put(19104, 200);
+        List<ParkingViolation> violations = new ArrayList<>();
+        violations.add(new ParkingViolation("T001", "ABC123", "2013-05-20T09:00:00Z", 19104, "METER EXPIRED", 36, "PA"));
+        violations.add(new ParkingViolation("T002", "DEF456", "2013-05-20T09:00:00Z", 19103, "DOUBLE PARKED", 51, "PA"));
+
+        HousingProcessor.resetInstance();
+        housingProcessor = HousingProcessor.getInstance(new HousingReader("unused.csv") {
+            @Override
+            public List<House> readData() {
+                return houses;
+            }
+        }, () -> populations);
+        server = new QueryServer(new QueryExecutor(new ParkingViolationProcessor(violations, populations),
+                new PopulationProcessor<>(populations), housingProcessor), 0);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+        HousingProcessor.resetInstance();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return get(server, path);
+    }
+
+    private HttpResponse<String> get(QueryServer target, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + target.getPort() + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JSONObject json(String path) throws Exception {
+        HttpResponse<String> response = get(path);
+        assertEquals(200, response.statusCode(), response.body());
+        return (JSONObject) JSONValue.parse(response.body());
+    }
+
+    /**
+     * Test case 1: Every menu option answers as JSON, for one ZIP code or several
+     */
+    @Test
+    public void testQueries() throws Exception {
+        assertEquals(300L, json("/query/1").get("result"));
+        assertEquals(0.18, (Double) ((Map<?, ?>) json("/query/2").get("result")).get("19104"), 1e-9);
+
+        Map<?, ?> averages = (Map<?, ?>) json("/query/3?zip=19103,19104").get("results");
+        assertEquals(2, averages.size());
+        assertEquals((long) housingProcessor.getAverageMarketValue(19104), averages.get("19104"));
+        assertEquals((long) housingProcessor.getAverageLivableArea(19103),
+                ((Map<?, ?>) json("/query/4?zip=19103").get("results")).get("19103"));
+        Map<?, ?> summary = (Map<?, ?>) ((Map<?, ?>) json("/query/6?zip=19104").get("results")).get("19104");
+        assertEquals((long) housingProcessor.getPropertyValueSummary(19104).getMedian(), summary.get("median"));
+        assertEquals("DOUBLE PARKED", ((Map<?, ?>) json("/query/7?zip=19103").get("results")).get("19103"));
+        assertEquals(7, ((List<?>) JSONValue.parse(get("/queries").body())).size());
+        assertTrue(get("/metrics").body().contains("housing.getAverageMarketValue"));
+    }
+
+    /**
+     * Test case 2: Bad requests, unknown paths, other methods and unloaded data get error answers
+     */
+    @Test
+    public void testErrors() throws Exception {
+        assertEquals(400, get("/query/3").statusCode());
+        assertEquals(400, get("/query/3?zip=1910").statusCode());
+        assertEquals(400, get("/query/1?zip=19104").statusCode());
+        // HttpClient rejects a malformed escape before sending it; URL passes it through
+        HttpURLConnection malformed = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + "/query/3?zip=%G1").openConnection();
+        assertEquals(400, malformed.getResponseCode());
+        malformed.disconnect();
+        assertEquals(404, get("/query/9").statusCode());
+        assertEquals(404, get("/nothing").statusCode());
+        HttpResponse<String> post = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/query/1"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, post.statusCode());
+        assertTrue(((JSONObject) JSONValue.parse(post.body())).containsKey("error"));
+
+        QueryServer unloaded = new QueryServer(new QueryExecutor(() -> {
+            throw new IllegalStateException("The violations data could not be loaded.");
+        }, () -> null, () -> null), 0);
+        unloaded.start();
+        try {
+            HttpResponse<String> response = get(unloaded, "/query/7?zip=19104");
+            assertEquals(503, response.statusCode());
+            assertTrue(response.body().contains("could not be loaded"));
+        } finally {
+            unloaded.stop(0);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new QueryServer(null, 0));
+    }
+
+    /**
+     * Test case 3: Concurrent clients over HTTP get answers without errors
+     */
+    @Test
+    public void testLoadOverHttp() throws Exception {
+        QueryLoadTest loadTest = new QueryLoadTest(new HttpQueryExecutor("http://localhost:" + server.getPort()),
+                ZIP_CODES, QueryMix.uniform(), 8);
+
+        // The first requests open the connections and load the HTTP classes
+        loadTest.run(1000);
+        LoadTestResult result = loadTest.run(500);
+
+        assertEquals(0, result.getErrors(), result.toString());
+        assertTrue(result.getQueryCount() > 100, result.toString());
+    }
+
+    /**
+     * Test case 4: Cached answers follow the data version when a new snapshot is published
+     */
+    @Test
+    public void testNewSnapshot() throws Exception {
+        AtomicReference<DataSnapshot> current = new AtomicReference<>(snapshot(1, 300));
+        QueryServer versioned = new QueryServer(new QueryExecutor(current::get), 0);
+        versioned.start();
+        try {
+            assertEquals("{\"option\":1,\"result\":300}", get(versioned, "/query/1").body());
+            assertEquals("{\"version\":1}", get(versioned, "/version").body());
+
+            current.set(snapshot(2, 500));
+
+            assertEquals("{\"option\":1,\"result\":500}", get(versioned, "/query/1").body());
+            assertEquals("{\"version\":2}", get(versioned, "/version").body());
+        } finally {
+            versioned.stop(0);
+        }
+    }
+
+    private static DataSnapshot snapshot(long version, int population) {
+        Map<Integer, Integer> populations = new HashMap<>();
+        populations.put(19104, population);
+        return new DataSnapshot(version, populations, new ParkingViolationProcessor(new ArrayList<>(), populations),
+                HousingProcessor.create(new HousingReader("unused.csv") {
+                    @Override
+                    public List<House> readData() {
+                        return new ArrayList<>();
+                    }
+                }, () -> populations));
+    }
+}
@@ -0,0 +1,64 @@
+package sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for BloomFilter.
+ */
+public class BloomFilterTest {
+
+    /**
+     * Test case 1: Everything added is reported as possibly present, and add() reports repeats
+     */
+    @Test
+    public void testNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        int reportedNew = 0;
+        for (long ticket = 2_905_938; ticket < 2_915_938; ticket++) {
+            if (filter.add(ticket)) {
+                reportedNew++;
+            }
+        }
+        // A few new tickets may collide with earlier ones, but nearly all are reported as new
+        assertTrue(reportedNew > 9_800, Integer.toString(reportedNew));
+        for (long ticket = 2_905_938; ticket < 2_915_938; ticket++) {
+            assertTrue(filter.mightContain(ticket));
+            assertFalse(filter.add(ticket));
+        }
+    }
+
+    /**
+     * Test case 2: The false-positive rate stays close to the one the filter was sized for
+     */
+    @Test
+    public void testFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (long ticket = 0; ticket < 100_000; ticket++) {
+            filter.add(ticket);
+        }
+        int falsePositives = 0;
+        for (long ticket = 1_000_000; ticket < 1_100_000; ticket++) {
+            if (filter.mightContain(ticket)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, falsePositives + " false positives in 100000");
+        assertEquals(0.01, filter.getExpectedFalsePositiveRate(), 0.005);
+        assertEquals(7, filter.getHashCount());
+        // About 9.6 bits per item
+        assertTrue(filter.getSizeBytes() < 125_000);
+    }
+
+    /**
+     * Test case 3: Invalid sizes are rejected
+     */
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(-1, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+        assertFalse(new BloomFilter(0, 0.01).mightContain(42));
+    }
+}
@@ -0,0 +1,67 @@
+package sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for HyperLogLog.
+ */
+public class HyperLogLogTest {
+
+    private static void assertWithinError(long expected, long estimate, double relativeError) {
+        double error = Math.abs(estimate - expected) / (double) expected;
+        assertTrue(error <= relativeError,
+                "expected ~" + expected + " but estimated " + estimate + " (" + error * 100 + "% off)");
+    }
+
+    /**
+     * Test case 1: Estimates stay within 3 standard errors from tens to a million distinct items
+     */
+    @Test
+    public void testAccuracyAcrossCardinalities() {
+        for (int distinct : new int[]{10, 100, 1_000, 10_000, 100_000, 1_000_000}) {
+            HyperLogLog sketch = new HyperLogLog(12);
+            for (int i = 0; i < distinct; i++) {
+                sketch.add("PLATE" + i);
+                // Duplicates must not change the estimate
+                sketch.add("PLATE" + (i / 2));
+            }
+            assertWithinError(distinct, sketch.estimate(), 3 * sketch.getStandardError());
+        }
+    }
+
+    /**
+     * Test case 2: Merging gives the estimate of the union
+     */
+    @Test
+    public void testMergeIsUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (int i = 0; i < 60_000; i++) {
+            first.add("P" + i);
+        }
+        for (int i = 40_000; i < 100_000; i++) {
+            second.add("P" + i);
+        }
+
+        HyperLogLog union = first.copy();
+        union.merge(second);
+
+        assertWithinError(100_000, union.estimate(), 3 * union.getStandardError());
+        assertWithinError(60_000, first.estimate(), 3 * first.getStandardError());
+    }
+
+    /**
+     * Test case 3: Empty sketch, bad precision and mismatched merges
+     */
+    @Test
+    public void testEdgeCases() {
+        assertEquals(0, new HyperLogLog(10).estimate());
+        assertEquals(1024, new HyperLogLog(10).getSizeBytes());
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(17));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(10).merge(new HyperLogLog(12)));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(10).add(null));
+    }
+}
@@ -0,0 +1,102 @@
+package sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SpaceSavingSketch.
+ */
+public class SpaceSavingSketchTest {
+
+    /**
+     * Test case 1: Exact while the number of distinct items fits in the sketch
+     */
+    @Test
+    public void testExactBelowCapacity() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(10);
+        sketch.add("A");
+        sketch.add("B", 5);
+        sketch.add("A");
+        sketch.add("C", 3);
+
+        List<SpaceSavingSketch.Estimate<String>> top = sketch.top(10);
+        assertEquals(3, top.size());
+        assertEquals("B", top.get(0).getItem());
+        assertEquals(5, top.get(0).getCount());
+        assertEquals("C", top.get(1).getItem());
+        assertEquals("A", top.get(2).getItem());
+        assertEquals(0, top.get(2).getError());
+        assertEquals(10, sketch.getTotalWeight());
+        assertEquals(0, sketch.estimate("Z"));
+    }
+
+    /**
+     * Test case 2: Error bounds hold on a skewed stream much larger than the sketch
+     */
+    @Test
+    public void testBoundsOnSkewedStream() {
+        SpaceSavingSketch<Integer> sketch = new SpaceSavingSketch<>(50);
+        Map<Integer, Long> exact = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            // Roughly Zipf-distributed over 10,000 items
+            int item = (int) Math.floor(Math.pow(10_000, random.nextDouble()));
+            long weight = 1 + random.nextInt(3);
+            sketch.add(item, weight);
+            exact.merge(item, weight, Long::sum);
+        }
+
+        long maxError = sketch.getMaxError();
+        for (SpaceSavingSketch.Estimate<Integer> estimate : sketch.top(50)) {
+            long truth = exact.get(estimate.getItem());
+            assertTrue(estimate.getCount() >= truth);
+            assertTrue(estimate.getGuaranteedCount() <= truth);
+            assertTrue(estimate.getCount() - truth <= maxError);
+        }
+        // Every item heavier than W / m must be tracked
+        for (Map.Entry<Integer, Long> entry : exact.entrySet()) {
+            if (entry.getValue() > maxError) {
+                assertTrue(sketch.estimate(entry.getKey()) >= entry.getValue(), "missing " + entry.getKey());
+            }
+        }
+        assertEquals(50, sketch.size());
+    }
+
+    /**
+     * Test case 3: Invalid arguments are rejected
+     */
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSavingSketch<String>(0));
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(4);
+        assertThrows(IllegalArgumentException.class, () -> sketch.add(null));
+        assertThrows(IllegalArgumentException.class, () -> sketch.add("A", -1));
+        assertThrows(IllegalArgumentException.class, () -> sketch.top(-1));
+    }
+
+    /**
+     * Test case 4: A zero weight neither evicts a tracked item nor starts tracking a new one
+     */
+    @Test
+    public void testZeroWeightIsIgnored() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(2);
+        sketch.add("A", 5);
+        sketch.add("B", 3);
+        sketch.add("C", 0);
+
+        assertEquals(2, sketch.size());
+        assertEquals(8, sketch.getTotalWeight());
+        assertEquals(3, sketch.estimate("B"));
+        assertEquals(0, sketch.top(2).get(1).getError());
+        assertEquals("B", sketch.top(2).get(1).getItem());
+
+        sketch.add("A", 0);
+        assertEquals(5, sketch.estimate("A"));
+    }
+}
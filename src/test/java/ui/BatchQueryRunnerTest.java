@@ -0,0 +1,129 @@
+package ui;
+
+import common.ParkingViolation;
+import data.CachingHousingReader;
+import data.CachingPopulationReader;
+import data.ParkingViolationCSVReader;
+import data.PopulationFileReader;
+import data.PopulationReader;
+import data.SyntheticDataGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import processor.HousingProcessor;
+import processor.MenuQuery;
+import processor.ParkingViolationProcessor;
+import processor.PopulationProcessor;
+import processor.QueryExecutor;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for BatchQueryRunner: parallel answers in input order, and the output format.
+ */
+public class BatchQueryRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private QueryExecutor executor;
+    private int[] zipCodes;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        String properties = tempDir.resolve("properties.csv").toString();
+        new SyntheticDataGenerator(3, 0).writeProperties(3000, properties);
+        PopulationReader populationReader = new CachingPopulationReader(new PopulationFileReader("population.txt"));
+        Map<Integer, Integer> populations = populationReader.readData();
+        List<ParkingViolation> violations = new ParkingViolationCSVReader("parking.csv").readData();
+        HousingProcessor.resetInstance();
+        executor = new QueryExecutor(new ParkingViolationProcessor(violations, populations),
+                new PopulationProcessor<>(populations),
+                HousingProcessor.getInstance(new CachingHousingReader(properties), populationReader));
+        zipCodes = populations.keySet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        HousingProcessor.resetInstance();
+    }
+
+    private String run(BatchQueryRunner runner, String queries) throws Exception {
+        StringWriter out = new StringWriter();
+        runner.run(new BufferedReader(new StringReader(queries)), out);
+        return out.toString();
+    }
+
+    /**
+     * Test case 1: Many threads give the same answers, in the same order, as one thread
+     */
+    @Test
+    public void testParallelMatchesSequential() throws Exception {
+        Random random = new Random(5);
+        StringBuilder queries = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            int option = 3 + random.nextInt(5);
+            queries.append(option).append(' ').append(zipCodes[random.nextInt(zipCodes.length)]).append('\n');
+            if (i % 500 == 0) {
+                queries.append("1\n");
+            }
+        }
+
+        String sequential = run(new BatchQueryRunner(executor, 1), queries.toString());
+        String parallel = run(new BatchQueryRunner(executor, 8), queries.toString());
+
+        assertEquals(sequential, parallel);
+        String[] lines = parallel.split("\n");
+        assertEquals(3006, lines.length);
+        String[] queryLines = queries.toString().split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            assertTrue(lines[i].startsWith(queryLines[i].replace(' ', '\t')), lines[i] + " for " + queryLines[i]);
+        }
+    }
+
+    /**
+     * Test case 2: Each option's answer format; comments and blank lines are skipped
+     */
+    @Test
+    public void testFormats() throws Exception {
+        String output = run(new BatchQueryRunner(executor, 4), "# population\n1\n\n2\n3 19104\n6 19104\n7 19104\n");
+        String[] lines = output.split("\n");
+
+        assertEquals(5, lines.length);
+        assertEquals("1\t\t1526206", lines[0]);
+        assertTrue(lines[1].matches("2\t\t(\\d{5}=\\d+\\.\\d{4} ?)+"), lines[1]);
+        assertTrue(lines[2].matches("3\t19104\t\\d+"), lines[2]);
+        assertTrue(lines[3].matches("6\t19104\t\\d+ \\d+ \\d+"), lines[3]);
+        assertEquals("7\t19104\t" + executor.execute(MenuQuery.MOST_COMMON_VIOLATION, 19104), lines[4]);
+    }
+
+    /**
+     * Test case 3: Bad lines and failing processors give ERROR lines without stopping the batch
+     */
+    @Test
+    public void testErrors() throws Exception {
+        QueryExecutor failing = new QueryExecutor(() -> {
+            throw new IllegalStateException("The violations data could not be loaded.");
+        }, () -> null, () -> null);
+
+        String output = run(new BatchQueryRunner(failing, 2), "9\nx 19104\n3\n4 1910\n1 19104\n7 19104\n");
+        String[] lines = output.split("\n");
+
+        assertEquals("9\t\tERROR\tunknown menu option", lines[0]);
+        assertEquals("x\t\tERROR\tunknown menu option", lines[1]);
+        assertEquals("3\t\tERROR\texpected a 5-digit ZIP code", lines[2]);
+        assertEquals("4\t1910\tERROR\texpected a 5-digit ZIP code", lines[3]);
+        assertEquals("1\t19104\tERROR\toption 1 takes no ZIP code", lines[4]);
+        assertEquals("7\t19104\tERROR\tThe violations data could not be loaded.", lines[5]);
+        assertThrows(IllegalArgumentException.class, () -> new BatchQueryRunner(executor, 0));
+    }
+}